@@ -0,0 +1,126 @@
+package uk.nhs.nhsbsa.employeeskills.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialisation of the responses, with the {@link ObjectMapper} Spring Boot builds. An
+ * employee response is measured with a number of skills, a skill response with a number of
+ * employees of five skills each in {@code empSkills}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  private static final String[] LEVELS = {"Expert", "Practitioner", "Working", "Awareness"};
+
+  private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+  @State(Scope.Benchmark)
+  public static class EmployeeResponseState {
+
+    @Param({"0", "5", "20", "100"})
+    private int skills;
+
+    private EmployeeResponse response;
+
+    @Setup
+    public void build() {
+      Set<SkillDetails> skillDetails = new LinkedHashSet<>();
+      for (int i = 0; i < skills; i++) {
+        skillDetails.add(new SkillDetails((long) i + 1, "Skill" + i, LEVELS[i % LEVELS.length]));
+      }
+      response =
+          EmployeeResponse.builder()
+              .empId("1234")
+              .givenName("given")
+              .familyName("family")
+              .dateOfBirth("2016-04-01")
+              .skills(skillDetails)
+              .message("Successfully fetched data")
+              .status(HttpStatus.OK.value())
+              .responseStatus(HttpStatus.OK)
+              .build();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SkillsResponseState {
+
+    @Param({"0", "10", "100"})
+    private int holders;
+
+    private SkillsResponse response;
+
+    @Setup
+    public void build() {
+      Set<Employee> employees = new HashSet<>();
+      for (int i = 0; i < holders; i++) {
+        Employee employee =
+            Employee.builder()
+                .empId((long) i + 1)
+                .givenName("given" + i)
+                .familyName("family" + i)
+                .dateOfBirth("2016-04-01")
+                .empSkillsSet(new HashSet<>())
+                .build();
+        for (int j = 0; j < 5; j++) {
+          SkillLevel level = SkillLevel.fromLabel(LEVELS[j % LEVELS.length]);
+          Skills skill =
+              Skills.builder().skillId((long) j + 1).skill("Skill" + j).level(level).build();
+          employee.getEmpSkillsSet().add(EmployeeSkill.of(employee, skill, level));
+        }
+        employees.add(employee);
+      }
+      response =
+          SkillsResponse.builder()
+              .skillId("1")
+              .skill("Skill0")
+              .level("Expert")
+              .empSkills(employees)
+              .message("Successfully fetched data")
+              .status(HttpStatus.OK.value())
+              .responseStatus(HttpStatus.OK)
+              .build();
+    }
+  }
+
+  @Benchmark
+  public byte[] employeeResponse(final EmployeeResponseState state)
+      throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsBytes(state.response);
+  }
+
+  @Benchmark
+  public byte[] skillsResponse(final SkillsResponseState state) throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsBytes(state.response);
+  }
+}
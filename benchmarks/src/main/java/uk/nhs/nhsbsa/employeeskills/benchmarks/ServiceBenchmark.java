@@ -0,0 +1,166 @@
+package uk.nhs.nhsbsa.employeeskills.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.ISkillRegistrationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The blocking services against an embedded H2 database, without the web layer and without the
+ * response cache in front of the fetches. The database is seeded with {@value #EMPLOYEES}
+ * employees holding {@value #SKILLS_PER_EMPLOYEE} of {@value #SKILLS} skills each.
+ *
+ * <p>Each benchmark runs with the service timers and the Hibernate statistics each on and off, so
+ * the overhead of either shows on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+  private static final int EMPLOYEES = 10_000;
+
+  private static final int SKILLS = 50;
+
+  private static final int SKILLS_PER_EMPLOYEE = 5;
+
+  private static final String[] LEVELS = {"Expert", "Practitioner", "Working", "Awareness"};
+
+  @Param({"true", "false"})
+  private boolean serviceTimers;
+
+  @Param({"true", "false"})
+  private boolean hibernateStatistics;
+
+  private ConfigurableApplicationContext context;
+
+  private IEmployeeRegistrationService employeeService;
+
+  private ISkillRegistrationService skillService;
+
+  private final List<Long> empIds = new ArrayList<>();
+
+  private final List<Long> skillIds = new ArrayList<>();
+
+  private final Random random = new Random(42);
+
+  private long additions;
+
+  @Setup
+  public void start() {
+    context =
+        new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+            .run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN",
+                "--service.metrics.enabled=" + serviceTimers,
+                "--spring.jpa.properties.hibernate.generate_statistics=" + hibernateStatistics);
+    employeeService = context.getBean(IEmployeeRegistrationService.class);
+    skillService = context.getBean(ISkillRegistrationService.class);
+
+    for (int i = 0; i < SKILLS; i++) {
+      skillIds.add(
+          Long.valueOf(
+              skillService
+                  .registerSkills(
+                      SkillsRegistrationRequest.builder()
+                          .skill("Skill" + i)
+                          .level(LEVELS[i % LEVELS.length])
+                          .build())
+                  .getSkillId()));
+    }
+    for (int i = 0; i < EMPLOYEES; i++) {
+      Long empId = Long.valueOf(employeeService.registerEmployee(employee(i)).getEmpId());
+      List<Long> held = new ArrayList<>();
+      while (held.size() < SKILLS_PER_EMPLOYEE) {
+        Long skillId = skillIds.get(random.nextInt(SKILLS));
+        if (!held.contains(skillId)) {
+          held.add(skillId);
+        }
+      }
+      employeeService.assignSkillsToEmployee(
+          empId, EmployeeSkillsAssignmentRequest.builder().skillIds(held).build());
+      empIds.add(empId);
+    }
+  }
+
+  @TearDown
+  public void stop() {
+    context.close();
+  }
+
+  @Benchmark
+  public EmployeeResponse registerEmployee() {
+    return employeeService.registerEmployee(employee(random.nextInt(EMPLOYEES)));
+  }
+
+  @Benchmark
+  public EmployeeResponse fetchEmployeeDetails() {
+    return employeeService.fetchEmployeeDetails(empIds.get(random.nextInt(EMPLOYEES)));
+  }
+
+  /**
+   * Walks every employee for one skill before moving on to the next, so the link is new until
+   * each employee holds every skill, after about {@value #EMPLOYEES} times {@value #SKILLS} calls.
+   * Each skill is linked at the level it was registered with, so a repeated link changes nothing.
+   */
+  @Benchmark
+  public EmployeeResponse addSkillsToEmployee() {
+    long addition = additions++;
+    int skill = (int) (addition / EMPLOYEES % SKILLS);
+    return employeeService.addSkillsToEmployee(
+        empIds.get((int) (addition % EMPLOYEES)),
+        skillIds.get(skill),
+        LEVELS[skill % LEVELS.length]);
+  }
+
+  /** A skill held by about a tenth of the employees, so the delete is refused. */
+  @Benchmark
+  public SkillsResponse deleteRegisteredSkill_whenHeld() {
+    return skillService.deleteRegisteredSkill(skillIds.get(random.nextInt(SKILLS)));
+  }
+
+  /** Registers a skill nobody holds and deletes it again. */
+  @Benchmark
+  public SkillsResponse deleteRegisteredSkill_whenNotHeld() {
+    SkillsResponse registered =
+        skillService.registerSkills(
+            SkillsRegistrationRequest.builder().skill("Transient").level("Working").build());
+    return skillService.deleteRegisteredSkill(Long.valueOf(registered.getSkillId()));
+  }
+
+  private static EmployeeRegistrationRequest employee(final int i) {
+    return EmployeeRegistrationRequest.builder()
+        .givenName("given" + i)
+        .familyName("family" + i)
+        .dateOfBirth("2016-04-01")
+        .build();
+  }
+}
@@ -0,0 +1,99 @@
+package uk.nhs.nhsbsa.employeeskills.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import uk.nhs.nhsbsa.employeeskills.config.Config;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+
+import javax.validation.ConstraintViolation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the request bodies with the validator of {@link Config}, for valid requests
+ * and for invalid ones, whose messages are interpolated from FieldValidationMessages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+  private LocalValidatorFactoryBean validator;
+
+  private final EmployeeRegistrationRequest validEmployee =
+      EmployeeRegistrationRequest.builder()
+          .givenName("given")
+          .familyName("family")
+          .dateOfBirth("2016-04-01")
+          .build();
+
+  private final EmployeeRegistrationRequest invalidEmployee =
+      EmployeeRegistrationRequest.builder()
+          .givenName("given name")
+          .dateOfBirth("2016-13-01")
+          .build();
+
+  private final SkillsRegistrationRequest validSkill =
+      SkillsRegistrationRequest.builder().skill("Java").level("Expert").build();
+
+  private EmployeeSkillsAssignmentRequest validAssignment;
+
+  @Setup
+  public void start() {
+    validator = new Config().getValidator();
+    validator.afterPropertiesSet();
+
+    List<Long> skillIds = new ArrayList<>();
+    for (long skillId = 1; skillId <= 100; skillId++) {
+      skillIds.add(skillId);
+    }
+    validAssignment =
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(skillIds)
+            .mode(EmployeeSkillsAssignmentRequest.MODE_REPLACE)
+            .build();
+  }
+
+  @TearDown
+  public void stop() {
+    validator.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<EmployeeRegistrationRequest>> employeeRegistration_valid() {
+    return validator.validate(validEmployee);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<EmployeeRegistrationRequest>> employeeRegistration_invalid() {
+    return validator.validate(invalidEmployee);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<SkillsRegistrationRequest>> skillsRegistration_valid() {
+    return validator.validate(validSkill);
+  }
+
+  /** One hundred skillIds, each validated by its type argument constraints. */
+  @Benchmark
+  public Set<ConstraintViolation<EmployeeSkillsAssignmentRequest>> skillsAssignment_valid() {
+    return validator.validate(validAssignment);
+  }
+}
@@ -2,8 +2,13 @@ package uk.nhs.nhsbsa.employeeskills;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is configured by ReactiveConfig for the reactive stack only; the auto-configured
+// transaction manager would also stop Boot from creating the JPA one.
+@SpringBootApplication(
+    exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class BsaEmployeeSkillsApplication {
 
   public static void main(final String[] args) {
@@ -0,0 +1,97 @@
+package uk.nhs.nhsbsa.employeeskills.cache;
+
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
+
+/** A response body already serialised to JSON, with the status and ETag it is sent with. */
+@Value
+public class CachedResponse {
+
+  public static final long NO_VERSION = -1L;
+
+  byte[] body;
+  HttpStatus status;
+
+  /** False for a "does not exist" answer, which is kept for a shorter time. */
+  boolean found;
+
+  /** The strong ETag of the row version the body was read from, null for a missing row. */
+  String eTag;
+
+  public static String eTagOf(final long version) {
+    return "\"" + version + '"';
+  }
+
+  /** The ETag of an employee, both of its versions separated by a dot; null without a version. */
+  public static String eTagOf(final EmployeeVersion version) {
+    if (version == null) {
+      return null;
+    }
+    return "\"" + version.getVersion() + '.' + version.getSkillsVersion() + '"';
+  }
+
+  /**
+   * The version an If-Match header makes a write conditional on, null without the header or for
+   * {@code *}. Only a single strong tag can name a version; anything else, a weak tag included,
+   * gives {@link #NO_VERSION}, which no row has, so the write is refused.
+   */
+  public static Long versionOf(final String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"') {
+      try {
+        return Long.parseLong(tag.substring(1, tag.length() - 1));
+      } catch (NumberFormatException e) {
+        return NO_VERSION;
+      }
+    }
+    return NO_VERSION;
+  }
+
+  /**
+   * The version of the employee row an If-Match header makes an update of the details conditional
+   * on, as {@link #versionOf(String)} reads it from an ETag of {@link #eTagOf(EmployeeVersion)}.
+   * The skills part is checked for its form only: the details cannot conflict with a change of
+   * the skills held, which the update leaves as they are.
+   */
+  public static Long employeeVersionOf(final String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    int dot = ifMatch.indexOf('.');
+    if (dot < 0 || versionOf('"' + ifMatch.substring(dot + 1)) < 0) {
+      return NO_VERSION;
+    }
+    return versionOf(ifMatch.substring(0, dot) + '"');
+  }
+
+  /** The body with its status, and with the ETag of the version when there is one. */
+  public static <T> ResponseEntity<T> toResponseEntity(
+      final T body, final HttpStatus status, final Long version) {
+    return toResponseEntity(body, status, version != null ? eTagOf(version) : null);
+  }
+
+  /** The body with its status, and with the ETag when there is one. */
+  public static <T> ResponseEntity<T> toResponseEntity(
+      final T body, final HttpStatus status, final String eTag) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+    if (eTag != null) {
+      response.eTag(eTag);
+    }
+    return response.body(body);
+  }
+
+  public ResponseEntity<byte[]> toResponseEntity() {
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+    if (eTag != null) {
+      response.eTag(eTag);
+    }
+    return response.body(body);
+  }
+}
@@ -0,0 +1,264 @@
+package uk.nhs.nhsbsa.employeeskills.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeUpdatedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.index.SkillBitmapIndex;
+import uk.nhs.nhsbsa.employeeskills.response.CacheStatistics;
+import uk.nhs.nhsbsa.employeeskills.response.CacheStatsResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded caches of the serialised {@code GET /employee/{empId}} and {@code GET /skills/{skillId}}
+ * responses, including "does not exist" answers, evicted by size and TTL.
+ *
+ * <p>A missing entry is published as an incomplete future that the first caller completes with the
+ * database read, outside of any lock, while concurrent callers for the same id wait on the future.
+ * A request on a virtual thread therefore never blocks on the database while holding a monitor,
+ * which would pin its carrier thread. Entries are invalidated by the events the services publish
+ * after commit; an invalidation removes a load in progress as well, and the value it completes
+ * with is then never cached, so a stale response is never left behind. An employee response
+ * embeds its skills, so a saved skill also invalidates every employee holding it, as listed by the
+ * {@link SkillBitmapIndex}.
+ *
+ * <p>Each entry keeps the ETag of the row version it was read from, so a conditional GET of a
+ * cached row is answered with 304 without a database read.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+  public static final String EMPLOYEES = "employees";
+
+  public static final String SKILLS = "skills";
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private SkillBitmapIndex skillBitmapIndex;
+
+  private final AsyncCache<Long, CachedResponse> employees;
+
+  private final AsyncCache<Long, CachedResponse> skills;
+
+  public ResponseCache(
+      @Value("${response-cache.maximum-size:100000}") final long maximumSize,
+      @Value("${response-cache.ttl-seconds:600}") final long ttlSeconds,
+      @Value("${response-cache.missing-ttl-seconds:30}") final long missingTtlSeconds) {
+    this.employees = build(maximumSize, ttlSeconds, missingTtlSeconds);
+    this.skills = build(maximumSize, ttlSeconds, missingTtlSeconds);
+  }
+
+  public CachedResponse fetchEmployee(final Long empId, final Supplier<EmployeeResponse> loader) {
+    return fetch(
+        employees,
+        empId,
+        () -> {
+          EmployeeResponse response = loader.get();
+          return serialise(
+              response,
+              response.getResponseStatus(),
+              response.getEmpId() != null,
+              CachedResponse.eTagOf(response.getVersion()));
+        });
+  }
+
+  /**
+   * @return the ETag of the cached response of the employee, null when none is cached, so a
+   *     conditional GET of a cached employee needs no database read
+   */
+  public String cachedEmployeeETag(final Long empId) {
+    return cachedETag(employees, empId);
+  }
+
+  public CachedResponse fetchSkill(final Long skillId, final Supplier<SkillsResponse> loader) {
+    return fetch(
+        skills,
+        skillId,
+        () -> {
+          SkillsResponse response = loader.get();
+          return serialise(
+              response,
+              response.getResponseStatus(),
+              response.getSkillId() != null,
+              response.getVersion() != null ? CachedResponse.eTagOf(response.getVersion()) : null);
+        });
+  }
+
+  /** @return the ETag of the cached response of the skill, null when none is cached */
+  public String cachedSkillETag(final Long skillId) {
+    return cachedETag(skills, skillId);
+  }
+
+  public CacheStatsResponse stats() {
+    return CacheStatsResponse.builder()
+        .caches(Arrays.asList(statistics(EMPLOYEES, employees), statistics(SKILLS, skills)))
+        .message("Successfully fetched cache stats")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  public void invalidateAll() {
+    employees.synchronous().invalidateAll();
+    skills.synchronous().invalidateAll();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeesRegistered(final EmployeesRegisteredEvent event) {
+    event.getEmpIds().stream()
+        .filter(Objects::nonNull)
+        .forEach(employees.synchronous()::invalidate);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeUpdated(final EmployeeUpdatedEvent event) {
+    employees.synchronous().invalidate(event.getEmpId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeDeleted(final EmployeeDeletedEvent event) {
+    employees.synchronous().invalidate(event.getEmpId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeSkillsChanged(final EmployeeSkillsChangedEvent event) {
+    employees.synchronous().invalidate(event.getEmpId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillsSaved(final SkillsSavedEvent event) {
+    for (SkillEntry skill : event.getSkills()) {
+      if (skill.getSkillId() == null) {
+        continue;
+      }
+      skills.synchronous().invalidate(skill.getSkillId());
+      employees.synchronous().invalidateAll(skillBitmapIndex.holdersOf(skill.getSkillId()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillDeleted(final SkillDeletedEvent event) {
+    skills.synchronous().invalidate(event.getSkillId());
+  }
+
+  private static CachedResponse fetch(
+      final AsyncCache<Long, CachedResponse> cache,
+      final Long id,
+      final Supplier<CachedResponse> loader) {
+    CompletableFuture<CachedResponse> created = new CompletableFuture<>();
+    CompletableFuture<CachedResponse> entry = cache.get(id, (key, executor) -> created);
+    if (entry == created) {
+      try {
+        created.complete(loader.get());
+      } catch (RuntimeException | Error e) {
+        // a failed future is removed, so the next caller loads again
+        created.completeExceptionally(e);
+        throw e;
+      }
+    }
+    try {
+      return entry.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Reads the map view, so the peek is not counted as a hit or miss of the cache. */
+  private static String cachedETag(
+      final AsyncCache<Long, CachedResponse> cache, final Long id) {
+    CompletableFuture<CachedResponse> entry = cache.asMap().get(id);
+    if (entry == null || !entry.isDone() || entry.isCompletedExceptionally()) {
+      return null;
+    }
+    return entry.join().getETag();
+  }
+
+  /** A response read from a row carries the ETag of its version; a "does not exist" does not. */
+  private CachedResponse serialise(
+      final Object response, final HttpStatus status, final boolean found, final String eTag) {
+    try {
+      return new CachedResponse(objectMapper.writeValueAsBytes(response), status, found, eTag);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static CacheStatistics statistics(
+      final String name, final AsyncCache<Long, CachedResponse> asyncCache) {
+    Cache<Long, CachedResponse> cache = asyncCache.synchronous();
+    CacheStats stats = cache.stats();
+    return CacheStatistics.builder()
+        .name(name)
+        .size(cache.estimatedSize())
+        .hitCount(stats.hitCount())
+        .missCount(stats.missCount())
+        .evictionCount(stats.evictionCount())
+        .hitRate(stats.hitRate())
+        .build();
+  }
+
+  private static AsyncCache<Long, CachedResponse> build(
+      final long maximumSize, final long ttlSeconds, final long missingTtlSeconds) {
+    long ttl = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    long missingTtl = TimeUnit.SECONDS.toNanos(missingTtlSeconds);
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(
+            new Expiry<Long, CachedResponse>() {
+              @Override
+              public long expireAfterCreate(
+                  final Long id, final CachedResponse response, final long currentTime) {
+                return response.isFound() ? ttl : missingTtl;
+              }
+
+              @Override
+              public long expireAfterUpdate(
+                  final Long id,
+                  final CachedResponse response,
+                  final long currentTime,
+                  final long currentDuration) {
+                return expireAfterCreate(id, response, currentTime);
+              }
+
+              @Override
+              public long expireAfterRead(
+                  final Long id,
+                  final CachedResponse response,
+                  final long currentTime,
+                  final long currentDuration) {
+                return currentDuration;
+              }
+            })
+        .recordStats()
+        .buildAsync();
+  }
+}
@@ -0,0 +1,119 @@
+package uk.nhs.nhsbsa.employeeskills.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The whole skill dictionary as an immutable snapshot, loaded at startup, so skill lookups by id
+ * or name and existence checks never go to the database.
+ *
+ * <p>Every committed change builds a new snapshot from the current one and swaps it in
+ * atomically; readers always see one complete catalog and never wait. The listeners run before
+ * the default ordered ones, so the {@link ResponseCache} only drops a skill once this catalog
+ * already serves the new version.
+ */
+@Slf4j
+@Component
+public class SkillCatalog implements SmartInitializingSingleton {
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  private final AtomicReference<Snapshot> snapshot =
+      new AtomicReference<>(new Snapshot(Collections.emptyMap()));
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    reload();
+  }
+
+  /** Replaces the snapshot with the skills table as it is now. */
+  public void reload() {
+    Map<Long, SkillEntry> loaded = new TreeMap<>();
+    skillsRepository
+        .findAll()
+        .forEach(skills -> loaded.put(skills.getSkillId(), SkillEntry.of(skills)));
+    snapshot.set(new Snapshot(loaded));
+    log.info("Loaded skill catalog of {} skills", loaded.size());
+  }
+
+  public Optional<SkillEntry> find(final Long skillId) {
+    return Optional.ofNullable(snapshot.get().byId.get(skillId));
+  }
+
+  /** @param skill compared ignoring case, as the dictionary holds every name once */
+  public Optional<SkillEntry> findByName(final String skill) {
+    return Optional.ofNullable(snapshot.get().byName.get(nameKey(skill)));
+  }
+
+  public boolean contains(final Long skillId) {
+    return snapshot.get().byId.containsKey(skillId);
+  }
+
+  /** @return every skill, in skillId order */
+  public Collection<SkillEntry> all() {
+    return snapshot.get().byId.values();
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillsSaved(final SkillsSavedEvent event) {
+    List<SkillEntry> saved = new ArrayList<>(event.getSkills());
+    saved.removeIf(skill -> skill.getSkillId() == null);
+    snapshot.updateAndGet(
+        current -> {
+          Map<Long, SkillEntry> next = new TreeMap<>(current.byId);
+          saved.forEach(skill -> next.put(skill.getSkillId(), skill));
+          return new Snapshot(next);
+        });
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillDeleted(final SkillDeletedEvent event) {
+    snapshot.updateAndGet(
+        current -> {
+          Map<Long, SkillEntry> next = new TreeMap<>(current.byId);
+          next.remove(event.getSkillId());
+          return new Snapshot(next);
+        });
+  }
+
+  private static String nameKey(final String skill) {
+    return skill.toUpperCase(Locale.ROOT);
+  }
+
+  /** The skills by id, in skillId order, and by upper cased name. */
+  private static final class Snapshot {
+
+    private final Map<Long, SkillEntry> byId;
+
+    private final Map<String, SkillEntry> byName;
+
+    private Snapshot(final Map<Long, SkillEntry> byId) {
+      this.byId = Collections.unmodifiableMap(byId);
+      Map<String, SkillEntry> names = new HashMap<>();
+      byId.values().forEach(skill -> names.put(nameKey(skill.getSkill()), skill));
+      this.byName = Collections.unmodifiableMap(names);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package uk.nhs.nhsbsa.employeeskills.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.ISkillRegistrationService;
+
+import java.util.List;
+
+/**
+ * Times the employee and skill services, next to the metrics Boot records itself: {@code
+ * http.server.requests} per route, the Hikari pool and, with {@code
+ * hibernate.generate_statistics}, the Hibernate statistics. All of them are scraped from {@code
+ * /v1/actuator/prometheus}. Turned off with {@code service.metrics.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = "service.metrics.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class MetricsConfig {
+
+  /** Static, as a post-processor has to be created before the other beans of this class. */
+  @Bean
+  public static ServiceMetricsPostProcessor serviceMetricsPostProcessor(
+      final ObjectProvider<MeterRegistry> meterRegistry) {
+    return new ServiceMetricsPostProcessor(
+        meterRegistry,
+        List.of(IEmployeeRegistrationService.class, ISkillRegistrationService.class));
+  }
+}
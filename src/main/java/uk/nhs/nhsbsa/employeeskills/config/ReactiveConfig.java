@@ -0,0 +1,62 @@
+package uk.nhs.nhsbsa.employeeskills.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * The non-blocking stack, selected with {@code spring.main.web-application-type=reactive}. The
+ * employee and skill routes are then served by WebFlux on Netty and reach the database over R2DBC.
+ *
+ * <p>R2DBC connects to the same H2 database as the JPA datasource, which still creates the schema
+ * and preloads the skill catalog and search index, so both stacks see the same data.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+  private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+  /** Tomcat is on the classpath too and would otherwise be picked to run WebFlux. */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /**
+   * The connection factory is deliberately not a bean: Boot backs off the JDBC datasource, and with
+   * it JPA, as soon as one is defined.
+   */
+  @Bean
+  public DatabaseClient databaseClient(final DataSourceProperties dataSourceProperties) {
+    String url = dataSourceProperties.determineUrl();
+    if (url == null || !url.startsWith(H2_URL_PREFIX)) {
+      throw new IllegalStateException("The reactive stack supports H2 only, not " + url);
+    }
+    H2ConnectionConfiguration.Builder configuration =
+        H2ConnectionConfiguration.builder()
+            .url(url.substring(H2_URL_PREFIX.length()))
+            .username(dataSourceProperties.determineUsername());
+    String password = dataSourceProperties.determinePassword();
+    if (password != null && !password.isEmpty()) {
+      configuration.password(password);
+    }
+    return DatabaseClient.create(new H2ConnectionFactory(configuration.build()));
+  }
+
+  /**
+   * Neither is the transaction manager: Boot only creates the JPA one while no other is defined.
+   */
+  @Bean
+  public TransactionalOperator reactiveTransactionalOperator(final DatabaseClient databaseClient) {
+    return TransactionalOperator.create(
+        new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+  }
+}
@@ -2,9 +2,14 @@ package uk.nhs.nhsbsa.employeeskills.config;
 
 import com.google.common.base.Predicates;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -13,9 +18,13 @@ import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+
 @Configuration
 @PropertySource("classpath:swagger.properties")
 @EnableSwagger2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SwaggerConfig {
   @Value("${swagger.title}")
   private String title;
@@ -31,6 +40,7 @@ public class SwaggerConfig {
 
     return new Docket(DocumentationType.SWAGGER_2)
         .useDefaultResponseMessages(false)
+        .ignoredParameterTypes(WebRequest.class)
         .apiInfo(apiInfo())
         .enable(swaggerEnabled)
         .select()
@@ -39,6 +49,29 @@ public class SwaggerConfig {
         .build();
   }
 
+  /**
+   * Boot maps the actuator endpoints with path patterns whatever the matching strategy, and
+   * springfox 2.x fails on mappings without ant patterns, so they are left out of the docs.
+   */
+  @Bean
+  public static BeanPostProcessor springfoxActuatorMappingsFilter() {
+    return new BeanPostProcessor() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean.getClass().getName().startsWith("springfox.")) {
+          Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings", List.class);
+          if (field != null) {
+            ReflectionUtils.makeAccessible(field);
+            ((List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean))
+                .removeIf(mapping -> mapping.getPatternParser() != null);
+          }
+        }
+        return bean;
+      }
+    };
+  }
+
   private ApiInfo apiInfo() {
     return new ApiInfoBuilder().title(title).description(description).build();
   }
@@ -0,0 +1,53 @@
+package uk.nhs.nhsbsa.employeeskills.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Serves the servlet stack on virtual threads, selected with {@code
+ * spring.threads.virtual.enabled=true} on Java 21 or later. Tomcat then starts a virtual thread
+ * per request instead of taking one of its {@code server.tomcat.threads.max} platform threads, so
+ * a request blocked on the database or the connection pool only parks, and the number of requests
+ * in flight is bound by heap rather than by the size of the pool. The services stay blocking.
+ *
+ * <p>Async requests, such as the streamed exports, run on virtual threads as well. A virtual
+ * thread that blocks while holding a monitor pins its carrier thread, so no code of the
+ * application blocks inside {@code synchronized}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  private static final int FIRST_JAVA_WITH_VIRTUAL_THREADS = 21;
+
+  public VirtualThreadConfig() {
+    if (Runtime.version().feature() < FIRST_JAVA_WITH_VIRTUAL_THREADS) {
+      throw new IllegalStateException(
+          "spring.threads.virtual.enabled needs Java "
+              + FIRST_JAVA_WITH_VIRTUAL_THREADS
+              + " or later, this is "
+              + Runtime.version());
+    }
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler ->
+        protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+  }
+
+  /** Takes the place of the pool Boot would create for async requests. */
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(new VirtualThreadExecutor("task-"));
+  }
+}
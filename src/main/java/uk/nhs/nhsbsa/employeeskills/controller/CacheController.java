@@ -0,0 +1,35 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import io.swagger.annotations.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
+import uk.nhs.nhsbsa.employeeskills.response.CacheStatsResponse;
+
+@Api(tags = "Response cache API")
+@Slf4j
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+  @Autowired private ResponseCache responseCache;
+
+  @ApiOperation("Fetch hit, miss and eviction counts of the employee and skill response caches")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched cache stats"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(value = "/stats", produces = "application/json")
+  public ResponseEntity<CacheStatsResponse> fetchCacheStats() {
+
+    log.info("Request to fetch response cache stats");
+
+    CacheStatsResponse response = responseCache.stats();
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+}
@@ -3,26 +3,58 @@ package uk.nhs.nhsbsa.employeeskills.controller;
 import io.swagger.annotations.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.nhs.nhsbsa.employeeskills.cache.CachedResponse;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
 import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.StaffingProfileRequest;
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
 import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSearchResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillIndexStatsResponse;
+import uk.nhs.nhsbsa.employeeskills.response.StaffingRankingResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeExportService;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeBulkImportService;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeExportService;
 import uk.nhs.nhsbsa.employeeskills.service.IEmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeSearchService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @Api(tags = "Manage employee API")
 @Slf4j
 @RestController
 @Validated
 @RequestMapping("/employee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmployeeController {
 
   @Autowired private IEmployeeRegistrationService employeeRegistrationService;
 
+  @Autowired private IEmployeeBulkImportService employeeBulkImportService;
+
+  @Autowired private IEmployeeSearchService employeeSearchService;
+
+  @Autowired private IEmployeeExportService employeeExportService;
+
+  @Autowired private ResponseCache responseCache;
+
   @ApiOperation("Register a employee")
   @ApiResponses(
       value = {
@@ -43,7 +75,153 @@ public class EmployeeController {
     return new ResponseEntity<>(response, response.getResponseStatus());
   }
 
-  @ApiOperation("Fetch a specific employee details")
+  @ApiOperation("Bulk import employees from a JSON array or newline delimited JSON body")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Bulk import completed"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 415, message = "Unsupported Media Type"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @PostMapping(
+      value = "/bulk",
+      consumes = {"application/json", "application/x-ndjson"},
+      produces = "application/json")
+  public ResponseEntity<BulkImportResponse> importEmployees(final InputStream body)
+      throws IOException {
+
+    log.info("Request to bulk import employees");
+
+    BulkImportResponse response = employeeBulkImportService.importEmployees(body);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("List employees page by page, ordered by empId or by family name")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched data"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(produces = "application/json")
+  public ResponseEntity<PageResponse<EmployeeSummary>> listEmployees(
+      final @ApiParam(value = "nextCursor of the previous page") @RequestParam(
+              value = "cursor",
+              required = false) String cursor,
+      final @ApiParam(value = "Page size") @RequestParam(value = "size", defaultValue = "50")
+          @Min(1) @Max(500) int size,
+      final @ApiParam(value = "Accepts empId or familyName") @RequestParam(
+              value = "sort",
+              defaultValue = "empId") @Pattern(regexp = "empId|familyName") String sort) {
+
+    log.info("Request to list employees after cursor: {}, size: {}, sort: {}", cursor, size, sort);
+
+    PageResponse<EmployeeSummary> response =
+        employeeRegistrationService.listEmployees(cursor, size, sort);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation(
+      "Stream every employee with their skills as NDJSON or CSV, resuming after an empId")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Export streamed"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(
+      value = "/export",
+      produces = {"application/x-ndjson", "text/csv"})
+  public ResponseEntity<StreamingResponseBody> exportEmployees(
+      final @ApiParam(value = "Accepts ndjson or csv") @RequestParam(
+              value = "format",
+              defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String format,
+      final @ApiParam(value = "Export only employees with a greater empId") @RequestParam(
+              value = "afterEmpId",
+              defaultValue = "0") @Min(0) Long afterEmpId) {
+
+    log.info("Request to export employees after empId: {} as {}", afterEmpId, format);
+
+    StreamingResponseBody body =
+        out -> employeeExportService.exportEmployees(afterEmpId, format, out);
+
+    return ResponseEntity.ok()
+        .contentType(
+            EmployeeExportService.FORMAT_CSV.equals(format)
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+        .body(body);
+  }
+
+  @ApiOperation("Search employees with a boolean skill query, e.g. (Java OR Kotlin) AND NOT #12")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully searched employees"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(value = "/search", produces = "application/json")
+  public ResponseEntity<EmployeeSearchResponse> searchEmployees(
+      final @ApiParam(value = "Boolean skill query", required = true) @RequestParam("q") String q,
+      final @ApiParam(value = "nextCursor of the previous page") @RequestParam(
+              value = "cursor",
+              required = false) String cursor,
+      final @ApiParam(value = "Page size") @RequestParam(value = "size", defaultValue = "100")
+          @Min(1) @Max(10000) int size) {
+
+    log.info("Request to search employees matching: {}", q);
+
+    EmployeeSearchResponse response = employeeSearchService.searchEmployees(q, cursor, size);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("Fetch the memory footprint of the skill search index")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched skill index stats"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(value = "/search/stats", produces = "application/json")
+  public ResponseEntity<SkillIndexStatsResponse> fetchSearchIndexStats() {
+
+    log.info("Request to fetch skill index stats");
+
+    SkillIndexStatsResponse response = employeeSearchService.fetchIndexStats();
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("Rank every employee against a profile of required and optional skills")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully ranked employees"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @PostMapping(value = "/ranking", consumes = "application/json", produces = "application/json")
+  public ResponseEntity<StaffingRankingResponse> rankEmployees(
+      final @Valid @RequestBody StaffingProfileRequest profile,
+      final @ApiParam(value = "Number of candidates") @RequestParam(
+              value = "k",
+              defaultValue = "10") @Min(1) @Max(1000) int k) {
+
+    log.info("Request to rank the best {} employees against a profile", k);
+
+    StaffingRankingResponse response = employeeSearchService.rankEmployees(profile, k);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation(value = "Fetch a specific employee details", response = EmployeeResponse.class)
   @ApiResponses(
       value = {
         @ApiResponse(code = 200, message = "Successfully fetched data"),
@@ -52,16 +230,34 @@ public class EmployeeController {
         @ApiResponse(code = 405, message = "Method Not Allowed"),
         @ApiResponse(code = 500, message = "Internal Server Error")
       })
-  @GetMapping("/{empId}")
-  public ResponseEntity<EmployeeResponse> fetchEmployeeDetails(
+  @GetMapping(value = "/{empId}", produces = "application/json")
+  public ResponseEntity<byte[]> fetchEmployeeDetails(
       final @ApiParam(value = "Accepts empId", required = true) @PathVariable("empId") @Min(1) @Max(
-              2000) Long empId) {
+              2000) Long empId,
+      final WebRequest webRequest) {
 
     log.info("Request to fetch employee data for empId: {}", empId);
 
-    EmployeeResponse response = employeeRegistrationService.fetchEmployeeDetails(empId);
+    // A poll with the current ETag costs at most the version probe, never the skills or Jackson
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+      String eTag = responseCache.cachedEmployeeETag(empId);
+      if (eTag == null) {
+        eTag =
+            employeeRegistrationService
+                .fetchEmployeeVersion(empId)
+                .map(CachedResponse::eTagOf)
+                .orElse(null);
+      }
+      if (eTag != null && webRequest.checkNotModified(eTag)) {
+        return null;
+      }
+    }
 
-    return new ResponseEntity<>(response, response.getResponseStatus());
+    CachedResponse response =
+        responseCache.fetchEmployee(
+            empId, () -> employeeRegistrationService.fetchEmployeeDetails(empId));
+
+    return response.toResponseEntity();
   }
 
   @ApiOperation("Update an existing employee details")
@@ -71,19 +267,26 @@ public class EmployeeController {
         @ApiResponse(code = 400, message = "Bad Request"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 409, message = "Conflict"),
+        @ApiResponse(code = 412, message = "Precondition Failed"),
         @ApiResponse(code = 500, message = "Internal Server Error")
       })
   @PutMapping("/{empId}")
   public ResponseEntity<EmployeeResponse> updateEmployeeDetails(
       final @Valid @RequestBody EmployeeRegistrationRequest registrationRequest,
       final @ApiParam(value = "Accepts empId", required = true) @PathVariable("empId") @Min(1) @Max(
-              2000) Long empId) {
+              2000) Long empId,
+      final @ApiParam("The ETag the update is conditional on") @RequestHeader(
+              value = HttpHeaders.IF_MATCH,
+              required = false) String ifMatch) {
     log.info("Request for updating employee data for empId: {}", empId);
 
     EmployeeResponse response =
-        employeeRegistrationService.updateEmployeeDetails(empId, registrationRequest);
+        employeeRegistrationService.updateEmployeeDetails(
+            empId, registrationRequest, CachedResponse.employeeVersionOf(ifMatch));
 
-    return new ResponseEntity<>(response, response.getResponseStatus());
+    return CachedResponse.toResponseEntity(
+        response, response.getResponseStatus(), CachedResponse.eTagOf(response.getVersion()));
   }
 
   @ApiOperation("Delete an existing employee details")
@@ -107,7 +310,7 @@ public class EmployeeController {
     return new ResponseEntity<>(response, response.getResponseStatus());
   }
 
-  @ApiOperation("Add skill to an existing employee details")
+  @ApiOperation("Add skill to an existing employee details, or change the level it is held at")
   @ApiResponses(
       value = {
         @ApiResponse(code = 200, message = "Successfully added skill to the employee"),
@@ -121,12 +324,50 @@ public class EmployeeController {
       final @ApiParam(value = "Accepts empId", required = true) @PathVariable("empId") @Min(1) @Max(
               2000) Long empId,
       final @ApiParam(value = "Accepts skillId", required = true) @PathVariable("skillId") @Min(1)
-          Long skillId) {
+          Long skillId,
+      final @ApiParam(
+              value = "Level the skill is held at; a new link without one gets the skill's level")
+          @RequestParam(value = "level", required = false)
+          @Pattern(regexp = SkillController.LEVELS, message = "{level.pattern}")
+          String level) {
+
+    log.info(
+        "Request to add a skill with skillId: {} at level: {} to the employee with empId: {}",
+        skillId,
+        level,
+        empId);
+
+    EmployeeResponse response =
+        employeeRegistrationService.addSkillsToEmployee(empId, skillId, level);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("Add a list of skills to an existing employee, or replace the employee's skills")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully assigned skills to the employee"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 404, message = "Not Found"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @PostMapping(
+      value = "/{empId}/skills",
+      consumes = "application/json",
+      produces = "application/json")
+  public ResponseEntity<EmployeeResponse> assignSkillsToEmployee(
+      final @Valid @RequestBody EmployeeSkillsAssignmentRequest assignmentRequest,
+      final @ApiParam(value = "Accepts empId", required = true) @PathVariable("empId") @Min(1) @Max(
+              2000) Long empId) {
 
     log.info(
-        "Request to add a skill with skillId: {} to the employee with empId: {}", skillId, empId);
+        "Request to assign skills with skillIds: {} to the employee with empId: {}",
+        assignmentRequest.getSkillIds(),
+        empId);
 
-    EmployeeResponse response = employeeRegistrationService.addSkillsToEmployee(empId, skillId);
+    EmployeeResponse response =
+        employeeRegistrationService.assignSkillsToEmployee(empId, assignmentRequest);
 
     return new ResponseEntity<>(response, response.getResponseStatus());
   }
@@ -0,0 +1,178 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.cache.CachedResponse;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.service.IReactiveEmployeeRegistrationService;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+
+/**
+ * The routes of {@link EmployeeController} backed by {@link IReactiveEmployeeRegistrationService},
+ * with the same validation and payloads. Bulk import, export and search stay on the servlet stack.
+ */
+@Slf4j
+@RestController
+@Validated
+@RequestMapping("/employee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeController {
+
+  @Autowired private IReactiveEmployeeRegistrationService employeeRegistrationService;
+
+  @PostMapping(consumes = "application/json", produces = "application/json")
+  public Mono<ResponseEntity<EmployeeResponse>> registerEmployee(
+      final @Valid @RequestBody EmployeeRegistrationRequest registrationRequest) {
+
+    log.info("Request to register for emp:");
+
+    return employeeRegistrationService
+        .registerEmployee(registrationRequest)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @GetMapping(produces = "application/json")
+  public Mono<ResponseEntity<PageResponse<EmployeeSummary>>> listEmployees(
+      final @RequestParam(value = "cursor", required = false) String cursor,
+      final @RequestParam(value = "size", defaultValue = "50") @Min(1) @Max(500) int size,
+      final @RequestParam(value = "sort", defaultValue = "empId") @Pattern(
+              regexp = "empId|familyName") String sort) {
+
+    log.info("Request to list employees after cursor: {}, size: {}, sort: {}", cursor, size, sort);
+
+    return employeeRegistrationService
+        .listEmployees(cursor, size, sort)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @GetMapping(value = "/{empId}", produces = "application/json")
+  public Mono<ResponseEntity<EmployeeResponse>> fetchEmployeeDetails(
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId,
+      final ServerWebExchange exchange) {
+
+    log.info("Request to fetch employee data for empId: {}", empId);
+
+    Mono<ResponseEntity<EmployeeResponse>> details =
+        employeeRegistrationService
+            .fetchEmployeeDetails(empId)
+            .map(
+                response ->
+                    response.getVersion() == null
+                        ? new ResponseEntity<>(response, response.getResponseStatus())
+                        : ResponseEntity.status(response.getResponseStatus())
+                            .eTag(CachedResponse.eTagOf(response.getVersion()))
+                            .body(response));
+    if (exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+      return details;
+    }
+    // As on the servlet stack, a poll with the current ETag costs the version probe alone
+    return employeeRegistrationService
+        .fetchEmployeeVersion(empId)
+        .map(CachedResponse::eTagOf)
+        .filter(exchange::checkNotModified)
+        .map(
+            eTag ->
+                ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .<EmployeeResponse>build())
+        .switchIfEmpty(details);
+  }
+
+  @PutMapping("/{empId}")
+  public Mono<ResponseEntity<EmployeeResponse>> updateEmployeeDetails(
+      final @Valid @RequestBody EmployeeRegistrationRequest registrationRequest,
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId,
+      final @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+    log.info("Request for updating employee data for empId: {}", empId);
+
+    return employeeRegistrationService
+        .updateEmployeeDetails(
+            empId, registrationRequest, CachedResponse.employeeVersionOf(ifMatch))
+        .map(
+            response ->
+                CachedResponse.toResponseEntity(
+                    response,
+                    response.getResponseStatus(),
+                    CachedResponse.eTagOf(response.getVersion())));
+  }
+
+  @DeleteMapping("/{empId}")
+  public Mono<ResponseEntity<EmployeeResponse>> deleteEmployeeDetails(
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId) {
+
+    log.info("Request for deleting employee data for empId: {}", empId);
+
+    return employeeRegistrationService
+        .deleteEmployeeDetails(empId)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @PutMapping("/{empId}/skills/{skillId}")
+  public Mono<ResponseEntity<EmployeeResponse>> addSkillsToEmployee(
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId,
+      final @PathVariable("skillId") @Min(1) Long skillId,
+      final @RequestParam(value = "level", required = false) @Pattern(
+              regexp = SkillController.LEVELS,
+              message = "{level.pattern}") String level) {
+
+    log.info(
+        "Request to add a skill with skillId: {} at level: {} to the employee with empId: {}",
+        skillId,
+        level,
+        empId);
+
+    return employeeRegistrationService
+        .addSkillsToEmployee(empId, skillId, level)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @PostMapping(
+      value = "/{empId}/skills",
+      consumes = "application/json",
+      produces = "application/json")
+  public Mono<ResponseEntity<EmployeeResponse>> assignSkillsToEmployee(
+      final @Valid @RequestBody EmployeeSkillsAssignmentRequest assignmentRequest,
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId) {
+
+    log.info(
+        "Request to assign skills with skillIds: {} to the employee with empId: {}",
+        assignmentRequest.getSkillIds(),
+        empId);
+
+    return employeeRegistrationService
+        .assignSkillsToEmployee(empId, assignmentRequest)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @DeleteMapping("/{empId}/skills/{skillId}")
+  public Mono<ResponseEntity<EmployeeResponse>> deleteSkillFromEmployee(
+      final @PathVariable("empId") @Min(1) @Max(2000) Long empId,
+      final @PathVariable("skillId") @Min(1) Long skillId) {
+
+    log.info(
+        "Request to delete a skill with skillId: {} from the employee with empId: {}",
+        skillId,
+        empId);
+
+    return employeeRegistrationService
+        .deleteSkillFromEmployee(empId, skillId)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+}
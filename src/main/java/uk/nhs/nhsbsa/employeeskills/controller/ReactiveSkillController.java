@@ -0,0 +1,143 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.cache.CachedResponse;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+import uk.nhs.nhsbsa.employeeskills.service.IReactiveSkillRegistrationService;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+
+/**
+ * The routes of {@link SkillController} backed by {@link IReactiveSkillRegistrationService}, with
+ * the same validation and payloads. Bulk upsert stays on the servlet stack.
+ */
+@Slf4j
+@RestController
+@Validated
+@RequestMapping("/skills")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSkillController {
+
+  @Autowired private IReactiveSkillRegistrationService skillRegistrationService;
+
+  @PostMapping(consumes = "application/json", produces = "application/json")
+  public Mono<ResponseEntity<SkillsResponse>> registerSkills(
+      final @Valid @RequestBody SkillsRegistrationRequest registrationRequest) {
+
+    log.info("Request to register skills with skill name: {}", registrationRequest.getSkill());
+
+    return skillRegistrationService
+        .registerSkills(registrationRequest)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @GetMapping(value = "/{skillId}", produces = "application/json")
+  public Mono<ResponseEntity<SkillsResponse>> fetchRegisteredSkill(
+      final @PathVariable("skillId") @Min(1) Long skillId) {
+
+    log.info("Request to fetching a skill with skillId: {}", skillId);
+
+    // The skill is read from the catalog; a matching If-None-Match is answered with 304 by
+    // WebFlux before the body is encoded
+    return skillRegistrationService
+        .fetchRegisteredSkill(skillId)
+        .map(
+            response ->
+                response.getVersion() == null
+                    ? new ResponseEntity<>(response, response.getResponseStatus())
+                    : ResponseEntity.status(response.getResponseStatus())
+                        .eTag(CachedResponse.eTagOf(response.getVersion()))
+                        .body(response));
+  }
+
+  @GetMapping(produces = "application/json")
+  public Mono<ResponseEntity<SkillsCatalogResponse>> fetchSkillCatalog(
+      final @RequestParam(value = "minLevel", required = false)
+          @Pattern(regexp = SkillController.LEVELS, message = "{level.pattern}")
+          String minLevel,
+      final @RequestParam(value = "maxLevel", required = false)
+          @Pattern(regexp = SkillController.LEVELS, message = "{level.pattern}")
+          String maxLevel) {
+
+    log.info("Request to fetch the skill catalog, levels from: {} to: {}", minLevel, maxLevel);
+
+    return skillRegistrationService
+        .fetchSkillCatalog(minLevel, maxLevel)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @GetMapping(value = "/inventory", produces = "application/json")
+  public Mono<ResponseEntity<SkillInventoryResponse>> fetchSkillInventory() {
+
+    log.info("Request to fetch the skill inventory");
+
+    return skillRegistrationService
+        .fetchSkillInventory()
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @GetMapping(value = "/{skillId}/employees", produces = "application/json")
+  public Mono<ResponseEntity<PageResponse<EmployeeSummary>>> listSkillHolders(
+      final @PathVariable("skillId") @Min(1) Long skillId,
+      final @RequestParam(value = "minLevel", required = false)
+          @Pattern(regexp = SkillController.LEVELS, message = "{level.pattern}")
+          String minLevel,
+      final @RequestParam(value = "maxLevel", required = false)
+          @Pattern(regexp = SkillController.LEVELS, message = "{level.pattern}")
+          String maxLevel,
+      final @RequestParam(value = "cursor", required = false) String cursor,
+      final @RequestParam(value = "size", defaultValue = "50") @Min(1) @Max(500) int size) {
+
+    log.info(
+        "Request to list holders of skill with skillId: {}, levels from: {} to: {}",
+        skillId,
+        minLevel,
+        maxLevel);
+
+    return skillRegistrationService
+        .listSkillHolders(skillId, minLevel, maxLevel, cursor, size)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @DeleteMapping("/{skillId}")
+  public Mono<ResponseEntity<SkillsResponse>> deleteRegisteredSkill(
+      final @PathVariable("skillId") @Min(1) Long skillId) {
+
+    log.info("Request to delete a skill with skillId: {}", skillId);
+
+    return skillRegistrationService
+        .deleteRegisteredSkill(skillId)
+        .map(response -> new ResponseEntity<>(response, response.getResponseStatus()));
+  }
+
+  @PutMapping("/{skillId}")
+  public Mono<ResponseEntity<SkillsResponse>> updateRegisteredSkills(
+      final @Valid @RequestBody SkillsRegistrationRequest registrationRequest,
+      final @PathVariable("skillId") @Min(1) Long skillId,
+      final @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+    log.info("Update register skills for skillId: {}", registrationRequest.getSkill());
+
+    return skillRegistrationService
+        .updateRegisteredSkills(registrationRequest, skillId, CachedResponse.versionOf(ifMatch))
+        .map(
+            response ->
+                CachedResponse.toResponseEntity(
+                    response, response.getResponseStatus(), response.getVersion()));
+  }
+}
@@ -3,28 +3,52 @@ package uk.nhs.nhsbsa.employeeskills.controller;
 import io.swagger.annotations.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import uk.nhs.nhsbsa.employeeskills.cache.CachedResponse;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
 import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsBulkUpsertResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
 import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+import uk.nhs.nhsbsa.employeeskills.service.ISkillBulkUpsertService;
 import uk.nhs.nhsbsa.employeeskills.service.ISkillRegistrationService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.io.InputStream;
 
 @Api(tags = "Manage skills API")
 @Slf4j
 @RestController
 @Validated
 @RequestMapping("/skills")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SkillController {
 
+  /** The labels a level, or a level bound of the catalog, may take. */
+  static final String LEVELS = "Expert|Practitioner|Working|Awareness";
+
   @Autowired private ISkillRegistrationService skillRegistrationService;
 
-  @ApiOperation("Register a skill")
+  @Autowired private ISkillBulkUpsertService skillBulkUpsertService;
+
+  @Autowired private ResponseCache responseCache;
+
+  @ApiOperation("Register a skill, or find the one already registered by the name")
   @ApiResponses(
       value = {
+        @ApiResponse(code = 200, message = "The skill is already registered"),
         @ApiResponse(code = 201, message = "Success created the skill"),
         @ApiResponse(code = 400, message = "Bad Request"),
         @ApiResponse(code = 404, message = "Not Found"),
@@ -42,7 +66,29 @@ public class SkillController {
     return new ResponseEntity<>(response, response.getResponseStatus());
   }
 
-  @ApiOperation("Fetch a specific skill details")
+  @ApiOperation("Create or update skills in bulk from a JSON array or newline delimited JSON body")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Bulk upsert completed"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 415, message = "Unsupported Media Type"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @PutMapping(
+      consumes = {"application/json", "application/x-ndjson"},
+      produces = "application/json")
+  public ResponseEntity<SkillsBulkUpsertResponse> upsertSkills(final InputStream body)
+      throws IOException {
+
+    log.info("Request to bulk upsert skills");
+
+    SkillsBulkUpsertResponse response = skillBulkUpsertService.upsertSkills(body);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation(value = "Fetch a specific skill details", response = SkillsResponse.class)
   @ApiResponses(
       value = {
         @ApiResponse(code = 200, message = "Successfully fetched data"),
@@ -51,14 +97,113 @@ public class SkillController {
         @ApiResponse(code = 405, message = "Method Not Allowed"),
         @ApiResponse(code = 500, message = "Internal Server Error")
       })
-  @GetMapping("/{skillId}")
-  public ResponseEntity<SkillsResponse> fetchRegisteredSkill(
+  @GetMapping(value = "/{skillId}", produces = "application/json")
+  public ResponseEntity<byte[]> fetchRegisteredSkill(
       final @ApiParam(value = "Accepts skillId", required = true) @PathVariable("skillId") @Min(1)
-          Long skillId) {
+          Long skillId,
+      final WebRequest webRequest) {
 
     log.info("Request to fetching a skill with skillId: {}", skillId);
 
-    SkillsResponse response = skillRegistrationService.fetchRegisteredSkill(skillId);
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+      String eTag = responseCache.cachedSkillETag(skillId);
+      if (eTag == null) {
+        eTag =
+            skillRegistrationService
+                .fetchSkillVersion(skillId)
+                .map(CachedResponse::eTagOf)
+                .orElse(null);
+      }
+      if (eTag != null && webRequest.checkNotModified(eTag)) {
+        return null;
+      }
+    }
+
+    CachedResponse response =
+        responseCache.fetchSkill(
+            skillId, () -> skillRegistrationService.fetchRegisteredSkill(skillId));
+
+    return response.toResponseEntity();
+  }
+
+  @ApiOperation("Fetch the skill catalog, optionally only the skills held within a range of levels")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched data"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(produces = "application/json")
+  public ResponseEntity<SkillsCatalogResponse> fetchSkillCatalog(
+      final @ApiParam(value = "Least proficient level held")
+          @RequestParam(value = "minLevel", required = false)
+          @Pattern(regexp = LEVELS, message = "{level.pattern}")
+          String minLevel,
+      final @ApiParam(value = "Most proficient level held")
+          @RequestParam(value = "maxLevel", required = false)
+          @Pattern(regexp = LEVELS, message = "{level.pattern}")
+          String maxLevel) {
+
+    log.info("Request to fetch the skill catalog, levels from: {} to: {}", minLevel, maxLevel);
+
+    SkillsCatalogResponse response = skillRegistrationService.fetchSkillCatalog(minLevel, maxLevel);
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("Fetch the number of holders of every skill by level")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched data"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(value = "/inventory", produces = "application/json")
+  public ResponseEntity<SkillInventoryResponse> fetchSkillInventory() {
+
+    log.info("Request to fetch the skill inventory");
+
+    SkillInventoryResponse response = skillRegistrationService.fetchSkillInventory();
+
+    return new ResponseEntity<>(response, response.getResponseStatus());
+  }
+
+  @ApiOperation("List the employees holding a specific skill, page by page")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Successfully fetched data"),
+        @ApiResponse(code = 400, message = "Bad Request"),
+        @ApiResponse(code = 404, message = "Not Found"),
+        @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 500, message = "Internal Server Error")
+      })
+  @GetMapping(value = "/{skillId}/employees", produces = "application/json")
+  public ResponseEntity<PageResponse<EmployeeSummary>> listSkillHolders(
+      final @ApiParam(value = "Accepts skillId", required = true) @PathVariable("skillId") @Min(1)
+          Long skillId,
+      final @ApiParam(value = "Least proficient level held")
+          @RequestParam(value = "minLevel", required = false)
+          @Pattern(regexp = LEVELS, message = "{level.pattern}")
+          String minLevel,
+      final @ApiParam(value = "Most proficient level held")
+          @RequestParam(value = "maxLevel", required = false)
+          @Pattern(regexp = LEVELS, message = "{level.pattern}")
+          String maxLevel,
+      final @ApiParam(value = "nextCursor of the previous page") @RequestParam(
+              value = "cursor",
+              required = false) String cursor,
+      final @ApiParam(value = "Page size") @RequestParam(value = "size", defaultValue = "50")
+          @Min(1) @Max(500) int size) {
+
+    log.info(
+        "Request to list holders of skill with skillId: {}, levels from: {} to: {}",
+        skillId,
+        minLevel,
+        maxLevel);
+
+    PageResponse<EmployeeSummary> response =
+        skillRegistrationService.listSkillHolders(skillId, minLevel, maxLevel, cursor, size);
 
     return new ResponseEntity<>(response, response.getResponseStatus());
   }
@@ -91,19 +236,26 @@ public class SkillController {
         @ApiResponse(code = 400, message = "Bad Request"),
         @ApiResponse(code = 404, message = "Not Found"),
         @ApiResponse(code = 405, message = "Method Not Allowed"),
+        @ApiResponse(code = 409, message = "Conflict"),
+        @ApiResponse(code = 412, message = "Precondition Failed"),
         @ApiResponse(code = 500, message = "Internal Server Error")
       })
   @PutMapping("/{skillId}")
   public ResponseEntity<SkillsResponse> updateRegisteredSkills(
       final @Valid @RequestBody SkillsRegistrationRequest registrationRequest,
       final @ApiParam(value = "Accepts skillId", required = true) @PathVariable("skillId") @Min(1)
-          Long skillId) {
+          Long skillId,
+      final @ApiParam("The ETag the update is conditional on") @RequestHeader(
+              value = HttpHeaders.IF_MATCH,
+              required = false) String ifMatch) {
 
     log.info("Update register skills for skillId: {}", registrationRequest.getSkill());
 
     SkillsResponse response =
-        skillRegistrationService.updateRegisteredSkills(registrationRequest, skillId);
+        skillRegistrationService.updateRegisteredSkills(
+            registrationRequest, skillId, CachedResponse.versionOf(ifMatch));
 
-    return new ResponseEntity<>(response, response.getResponseStatus());
+    return CachedResponse.toResponseEntity(
+        response, response.getResponseStatus(), response.getVersion());
   }
 }
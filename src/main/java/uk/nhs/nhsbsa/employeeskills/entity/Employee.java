@@ -2,6 +2,8 @@ package uk.nhs.nhsbsa.employeeskills.entity;
 
 import lombok.*;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
@@ -12,20 +14,20 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
-@Table(name = "employee")
+@Table(
+    name = "employee",
+    indexes = @Index(name = "idx_employee_family_name", columnList = "family_name, emp_id"))
 public class Employee {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+  @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
   @Column(name = "emp_id", updatable = false)
   private Long empId;
 
-  @ManyToMany
-  @JoinTable(
-      name = "emp_skills",
-      joinColumns = @JoinColumn(name = "employee_id"),
-      inverseJoinColumns = @JoinColumn(name = "skills_id"))
-  private Set<Skills> empSkillsSet = new HashSet<>();
+  // The skills held, each at the level of its link; links of a new employee are stored with it.
+  @OneToMany(mappedBy = "employee", cascade = CascadeType.PERSIST)
+  private Set<EmployeeSkill> empSkillsSet = new HashSet<>();
 
   @Column(name = "given_name", nullable = false)
   private String givenName;
@@ -38,4 +40,13 @@ public class Employee {
 
   @Column(name = "check_sum", nullable = true)
   private String checkSum;
+
+  // Raised by every write to the details or the skill links. The ETag of GET /employee/{empId}
+  // is built from it and the versions of the skills held, see EmployeeVersion, and Hibernate
+  // checks it on every update of the entity; the bulk statements of EmployeeRepository raise it
+  // themselves.
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "version", nullable = false)
+  private long version;
 }
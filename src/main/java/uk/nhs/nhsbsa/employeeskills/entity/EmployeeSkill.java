@@ -0,0 +1,84 @@
+package uk.nhs.nhsbsa.employeeskills.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * An employee holding a skill of the dictionary at a level. The level belongs to the link, so one
+ * {@link Skills} row serves every employee whatever their proficiency.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Entity
+@Table(
+    name = "emp_skills",
+    indexes = {
+      @Index(name = "idx_emp_skills_skill", columnList = "skills_id, employee_id"),
+      @Index(name = "idx_emp_skills_skill_level", columnList = "skills_id, level, employee_id")
+    })
+public class EmployeeSkill {
+
+  // The primary key (employee_id, skills_id) is what the idempotent link inserts in
+  // EmployeeRepository rely on.
+  @JsonIgnore @EmbeddedId private Key id;
+
+  @JsonIgnore
+  @MapsId("employeeId")
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "employee_id")
+  private Employee employee;
+
+  @MapsId("skillsId")
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "skills_id")
+  private Skills skill;
+
+  @Convert(converter = SkillLevelConverter.class)
+  @Column(name = "level", nullable = false, columnDefinition = "tinyint")
+  private SkillLevel level;
+
+  public static EmployeeSkill of(
+      final Employee employee, final Skills skill, final SkillLevel level) {
+    return new EmployeeSkill(
+        new Key(employee.getEmpId(), skill.getSkillId()), employee, skill, level);
+  }
+
+  /** Links are equal when they join the same employee and skill. */
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof EmployeeSkill)) {
+      return false;
+    }
+    Key otherId = ((EmployeeSkill) other).getId();
+    return getId() != null && getId().equals(otherId);
+  }
+
+  @Override
+  public int hashCode() {
+    return EmployeeSkill.class.hashCode();
+  }
+
+  @Embeddable
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "skills_id")
+    private Long skillsId;
+  }
+}
@@ -0,0 +1,70 @@
+package uk.nhs.nhsbsa.employeeskills.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How proficient the holders of a skill are, declared least proficient first so the natural order
+ * of the constants is the order of the levels. A row stores the {@link #getCode() code} in a
+ * tinyint column of the emp_skills link, so "at least Practitioner" is a range; the API keeps
+ * reading and writing the {@link #getLabel() label}.
+ */
+public enum SkillLevel {
+  AWARENESS(1, "Awareness"),
+  WORKING(2, "Working"),
+  PRACTITIONER(3, "Practitioner"),
+  EXPERT(4, "Expert");
+
+  private final int code;
+
+  private final String label;
+
+  SkillLevel(final int code, final String label) {
+    this.code = code;
+    this.label = label;
+  }
+
+  /** The stored value, independent of the order the constants are declared in. */
+  public int getCode() {
+    return code;
+  }
+
+  @JsonValue
+  public String getLabel() {
+    return label;
+  }
+
+  /** @return whether the level is {@code from}, {@code to} or one in between */
+  public boolean isBetween(final SkillLevel from, final SkillLevel to) {
+    return compareTo(from) >= 0 && compareTo(to) <= 0;
+  }
+
+  /** @return the label of the level, null for none */
+  public static String labelOf(final SkillLevel level) {
+    return level == null ? null : level.label;
+  }
+
+  /** @throws IllegalArgumentException when no level has the code */
+  public static SkillLevel fromCode(final int code) {
+    for (SkillLevel level : values()) {
+      if (level.code == code) {
+        return level;
+      }
+    }
+    throw new IllegalArgumentException("Unknown skill level code " + code);
+  }
+
+  /**
+   * @param label compared ignoring case
+   * @throws IllegalArgumentException when no level has the label
+   */
+  public static SkillLevel fromLabel(final String label) {
+    for (SkillLevel level : values()) {
+      if (level.label.equalsIgnoreCase(label)) {
+        return level;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Unknown skill level '" + label + "', expected one of Expert, Practitioner, Working or"
+            + " Awareness");
+  }
+}
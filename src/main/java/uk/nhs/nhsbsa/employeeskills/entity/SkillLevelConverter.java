@@ -0,0 +1,19 @@
+package uk.nhs.nhsbsa.employeeskills.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/** Stores a {@link SkillLevel} as its code, so reordering the constants never rewrites rows. */
+@Converter
+public class SkillLevelConverter implements AttributeConverter<SkillLevel, Integer> {
+
+  @Override
+  public Integer convertToDatabaseColumn(final SkillLevel level) {
+    return level == null ? null : level.getCode();
+  }
+
+  @Override
+  public SkillLevel convertToEntityAttribute(final Integer code) {
+    return code == null ? null : SkillLevel.fromCode(code);
+  }
+}
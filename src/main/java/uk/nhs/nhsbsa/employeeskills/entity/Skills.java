@@ -1,11 +1,9 @@
 package uk.nhs.nhsbsa.employeeskills.entity;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
-import java.util.HashSet;
-import java.util.Set;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -13,20 +11,61 @@ import java.util.Set;
 @Setter
 @Builder
 @Entity
+@Table(
+    uniqueConstraints =
+        @UniqueConstraint(name = "uk_skills_skill_key", columnNames = "skill_key"))
 public class Skills {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "skills_seq")
+  @SequenceGenerator(name = "skills_seq", sequenceName = "skills_seq", allocationSize = 50)
   @Column(name = "skill_id", nullable = false)
   Long skillId;
 
+  // The dictionary holds each name once; how well an employee knows the skill is the level of
+  // the EmployeeSkill link. Names are compared ignoring case before they are stored.
   @Column(name = "skill", nullable = false)
   private String skill;
 
-  @Column(name = "level", nullable = false)
-  private String level;
+  // upper(skill), computed by the database. Its unique index keeps "java" and "Java" apart even
+  // when two registrations race past the SkillCatalog check.
+  @Column(
+      name = "skill_key",
+      insertable = false,
+      updatable = false,
+      columnDefinition = "varchar(255) generated always as (upper(skill))")
+  private String skillKey;
 
-  @JsonIgnore
-  @ManyToMany(mappedBy = "empSkillsSet")
-  private Set<Employee> empSet = new HashSet<>();
+  // The level the skill was registered with, given to a link created without a level of its own.
+  @Convert(converter = SkillLevelConverter.class)
+  @Column(name = "level", nullable = false, columnDefinition = "tinyint")
+  private SkillLevel level;
+
+  // Raised by every write to the row; the ETag of GET /skills/{skillId} is built from it, and
+  // Hibernate checks it on every update of the entity.
+  @Version
+  @ColumnDefault("0")
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  /**
+   * Skills are equal when they are the same row. A skill not yet persisted only equals itself, and
+   * the hash code is constant so it does not change once the id is assigned.
+   */
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Skills)) {
+      return false;
+    }
+    Long otherSkillId = ((Skills) other).getSkillId();
+    return getSkillId() != null && getSkillId().equals(otherSkillId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Skills.class.hashCode();
+  }
 }
@@ -0,0 +1,15 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+import java.util.Map;
+
+/** Published once an employee and its skill links are deleted. */
+@Value
+public class EmployeeDeletedEvent {
+  Long empId;
+
+  /** The skills the employee held until the delete, by skillId, with the level of each. */
+  Map<Long, SkillLevel> skills;
+}
@@ -0,0 +1,18 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+import java.util.Map;
+
+/**
+ * Published once skill links of an employee are added, removed or moved to another level, each
+ * map keyed by skillId. A level change is the link removed at its old level and added at the new
+ * one, so listeners apply the removals first.
+ */
+@Value
+public class EmployeeSkillsChangedEvent {
+  Long empId;
+  Map<Long, SkillLevel> addedSkills;
+  Map<Long, SkillLevel> removedSkills;
+}
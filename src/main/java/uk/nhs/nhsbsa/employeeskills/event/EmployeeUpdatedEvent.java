@@ -0,0 +1,9 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+
+/** Published once the details of an employee, not its skills, are updated. */
+@Value
+public class EmployeeUpdatedEvent {
+  Long empId;
+}
@@ -0,0 +1,11 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/** Published once new employees are stored, by a single registration or a bulk import batch. */
+@Value
+public class EmployeesRegisteredEvent {
+  List<Long> empIds;
+}
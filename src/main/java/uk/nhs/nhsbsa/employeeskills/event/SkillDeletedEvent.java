@@ -0,0 +1,9 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+
+/** Published once a skill, which no employee holds any more, is deleted. */
+@Value
+public class SkillDeletedEvent {
+  Long skillId;
+}
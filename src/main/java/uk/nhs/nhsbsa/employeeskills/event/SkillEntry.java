@@ -0,0 +1,19 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+
+/** Immutable copy of a skills row, safe to hand over to listeners after the transaction. */
+@Value
+public class SkillEntry {
+  Long skillId;
+  String skill;
+  SkillLevel level;
+  long version;
+
+  public static SkillEntry of(final Skills skills) {
+    return new SkillEntry(
+        skills.getSkillId(), skills.getSkill(), skills.getLevel(), skills.getVersion());
+  }
+}
@@ -0,0 +1,11 @@
+package uk.nhs.nhsbsa.employeeskills.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/** Published once skills are created or updated, singly or by a bulk upsert batch. */
+@Value
+public class SkillsSavedEvent {
+  List<SkillEntry> skills;
+}
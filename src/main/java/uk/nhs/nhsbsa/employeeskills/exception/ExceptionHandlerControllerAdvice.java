@@ -1,12 +1,16 @@
 package uk.nhs.nhsbsa.employeeskills.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import uk.nhs.nhsbsa.employeeskills.response.ErrorModel;
 import uk.nhs.nhsbsa.employeeskills.response.ErrorResponse;
 
@@ -22,8 +26,20 @@ public class ExceptionHandlerControllerAdvice {
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ErrorResponse handleServiceException(final MethodArgumentNotValidException exception) {
     log.error("Method Argument Not Valid : ", exception);
+    return fieldErrorResponse(exception.getBindingResult());
+  }
+
+  /** The reactive stack's counterpart of {@link MethodArgumentNotValidException}. */
+  @ExceptionHandler(WebExchangeBindException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ErrorResponse handleServiceException(final WebExchangeBindException exception) {
+    log.error("Method Argument Not Valid : ", exception);
+    return fieldErrorResponse(exception.getBindingResult());
+  }
+
+  private static ErrorResponse fieldErrorResponse(final BindingResult bindingResult) {
     List<ErrorModel> errorMessages =
-        exception.getBindingResult().getFieldErrors().stream()
+        bindingResult.getFieldErrors().stream()
             .map(
                 err ->
                     new ErrorModel(err.getField(), err.getRejectedValue(), err.getDefaultMessage()))
@@ -60,4 +76,31 @@ public class ExceptionHandlerControllerAdvice {
         .errorInfo("Bad Request: " + exception.getMessage())
         .build();
   }
+
+  /** A write lost a race with a concurrent change, e.g. linking a skill that is being deleted. */
+  @ExceptionHandler({DataIntegrityViolationException.class})
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ErrorResponse dataIntegrityViolationException(
+      final DataIntegrityViolationException exception) {
+    log.error("Data Integrity Violation : ", exception);
+    return ErrorResponse.builder()
+        .status(409)
+        .errorInfo("Conflict: the request raced with a concurrent change, please retry")
+        .build();
+  }
+
+  /**
+   * An update found its row at another version than the one it read, i.e. a concurrent write got
+   * there first. The client re-reads and decides again rather than overwriting that write.
+   */
+  @ExceptionHandler({OptimisticLockingFailureException.class})
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ErrorResponse optimisticLockingFailureException(
+      final OptimisticLockingFailureException exception) {
+    log.error("Optimistic Locking Failure : ", exception);
+    return ErrorResponse.builder()
+        .status(409)
+        .errorInfo("Conflict: the row was changed concurrently, please fetch it and retry")
+        .build();
+  }
 }
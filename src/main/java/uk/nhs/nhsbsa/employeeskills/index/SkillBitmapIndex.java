@@ -0,0 +1,426 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index of skills to the employees holding them, one compressed {@link
+ * RoaringBitmap} of empIds per skill and level, used to evaluate {@link SkillExpression} queries
+ * without touching the database.
+ *
+ * <p>Each skill also keeps the holders at any level, so a name without a level costs one lookup
+ * rather than an OR per query. The index is loaded once at startup and then kept in sync by the
+ * events the services publish after each committed change. Queries take the read lock and never
+ * modify a stored bitmap, so any number of them run in parallel; changes take the write lock for a
+ * few bitmap updates.
+ */
+@Slf4j
+@Component
+public class SkillBitmapIndex implements SmartInitializingSingleton {
+
+  /** Shared stand-in for a skill nobody holds; never modified since results are read only. */
+  private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+  private static final SkillLevel[] LEVELS = SkillLevel.values();
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private State state = new State();
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    rebuild();
+  }
+
+  /** Reloads the whole index from the database. */
+  public void rebuild() {
+    long start = System.nanoTime();
+    State loaded = new State();
+
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readOnly.executeWithoutResult(
+        status -> {
+          skillsRepository.findAll().forEach(skills -> loaded.putSkill(SkillEntry.of(skills)));
+          try (Stream<Long> empIds = employeeRepository.streamAllEmpIds()) {
+            empIds.forEach(empId -> loaded.employees.add(toInt(empId)));
+          }
+          try (Stream<Object[]> links = employeeRepository.streamAllSkillLinks()) {
+            links.forEach(
+                link ->
+                    loaded.link(
+                        toInt(((Number) link[0]).longValue()),
+                        ((Number) link[1]).longValue(),
+                        SkillLevel.fromCode(((Number) link[2]).intValue())));
+          }
+        });
+    loaded.runOptimize();
+
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      state = loaded;
+    } finally {
+      writeLock.unlock();
+    }
+    log.info(
+        "Loaded skill index of {} employees and {} skills in {} ms",
+        loaded.employees.getLongCardinality(),
+        loaded.skillsById.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Evaluates the expression and returns the page of matching empIds that follows {@code
+   * afterEmpId}, in ascending order, with the total number of matches.
+   */
+  public Matches search(final SkillExpression expression, final long afterEmpId, final int limit) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      RoaringBitmap result = state.evaluate(expression);
+      List<Long> empIds = new ArrayList<>(Math.min(limit, 1024));
+      PeekableIntIterator iterator = result.getIntIterator();
+      if (afterEmpId >= 0) {
+        iterator.advanceIfNeeded(toInt(afterEmpId + 1));
+      }
+      while (iterator.hasNext() && empIds.size() < limit) {
+        empIds.add((long) iterator.next());
+      }
+      return new Matches(result.getLongCardinality(), empIds, iterator.hasNext());
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /** @return the empIds holding the skill at any level, in ascending order */
+  public List<Long> holdersOf(final Long skillId) {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      RoaringBitmap holders = state.holdersBySkillId.getOrDefault(skillId, EMPTY);
+      List<Long> empIds = new ArrayList<>(holders.getCardinality());
+      holders.forEach((int empId) -> empIds.add((long) empId));
+      return empIds;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  public Stats stats() {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      return state.stats();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeesRegistered(final EmployeesRegisteredEvent event) {
+    write(
+        current ->
+            event.getEmpIds().stream()
+                .filter(Objects::nonNull)
+                .forEach(empId -> current.employees.add(toInt(empId))));
+  }
+
+  /** Unlinks only the skills the event lists, so a delete costs a few bitmap updates. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeDeleted(final EmployeeDeletedEvent event) {
+    int empId = toInt(event.getEmpId());
+    write(
+        current -> {
+          event.getSkills().forEach((skillId, level) -> current.unlink(empId, skillId, level));
+          current.employees.remove(empId);
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeSkillsChanged(final EmployeeSkillsChangedEvent event) {
+    int empId = toInt(event.getEmpId());
+    write(
+        current -> {
+          current.employees.add(empId);
+          event
+              .getRemovedSkills()
+              .forEach((skillId, level) -> current.unlink(empId, skillId, level));
+          event.getAddedSkills().forEach((skillId, level) -> current.link(empId, skillId, level));
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillsSaved(final SkillsSavedEvent event) {
+    write(
+        current ->
+            event.getSkills().stream()
+                .filter(skill -> skill.getSkillId() != null)
+                .forEach(current::putSkill));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillDeleted(final SkillDeletedEvent event) {
+    write(
+        current -> {
+          current.holdersBySkillId.remove(event.getSkillId());
+          current.holdersByLevel.remove(event.getSkillId());
+          current.removeSkill(event.getSkillId());
+        });
+  }
+
+  private void write(final Consumer<State> change) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      change.accept(state);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static String nameKey(final String skill) {
+    return skill.toUpperCase(Locale.ROOT);
+  }
+
+  /** EmpIds come from a sequence and stay far below 2^31, the range of a 32-bit bitmap. */
+  private static int toInt(final Long id) {
+    return Math.toIntExact(id);
+  }
+
+  /** Everything the index holds, swapped as a whole by {@link #rebuild()}. */
+  private static final class State {
+
+    /** Every employee, the universe a NOT is taken against. */
+    private final RoaringBitmap employees = new RoaringBitmap();
+
+    /** The holders of each skill at any level. */
+    private final Map<Long, RoaringBitmap> holdersBySkillId = new HashMap<>();
+
+    /** The holders of each skill by the ordinal of their level; an employee is in one of them. */
+    private final Map<Long, RoaringBitmap[]> holdersByLevel = new HashMap<>();
+
+    private final Map<Long, SkillEntry> skillsById = new HashMap<>();
+
+    /** Upper cased skill name to its id; the dictionary holds every name once. */
+    private final Map<String, Long> skillIdByName = new HashMap<>();
+
+    void link(final int empId, final Long skillId, final SkillLevel level) {
+      holdersBySkillId.computeIfAbsent(skillId, id -> new RoaringBitmap()).add(empId);
+      RoaringBitmap[] levels =
+          holdersByLevel.computeIfAbsent(skillId, id -> new RoaringBitmap[LEVELS.length]);
+      if (levels[level.ordinal()] == null) {
+        levels[level.ordinal()] = new RoaringBitmap();
+      }
+      levels[level.ordinal()].add(empId);
+    }
+
+    void unlink(final int empId, final Long skillId, final SkillLevel level) {
+      RoaringBitmap holders = holdersBySkillId.get(skillId);
+      if (holders != null) {
+        holders.remove(empId);
+      }
+      RoaringBitmap[] levels = holdersByLevel.get(skillId);
+      if (levels != null && levels[level.ordinal()] != null) {
+        levels[level.ordinal()].remove(empId);
+      }
+    }
+
+    /** Stores the skill under its current name, dropping the one it had before a rename. */
+    void putSkill(final SkillEntry skill) {
+      removeSkill(skill.getSkillId());
+      skillsById.put(skill.getSkillId(), skill);
+      skillIdByName.put(nameKey(skill.getSkill()), skill.getSkillId());
+    }
+
+    void removeSkill(final Long skillId) {
+      SkillEntry previous = skillsById.remove(skillId);
+      if (previous != null) {
+        skillIdByName.remove(nameKey(previous.getSkill()), skillId);
+      }
+    }
+
+    void runOptimize() {
+      employees.runOptimize();
+      holdersBySkillId.values().forEach(RoaringBitmap::runOptimize);
+      holdersByLevel.values().stream()
+          .flatMap(Stream::of)
+          .filter(Objects::nonNull)
+          .forEach(RoaringBitmap::runOptimize);
+    }
+
+    /**
+     * @return the matching employees; may be a stored bitmap, so callers must not modify it
+     */
+    RoaringBitmap evaluate(final SkillExpression expression) {
+      if (expression instanceof SkillExpression.Term) {
+        return evaluateTerm((SkillExpression.Term) expression);
+      }
+      if (expression instanceof SkillExpression.Not) {
+        return RoaringBitmap.andNot(
+            employees, evaluate(((SkillExpression.Not) expression).getOperand()));
+      }
+      if (expression instanceof SkillExpression.Or) {
+        return FastAggregation.or(
+            ((SkillExpression.Or) expression)
+                .getOperands().stream().map(this::evaluate).toArray(RoaringBitmap[]::new));
+      }
+      return evaluateAnd((SkillExpression.And) expression);
+    }
+
+    /**
+     * Intersects the positive operands smallest first, so every further intersection works on the
+     * smallest possible intermediate result, then subtracts the negated ones; a conjunction of
+     * only negations starts from every employee.
+     */
+    private RoaringBitmap evaluateAnd(final SkillExpression.And expression) {
+      List<RoaringBitmap> included = new ArrayList<>();
+      List<RoaringBitmap> excluded = new ArrayList<>();
+      for (SkillExpression operand : expression.getOperands()) {
+        if (operand instanceof SkillExpression.Not) {
+          excluded.add(evaluate(((SkillExpression.Not) operand).getOperand()));
+        } else {
+          included.add(evaluate(operand));
+        }
+      }
+      included.sort(
+          (left, right) -> Long.compare(left.getLongCardinality(), right.getLongCardinality()));
+
+      RoaringBitmap result = included.isEmpty() ? employees : included.get(0);
+      boolean owned = false;
+      for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+        if (owned) {
+          result.and(included.get(i));
+        } else {
+          result = RoaringBitmap.and(result, included.get(i));
+          owned = true;
+        }
+      }
+      for (RoaringBitmap holders : excluded) {
+        if (result.isEmpty()) {
+          break;
+        }
+        if (owned) {
+          result.andNot(holders);
+        } else {
+          result = RoaringBitmap.andNot(result, holders);
+          owned = true;
+        }
+      }
+      return result;
+    }
+
+    /** A name resolves to its one skill; a range of levels ORs the level bitmaps it covers. */
+    private RoaringBitmap evaluateTerm(final SkillExpression.Term term) {
+      Long skillId =
+          term.getSkillId() != null
+              ? term.getSkillId()
+              : skillIdByName.get(nameKey(term.getName()));
+      if (skillId == null) {
+        return EMPTY;
+      }
+      if (term.getMinLevel() == null && term.getMaxLevel() == null) {
+        return holdersBySkillId.getOrDefault(skillId, EMPTY);
+      }
+      SkillLevel from = term.getMinLevel() == null ? LEVELS[0] : term.getMinLevel();
+      SkillLevel to = term.getMaxLevel() == null ? LEVELS[LEVELS.length - 1] : term.getMaxLevel();
+      RoaringBitmap[] levels = holdersByLevel.get(skillId);
+      List<RoaringBitmap> matching = new ArrayList<>();
+      for (SkillLevel level : LEVELS) {
+        if (levels != null && levels[level.ordinal()] != null && level.isBetween(from, to)) {
+          matching.add(levels[level.ordinal()]);
+        }
+      }
+      if (matching.isEmpty()) {
+        return EMPTY;
+      }
+      return matching.size() == 1
+          ? matching.get(0)
+          : FastAggregation.or(matching.toArray(new RoaringBitmap[0]));
+    }
+
+    Stats stats() {
+      long links = 0;
+      long sizeInBytes = employees.getLongSizeInBytes();
+      long serializedSizeInBytes = employees.serializedSizeInBytes();
+      for (RoaringBitmap holders : holdersBySkillId.values()) {
+        links += holders.getLongCardinality();
+        sizeInBytes += holders.getLongSizeInBytes();
+        serializedSizeInBytes += holders.serializedSizeInBytes();
+      }
+      for (RoaringBitmap[] levels : holdersByLevel.values()) {
+        for (RoaringBitmap holders : levels) {
+          if (holders != null) {
+            sizeInBytes += holders.getLongSizeInBytes();
+            serializedSizeInBytes += holders.serializedSizeInBytes();
+          }
+        }
+      }
+      long universe = employees.isEmpty() ? 0 : Integer.toUnsignedLong(employees.last()) + 1;
+      return new Stats(
+          employees.getLongCardinality(),
+          skillsById.size(),
+          links,
+          sizeInBytes,
+          serializedSizeInBytes,
+          (holdersBySkillId.size() + 1) * ((universe + 7) / 8));
+    }
+  }
+
+  /** One page of the employees matching a query. */
+  @Value
+  public static class Matches {
+    long matchCount;
+    List<Long> empIds;
+    boolean more;
+  }
+
+  /**
+   * Size of the index, including the per level bitmaps; {@code denseSizeInBytes} is what one
+   * uncompressed bitset per skill would take.
+   */
+  @Value
+  public static class Stats {
+    long employees;
+    int skills;
+    long links;
+    long sizeInBytes;
+    long serializedSizeInBytes;
+    long denseSizeInBytes;
+  }
+}
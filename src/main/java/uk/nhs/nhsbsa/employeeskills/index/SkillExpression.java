@@ -0,0 +1,244 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsed boolean skill query. The grammar, with case insensitive keywords, is
+ *
+ * <pre>
+ *   or   := and ( OR and )*
+ *   and  := not ( [AND] not )*
+ *   not  := NOT not | '(' or ')' | term
+ *   term := '#' skillId | name [ ':' levels ]
+ *   levels := level | level '..' | '..' level | level '..' level
+ * </pre>
+ *
+ * where a name or level is a bare word or a double quoted string, so {@code (Java OR Kotlin) AND
+ * Kubernetes AND NOT Kubernetes:Awareness} and {@code "Spring Boot":Expert AND #42} are both valid.
+ * A name without a level matches every level of that skill, and a range matches the levels between
+ * its ends, both included: {@code Java:Practitioner..} is Java at Practitioner or Expert.
+ */
+public abstract class SkillExpression {
+
+  private SkillExpression() {}
+
+  /**
+   * @throws IllegalArgumentException with a message fit for the caller when the query is invalid
+   */
+  public static SkillExpression parse(final String query) {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("The query is empty");
+    }
+    Parser parser = new Parser(query);
+    SkillExpression expression = parser.or();
+    if (parser.peek() != null) {
+      throw parser.error("Unexpected '" + parser.peek() + "'");
+    }
+    return expression;
+  }
+
+  /** Skill selected by id, or by name and optionally a range of levels, null for an open end. */
+  @Value
+  @EqualsAndHashCode(callSuper = false)
+  public static class Term extends SkillExpression {
+    Long skillId;
+    String name;
+    SkillLevel minLevel;
+    SkillLevel maxLevel;
+  }
+
+  @Value
+  @EqualsAndHashCode(callSuper = false)
+  public static class And extends SkillExpression {
+    List<SkillExpression> operands;
+  }
+
+  @Value
+  @EqualsAndHashCode(callSuper = false)
+  public static class Or extends SkillExpression {
+    List<SkillExpression> operands;
+  }
+
+  @Value
+  @EqualsAndHashCode(callSuper = false)
+  public static class Not extends SkillExpression {
+    SkillExpression operand;
+  }
+
+  private static final class Parser {
+
+    private static final String RANGE = "..";
+
+    private final String query;
+
+    private int position;
+
+    private String token;
+
+    private boolean quoted;
+
+    Parser(final String query) {
+      this.query = query;
+      advance();
+    }
+
+    SkillExpression or() {
+      List<SkillExpression> operands = new ArrayList<>();
+      operands.add(and());
+      while (keyword("OR")) {
+        advance();
+        operands.add(and());
+      }
+      return operands.size() == 1
+          ? operands.get(0)
+          : new Or(Collections.unmodifiableList(operands));
+    }
+
+    SkillExpression and() {
+      List<SkillExpression> operands = new ArrayList<>();
+      operands.add(not());
+      while (token != null && !keyword("OR") && !symbol(")")) {
+        if (keyword("AND")) {
+          advance();
+        }
+        operands.add(not());
+      }
+      return operands.size() == 1
+          ? operands.get(0)
+          : new And(Collections.unmodifiableList(operands));
+    }
+
+    SkillExpression not() {
+      if (token == null) {
+        throw error("Unexpected end of query");
+      }
+      if (keyword("NOT")) {
+        advance();
+        return new Not(not());
+      }
+      if (symbol("(")) {
+        advance();
+        SkillExpression inner = or();
+        if (!symbol(")")) {
+          throw error("Missing ')'");
+        }
+        advance();
+        return inner;
+      }
+      return term();
+    }
+
+    SkillExpression term() {
+      if (symbol("#")) {
+        advance();
+        if (token == null || quoted || !token.chars().allMatch(Character::isDigit)) {
+          throw error("Expected a skillId after '#'");
+        }
+        Long skillId = Long.valueOf(token);
+        advance();
+        return new Term(skillId, null, null, null);
+      }
+      if (!isWord()) {
+        throw error("Unexpected '" + token + "'");
+      }
+      String name = token;
+      advance();
+      if (!symbol(":")) {
+        return new Term(null, name, null, null);
+      }
+      advance();
+      if (!isWord()) {
+        throw error("Expected a level after ':'");
+      }
+      String levels = token;
+      int range = quoted ? -1 : levels.indexOf(RANGE);
+      Term term =
+          range < 0
+              ? new Term(null, name, level(levels), level(levels))
+              : new Term(
+                  null,
+                  name,
+                  range == 0 ? null : level(levels.substring(0, range)),
+                  range + RANGE.length() == levels.length()
+                      ? null
+                      : level(levels.substring(range + RANGE.length())));
+      if (term.getMinLevel() == null && term.getMaxLevel() == null) {
+        throw error("Expected a level before or after '..'");
+      }
+      advance();
+      return term;
+    }
+
+    private SkillLevel level(final String label) {
+      try {
+        return SkillLevel.fromLabel(label);
+      } catch (IllegalArgumentException e) {
+        throw error(e.getMessage());
+      }
+    }
+
+    String peek() {
+      return token;
+    }
+
+    IllegalArgumentException error(final String message) {
+      return new IllegalArgumentException(message + " at position " + position + " of the query");
+    }
+
+    private boolean keyword(final String keyword) {
+      return token != null && !quoted && token.equalsIgnoreCase(keyword);
+    }
+
+    private boolean symbol(final String symbol) {
+      return token != null && !quoted && token.equals(symbol);
+    }
+
+    private boolean isWord() {
+      return token != null
+          && (quoted || !(isSymbol(token.charAt(0)) || keyword("AND") || keyword("OR")));
+    }
+
+    private static boolean isSymbol(final char c) {
+      return c == '(' || c == ')' || c == ':' || c == '#';
+    }
+
+    private void advance() {
+      while (position < query.length() && Character.isWhitespace(query.charAt(position))) {
+        position++;
+      }
+      quoted = false;
+      if (position == query.length()) {
+        token = null;
+        return;
+      }
+      char c = query.charAt(position);
+      if (isSymbol(c)) {
+        token = String.valueOf(c);
+        position++;
+      } else if (c == '"') {
+        int end = query.indexOf('"', position + 1);
+        if (end < 0) {
+          throw error("Unterminated quoted name");
+        }
+        token = query.substring(position + 1, end);
+        quoted = true;
+        position = end + 1;
+      } else {
+        int start = position;
+        while (position < query.length()
+            && !Character.isWhitespace(query.charAt(position))
+            && !isSymbol(query.charAt(position))
+            && query.charAt(position) != '"') {
+          position++;
+        }
+        token = query.substring(start, position);
+      }
+    }
+  }
+}
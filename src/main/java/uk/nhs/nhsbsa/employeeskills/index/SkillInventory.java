@@ -0,0 +1,160 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Live number of holders of every skill at every level, one {@link LongAdder} per skill and level,
+ * so an inventory by skill and level costs one read per counter and never counts links.
+ *
+ * <p>The counters are loaded at startup and then moved by the events the services publish after
+ * each committed change; a link moved to another level leaves one counter of the skill for
+ * another. Writers linking the same skill at once land on different cells of its adder instead of
+ * retrying on one shared counter. A renamed skill needs no counter to move, as the counts are kept
+ * by skillId.
+ */
+@Slf4j
+@Component
+public class SkillInventory implements SmartInitializingSingleton {
+
+  /** Below the default of 10 pooled connections, so the rebuild never waits for one. */
+  private static final int PARTITIONS = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  private static final SkillLevel[] LEVELS = SkillLevel.values();
+
+  /** The counters of a skill, indexed by the ordinal of the level. */
+  private volatile ConcurrentMap<Long, LongAdder[]> holdersBySkillId = new ConcurrentHashMap<>();
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    rebuild();
+  }
+
+  /**
+   * Recounts the holders of every skill by level. The linked skillIds are split into ranges counted
+   * in parallel, each on its own connection, off emp_skills. Like {@link
+   * SkillBitmapIndex#rebuild()}, it is meant for startup: a change committed while it runs may be
+   * lost.
+   */
+  public void rebuild() {
+    long start = System.nanoTime();
+    ConcurrentMap<Long, LongAdder[]> loaded = new ConcurrentHashMap<>();
+
+    List<Object[]> range = employeeRepository.findLinkedSkillIdRange();
+    if (!range.isEmpty() && range.get(0)[0] != null) {
+      long first = ((Number) range.get(0)[0]).longValue();
+      long last = ((Number) range.get(0)[1]).longValue();
+      int partitions = (int) Math.min(PARTITIONS, last - first + 1);
+      long width = (last - first) / partitions + 1;
+      IntStream.range(0, partitions)
+          .parallel()
+          .forEach(
+              partition -> {
+                long from = first + partition * width;
+                List<Object[]> counts =
+                    employeeRepository.countHoldersBySkillIdBetween(
+                        from, Math.min(last, from + width - 1));
+                counts.forEach(
+                    count ->
+                        holders(
+                                loaded,
+                                ((Number) count[0]).longValue(),
+                                SkillLevel.fromCode(((Number) count[1]).intValue()))
+                            .add(((Number) count[2]).longValue()));
+              });
+    }
+
+    holdersBySkillId = loaded;
+    log.info(
+        "Loaded holder counts of {} skills in {} ms",
+        loaded.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /** @return the number of employees holding the skill at any level, 0 for an unknown one */
+  public long holderCount(final Long skillId) {
+    return holderCount(skillId, LEVELS[0], LEVELS[LEVELS.length - 1]);
+  }
+
+  /** @return the number of employees holding the skill at the level, 0 for an unknown one */
+  public long holderCount(final Long skillId, final SkillLevel level) {
+    return holderCount(skillId, level, level);
+  }
+
+  /**
+   * @return the number of employees holding the skill at {@code from}, {@code to} or a level in
+   *     between, 0 for an unknown one
+   */
+  public long holderCount(final Long skillId, final SkillLevel from, final SkillLevel to) {
+    LongAdder[] holders = holdersBySkillId.get(skillId);
+    if (holders == null) {
+      return 0;
+    }
+    long count = 0;
+    for (SkillLevel level : LEVELS) {
+      if (level.isBetween(from, to)) {
+        count += holders[level.ordinal()].sum();
+      }
+    }
+    return count;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeSkillsChanged(final EmployeeSkillsChangedEvent event) {
+    ConcurrentMap<Long, LongAdder[]> current = holdersBySkillId;
+    decrement(current, event.getRemovedSkills());
+    event
+        .getAddedSkills()
+        .forEach((skillId, level) -> holders(current, skillId, level).increment());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeDeleted(final EmployeeDeletedEvent event) {
+    decrement(holdersBySkillId, event.getSkills());
+  }
+
+  /** Only a skill nobody holds is deleted, so its counter is at 0 and can go. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillDeleted(final SkillDeletedEvent event) {
+    holdersBySkillId.remove(event.getSkillId());
+  }
+
+  private static void decrement(
+      final ConcurrentMap<Long, LongAdder[]> counters, final Map<Long, SkillLevel> skills) {
+    skills.forEach((skillId, level) -> holders(counters, skillId, level).decrement());
+  }
+
+  private static LongAdder holders(
+      final ConcurrentMap<Long, LongAdder[]> counters, final Long skillId, final SkillLevel level) {
+    LongAdder[] holders = counters.get(skillId);
+    if (holders == null) {
+      holders = counters.computeIfAbsent(skillId, id -> newCounters());
+    }
+    return holders[level.ordinal()];
+  }
+
+  private static LongAdder[] newCounters() {
+    LongAdder[] holders = new LongAdder[LEVELS.length];
+    for (int i = 0; i < holders.length; i++) {
+      holders[i] = new LongAdder();
+    }
+    return holders;
+  }
+}
@@ -0,0 +1,518 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Ranks the whole workforce against a staffing profile: a set of required and optional skills,
+ * each with a minimum level. Every employee is kept as the sorted links it holds, each the skillId
+ * and the code of its level packed in one int, one {@code int[]} per empId in an array indexed by
+ * empId, so a ranking reads no database and no map.
+ *
+ * <p>A profile is first resolved into two arrays indexed by skillId, the profile skill a skill
+ * counts for and the minimum level it needs, which makes scoring an employee one lookup per skill
+ * held. The employees are then split into fork-join partitions, each keeping its best candidates
+ * in a heap bounded to the requested number, and the heaps are merged as the partitions join. A
+ * skill held at the minimum level or above is worth 4 points at Expert down to 1 at Awareness; an
+ * employee lacking any required skill is not ranked.
+ *
+ * <p>Like {@link SkillBitmapIndex}, it is loaded at startup and then follows the events published
+ * after each committed change; rankings share the read lock and changes take the write lock.
+ */
+@Slf4j
+@Component
+public class StaffingIndex implements SmartInitializingSingleton {
+
+  /** Skills of one profile, the bits of the mask of required skills an employee meets. */
+  public static final int MAX_REQUIREMENTS = Long.SIZE;
+
+  private static final int[] NO_SKILLS = new int[0];
+
+  /** Low bits of a packed link holding the code of its level. */
+  private static final int LEVEL_BITS = 3;
+
+  private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+
+  /** Employees a fork-join partition scores itself rather than splitting further. */
+  private static final int PARTITION_SIZE = 1 << 14;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private State state = new State();
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    rebuild();
+  }
+
+  /** Reloads every employee's skills and their levels from the database. */
+  public void rebuild() {
+    long start = System.nanoTime();
+    State loaded = new State();
+
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readOnly.executeWithoutResult(
+        status -> {
+          skillsRepository.findAll().forEach(skills -> loaded.putSkill(SkillEntry.of(skills)));
+          try (Stream<Long> empIds = employeeRepository.streamAllEmpIds()) {
+            empIds.forEach(empId -> loaded.addEmployee(toInt(empId)));
+          }
+          try (Stream<Object[]> links = employeeRepository.streamAllSkillLinks()) {
+            links.forEach(
+                link ->
+                    loaded.append(
+                        toInt(((Number) link[0]).longValue()),
+                        pack(
+                            ((Number) link[1]).longValue(),
+                            SkillLevel.fromCode(((Number) link[2]).intValue()))));
+          }
+        });
+    loaded.sortSkills();
+
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      state = loaded;
+    } finally {
+      writeLock.unlock();
+    }
+    log.info(
+        "Loaded staffing index of {} employees in {} ms",
+        loaded.employees,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * @param requirements at most {@value #MAX_REQUIREMENTS}, each naming a different skill
+   * @param limit the most candidates to return
+   * @return the best candidates, highest score first and lowest empId first among equal scores
+   */
+  public Ranking rank(final List<Requirement> requirements, final int limit) {
+    if (requirements.size() > MAX_REQUIREMENTS) {
+      throw new IllegalArgumentException(
+          "A profile has at most " + MAX_REQUIREMENTS + " skills, not " + requirements.size());
+    }
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      Profile profile = state.resolve(requirements);
+      if (profile == null) {
+        return new Ranking(0, new ArrayList<>());
+      }
+      int[][] skillsByEmpId = state.skillsByEmpId;
+      return ForkJoinPool.commonPool()
+          .invoke(new RankTask(skillsByEmpId, profile, limit, 0, skillsByEmpId.length))
+          .toRanking();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeesRegistered(final EmployeesRegisteredEvent event) {
+    write(
+        current ->
+            event.getEmpIds().stream()
+                .filter(Objects::nonNull)
+                .forEach(empId -> current.addEmployee(toInt(empId))));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeDeleted(final EmployeeDeletedEvent event) {
+    int empId = toInt(event.getEmpId());
+    write(current -> current.removeEmployee(empId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeSkillsChanged(final EmployeeSkillsChangedEvent event) {
+    int empId = toInt(event.getEmpId());
+    write(
+        current -> {
+          current.addEmployee(empId);
+          int[] links = current.skillsByEmpId[empId];
+          current.skillsByEmpId[empId] =
+              IntStream.concat(
+                      Arrays.stream(links)
+                          .filter(
+                              link ->
+                                  !event
+                                      .getRemovedSkills()
+                                      .containsKey((long) (link >>> LEVEL_BITS))),
+                      event.getAddedSkills().entrySet().stream()
+                          .mapToInt(added -> pack(added.getKey(), added.getValue())))
+                  .distinct()
+                  .sorted()
+                  .toArray();
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillsSaved(final SkillsSavedEvent event) {
+    write(
+        current ->
+            event.getSkills().stream()
+                .filter(skill -> skill.getSkillId() != null)
+                .forEach(current::putSkill));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSkillDeleted(final SkillDeletedEvent event) {
+    write(current -> current.removeSkill(event.getSkillId()));
+  }
+
+  private void write(final Consumer<State> change) {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      change.accept(state);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static String nameKey(final String skill) {
+    return skill.toUpperCase(Locale.ROOT);
+  }
+
+  /** Ids come from sequences and stay far below 2^31, and index the arrays directly. */
+  private static int toInt(final Long id) {
+    return Math.toIntExact(id);
+  }
+
+  /**
+   * @return the skillId above the code of the level, so sorted links are in skillId order
+   * @throws ArithmeticException for a skillId of 2^28 or more, which does not fit
+   */
+  private static int pack(final Long skillId, final SkillLevel level) {
+    return Math.toIntExact(skillId << LEVEL_BITS | level.getCode());
+  }
+
+  /** Everything the index holds, swapped as a whole by {@link #rebuild()}. */
+  private static final class State {
+
+    /** The packed links of each employee in ascending order, null where no employee has the id. */
+    private int[][] skillsByEmpId = new int[1024][];
+
+    private int employees;
+
+    private final Map<Long, SkillEntry> skillsById = new HashMap<>();
+
+    /** Upper cased skill name to its id; the dictionary holds every name once. */
+    private final Map<String, Long> skillIdByName = new HashMap<>();
+
+    void putSkill(final SkillEntry skill) {
+      removeSkill(skill.getSkillId());
+      skillsById.put(skill.getSkillId(), skill);
+      skillIdByName.put(nameKey(skill.getSkill()), skill.getSkillId());
+    }
+
+    void removeSkill(final Long skillId) {
+      SkillEntry previous = skillsById.remove(skillId);
+      if (previous != null) {
+        skillIdByName.remove(nameKey(previous.getSkill()), skillId);
+      }
+    }
+
+    void addEmployee(final int empId) {
+      if (empId >= skillsByEmpId.length) {
+        skillsByEmpId =
+            Arrays.copyOf(skillsByEmpId, Math.max(empId + 1, skillsByEmpId.length * 2));
+      }
+      if (skillsByEmpId[empId] == null) {
+        skillsByEmpId[empId] = NO_SKILLS;
+        employees++;
+      }
+    }
+
+    void removeEmployee(final int empId) {
+      if (empId < skillsByEmpId.length && skillsByEmpId[empId] != null) {
+        skillsByEmpId[empId] = null;
+        employees--;
+      }
+    }
+
+    /** Adds a packed link while loading, left unsorted until {@link #sortSkills()}. */
+    void append(final int empId, final int link) {
+      addEmployee(empId);
+      int[] links = skillsByEmpId[empId];
+      links = Arrays.copyOf(links, links.length + 1);
+      links[links.length - 1] = link;
+      skillsByEmpId[empId] = links;
+    }
+
+    void sortSkills() {
+      for (int[] links : skillsByEmpId) {
+        if (links != null) {
+          Arrays.sort(links);
+        }
+      }
+    }
+
+    /**
+     * @return the profile as arrays indexed by skillId, null when a required skill is not in the
+     *     dictionary, so nobody can qualify
+     */
+    Profile resolve(final List<Requirement> requirements) {
+      long required = 0;
+      long resolved = 0;
+      int[] skillIds = new int[requirements.size()];
+      int maxSkillId = 0;
+      for (int slot = 0; slot < requirements.size(); slot++) {
+        Requirement requirement = requirements.get(slot);
+        if (requirement.isRequired()) {
+          required |= 1L << slot;
+        }
+        Long skillId = skillIdByName.get(nameKey(requirement.getSkill()));
+        if (skillId != null) {
+          skillIds[slot] = toInt(skillId);
+          maxSkillId = Math.max(maxSkillId, skillIds[slot]);
+          resolved |= 1L << slot;
+        }
+      }
+      if ((required & ~resolved) != 0) {
+        return null;
+      }
+
+      int[] slots = new int[maxSkillId + 1];
+      int[] minimumCodes = new int[maxSkillId + 1];
+      for (int slot = 0; slot < requirements.size(); slot++) {
+        if ((resolved & 1L << slot) != 0) {
+          slots[skillIds[slot]] = slot + 1;
+          minimumCodes[skillIds[slot]] = requirements.get(slot).getMinimumLevel().getCode();
+        }
+      }
+      return new Profile(slots, minimumCodes, required);
+    }
+  }
+
+  /** A profile resolved against the skill dictionary, shared read only by the partitions. */
+  private static final class Profile {
+
+    /** Per skillId, 1 + the profile skill it counts for, 0 when it counts for none. */
+    private final int[] slots;
+
+    /** Per skillId, the code of the least level a link needs to count. */
+    private final int[] minimumCodes;
+
+    private final long required;
+
+    private Profile(final int[] slots, final int[] minimumCodes, final long required) {
+      this.slots = slots;
+      this.minimumCodes = minimumCodes;
+      this.required = required;
+    }
+
+    /**
+     * A skill is linked once per employee and a name is one skill, so each profile skill is met by
+     * one link at most and worth the code of its level.
+     *
+     * @return the score of an employee holding the packed links, 0 when it does not qualify
+     */
+    int score(final int[] links) {
+      int score = 0;
+      long met = 0;
+      for (int link : links) {
+        int skillId = link >>> LEVEL_BITS;
+        if (skillId >= slots.length) {
+          break;
+        }
+        int code = link & LEVEL_MASK;
+        if (slots[skillId] > 0 && code >= minimumCodes[skillId]) {
+          score += code;
+          met |= 1L << (slots[skillId] - 1);
+        }
+      }
+      return (met & required) == required ? score : 0;
+    }
+  }
+
+  /** Scores a range of empIds, splitting it in halves down to {@link #PARTITION_SIZE}. */
+  private static final class RankTask extends RecursiveTask<TopCandidates> {
+
+    private final int[][] skillsByEmpId;
+
+    private final Profile profile;
+
+    private final int limit;
+
+    private final int from;
+
+    private final int to;
+
+    private RankTask(
+        final int[][] skillsByEmpId,
+        final Profile profile,
+        final int limit,
+        final int from,
+        final int to) {
+      this.skillsByEmpId = skillsByEmpId;
+      this.profile = profile;
+      this.limit = limit;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected TopCandidates compute() {
+      if (to - from <= PARTITION_SIZE) {
+        TopCandidates top = new TopCandidates(limit);
+        for (int empId = from; empId < to; empId++) {
+          int[] links = skillsByEmpId[empId];
+          if (links != null && links.length > 0) {
+            int score = profile.score(links);
+            if (score > 0) {
+              top.offer(score, empId);
+            }
+          }
+        }
+        return top;
+      }
+      int middle = (from + to) >>> 1;
+      RankTask left = new RankTask(skillsByEmpId, profile, limit, from, middle);
+      left.fork();
+      TopCandidates right = new RankTask(skillsByEmpId, profile, limit, middle, to).compute();
+      return right.merge(left.join());
+    }
+  }
+
+  /**
+   * Min-heap of the best candidates seen, each packed in a long as the score above the inverted
+   * empId, so one comparison orders by score and then by the lower empId.
+   */
+  private static final class TopCandidates {
+
+    private final long[] heap;
+
+    private int size;
+
+    private long count;
+
+    private TopCandidates(final int limit) {
+      this.heap = new long[limit];
+    }
+
+    void offer(final int score, final int empId) {
+      count++;
+      offer((long) score << Integer.SIZE | (Integer.MAX_VALUE - empId));
+    }
+
+    TopCandidates merge(final TopCandidates other) {
+      for (int i = 0; i < other.size; i++) {
+        offer(other.heap[i]);
+      }
+      count += other.count;
+      return this;
+    }
+
+    private void offer(final long candidate) {
+      if (size < heap.length) {
+        heap[size] = candidate;
+        siftUp(size++);
+      } else if (candidate > heap[0]) {
+        heap[0] = candidate;
+        siftDown(0);
+      }
+    }
+
+    private void siftUp(int i) {
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (heap[parent] <= heap[i]) {
+          return;
+        }
+        swap(parent, i);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i) {
+      while (2 * i + 1 < size) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && heap[child + 1] < heap[child]) {
+          child++;
+        }
+        if (heap[i] <= heap[child]) {
+          return;
+        }
+        swap(i, child);
+        i = child;
+      }
+    }
+
+    private void swap(final int i, final int j) {
+      long swapped = heap[i];
+      heap[i] = heap[j];
+      heap[j] = swapped;
+    }
+
+    Ranking toRanking() {
+      long[] sorted = Arrays.copyOf(heap, size);
+      Arrays.sort(sorted);
+      List<Candidate> candidates = new ArrayList<>(size);
+      for (int i = size - 1; i >= 0; i--) {
+        candidates.add(
+            new Candidate(
+                Integer.MAX_VALUE - (int) sorted[i], (int) (sorted[i] >>> Integer.SIZE)));
+      }
+      return new Ranking(count, candidates);
+    }
+  }
+
+  /** One skill of a profile, met by a link to the skill at {@code minimumLevel} or above. */
+  @Value
+  public static class Requirement {
+    String skill;
+    SkillLevel minimumLevel;
+    boolean required;
+  }
+
+  @Value
+  public static class Candidate {
+    long empId;
+    int score;
+  }
+
+  /** The best candidates, with the number of employees who qualified at all. */
+  @Value
+  public static class Ranking {
+    long candidateCount;
+    List<Candidate> candidates;
+  }
+}
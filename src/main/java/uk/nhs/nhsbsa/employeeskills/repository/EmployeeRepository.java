@@ -1,8 +1,251 @@
 package uk.nhs.nhsbsa.employeeskills.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import uk.nhs.nhsbsa.employeeskills.entity.Employee;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {}
+public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+
+  /** The sum of the versions of the skills held by the employee e, 0 without skills. */
+  String SKILLS_VERSION =
+      "(select coalesce(sum(s.version), 0L) from EmployeeSkill es join es.skill s"
+          + " where es.employee = e)";
+
+  /** @return the number of employees deleted; the caller removes the skill links first */
+  @Modifying(clearAutomatically = true)
+  @Query("delete from Employee e where e.empId = :empId")
+  int deleteByEmpId(@Param("empId") Long empId);
+
+  /**
+   * Deletes the skill links of the employee and reads the skills they held from H2's delta table
+   * of the delete, in one statement. As a query it would join the read-only default transaction of
+   * the repository, hence its own.
+   *
+   * @return (skills_id, level) rows of the deleted links
+   */
+  @Transactional
+  @Query(
+      value =
+          "select skills_id, level from old table"
+              + " (delete from emp_skills where employee_id = :empId)",
+      nativeQuery = true)
+  List<Object[]> deleteAllSkillLinks(@Param("empId") Long empId);
+
+  @Query("select e from Employee e where e.empId > :afterEmpId order by e.empId")
+  List<Employee> findPageOrderByEmpId(@Param("afterEmpId") Long afterEmpId, Pageable pageable);
+
+  @Query(
+      "select e from Employee e where e.familyName >= :afterFamilyName"
+          + " and (e.familyName > :afterFamilyName or e.empId > :afterEmpId)"
+          + " order by e.familyName, e.empId")
+  List<Employee> findPageOrderByFamilyName(
+      @Param("afterFamilyName") String afterFamilyName,
+      @Param("afterEmpId") Long afterEmpId,
+      Pageable pageable);
+
+  @Query(
+      "select new uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow("
+          + "e.empId, e.givenName, e.familyName, e.dateOfBirth, e.version,"
+          + " s.skillId, s.skill, es.level, s.version)"
+          + " from Employee e left join e.empSkillsSet es left join es.skill s"
+          + " where e.empId = :empId")
+  List<EmployeeSkillRow> findDetailsByEmpId(@Param("empId") Long empId);
+
+  /**
+   * Every employee after the given empId with their skills, ordered by empId and read through a
+   * forward-only cursor, so an employee's rows are adjacent and the result never sits on the heap.
+   */
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  @Query(
+      "select new uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow("
+          + "e.empId, e.givenName, e.familyName, e.dateOfBirth, e.version,"
+          + " s.skillId, s.skill, es.level, s.version)"
+          + " from Employee e left join e.empSkillsSet es left join es.skill s"
+          + " where e.empId > :afterEmpId"
+          + " order by e.empId, s.skillId")
+  Stream<EmployeeSkillRow> streamDetailsAfter(@Param("afterEmpId") Long afterEmpId);
+
+  @Query(
+      "select new uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion(e.version, "
+          + SKILLS_VERSION
+          + ") from Employee e where e.empId = :empId")
+  Optional<EmployeeVersion> findVersionByEmpId(@Param("empId") Long empId);
+
+  /**
+   * The employee, managed for an update, and the sum of the versions of the skills they hold, in
+   * one statement, so the update answers with the ETag of the employee.
+   *
+   * @return one row of the employee and the sum, none when the employee does not exist
+   */
+  @Query("select e, " + SKILLS_VERSION + " from Employee e where e.empId = :empId")
+  List<Object[]> findWithSkillsVersion(@Param("empId") Long empId);
+
+  @Query(
+      "select distinct e from Employee e left join fetch e.empSkillsSet es"
+          + " left join fetch es.skill where e in :employees")
+  List<Employee> fetchSkills(@Param("employees") Collection<Employee> employees);
+
+  // Ordering by the whole (skills_id, employee_id) index key lets the page be read straight off
+  // the index; ordering by employee_id alone makes H2 sort every holder of the skill first.
+  @Query(
+      value =
+          "select e.emp_id as empId, e.given_name as givenName, e.family_name as familyName,"
+              + " e.date_of_birth as dateOfBirth"
+              + " from emp_skills es join employee e on e.emp_id = es.employee_id"
+              + " where es.skills_id = :skillId and es.employee_id > :afterEmpId"
+              + " order by es.skills_id, es.employee_id",
+      nativeQuery = true)
+  List<EmployeeSummaryView> findHoldersOfSkill(
+      @Param("skillId") Long skillId, @Param("afterEmpId") Long afterEmpId, Pageable pageable);
+
+  // The level range is a range scan of the (skills_id, level, employee_id) index; only the holders
+  // within it are sorted by employee_id for the page.
+  @Query(
+      value =
+          "select e.emp_id as empId, e.given_name as givenName, e.family_name as familyName,"
+              + " e.date_of_birth as dateOfBirth"
+              + " from emp_skills es join employee e on e.emp_id = es.employee_id"
+              + " where es.skills_id = :skillId and es.level between :minLevel and :maxLevel"
+              + " and es.employee_id > :afterEmpId"
+              + " order by es.employee_id",
+      nativeQuery = true)
+  List<EmployeeSummaryView> findHoldersOfSkillAtLevels(
+      @Param("skillId") Long skillId,
+      @Param("minLevel") int minLevel,
+      @Param("maxLevel") int maxLevel,
+      @Param("afterEmpId") Long afterEmpId,
+      Pageable pageable);
+
+  /** @return (skills_id, level) rows of the links of the employee */
+  @Query(
+      value = "select skills_id, level from emp_skills where employee_id = :empId",
+      nativeQuery = true)
+  List<Object[]> findSkillLinksByEmpId(@Param("empId") Long empId);
+
+  /**
+   * Locks the employee row until the transaction ends. Link writers take it first, so two of them
+   * can never both decide the same link is missing and then collide on the primary key.
+   */
+  @Query(value = "select emp_id from employee where emp_id = :empId for update", nativeQuery = true)
+  Optional<Long> lockEmployee(@Param("empId") Long empId);
+
+  /**
+   * Links the skill to the employee at the level code unless it already is, in one statement
+   * against the primary key of emp_skills; an existing link keeps its level.
+   *
+   * @return 1 when the link was inserted, 0 when it existed or the employee does not
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      value =
+          "merge into emp_skills es using (select emp_id from employee where emp_id = :empId) e"
+              + " on es.employee_id = e.emp_id and es.skills_id = :skillId"
+              + " when not matched then insert (employee_id, skills_id, level)"
+              + " values (e.emp_id, :skillId, :level)",
+      nativeQuery = true)
+  int insertSkillLink(
+      @Param("empId") Long empId, @Param("skillId") Long skillId, @Param("level") int level);
+
+  /**
+   * Links every existing skill of the ids at the level code; links already present are left as
+   * they are.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      value =
+          "merge into emp_skills es using (select s.skill_id from Skills s"
+              + " where s.skill_id in :skillIds) s"
+              + " on es.employee_id = :empId and es.skills_id = s.skill_id"
+              + " when not matched then insert (employee_id, skills_id, level)"
+              + " values (:empId, s.skill_id, :level)",
+      nativeQuery = true)
+  int insertSkillLinks(
+      @Param("empId") Long empId,
+      @Param("skillIds") Collection<Long> skillIds,
+      @Param("level") int level);
+
+  /**
+   * Moves the links of the employee to the skills to the level code, reading the levels they had
+   * from the delta table of the update; links already at the level are not written.
+   *
+   * @return (skills_id, level) rows of the links before the update
+   */
+  @Transactional
+  @Query(
+      value =
+          "select skills_id, level from old table (update emp_skills set level = :level"
+              + " where employee_id = :empId and skills_id in :skillIds and level <> :level)",
+      nativeQuery = true)
+  List<Object[]> updateSkillLevels(
+      @Param("empId") Long empId,
+      @Param("skillIds") Collection<Long> skillIds,
+      @Param("level") int level);
+
+  /**
+   * Deletes the links of the employee to the skills, reading their levels from the delta table of
+   * the delete.
+   *
+   * @return (skills_id, level) rows of the deleted links
+   */
+  @Transactional
+  @Query(
+      value =
+          "select skills_id, level from old table"
+              + " (delete from emp_skills where employee_id = :empId and skills_id in :skillIds)",
+      nativeQuery = true)
+  List<Object[]> deleteSkillLinks(
+      @Param("empId") Long empId, @Param("skillIds") Collection<Long> skillIds);
+
+  /**
+   * Raises the version of an employee whose skill links changed, so the ETag of the employee
+   * changes with them. The caller holds the employee row lock already.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query("update Employee e set e.version = e.version + 1 where e.empId = :empId")
+  int bumpVersion(@Param("empId") Long empId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  @Query("select e.empId from Employee e")
+  Stream<Long> streamAllEmpIds();
+
+  /** @return one row of the lowest and the highest linked skillId, both null without links */
+  @Query(value = "select min(skills_id), max(skills_id) from emp_skills", nativeQuery = true)
+  List<Object[]> findLinkedSkillIdRange();
+
+  /**
+   * The number of holders of every skill in the range at each level, counted off emp_skills
+   * without touching the rows of employee or Skills.
+   *
+   * @return (skills_id, level, holders) rows
+   */
+  @Query(
+      value =
+          "select skills_id, level, count(*) from emp_skills"
+              + " where skills_id between :fromSkillId and :toSkillId group by skills_id, level",
+      nativeQuery = true)
+  List<Object[]> countHoldersBySkillIdBetween(
+      @Param("fromSkillId") Long fromSkillId, @Param("toSkillId") Long toSkillId);
+
+  /**
+   * Every (employee_id, skills_id, level) link, streamed so the whole table never sits on the
+   * heap.
+   */
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  @Query(value = "select employee_id, skills_id, level from emp_skills", nativeQuery = true)
+  Stream<Object[]> streamAllSkillLinks();
+}
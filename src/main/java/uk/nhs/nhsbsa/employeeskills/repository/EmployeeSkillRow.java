@@ -0,0 +1,24 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+/**
+ * One row of the employee to skills outer join, built by a JPQL constructor expression so nothing
+ * enters the persistence context. The skill columns are {@code null} for an employee without
+ * skills.
+ */
+@Value
+public class EmployeeSkillRow {
+  Long empId;
+  String givenName;
+  String familyName;
+  String dateOfBirth;
+  long version;
+  Long skillId;
+  String skill;
+  SkillLevel level;
+
+  /** The version of the skill, which the ETag of the employee is built from with theirs. */
+  Long skillVersion;
+}
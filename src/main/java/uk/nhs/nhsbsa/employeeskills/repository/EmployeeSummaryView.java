@@ -0,0 +1,13 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+/** Read-only employee columns, selected without loading the entity or its skills. */
+public interface EmployeeSummaryView {
+
+  Long getEmpId();
+
+  String getGivenName();
+
+  String getFamilyName();
+
+  String getDateOfBirth();
+}
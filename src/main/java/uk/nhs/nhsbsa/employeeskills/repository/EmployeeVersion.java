@@ -0,0 +1,16 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+import lombok.Value;
+
+/**
+ * What the ETag of an employee is built from: the version of the employee row, raised by every
+ * change of the details or the skill links, and the sum of the versions of the skills held, raised
+ * by every change of one of them. Skill versions only grow and the links stay as they are while
+ * the employee version does, so no two states of an employee share both numbers, and a renamed
+ * skill writes nothing to the employees holding it.
+ */
+@Value
+public class EmployeeVersion {
+  long version;
+  long skillsVersion;
+}
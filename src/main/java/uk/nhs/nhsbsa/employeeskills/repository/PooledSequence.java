@@ -0,0 +1,72 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from a database sequence the way Hibernate's pooled optimizer does: every value
+ * read from the sequence reserves the block of {@code allocationSize} ids ending at it. Rows
+ * inserted over R2DBC therefore never take an id Hibernate has reserved, and ids stay dense instead
+ * of stepping by the sequence increment. The block is guarded by a {@link ReentrantLock} rather
+ * than a monitor, which would pin the carrier of a virtual thread waiting for it.
+ */
+final class PooledSequence {
+
+  private final DatabaseClient databaseClient;
+
+  private final String sequenceName;
+
+  private final int allocationSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private long next;
+
+  private long hi;
+
+  PooledSequence(
+      final DatabaseClient databaseClient, final String sequenceName, final int allocationSize) {
+    this.databaseClient = databaseClient;
+    this.sequenceName = sequenceName;
+    this.allocationSize = allocationSize;
+  }
+
+  Mono<Long> nextId() {
+    return Mono.defer(
+        () -> {
+          Long id = take();
+          if (id != null) {
+            return Mono.just(id);
+          }
+          return databaseClient
+              .sql("select next value for " + sequenceName)
+              .map(row -> row.get(0, Long.class))
+              .one()
+              .map(this::reserve);
+        });
+  }
+
+  private Long take() {
+    lock.lock();
+    try {
+      return next > 0 && next <= hi ? next++ : null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Starts on the block of the value just read; a block refilled concurrently is abandoned. */
+  private long reserve(final long value) {
+    lock.lock();
+    try {
+      long first = Math.max(1, value - allocationSize + 1);
+      next = first + 1;
+      hi = value;
+      return first;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
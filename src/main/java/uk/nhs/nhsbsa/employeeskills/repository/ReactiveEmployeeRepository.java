@@ -0,0 +1,358 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The statements of {@link EmployeeRepository} that the reactive stack needs, run over R2DBC
+ * against the tables Hibernate creates. Callers wrap writes that belong together in a transaction.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeRepository {
+
+  private static final String EMPLOYEE_SKILL_ROW =
+      "select e.emp_id, e.given_name, e.family_name, e.date_of_birth, e.version,"
+          + " s.skill_id, s.skill, es.level, s.version as skill_version"
+          + " from employee e left join emp_skills es on es.employee_id = e.emp_id"
+          + " left join Skills s on s.skill_id = es.skills_id";
+
+  private static final String PAGE_WITH_SKILLS_PREFIX =
+      "select e.emp_id, e.given_name, e.family_name, e.date_of_birth, e.version,"
+          + " s.skill_id, s.skill, es.level, s.version as skill_version from (";
+
+  private static final String PAGE_WITH_SKILLS_SUFFIX =
+      ") e left join emp_skills es on es.employee_id = e.emp_id"
+          + " left join Skills s on s.skill_id = es.skills_id";
+
+  private final DatabaseClient databaseClient;
+
+  private final PooledSequence employeeSequence;
+
+  public ReactiveEmployeeRepository(final DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.employeeSequence = new PooledSequence(databaseClient, "employee_seq", 50);
+  }
+
+  /** @return the empId of the inserted employee */
+  public Mono<Long> insert(
+      final String checkSum,
+      final String givenName,
+      final String familyName,
+      final String dateOfBirth) {
+    return employeeSequence
+        .nextId()
+        .flatMap(
+            empId ->
+                databaseClient
+                    .sql(
+                        "insert into employee"
+                            + " (emp_id, given_name, family_name, date_of_birth, check_sum)"
+                            + " values (:empId, :givenName, :familyName, :dateOfBirth, :checkSum)")
+                    .bind("empId", empId)
+                    .bind("givenName", givenName)
+                    .bind("familyName", familyName)
+                    .bind("dateOfBirth", dateOfBirth)
+                    .bind("checkSum", checkSum)
+                    .then()
+                    .thenReturn(empId));
+  }
+
+  /**
+   * Updates the employee only while it still has the version it was read with, as Hibernate does
+   * for a {@code @Version} entity.
+   *
+   * @return the number of employees updated, 0 when the employee changed or does not exist
+   */
+  public Mono<Integer> updateDetails(
+      final Long empId,
+      final String givenName,
+      final String familyName,
+      final String dateOfBirth,
+      final long version) {
+    return databaseClient
+        .sql(
+            "update employee set given_name = :givenName, family_name = :familyName,"
+                + " date_of_birth = :dateOfBirth, version = version + 1"
+                + " where emp_id = :empId and version = :version")
+        .bind("empId", empId)
+        .bind("givenName", givenName)
+        .bind("familyName", familyName)
+        .bind("dateOfBirth", dateOfBirth)
+        .bind("version", version)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /** @return the number of employees deleted; the caller removes the skill links first */
+  public Mono<Integer> deleteByEmpId(final Long empId) {
+    return databaseClient
+        .sql("delete from employee where emp_id = :empId")
+        .bind("empId", empId)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /** @return the levels of the deleted links by skillId; see {@link EmployeeRepository} */
+  public Mono<Map<Long, SkillLevel>> deleteAllSkillLinks(final Long empId) {
+    return databaseClient
+        .sql(
+            "select skills_id, level from old table"
+                + " (delete from emp_skills where employee_id = :empId)")
+        .bind("empId", empId)
+        .map(ReactiveEmployeeRepository::toSkillLink)
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  public Mono<Boolean> existsById(final Long empId) {
+    return databaseClient
+        .sql("select emp_id from employee where emp_id = :empId")
+        .bind("empId", empId)
+        .map(row -> row.get("emp_id", Long.class))
+        .first()
+        .hasElement();
+  }
+
+  /** The versions the ETag of the employee is built from, see {@link EmployeeVersion}. */
+  public Mono<EmployeeVersion> findVersionByEmpId(final Long empId) {
+    return databaseClient
+        .sql(
+            "select e.version, (select cast(coalesce(sum(s.version), 0) as bigint)"
+                + " from emp_skills es join Skills s on s.skill_id = es.skills_id"
+                + " where es.employee_id = e.emp_id) as skills_version"
+                + " from employee e where e.emp_id = :empId")
+        .bind("empId", empId)
+        .map(
+            row ->
+                new EmployeeVersion(
+                    row.get("version", Long.class), row.get("skills_version", Long.class)))
+        .one();
+  }
+
+  public Flux<EmployeeSkillRow> findDetailsByEmpId(final Long empId) {
+    return databaseClient
+        .sql(EMPLOYEE_SKILL_ROW + " where e.emp_id = :empId")
+        .bind("empId", empId)
+        .map(ReactiveEmployeeRepository::toEmployeeSkillRow)
+        .all();
+  }
+
+  /**
+   * One page of employees in empId order, joined to their skills in the same statement. The page
+   * is cut from the primary key before the join, so an employee's rows are adjacent and complete.
+   */
+  public Flux<EmployeeSkillRow> findPageOrderByEmpId(final Long afterEmpId, final int size) {
+    return databaseClient
+        .sql(
+            PAGE_WITH_SKILLS_PREFIX
+                + "select * from employee where emp_id > :afterEmpId order by emp_id limit :size"
+                + PAGE_WITH_SKILLS_SUFFIX
+                + " order by e.emp_id")
+        .bind("afterEmpId", afterEmpId)
+        .bind("size", size)
+        .map(ReactiveEmployeeRepository::toEmployeeSkillRow)
+        .all();
+  }
+
+  /** As {@link #findPageOrderByEmpId}, with the page cut from idx_employee_family_name. */
+  public Flux<EmployeeSkillRow> findPageOrderByFamilyName(
+      final String afterFamilyName, final Long afterEmpId, final int size) {
+    return databaseClient
+        .sql(
+            PAGE_WITH_SKILLS_PREFIX
+                + "select * from employee where family_name >= :afterFamilyName"
+                + " and (family_name > :afterFamilyName or emp_id > :afterEmpId)"
+                + " order by family_name, emp_id limit :size"
+                + PAGE_WITH_SKILLS_SUFFIX
+                + " order by e.family_name, e.emp_id")
+        .bind("afterFamilyName", afterFamilyName)
+        .bind("afterEmpId", afterEmpId)
+        .bind("size", size)
+        .map(ReactiveEmployeeRepository::toEmployeeSkillRow)
+        .all();
+  }
+
+  /**
+   * Ordered by the whole (skills_id, employee_id) index key, see {@link EmployeeRepository}. The
+   * skill columns of the rows are left empty.
+   */
+  public Flux<EmployeeSkillRow> findHoldersOfSkill(
+      final Long skillId, final Long afterEmpId, final int size) {
+    return databaseClient
+        .sql(
+            "select e.emp_id, e.given_name, e.family_name, e.date_of_birth, e.version"
+                + " from emp_skills es join employee e on e.emp_id = es.employee_id"
+                + " where es.skills_id = :skillId and es.employee_id > :afterEmpId"
+                + " order by es.skills_id, es.employee_id limit :size")
+        .bind("skillId", skillId)
+        .bind("afterEmpId", afterEmpId)
+        .bind("size", size)
+        .map(ReactiveEmployeeRepository::toEmployeeRow)
+        .all();
+  }
+
+  /**
+   * The holders of the skill at a level code between the bounds, both included, read off the
+   * (skills_id, level, employee_id) index, see {@link EmployeeRepository}.
+   */
+  public Flux<EmployeeSkillRow> findHoldersOfSkillAtLevels(
+      final Long skillId,
+      final int minLevel,
+      final int maxLevel,
+      final Long afterEmpId,
+      final int size) {
+    return databaseClient
+        .sql(
+            "select e.emp_id, e.given_name, e.family_name, e.date_of_birth, e.version"
+                + " from emp_skills es join employee e on e.emp_id = es.employee_id"
+                + " where es.skills_id = :skillId and es.level between :minLevel and :maxLevel"
+                + " and es.employee_id > :afterEmpId"
+                + " order by es.employee_id limit :size")
+        .bind("skillId", skillId)
+        .bind("minLevel", minLevel)
+        .bind("maxLevel", maxLevel)
+        .bind("afterEmpId", afterEmpId)
+        .bind("size", size)
+        .map(ReactiveEmployeeRepository::toEmployeeRow)
+        .all();
+  }
+
+  /** @return the levels of the links of the employee by skillId */
+  public Mono<Map<Long, SkillLevel>> findSkillLinksByEmpId(final Long empId) {
+    return databaseClient
+        .sql("select skills_id, level from emp_skills where employee_id = :empId")
+        .bind("empId", empId)
+        .map(ReactiveEmployeeRepository::toSkillLink)
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  /** Locks the employee row until the transaction ends; see {@link EmployeeRepository}. */
+  public Mono<Long> lockEmployee(final Long empId) {
+    return databaseClient
+        .sql("select emp_id from employee where emp_id = :empId for update")
+        .bind("empId", empId)
+        .map(row -> row.get("emp_id", Long.class))
+        .one();
+  }
+
+  /**
+   * @return 1 when the link was inserted at the level, 0 when it existed or the employee does not
+   */
+  public Mono<Integer> insertSkillLink(
+      final Long empId, final Long skillId, final SkillLevel level) {
+    return databaseClient
+        .sql(
+            "merge into emp_skills es using (select emp_id from employee where emp_id = :empId) e"
+                + " on es.employee_id = e.emp_id and es.skills_id = :skillId"
+                + " when not matched then insert (employee_id, skills_id, level)"
+                + " values (e.emp_id, :skillId, :level)")
+        .bind("empId", empId)
+        .bind("skillId", skillId)
+        .bind("level", level.getCode())
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /**
+   * Links every existing skill of the ids at the level; links already present are left as they
+   * are.
+   */
+  public Mono<Integer> insertSkillLinks(
+      final Long empId, final Collection<Long> skillIds, final SkillLevel level) {
+    return databaseClient
+        .sql(
+            "merge into emp_skills es using (select s.skill_id from Skills s"
+                + " where s.skill_id in (:skillIds)) s"
+                + " on es.employee_id = :empId and es.skills_id = s.skill_id"
+                + " when not matched then insert (employee_id, skills_id, level)"
+                + " values (:empId, s.skill_id, :level)")
+        .bind("empId", empId)
+        .bind("skillIds", skillIds)
+        .bind("level", level.getCode())
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /**
+   * @return the levels the links to the skills had before they were moved to the level, by
+   *     skillId; links already at the level are not written, see {@link EmployeeRepository}
+   */
+  public Mono<Map<Long, SkillLevel>> updateSkillLevels(
+      final Long empId, final Collection<Long> skillIds, final SkillLevel level) {
+    return databaseClient
+        .sql(
+            "select skills_id, level from old table (update emp_skills set level = :level"
+                + " where employee_id = :empId and skills_id in (:skillIds) and level <> :level)")
+        .bind("empId", empId)
+        .bind("skillIds", skillIds)
+        .bind("level", level.getCode())
+        .map(ReactiveEmployeeRepository::toSkillLink)
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  /** @return the levels of the deleted links by skillId */
+  public Mono<Map<Long, SkillLevel>> deleteSkillLinks(
+      final Long empId, final Collection<Long> skillIds) {
+    return databaseClient
+        .sql(
+            "select skills_id, level from old table (delete from emp_skills"
+                + " where employee_id = :empId and skills_id in (:skillIds))")
+        .bind("empId", empId)
+        .bind("skillIds", skillIds)
+        .map(ReactiveEmployeeRepository::toSkillLink)
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  /** Raises the version of an employee whose links changed, see {@link EmployeeRepository}. */
+  public Mono<Integer> bumpVersion(final Long empId) {
+    return databaseClient
+        .sql("update employee set version = version + 1 where emp_id = :empId")
+        .bind("empId", empId)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  private static EmployeeSkillRow toEmployeeSkillRow(final Row row) {
+    return new EmployeeSkillRow(
+        row.get("emp_id", Long.class),
+        row.get("given_name", String.class),
+        row.get("family_name", String.class),
+        row.get("date_of_birth", String.class),
+        row.get("version", Long.class),
+        row.get("skill_id", Long.class),
+        row.get("skill", String.class),
+        ReactiveSkillsRepository.levelOf(row),
+        row.get("skill_version", Long.class));
+  }
+
+  private static Map.Entry<Long, SkillLevel> toSkillLink(final Row row) {
+    return new AbstractMap.SimpleImmutableEntry<>(
+        row.get("skills_id", Long.class), ReactiveSkillsRepository.levelOf(row));
+  }
+
+  private static EmployeeSkillRow toEmployeeRow(final Row row) {
+    return new EmployeeSkillRow(
+        row.get("emp_id", Long.class),
+        row.get("given_name", String.class),
+        row.get("family_name", String.class),
+        row.get("date_of_birth", String.class),
+        row.get("version", Long.class),
+        null,
+        null,
+        null,
+        null);
+  }
+}
@@ -0,0 +1,129 @@
+package uk.nhs.nhsbsa.employeeskills.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+
+import java.util.Collection;
+
+/**
+ * The statements of {@link SkillsRepository} that the reactive stack needs, run over R2DBC against
+ * the tables Hibernate creates.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSkillsRepository {
+
+  private final DatabaseClient databaseClient;
+
+  private final PooledSequence skillsSequence;
+
+  public ReactiveSkillsRepository(final DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.skillsSequence = new PooledSequence(databaseClient, "skills_seq", 50);
+  }
+
+  /** @return the skillId of the inserted skill */
+  public Mono<Long> insert(final String skill, final SkillLevel level) {
+    return skillsSequence
+        .nextId()
+        .flatMap(
+            skillId ->
+                databaseClient
+                    .sql(
+                        "insert into Skills (skill_id, skill, level)"
+                            + " values (:skillId, :skill, :level)")
+                    .bind("skillId", skillId)
+                    .bind("skill", skill)
+                    .bind("level", level.getCode())
+                    .then()
+                    .thenReturn(skillId));
+  }
+
+  /** @return the skill with the version it was read at */
+  public Mono<SkillEntry> findById(final Long skillId) {
+    return databaseClient
+        .sql("select skill_id, skill, level, version from Skills where skill_id = :skillId")
+        .bind("skillId", skillId)
+        .map(ReactiveSkillsRepository::skillEntryOf)
+        .one();
+  }
+
+  /** @return the skill registered under the name, ignoring case */
+  public Mono<SkillEntry> findByName(final String skill) {
+    return databaseClient
+        .sql("select skill_id, skill, level, version from Skills where skill_key = upper(:skill)")
+        .bind("skill", skill)
+        .map(ReactiveSkillsRepository::skillEntryOf)
+        .one();
+  }
+
+  /**
+   * Updates the skill only while it still has the version it was read with, as Hibernate does for
+   * a {@code @Version} entity.
+   *
+   * @return the number of skills updated, 0 when the skill changed or does not exist
+   */
+  public Mono<Integer> updateSkill(
+      final Long skillId, final String skill, final SkillLevel level, final long version) {
+    return databaseClient
+        .sql(
+            "update Skills set skill = :skill, level = :level, version = version + 1"
+                + " where skill_id = :skillId and version = :version")
+        .bind("skillId", skillId)
+        .bind("skill", skill)
+        .bind("level", level.getCode())
+        .bind("version", version)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /** @return the ids of the skills that exist, locked; see {@link SkillsRepository} */
+  public Flux<Long> lockSkills(final Collection<Long> skillIds) {
+    return databaseClient
+        .sql(
+            "select skill_id from Skills where skill_id in (:skillIds)"
+                + " order by skill_id for update")
+        .bind("skillIds", skillIds)
+        .map(row -> row.get("skill_id", Long.class))
+        .all();
+  }
+
+  /**
+   * Deletes the skill only while no employee holds it, once the caller locked it; see {@link
+   * SkillsRepository}.
+   *
+   * @return 1 when the skill was deleted, 0 when it is held or does not exist
+   */
+  public Mono<Integer> deleteIfNotHeld(final Long skillId) {
+    return databaseClient
+        .sql(
+            "delete from Skills where skill_id = :skillId"
+                + " and not exists (select 1 from emp_skills where skills_id = :skillId)")
+        .bind("skillId", skillId)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  private static SkillEntry skillEntryOf(final Row row) {
+    return new SkillEntry(
+        row.get("skill_id", Long.class),
+        row.get("skill", String.class),
+        levelOf(row),
+        row.get("version", Long.class));
+  }
+
+  /**
+   * Decodes the code of a level column of Skills or emp_skills, which H2 returns as a Byte; null on
+   * the link side of an outer join that found no link.
+   */
+  static SkillLevel levelOf(final Row row) {
+    Number code = (Number) row.get("level");
+    return code == null ? null : SkillLevel.fromCode(code.intValue());
+  }
+}
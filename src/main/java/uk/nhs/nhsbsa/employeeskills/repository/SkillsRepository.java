@@ -1,8 +1,57 @@
 package uk.nhs.nhsbsa.employeeskills.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uk.nhs.nhsbsa.employeeskills.entity.Skills;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface SkillsRepository extends JpaRepository<Skills, Long> {}
+public interface SkillsRepository extends JpaRepository<Skills, Long> {
+
+  @Query("select s from Skills s where s.skillKey in :skills order by s.skillId")
+  List<Skills> findBySkillIgnoreCaseIn(@Param("skills") Collection<String> skills);
+
+  @Query("select s from Skills s where s.skillKey = upper(:skill)")
+  Optional<Skills> findBySkillIgnoreCase(@Param("skill") String skill);
+
+  @Query("select s.skillId from Skills s where s.skillId in :skillIds")
+  List<Long> findExistingSkillIds(@Param("skillIds") Collection<Long> skillIds);
+
+  /**
+   * Locks the existing skills among the ids until the transaction ends, in skillId order. H2 checks
+   * the foreign key of emp_skills without locking the skill and evaluates the probe of {@link
+   * #deleteIfNotHeld(Long)} before waiting for a row lock, so a link written concurrently with the
+   * delete would survive it. Link writers therefore lock the skills they link after the employee,
+   * and the delete locks its skill before probing.
+   *
+   * @return the ids of the skills that exist
+   */
+  @Query(
+      value =
+          "select skill_id from Skills where skill_id in :skillIds"
+              + " order by skill_id for update",
+      nativeQuery = true)
+  List<Long> lockSkills(@Param("skillIds") Collection<Long> skillIds);
+
+  /**
+   * Deletes the skill only while no employee holds it. The probe stops at the first entry of
+   * idx_emp_skills_skill, so it costs the same for an unheld skill and for one held by everybody,
+   * and no holder is ever loaded. The caller locks the skill first, see {@link
+   * #lockSkills(Collection)}.
+   *
+   * @return 1 when the skill was deleted, 0 when it is held or does not exist
+   */
+  @Modifying(clearAutomatically = true)
+  @Query(
+      value =
+          "delete from Skills where skill_id = :skillId"
+              + " and not exists (select 1 from emp_skills where skills_id = :skillId)",
+      nativeQuery = true)
+  int deleteIfNotHeld(@Param("skillId") Long skillId);
+}
@@ -0,0 +1,48 @@
+package uk.nhs.nhsbsa.employeeskills.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeSkillsAssignmentRequest {
+
+  public static final String MODE_ADD = "add";
+
+  public static final String MODE_REPLACE = "replace";
+
+  private static final String LEVELS = "Expert|Practitioner|Working|Awareness";
+
+  @JsonProperty("skillIds")
+  @NotNull(message = "{skillIds.not-null}")
+  @Size(max = 1000)
+  private List<@NotNull @Min(1) Long> skillIds;
+
+  /** {@code add} (the default) keeps the current skills, {@code replace} drops the others. */
+  @JsonProperty("mode")
+  @Pattern(regexp = "^$|add|replace", message = "{mode.pattern}")
+  private String mode;
+
+  /**
+   * The level of each skill by skillId, for the skills of {@link #skillIds} only. A skill without
+   * one is linked at the level it was registered with, or keeps its level when the employee holds
+   * it already.
+   */
+  @JsonProperty("levels")
+  private Map<@NotNull Long, @NotNull @Pattern(regexp = LEVELS, message = "{level.pattern}") String>
+      levels;
+}
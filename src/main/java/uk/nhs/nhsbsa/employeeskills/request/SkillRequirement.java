@@ -0,0 +1,34 @@
+package uk.nhs.nhsbsa.employeeskills.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+/** One skill of a staffing profile, held at {@code minimumLevel} or a more proficient one. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkillRequirement {
+
+  @JsonProperty("skill")
+  @NotBlank(message = "{skill.not-null}")
+  @Pattern(regexp = "^[A-Za-z0-9-]*$")
+  private String skill;
+
+  @JsonProperty("minimumLevel")
+  @NotBlank(message = "{level.not-null}")
+  @Pattern(regexp = "^$|Expert|Practitioner|Working|Awareness", message = "{level.pattern}")
+  private String minimumLevel;
+
+  /** A candidate lacking a required skill is not ranked at all; optional ones only add points. */
+  @JsonProperty("required")
+  private boolean required;
+}
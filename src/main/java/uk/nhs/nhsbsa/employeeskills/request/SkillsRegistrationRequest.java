@@ -22,6 +22,10 @@ public class SkillsRegistrationRequest {
   @Pattern(regexp = "^[A-Za-z0-9-]*$")
   private String skill;
 
+  /**
+   * The level a link to the skill gets when it is created without one; see {@link
+   * EmployeeSkillsAssignmentRequest#getLevels()}.
+   */
   @JsonProperty("level")
   @NotBlank(message = "{level.not-null}")
   @Pattern(regexp = "^$|Expert|Practitioner|Working|Awareness", message = "{level.pattern}")
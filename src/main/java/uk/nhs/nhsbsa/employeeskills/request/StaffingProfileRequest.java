@@ -0,0 +1,27 @@
+package uk.nhs.nhsbsa.employeeskills.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.nhs.nhsbsa.employeeskills.index.StaffingIndex;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StaffingProfileRequest {
+
+  @JsonProperty("skills")
+  @NotNull(message = "{skills.not-null}")
+  @Size(min = 1, max = StaffingIndex.MAX_REQUIREMENTS)
+  private List<@NotNull @Valid SkillRequirement> skills;
+}
@@ -0,0 +1,28 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRecordError {
+
+  /** 1-based position of the rejected record, its line number in newline delimited JSON. */
+  @JsonProperty("record")
+  private long record;
+
+  @JsonProperty("errorInfo")
+  private String errorInfo;
+
+  @JsonProperty("fieldLevelErrorMessage")
+  private List<ErrorModel> fieldLevelErrorMessage;
+}
@@ -0,0 +1,34 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CacheStatistics {
+
+  @JsonProperty("name")
+  private String name;
+
+  @JsonProperty("size")
+  private long size;
+
+  @JsonProperty("hitCount")
+  private long hitCount;
+
+  @JsonProperty("missCount")
+  private long missCount;
+
+  @JsonProperty("evictionCount")
+  private long evictionCount;
+
+  @JsonProperty("hitRate")
+  private double hitRate;
+}
@@ -0,0 +1,31 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CacheStatsResponse {
+
+  @JsonProperty("caches")
+  private List<CacheStatistics> caches;
+
+  @JsonIgnore private HttpStatus responseStatus;
+
+  @JsonProperty("message")
+  private String message;
+
+  @JsonProperty("status")
+  private int status;
+}
@@ -8,7 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
-import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -33,10 +33,13 @@ public class EmployeeResponse {
   private String empId;
 
   @JsonProperty("skills")
-  private Set<Skills> skills = new HashSet<>();
+  private Set<SkillDetails> skills = new HashSet<>();
 
   @JsonIgnore private HttpStatus responseStatus;
 
+  /** The versions the response was read at, sent as its ETag rather than in it. */
+  @JsonIgnore private EmployeeVersion version;
+
   @JsonProperty("message")
   private String message;
 
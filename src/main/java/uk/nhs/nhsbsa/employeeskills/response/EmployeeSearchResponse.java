@@ -0,0 +1,44 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * One page of the empIds matching a boolean skill query, with the total number of matches.
+ * {@code nextCursor} is absent on the last page.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeSearchResponse {
+
+  @JsonProperty("query")
+  private String query;
+
+  @JsonProperty("matchCount")
+  private Long matchCount;
+
+  @JsonProperty("empIds")
+  private List<Long> empIds;
+
+  @JsonProperty("nextCursor")
+  private String nextCursor;
+
+  @JsonIgnore private HttpStatus responseStatus;
+
+  @JsonProperty("message")
+  private String message;
+
+  @JsonProperty("status")
+  private int status;
+}
@@ -0,0 +1,34 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/** An employee as listed in a page, with the skills only when the page loads them. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeSummary {
+
+  @JsonProperty("empId")
+  private String empId;
+
+  @JsonProperty("givenName")
+  private String givenName;
+
+  @JsonProperty("familyName")
+  private String familyName;
+
+  @JsonProperty("dateOfBirth")
+  private String dateOfBirth;
+
+  @JsonProperty("skills")
+  private Set<SkillDetails> skills;
+}
@@ -0,0 +1,38 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * One page of a cursor paginated listing. {@code nextCursor} is absent on the last page,
+ * otherwise it is passed back as the {@code cursor} parameter to fetch the following page.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponse<T> {
+
+  @JsonProperty("items")
+  private List<T> items;
+
+  @JsonProperty("nextCursor")
+  private String nextCursor;
+
+  @JsonIgnore private HttpStatus responseStatus;
+
+  @JsonProperty("message")
+  private String message;
+
+  @JsonProperty("status")
+  private int status;
+}
@@ -0,0 +1,20 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RankedEmployee {
+
+  @JsonProperty("empId")
+  private Long empId;
+
+  @JsonProperty("score")
+  private int score;
+}
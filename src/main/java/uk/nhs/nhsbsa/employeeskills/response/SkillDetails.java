@@ -0,0 +1,42 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A skill held by an employee at the level of their {@link EmployeeSkill} link, serialised as the
+ * skills of an employee always were.
+ */
+@Value
+public class SkillDetails {
+
+  @JsonProperty("skillId")
+  Long skillId;
+
+  @JsonProperty("skill")
+  String skill;
+
+  @JsonProperty("level")
+  String level;
+
+  public static SkillDetails of(final EmployeeSkill link) {
+    return new SkillDetails(
+        link.getSkill().getSkillId(), link.getSkill().getSkill(), link.getLevel().getLabel());
+  }
+
+  /** @return an unmodifiable copy, or {@code null} when the links were never loaded */
+  public static Set<SkillDetails> of(final Collection<EmployeeSkill> links) {
+    if (links == null) {
+      return null;
+    }
+    Set<SkillDetails> details = new LinkedHashSet<>();
+    links.forEach(link -> details.add(of(link)));
+    return Collections.unmodifiableSet(details);
+  }
+}
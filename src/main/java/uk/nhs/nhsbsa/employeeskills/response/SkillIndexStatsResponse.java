@@ -0,0 +1,48 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Memory footprint of the in-memory skill index, next to the size the same data would take as
+ * uncompressed bitsets.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkillIndexStatsResponse {
+
+  @JsonProperty("employees")
+  private long employees;
+
+  @JsonProperty("skills")
+  private int skills;
+
+  @JsonProperty("links")
+  private long links;
+
+  @JsonProperty("sizeInBytes")
+  private long sizeInBytes;
+
+  @JsonProperty("serializedSizeInBytes")
+  private long serializedSizeInBytes;
+
+  @JsonProperty("denseSizeInBytes")
+  private long denseSizeInBytes;
+
+  @JsonIgnore private HttpStatus responseStatus;
+
+  @JsonProperty("message")
+  private String message;
+
+  @JsonProperty("status")
+  private int status;
+}
@@ -0,0 +1,28 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/** The holders of one skill, by level. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkillInventoryEntry {
+
+  @JsonProperty("skillId")
+  private String skillId;
+
+  @JsonProperty("skill")
+  private String skill;
+
+  @JsonProperty("levels")
+  private Map<String, Long> levels;
+}
@@ -0,0 +1,26 @@
+package uk.nhs.nhsbsa.employeeskills.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One entry of the skill catalog. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SkillSummary {
+
+  @JsonProperty("skillId")
+  private String skillId;
+
+  @JsonProperty("skill")
+  private String skill;
+
+  @JsonProperty("level")
+  private String level;
+}
@@ -34,6 +34,9 @@ public class SkillsResponse {
 
   @JsonIgnore private HttpStatus responseStatus;
 
+  /** The version of the row the response was read from, sent as its ETag rather than in it. */
+  @JsonIgnore private Long version;
+
   @JsonProperty("message")
   private String message;
 
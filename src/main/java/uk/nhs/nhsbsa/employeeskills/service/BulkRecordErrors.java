@@ -0,0 +1,90 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import uk.nhs.nhsbsa.employeeskills.response.BulkRecordError;
+import uk.nhs.nhsbsa.employeeskills.response.ErrorModel;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects per-record rejections of a bulk request. Every rejection is counted, but only the
+ * first {@code maxReported} are kept so a large, mostly invalid upload cannot exhaust the heap.
+ */
+@Slf4j
+public class BulkRecordErrors {
+
+  static final String DUPLICATE = "Could not be stored: duplicate record";
+
+  static final String CONSTRAINT_VIOLATION = "Could not be stored: constraint violation";
+
+  static final String UNEXPECTED_ERROR = "Could not be stored: unexpected error";
+
+  /** SQLSTATE of a unique key violation; every integrity constraint violation is class 23. */
+  private static final String UNIQUE_VIOLATION = "23505";
+
+  private final int maxReported;
+
+  private final List<BulkRecordError> reported = new ArrayList<>();
+
+  private long count;
+
+  public BulkRecordErrors(final int maxReported) {
+    this.maxReported = maxReported;
+  }
+
+  public void reject(final long record, final String errorInfo) {
+    reject(record, errorInfo, null);
+  }
+
+  public void reject(
+      final long record, final String errorInfo, final List<ErrorModel> fieldLevelErrorMessage) {
+    count++;
+    if (reported.size() < maxReported) {
+      reported.add(
+          BulkRecordError.builder()
+              .record(record)
+              .errorInfo(errorInfo)
+              .fieldLevelErrorMessage(fieldLevelErrorMessage)
+              .build());
+    }
+  }
+
+  /**
+   * Rejects a record the database refused. The exception names tables, constraints and values,
+   * so it is logged and the record gets a fixed message for its kind of failure instead.
+   */
+  public void rejectUnstored(final long record, final RuntimeException e) {
+    log.warn("Record {} could not be stored", record, e);
+    reject(record, unstoredReason(e));
+  }
+
+  static String unstoredReason(final Throwable e) {
+    boolean integrity = false;
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DuplicateKeyException) {
+        return DUPLICATE;
+      }
+      if (cause instanceof SQLException) {
+        String state = ((SQLException) cause).getSQLState();
+        if (UNIQUE_VIOLATION.equals(state)) {
+          return DUPLICATE;
+        }
+        integrity |= state != null && state.startsWith("23");
+      }
+      integrity |= cause instanceof DataIntegrityViolationException;
+    }
+    return integrity ? CONSTRAINT_VIOLATION : UNEXPECTED_ERROR;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public List<BulkRecordError> getReported() {
+    return reported;
+  }
+}
@@ -0,0 +1,220 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.nhs.nhsbsa.employeeskills.response.ErrorModel;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a bulk request body record by record, either as a JSON array or as newline delimited
+ * JSON, validating each record with the same Bean Validation rules as the single-record routes.
+ * Valid records are handed over in batches, so only one batch is ever held in memory.
+ *
+ * <p>A body whose first character is {@code [} is an array; malformed JSON in it ends the read,
+ * since nothing after it can be told apart. Anything else is read one line per record, so a
+ * malformed line is rejected with its line number and the lines after it are still read.
+ */
+@Slf4j
+@Component
+public class BulkRecordReader {
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private Validator validator;
+
+  /**
+   * @return the number of records read from the body, valid or not
+   */
+  public <T> long read(
+      final InputStream body,
+      final Class<T> type,
+      final int batchSize,
+      final BulkRecordErrors errors,
+      final Consumer<List<Record<T>>> batchHandler)
+      throws IOException {
+
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    Batches<T> batches = new Batches<>(batchSize, batchHandler);
+    long received =
+        startsWithArray(reader)
+            ? readArray(reader, type, errors, batches)
+            : readLines(reader, type, errors, batches);
+    batches.flush();
+    return received;
+  }
+
+  private <T> long readArray(
+      final BufferedReader reader,
+      final Class<T> type,
+      final BulkRecordErrors errors,
+      final Batches<T> batches)
+      throws IOException {
+
+    long position = 0;
+    try (MappingIterator<T> records = objectMapper.readerFor(type).readValues(reader)) {
+      while (hasNext(records, position, errors)) {
+        position++;
+        T value;
+        try {
+          value = records.nextValue();
+        } catch (JsonParseException e) {
+          errors.reject(position, "Malformed JSON, the rest of the body was skipped");
+          break;
+        } catch (JsonMappingException e) {
+          errors.reject(position, "Unreadable record: " + e.getOriginalMessage());
+          continue;
+        }
+        accept(position, value, errors, batches);
+      }
+    }
+    return position;
+  }
+
+  /** Blank lines are skipped but still counted, so a record's position is its line number. */
+  private <T> long readLines(
+      final BufferedReader reader,
+      final Class<T> type,
+      final BulkRecordErrors errors,
+      final Batches<T> batches)
+      throws IOException {
+
+    ObjectReader lineReader =
+        objectMapper.readerFor(type).with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    long received = 0;
+    long lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      received++;
+      T value;
+      try {
+        value = lineReader.readValue(line);
+      } catch (JsonParseException e) {
+        log.error("Malformed bulk request body at line {}", lineNumber, e);
+        errors.reject(lineNumber, "Malformed JSON");
+        continue;
+      } catch (JsonMappingException e) {
+        errors.reject(lineNumber, "Unreadable record: " + e.getOriginalMessage());
+        continue;
+      }
+      accept(lineNumber, value, errors, batches);
+    }
+    return received;
+  }
+
+  private <T> void accept(
+      final long position, final T value, final BulkRecordErrors errors, final Batches<T> batches) {
+    if (value == null) {
+      errors.reject(position, "Unreadable record: the record is null");
+      return;
+    }
+    Set<ConstraintViolation<T>> violations = validator.validate(value);
+    if (!violations.isEmpty()) {
+      errors.reject(position, "BadRequestError", toErrorModels(violations));
+      return;
+    }
+    batches.add(new Record<>(position, value));
+  }
+
+  /** Skips leading whitespace and tells whether a JSON array follows, consuming nothing else. */
+  private static boolean startsWithArray(final BufferedReader reader) throws IOException {
+    while (true) {
+      reader.mark(1);
+      int next = reader.read();
+      if (next == -1) {
+        return false;
+      }
+      if (!Character.isWhitespace(next)) {
+        reader.reset();
+        return next == '[';
+      }
+    }
+  }
+
+  private boolean hasNext(
+      final MappingIterator<?> records, final long position, final BulkRecordErrors errors)
+      throws IOException {
+    try {
+      return records.hasNextValue();
+    } catch (JsonParseException e) {
+      log.error("Malformed bulk request body after record {}", position, e);
+      errors.reject(position + 1, "Malformed JSON, the rest of the body was skipped");
+      return false;
+    }
+  }
+
+  private static <T> List<ErrorModel> toErrorModels(final Set<ConstraintViolation<T>> violations) {
+    return violations.stream()
+        .map(
+            violation ->
+                new ErrorModel(
+                    violation.getPropertyPath().toString(),
+                    violation.getInvalidValue(),
+                    violation.getMessage()))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * A validated record together with its 1-based position in the request body, its index in an
+   * array or its line number in newline delimited JSON.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class Record<T> {
+    private final long position;
+    private final T value;
+  }
+
+  /** Collects records into batches of the configured size and hands each one over when full. */
+  private static final class Batches<T> {
+    private final int batchSize;
+    private final Consumer<List<Record<T>>> handler;
+    private List<Record<T>> batch;
+
+    Batches(final int batchSize, final Consumer<List<Record<T>>> handler) {
+      this.batchSize = batchSize;
+      this.handler = handler;
+      this.batch = new ArrayList<>(batchSize);
+    }
+
+    void add(final Record<T> record) {
+      batch.add(record);
+      if (batch.size() == batchSize) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (!batch.isEmpty()) {
+        handler.accept(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
+import uk.nhs.nhsbsa.employeeskills.service.BulkRecordReader.Record;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees from a streamed body. Every batch is written in its own transaction through
+ * Hibernate JDBC batching, and the persistence context is cleared afterwards so memory use does
+ * not grow with the size of the upload.
+ */
+@Service
+@Slf4j
+public class EmployeeBulkImportService implements IEmployeeBulkImportService {
+
+  @Autowired private BulkRecordReader bulkRecordReader;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${employee.bulk.batch-size:500}")
+  private int batchSize;
+
+  @Value("${employee.bulk.max-reported-errors:1000}")
+  private int maxReportedErrors;
+
+  @Override
+  public BulkImportResponse importEmployees(final InputStream body) throws IOException {
+    log.info("Bulk importing employees with batch size: {}", batchSize);
+
+    BulkRecordErrors errors = new BulkRecordErrors(maxReportedErrors);
+    long[] imported = new long[1];
+
+    long received =
+        bulkRecordReader.read(
+            body,
+            EmployeeRegistrationRequest.class,
+            batchSize,
+            errors,
+            batch -> imported[0] += writeBatch(batch, errors));
+
+    log.info("Bulk import finished, received: {}, imported: {}", received, imported[0]);
+
+    return BulkImportResponse.builder()
+        .received(received)
+        .imported(imported[0])
+        .rejected(errors.getCount())
+        .errors(errors.getReported())
+        .message("Bulk import completed")
+        .status(HttpStatus.OK.value())
+        .responseStatus(HttpStatus.OK)
+        .build();
+  }
+
+  private long writeBatch(
+      final List<Record<EmployeeRegistrationRequest>> batch, final BulkRecordErrors errors) {
+    try {
+      persist(batch.stream().map(Record::getValue).collect(Collectors.toList()));
+      return batch.size();
+    } catch (RuntimeException e) {
+      log.error("Batch write failed, retrying its records one by one", e);
+      entityManager.clear();
+    }
+
+    long written = 0;
+    for (Record<EmployeeRegistrationRequest> record : batch) {
+      try {
+        persist(Collections.singletonList(record.getValue()));
+        written++;
+      } catch (RuntimeException e) {
+        entityManager.clear();
+        errors.rejectUnstored(record.getPosition(), e);
+      }
+    }
+    return written;
+  }
+
+  private void persist(final List<EmployeeRegistrationRequest> requests) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          List<Employee> employees =
+              employeeRepository.saveAll(
+                  requests.stream()
+                      .map(EmployeeBulkImportService::toEmployee)
+                      .collect(Collectors.toList()));
+          entityManager.flush();
+          entityManager.clear();
+          eventPublisher.publishEvent(
+              new EmployeesRegisteredEvent(
+                  employees.stream().map(Employee::getEmpId).collect(Collectors.toList())));
+        });
+  }
+
+  private static Employee toEmployee(final EmployeeRegistrationRequest request) {
+    return Employee.builder()
+        .checkSum(UUID.randomUUID().toString())
+        .givenName(request.getGivenName())
+        .familyName(request.getFamilyName())
+        .dateOfBirth(request.getDateOfBirth())
+        .build();
+  }
+}
@@ -0,0 +1,52 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of an employee listing: the last empId returned and, when sorting by family
+ * name, that employee's family name. Encoded as an opaque URL safe token.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public final class EmployeeCursor {
+
+  public static final EmployeeCursor START = new EmployeeCursor(0L, "");
+
+  private final Long empId;
+
+  private final String familyName;
+
+  public String encode() {
+    String raw = empId + ":" + familyName;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return {@link #START} for a missing token, otherwise the decoded position
+   * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+   */
+  public static EmployeeCursor fromToken(final String token) {
+    return token == null || token.isEmpty() ? START : decode(token);
+  }
+
+  /**
+   * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+   */
+  public static EmployeeCursor decode(final String token) {
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    int separator = raw.indexOf(':');
+    if (separator < 1) {
+      throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+    return new EmployeeCursor(
+        Long.valueOf(raw.substring(0, separator)), raw.substring(separator + 1));
+  }
+}
@@ -0,0 +1,162 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole employee to skill matrix. Rows come from one forward-only cursor and are
+ * written as they arrive, so memory use is bounded by one employee's skills whatever the size of
+ * the dataset.
+ *
+ * <p>NDJSON has one line per employee, shaped like the employee listing. CSV has one line per
+ * employee and skill, with empty skill columns for an employee without skills. Both carry the
+ * empId on every line, so an interrupted export resumes from the last complete employee.
+ */
+@Service
+@Slf4j
+public class EmployeeExportService implements IEmployeeExportService {
+
+  public static final String FORMAT_NDJSON = "ndjson";
+
+  public static final String FORMAT_CSV = "csv";
+
+  static final String CSV_HEADER = "empId,givenName,familyName,dateOfBirth,skillId,skill,level";
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Override
+  @Transactional(readOnly = true)
+  public long exportEmployees(final Long afterEmpId, final String format, final OutputStream out)
+      throws IOException {
+    log.info("Exporting employees after empId: {} as {}", afterEmpId, format);
+
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    long exported;
+    try (Stream<EmployeeSkillRow> rows = employeeRepository.streamDetailsAfter(afterEmpId)) {
+      exported =
+          FORMAT_CSV.equals(format)
+              ? writeCsv(rows.iterator(), writer)
+              : writeNdjson(rows.iterator(), writer);
+    }
+    writer.flush();
+
+    log.info("Exported {} employees after empId: {}", exported, afterEmpId);
+    return exported;
+  }
+
+  private long writeNdjson(final Iterator<EmployeeSkillRow> rows, final Writer writer)
+      throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    long exported = 0;
+    EmployeeSkillRow employee = null;
+    Set<SkillDetails> skills = new LinkedHashSet<>();
+    while (rows.hasNext()) {
+      EmployeeSkillRow row = rows.next();
+      if (employee != null && !employee.getEmpId().equals(row.getEmpId())) {
+        writeEmployee(generator, employee, skills);
+        exported++;
+        skills = new LinkedHashSet<>();
+      }
+      employee = row;
+      if (row.getSkillId() != null) {
+        skills.add(new SkillDetails(row.getSkillId(), row.getSkill(), row.getLevel().getLabel()));
+      }
+    }
+    if (employee != null) {
+      writeEmployee(generator, employee, skills);
+      exported++;
+    }
+    generator.flush();
+    return exported;
+  }
+
+  private static void writeEmployee(
+      final JsonGenerator generator,
+      final EmployeeSkillRow employee,
+      final Set<SkillDetails> skills)
+      throws IOException {
+    generator.writeObject(
+        EmployeeSummary.builder()
+            .empId(employee.getEmpId().toString())
+            .givenName(employee.getGivenName())
+            .familyName(employee.getFamilyName())
+            .dateOfBirth(employee.getDateOfBirth())
+            .skills(skills)
+            .build());
+    generator.writeRaw('\n');
+  }
+
+  private static long writeCsv(final Iterator<EmployeeSkillRow> rows, final Writer writer)
+      throws IOException {
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    long exported = 0;
+    Long empId = null;
+    while (rows.hasNext()) {
+      EmployeeSkillRow row = rows.next();
+      if (!row.getEmpId().equals(empId)) {
+        empId = row.getEmpId();
+        exported++;
+      }
+      writer.write(row.getEmpId().toString());
+      writer.write(',');
+      writeCsvField(writer, row.getGivenName());
+      writer.write(',');
+      writeCsvField(writer, row.getFamilyName());
+      writer.write(',');
+      writeCsvField(writer, row.getDateOfBirth());
+      writer.write(',');
+      if (row.getSkillId() != null) {
+        writer.write(row.getSkillId().toString());
+      }
+      writer.write(',');
+      writeCsvField(writer, row.getSkill());
+      writer.write(',');
+      writeCsvField(writer, SkillLevel.labelOf(row.getLevel()));
+      writer.write('\n');
+    }
+    return exported;
+  }
+
+  /** Writes the value as an RFC 4180 field, quoted only when it has to be. */
+  static void writeCsvField(final Writer writer, final String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
@@ -2,17 +2,41 @@ package uk.nhs.nhsbsa.employeeskills.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
 import uk.nhs.nhsbsa.employeeskills.entity.Employee;
-import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeUpdatedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
 import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
 import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
 import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
 import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
-
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -20,10 +44,19 @@ public class EmployeeRegistrationService implements IEmployeeRegistrationService
 
   public static final String THE_REQUESTED_EMP_ID_DOES_NOT_EXIST =
       "The requested empId does not exist";
+
+  public static final String THE_EMPLOYEE_HAS_CHANGED =
+      "The employee has changed since the version in If-Match";
+
+  public static final String SORT_BY_FAMILY_NAME = "familyName";
   @Autowired private EmployeeRepository employeeRepository;
 
   @Autowired private SkillsRepository skillsRepository;
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private SkillCatalog skillCatalog;
+
   @Override
   public EmployeeResponse registerEmployee(
       final EmployeeRegistrationRequest employeeRegistrationRequest) {
@@ -40,38 +73,34 @@ public class EmployeeRegistrationService implements IEmployeeRegistrationService
             .build();
 
     Employee persistedEmp = employeeRepository.save(employee);
+    eventPublisher.publishEvent(
+        new EmployeesRegisteredEvent(Collections.singletonList(persistedEmp.getEmpId())));
 
     return EmployeeResponse.builder()
         .empId(persistedEmp.getEmpId().toString())
         .familyName(persistedEmp.getFamilyName())
         .givenName(persistedEmp.getGivenName())
         .dateOfBirth(persistedEmp.getDateOfBirth())
-        .skills(persistedEmp.getEmpSkillsSet())
+        .skills(SkillDetails.of(persistedEmp.getEmpSkillsSet()))
         .message("Successfully registered")
         .status(HttpStatus.CREATED.value())
         .responseStatus(HttpStatus.CREATED)
         .build();
   }
 
+  /**
+   * Reads the employee and their skills with one outer join straight into immutable rows, so no
+   * entity is managed, snapshotted for dirty checking or lazily loaded during serialisation.
+   */
   @Override
   public EmployeeResponse fetchEmployeeDetails(final Long empId) {
 
     log.info("fetching employee data for empId : {}", empId);
 
-    Optional<Employee> persistedEmp = employeeRepository.findById(empId);
+    List<EmployeeSkillRow> rows = employeeRepository.findDetailsByEmpId(empId);
 
-    if (persistedEmp.isPresent()) {
-      Employee employee = persistedEmp.get();
-      return EmployeeResponse.builder()
-          .skills(employee.getEmpSkillsSet())
-          .givenName(employee.getGivenName())
-          .familyName(employee.getFamilyName())
-          .dateOfBirth(employee.getDateOfBirth())
-          .empId(employee.getEmpId().toString())
-          .responseStatus(HttpStatus.OK)
-          .status(HttpStatus.OK.value())
-          .message("Successfully fetched data")
-          .build();
+    if (!rows.isEmpty()) {
+      return toEmployeeResponse(rows, "Successfully fetched data");
     }
     return EmployeeResponse.builder()
         .status(HttpStatus.OK.value())
@@ -80,43 +109,141 @@ public class EmployeeRegistrationService implements IEmployeeRegistrationService
         .build();
   }
 
+  /** Reads the versions alone, so a conditional GET is answered without loading the skills. */
   @Override
-  public EmployeeResponse updateEmployeeDetails(
-      final Long empId, final EmployeeRegistrationRequest registrationRequest) {
+  public Optional<EmployeeVersion> fetchEmployeeVersion(final Long empId) {
+    return employeeRepository.findVersionByEmpId(empId);
+  }
 
-    log.info("Updating employee with empId: {}", empId);
+  /**
+   * Lists employees with keyset pagination, so every page is an index range scan no matter how
+   * deep it is. The skills of the whole page are then fetched with one additional query.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public PageResponse<EmployeeSummary> listEmployees(
+      final String cursor, final int size, final String sort) {
+
+    log.info("listing employees after cursor: {}, size: {}, sort: {}", cursor, size, sort);
+
+    EmployeeCursor position;
+    try {
+      position = EmployeeCursor.fromToken(cursor);
+    } catch (IllegalArgumentException e) {
+      return PageResponse.<EmployeeSummary>builder()
+          .message("The requested cursor is not valid")
+          .status(HttpStatus.BAD_REQUEST.value())
+          .responseStatus(HttpStatus.BAD_REQUEST)
+          .build();
+    }
+
+    boolean byFamilyName = SORT_BY_FAMILY_NAME.equals(sort);
+    PageRequest page = PageRequest.of(0, size);
+    List<Employee> employees =
+        byFamilyName
+            ? employeeRepository.findPageOrderByFamilyName(
+                position.getFamilyName(), position.getEmpId(), page)
+            : employeeRepository.findPageOrderByEmpId(position.getEmpId(), page);
+
+    if (!employees.isEmpty()) {
+      employeeRepository.fetchSkills(employees);
+    }
+
+    String nextCursor = null;
+    if (employees.size() == size) {
+      Employee last = employees.get(employees.size() - 1);
+      nextCursor =
+          new EmployeeCursor(last.getEmpId(), byFamilyName ? last.getFamilyName() : "").encode();
+    }
+
+    return PageResponse.<EmployeeSummary>builder()
+        .items(
+            employees.stream()
+                .map(
+                    employee ->
+                        EmployeeSummary.builder()
+                            .empId(employee.getEmpId().toString())
+                            .givenName(employee.getGivenName())
+                            .familyName(employee.getFamilyName())
+                            .dateOfBirth(employee.getDateOfBirth())
+                            .skills(SkillDetails.of(employee.getEmpSkillsSet()))
+                            .build())
+                .collect(Collectors.toList()))
+        .nextCursor(nextCursor)
+        .message("Successfully fetched data")
+        .status(HttpStatus.OK.value())
+        .responseStatus(HttpStatus.OK)
+        .build();
+  }
 
-    Optional<Employee> persistedEmp = employeeRepository.findById(empId);
+  /**
+   * Loads the employee and checks the expected version against it before anything is written. A
+   * payload equal to the stored details sends no update at all; any other is flushed by Hibernate
+   * with the loaded version in its where clause, so a write that raced with another one fails with
+   * an optimistic locking failure instead of overwriting it.
+   */
+  @Override
+  @Transactional
+  public EmployeeResponse updateEmployeeDetails(
+      final Long empId,
+      final EmployeeRegistrationRequest registrationRequest,
+      final Long expectedVersion) {
 
-    if (persistedEmp.isPresent()) {
-      Employee employee = persistedEmp.get();
+    log.info("Updating employee with empId: {}", empId);
 
-      employee.setGivenName(registrationRequest.getGivenName());
-      employee.setFamilyName(registrationRequest.getFamilyName());
-      employee.setDateOfBirth(registrationRequest.getDateOfBirth());
-      employeeRepository.save(employee);
+    List<Object[]> found = employeeRepository.findWithSkillsVersion(empId);
+    if (found.isEmpty()) {
       return EmployeeResponse.builder()
           .status(HttpStatus.OK.value())
           .responseStatus(HttpStatus.OK)
-          .message("Successfully updated employee data")
+          .message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)
           .build();
     }
-    return EmployeeResponse.builder()
-        .status(HttpStatus.OK.value())
-        .responseStatus(HttpStatus.OK)
-        .message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)
-        .build();
+    Employee employee = (Employee) found.get(0)[0];
+    long skillsVersion = ((Number) found.get(0)[1]).longValue();
+
+    if (expectedVersion != null && expectedVersion != employee.getVersion()) {
+      return versioned(
+          HttpStatus.PRECONDITION_FAILED,
+          THE_EMPLOYEE_HAS_CHANGED,
+          new EmployeeVersion(employee.getVersion(), skillsVersion));
+    }
+    if (employee.getGivenName().equals(registrationRequest.getGivenName())
+        && employee.getFamilyName().equals(registrationRequest.getFamilyName())
+        && employee.getDateOfBirth().equals(registrationRequest.getDateOfBirth())) {
+      return versioned(
+          HttpStatus.OK,
+          "The employee data is unchanged",
+          new EmployeeVersion(employee.getVersion(), skillsVersion));
+    }
+
+    employee.setGivenName(registrationRequest.getGivenName());
+    employee.setFamilyName(registrationRequest.getFamilyName());
+    employee.setDateOfBirth(registrationRequest.getDateOfBirth());
+    employeeRepository.flush();
+
+    eventPublisher.publishEvent(new EmployeeUpdatedEvent(empId));
+    return versioned(
+        HttpStatus.OK,
+        "Successfully updated employee data",
+        new EmployeeVersion(employee.getVersion(), skillsVersion));
   }
 
+  /**
+   * Removes the skill links and then the employee with one statement each, instead of loading the
+   * employee first; the first returns the skills the employee held and their levels, the row count
+   * of the second tells whether the employee existed.
+   */
   @Override
+  @Transactional
   public EmployeeResponse deleteEmployeeDetails(final Long empId) {
 
     log.info("deleting employee with empId: {}", empId);
 
-    Optional<Employee> persistedEmp = employeeRepository.findById(empId);
+    Map<Long, SkillLevel> skills = toSkillLevels(employeeRepository.deleteAllSkillLinks(empId));
 
-    if (persistedEmp.isPresent()) {
-      employeeRepository.deleteById(empId);
+    if (employeeRepository.deleteByEmpId(empId) > 0) {
+      eventPublisher.publishEvent(new EmployeeDeletedEvent(empId, skills));
       return EmployeeResponse.builder()
           .message("Successfully deleted employee")
           .status(HttpStatus.OK.value())
@@ -131,32 +258,27 @@ public class EmployeeRegistrationService implements IEmployeeRegistrationService
         .build();
   }
 
+  /**
+   * Removes the link with one delete against the primary key of emp_skills; the employee row and
+   * their other skills are never loaded as entities. The employee row is locked first, as every
+   * link writer does, so a delete racing with an add cannot take the locks in the other order.
+   */
   @Override
+  @Transactional
   public EmployeeResponse deleteSkillFromEmployee(final Long empId, final Long skillId) {
 
     log.info("deleting a skill with skillId: {} to the employee with empId: {}", skillId, empId);
 
-    Optional<Employee> fetchedEmp = employeeRepository.findById(empId);
-    Optional<Skills> fetchedSkill = skillsRepository.findById(skillId);
-
-    if (fetchedEmp.isPresent() && fetchedSkill.isPresent()) {
-      Employee employee = fetchedEmp.get();
-      Skills skills = fetchedSkill.get();
-
-      if (employee.getEmpSkillsSet().contains(skills)) {
-        employee.getEmpSkillsSet().remove(skills);
-        Employee persistedEmp = employeeRepository.save(employee);
-
-        return EmployeeResponse.builder()
-            .givenName(persistedEmp.getGivenName())
-            .familyName(persistedEmp.getFamilyName())
-            .dateOfBirth(persistedEmp.getDateOfBirth())
-            .skills(persistedEmp.getEmpSkillsSet())
-            .empId(persistedEmp.getEmpId().toString())
-            .status(HttpStatus.OK.value())
-            .responseStatus(HttpStatus.OK)
-            .message("Successfully deleted the skill")
-            .build();
+    if (skillCatalog.contains(skillId) && employeeRepository.lockEmployee(empId).isPresent()) {
+      Map<Long, SkillLevel> removed =
+          toSkillLevels(
+              employeeRepository.deleteSkillLinks(empId, Collections.singleton(skillId)));
+      if (!removed.isEmpty()) {
+        employeeRepository.bumpVersion(empId);
+        eventPublisher.publishEvent(
+            new EmployeeSkillsChangedEvent(empId, Collections.emptyMap(), removed));
+        return toEmployeeResponse(
+            employeeRepository.findDetailsByEmpId(empId), "Successfully deleted the skill");
       }
       return EmployeeResponse.builder()
           .message("The requested empId doesn't have this skill")
@@ -171,34 +293,225 @@ public class EmployeeRegistrationService implements IEmployeeRegistrationService
         .build();
   }
 
+  /**
+   * Inserts the link with one idempotent statement under the employee row lock, so concurrent adds
+   * to the same employee can neither lose each other nor fail on the primary key. The skill row is
+   * locked as well, see {@link SkillsRepository#lockSkills}. A new link gets the requested level,
+   * or without one the level the skill was registered with. Adding a skill the employee already
+   * holds moves the link to the requested level, and otherwise succeeds without a change.
+   */
   @Override
-  public EmployeeResponse addSkillsToEmployee(final Long empId, final Long skillId) {
-
-    log.info("adding a skill with skillId: {} to the employee with empId: {}", skillId, empId);
-
-    Optional<Employee> fetchedEmp = employeeRepository.findById(empId);
-    Optional<Skills> fetchedSkills = skillsRepository.findById(skillId);
-
-    if (fetchedEmp.isPresent() && fetchedSkills.isPresent()) {
-      Employee employee = fetchedEmp.get();
-      employee.getEmpSkillsSet().add(fetchedSkills.get());
-      Employee persistedEmp = employeeRepository.save(employee);
+  @Transactional
+  public EmployeeResponse addSkillsToEmployee(
+      final Long empId, final Long skillId, final String level) {
+
+    log.info(
+        "adding a skill with skillId: {} at level: {} to the employee with empId: {}",
+        skillId,
+        level,
+        empId);
+
+    SkillLevel requested = level == null ? null : SkillLevel.fromLabel(level);
+    if (skillCatalog.contains(skillId)
+        && employeeRepository.lockEmployee(empId).isPresent()
+        && !skillsRepository.lockSkills(Collections.singleton(skillId)).isEmpty()) {
+      Map<Long, SkillLevel> added = new LinkedHashMap<>();
+      Map<Long, SkillLevel> removed = Collections.emptyMap();
+      SkillLevel linked = levelToLink(skillCatalog, skillId, requested);
+      if (employeeRepository.insertSkillLink(empId, skillId, linked.getCode()) > 0) {
+        added.put(skillId, linked);
+      } else if (requested != null) {
+        removed =
+            toSkillLevels(
+                employeeRepository.updateSkillLevels(
+                    empId, Collections.singleton(skillId), requested.getCode()));
+        if (!removed.isEmpty()) {
+          added.put(skillId, requested);
+        }
+      }
+      if (!added.isEmpty()) {
+        employeeRepository.bumpVersion(empId);
+        eventPublisher.publishEvent(new EmployeeSkillsChangedEvent(empId, added, removed));
+      }
+      return toEmployeeResponse(
+          employeeRepository.findDetailsByEmpId(empId), "Successfully added skill to the employee");
+    }
+    return EmployeeResponse.builder()
+        .message("The requested empId or skillId does not exist")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
 
+  /**
+   * Adds the requested skills to the employee, or replaces the current set with them. All ids are
+   * checked against the skill catalog and only the difference to the stored links is inserted,
+   * moved to another level or deleted, with one statement per level, under the employee row lock
+   * so concurrent assignments apply one after the other.
+   */
+  @Override
+  @Transactional
+  public EmployeeResponse assignSkillsToEmployee(
+      final Long empId, final EmployeeSkillsAssignmentRequest assignmentRequest) {
+
+    boolean replace =
+        EmployeeSkillsAssignmentRequest.MODE_REPLACE.equals(assignmentRequest.getMode());
+    log.info(
+        "assigning skills with skillIds: {} to the employee with empId: {}, replace: {}",
+        assignmentRequest.getSkillIds(),
+        empId,
+        replace);
+
+    if (!employeeRepository.lockEmployee(empId).isPresent()) {
       return EmployeeResponse.builder()
-          .givenName(persistedEmp.getGivenName())
-          .familyName(persistedEmp.getFamilyName())
-          .dateOfBirth(persistedEmp.getDateOfBirth())
-          .skills(persistedEmp.getEmpSkillsSet())
-          .empId(persistedEmp.getEmpId().toString())
-          .message("Successfully added skill to the employee")
+          .message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)
           .responseStatus(HttpStatus.OK)
           .status(HttpStatus.OK.value())
           .build();
     }
+
+    Set<Long> requested = new LinkedHashSet<>(assignmentRequest.getSkillIds());
+    if (!requested.isEmpty()) {
+      Set<Long> missing = new LinkedHashSet<>(requested);
+      missing.removeIf(skillCatalog::contains);
+      if (!missing.isEmpty()) {
+        return EmployeeResponse.builder()
+            .message("The requested skillIds do not exist: " + missing)
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .build();
+      }
+    }
+
+    Map<Long, SkillLevel> levels = requestedLevels(assignmentRequest);
+    Map<Long, SkillLevel> current = toSkillLevels(employeeRepository.findSkillLinksByEmpId(empId));
+
+    Map<Long, SkillLevel> added = new LinkedHashMap<>();
+    Map<Long, SkillLevel> removed = new LinkedHashMap<>();
+    Map<SkillLevel, Set<Long>> toInsert = new EnumMap<>(SkillLevel.class);
+    Map<SkillLevel, Set<Long>> toMove = new EnumMap<>(SkillLevel.class);
+    for (Long skillId : requested) {
+      SkillLevel held = current.get(skillId);
+      SkillLevel level = levels.get(skillId);
+      if (held == null) {
+        SkillLevel linked = levelToLink(skillCatalog, skillId, level);
+        toInsert.computeIfAbsent(linked, key -> new LinkedHashSet<>()).add(skillId);
+        added.put(skillId, linked);
+      } else if (level != null && level != held) {
+        toMove.computeIfAbsent(level, key -> new LinkedHashSet<>()).add(skillId);
+        removed.put(skillId, held);
+        added.put(skillId, level);
+      }
+    }
+
+    if (!toInsert.isEmpty()) {
+      Set<Long> toAdd = new LinkedHashSet<>();
+      toInsert.values().forEach(toAdd::addAll);
+      skillsRepository.lockSkills(toAdd);
+      toInsert.forEach(
+          (level, skillIds) ->
+              employeeRepository.insertSkillLinks(empId, skillIds, level.getCode()));
+    }
+    toMove.forEach(
+        (level, skillIds) ->
+            employeeRepository.updateSkillLevels(empId, skillIds, level.getCode()));
+
+    if (replace) {
+      Set<Long> toRemove = new HashSet<>(current.keySet());
+      toRemove.removeAll(requested);
+      if (!toRemove.isEmpty()) {
+        removed.putAll(toSkillLevels(employeeRepository.deleteSkillLinks(empId, toRemove)));
+      }
+    }
+
+    if (!added.isEmpty() || !removed.isEmpty()) {
+      employeeRepository.bumpVersion(empId);
+      eventPublisher.publishEvent(new EmployeeSkillsChangedEvent(empId, added, removed));
+    }
+
+    return toEmployeeResponse(
+        employeeRepository.findDetailsByEmpId(empId),
+        "Successfully assigned skills to the employee");
+  }
+
+  /** @return the levels the request asks for by skillId, for the requested skills only */
+  static Map<Long, SkillLevel> requestedLevels(
+      final EmployeeSkillsAssignmentRequest assignmentRequest) {
+    Map<Long, SkillLevel> levels = new LinkedHashMap<>();
+    if (assignmentRequest.getLevels() != null) {
+      assignmentRequest
+          .getLevels()
+          .forEach((skillId, level) -> levels.put(skillId, SkillLevel.fromLabel(level)));
+      levels.keySet().retainAll(assignmentRequest.getSkillIds());
+    }
+    return levels;
+  }
+
+  /**
+   * @return the requested level, or without one the level the skill was registered with, so a
+   *     client that never sends a level links at the level it registered the skill at
+   */
+  static SkillLevel levelToLink(
+      final SkillCatalog skillCatalog, final Long skillId, final SkillLevel requested) {
+    if (requested != null) {
+      return requested;
+    }
+    // A skill missing from the catalog was deleted meanwhile and its lock finds no row to link.
+    return skillCatalog.find(skillId).map(SkillEntry::getLevel).orElse(SkillLevel.AWARENESS);
+  }
+
+  /** @return the levels of (skills_id, level) rows of emp_skills by skillId */
+  static Map<Long, SkillLevel> toSkillLevels(final List<Object[]> links) {
+    Map<Long, SkillLevel> levels = new LinkedHashMap<>();
+    for (Object[] link : links) {
+      levels.put(
+          ((Number) link[0]).longValue(), SkillLevel.fromCode(((Number) link[1]).intValue()));
+    }
+    return levels;
+  }
+
+  /** A response without a body that carries the versions of the employee as its ETag. */
+  static EmployeeResponse versioned(
+      final HttpStatus status, final String message, final EmployeeVersion version) {
+    return EmployeeResponse.builder()
+        .version(version)
+        .responseStatus(status)
+        .status(status.value())
+        .message(message)
+        .build();
+  }
+
+  /** The versions of one employee from their rows of the employee to skills join. */
+  static EmployeeVersion versionOf(final List<EmployeeSkillRow> rows) {
+    long skillsVersion = 0;
+    for (EmployeeSkillRow row : rows) {
+      if (row.getSkillId() != null) {
+        skillsVersion += row.getSkillVersion();
+      }
+    }
+    return new EmployeeVersion(rows.get(0).getVersion(), skillsVersion);
+  }
+
+  /** Builds the response of one employee from their rows of the employee to skills join. */
+  static EmployeeResponse toEmployeeResponse(
+      final List<EmployeeSkillRow> rows, final String message) {
+    EmployeeSkillRow employee = rows.get(0);
+    Set<SkillDetails> skills = new LinkedHashSet<>();
+    for (EmployeeSkillRow row : rows) {
+      if (row.getSkillId() != null) {
+        skills.add(new SkillDetails(row.getSkillId(), row.getSkill(), row.getLevel().getLabel()));
+      }
+    }
     return EmployeeResponse.builder()
-        .message("The requested empId or skillId does not exist")
+        .skills(Collections.unmodifiableSet(skills))
+        .givenName(employee.getGivenName())
+        .familyName(employee.getFamilyName())
+        .dateOfBirth(employee.getDateOfBirth())
+        .empId(employee.getEmpId().toString())
+        .version(versionOf(rows))
         .responseStatus(HttpStatus.OK)
         .status(HttpStatus.OK.value())
+        .message(message)
         .build();
   }
 }
@@ -0,0 +1,123 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.index.SkillBitmapIndex;
+import uk.nhs.nhsbsa.employeeskills.index.SkillExpression;
+import uk.nhs.nhsbsa.employeeskills.index.StaffingIndex;
+import uk.nhs.nhsbsa.employeeskills.request.SkillRequirement;
+import uk.nhs.nhsbsa.employeeskills.request.StaffingProfileRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSearchResponse;
+import uk.nhs.nhsbsa.employeeskills.response.RankedEmployee;
+import uk.nhs.nhsbsa.employeeskills.response.SkillIndexStatsResponse;
+import uk.nhs.nhsbsa.employeeskills.response.StaffingRankingResponse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class EmployeeSearchService implements IEmployeeSearchService {
+
+  @Autowired private SkillBitmapIndex skillBitmapIndex;
+
+  @Autowired private StaffingIndex staffingIndex;
+
+  @Override
+  public EmployeeSearchResponse searchEmployees(
+      final String query, final String cursor, final int size) {
+    log.info("searching employees matching: {}, after cursor: {}", query, cursor);
+
+    SkillExpression expression;
+    EmployeeCursor position;
+    try {
+      expression = SkillExpression.parse(query);
+      position = EmployeeCursor.fromToken(cursor);
+    } catch (IllegalArgumentException e) {
+      return EmployeeSearchResponse.builder()
+          .query(query)
+          .message("The requested query or cursor is not valid: " + e.getMessage())
+          .responseStatus(HttpStatus.BAD_REQUEST)
+          .status(HttpStatus.BAD_REQUEST.value())
+          .build();
+    }
+
+    SkillBitmapIndex.Matches matches =
+        skillBitmapIndex.search(expression, position.getEmpId(), size);
+    List<Long> empIds = matches.getEmpIds();
+    return EmployeeSearchResponse.builder()
+        .query(query)
+        .matchCount(matches.getMatchCount())
+        .empIds(empIds)
+        .nextCursor(
+            matches.isMore()
+                ? new EmployeeCursor(empIds.get(empIds.size() - 1), "").encode()
+                : null)
+        .message("Successfully searched employees")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  @Override
+  public SkillIndexStatsResponse fetchIndexStats() {
+    SkillBitmapIndex.Stats stats = skillBitmapIndex.stats();
+    return SkillIndexStatsResponse.builder()
+        .employees(stats.getEmployees())
+        .skills(stats.getSkills())
+        .links(stats.getLinks())
+        .sizeInBytes(stats.getSizeInBytes())
+        .serializedSizeInBytes(stats.getSerializedSizeInBytes())
+        .denseSizeInBytes(stats.getDenseSizeInBytes())
+        .message("Successfully fetched skill index stats")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  /**
+   * Ranks every employee against the profile in memory. A skill may appear once in a profile, as
+   * its levels are already covered by the minimum level.
+   */
+  @Override
+  public StaffingRankingResponse rankEmployees(
+      final StaffingProfileRequest profile, final int limit) {
+    log.info("ranking employees against {} skills, limit: {}", profile.getSkills().size(), limit);
+
+    Set<String> names = new HashSet<>();
+    List<StaffingIndex.Requirement> requirements = new ArrayList<>();
+    for (SkillRequirement skill : profile.getSkills()) {
+      if (!names.add(skill.getSkill().toUpperCase(Locale.ROOT))) {
+        return StaffingRankingResponse.builder()
+            .message("The profile names the skill " + skill.getSkill() + " more than once")
+            .responseStatus(HttpStatus.BAD_REQUEST)
+            .status(HttpStatus.BAD_REQUEST.value())
+            .build();
+      }
+      requirements.add(
+          new StaffingIndex.Requirement(
+              skill.getSkill(),
+              SkillLevel.fromLabel(skill.getMinimumLevel()),
+              skill.isRequired()));
+    }
+
+    StaffingIndex.Ranking ranking = staffingIndex.rank(requirements, limit);
+    return StaffingRankingResponse.builder()
+        .candidateCount(ranking.getCandidateCount())
+        .candidates(
+            ranking.getCandidates().stream()
+                .map(candidate -> new RankedEmployee(candidate.getEmpId(), candidate.getScore()))
+                .collect(Collectors.toList()))
+        .message("Successfully ranked employees")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+}
@@ -0,0 +1,11 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IEmployeeBulkImportService {
+
+  BulkImportResponse importEmployees(InputStream body) throws IOException;
+}
@@ -0,0 +1,15 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IEmployeeExportService {
+
+  /**
+   * Writes every employee with an empId greater than {@code afterEmpId}, with their skills, in
+   * empId order.
+   *
+   * @return the number of employees written
+   */
+  long exportEmployees(Long afterEmpId, String format, OutputStream out) throws IOException;
+}
@@ -1,7 +1,13 @@
 package uk.nhs.nhsbsa.employeeskills.service;
 
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
 import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
 import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+
+import java.util.Optional;
 
 public interface IEmployeeRegistrationService {
 
@@ -9,12 +15,29 @@ public interface IEmployeeRegistrationService {
 
   EmployeeResponse fetchEmployeeDetails(Long empId);
 
+  /** @return the versions the ETag of the employee is built from, empty when it does not exist */
+  Optional<EmployeeVersion> fetchEmployeeVersion(Long empId);
+
+  PageResponse<EmployeeSummary> listEmployees(String cursor, int size, String sort);
+
+  /**
+   * @param expectedVersion the version the update is conditional on, null for none
+   * @return 412 when the employee is at another version; an update that changes nothing is not
+   *     written
+   */
   EmployeeResponse updateEmployeeDetails(
-      Long empId, EmployeeRegistrationRequest registrationRequest);
+      Long empId, EmployeeRegistrationRequest registrationRequest, Long expectedVersion);
 
   EmployeeResponse deleteEmployeeDetails(Long empId);
 
   EmployeeResponse deleteSkillFromEmployee(Long empId, Long skillId);
 
-  EmployeeResponse addSkillsToEmployee(Long empId, Long skillId);
+  /**
+   * @param level the level of the link, null to link at the default level or keep the level of an
+   *     existing link
+   */
+  EmployeeResponse addSkillsToEmployee(Long empId, Long skillId, String level);
+
+  EmployeeResponse assignSkillsToEmployee(
+      Long empId, EmployeeSkillsAssignmentRequest assignmentRequest);
 }
@@ -0,0 +1,15 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import uk.nhs.nhsbsa.employeeskills.request.StaffingProfileRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSearchResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillIndexStatsResponse;
+import uk.nhs.nhsbsa.employeeskills.response.StaffingRankingResponse;
+
+public interface IEmployeeSearchService {
+
+  EmployeeSearchResponse searchEmployees(String query, String cursor, int size);
+
+  SkillIndexStatsResponse fetchIndexStats();
+
+  StaffingRankingResponse rankEmployees(StaffingProfileRequest profile, int limit);
+}
@@ -0,0 +1,36 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+
+/** Non-blocking counterpart of {@link IEmployeeRegistrationService}, with the same responses. */
+public interface IReactiveEmployeeRegistrationService {
+
+  Mono<EmployeeResponse> registerEmployee(EmployeeRegistrationRequest employeeRegistrationRequest);
+
+  Mono<EmployeeResponse> fetchEmployeeDetails(Long empId);
+
+  /** @return the versions the ETag of the employee is built from, empty when it does not exist */
+  Mono<EmployeeVersion> fetchEmployeeVersion(Long empId);
+
+  Mono<PageResponse<EmployeeSummary>> listEmployees(String cursor, int size, String sort);
+
+  /** As {@link IEmployeeRegistrationService#updateEmployeeDetails}. */
+  Mono<EmployeeResponse> updateEmployeeDetails(
+      Long empId, EmployeeRegistrationRequest registrationRequest, Long expectedVersion);
+
+  Mono<EmployeeResponse> deleteEmployeeDetails(Long empId);
+
+  Mono<EmployeeResponse> deleteSkillFromEmployee(Long empId, Long skillId);
+
+  /** As {@link IEmployeeRegistrationService#addSkillsToEmployee}. */
+  Mono<EmployeeResponse> addSkillsToEmployee(Long empId, Long skillId, String level);
+
+  Mono<EmployeeResponse> assignSkillsToEmployee(
+      Long empId, EmployeeSkillsAssignmentRequest assignmentRequest);
+}
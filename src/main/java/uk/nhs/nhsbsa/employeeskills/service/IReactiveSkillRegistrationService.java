@@ -0,0 +1,30 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+
+/** Non-blocking counterpart of {@link ISkillRegistrationService}, with the same responses. */
+public interface IReactiveSkillRegistrationService {
+
+  Mono<SkillsResponse> registerSkills(SkillsRegistrationRequest registrationRequest);
+
+  Mono<SkillsResponse> fetchRegisteredSkill(Long skillId);
+
+  Mono<SkillsCatalogResponse> fetchSkillCatalog(String minLevel, String maxLevel);
+
+  Mono<SkillInventoryResponse> fetchSkillInventory();
+
+  Mono<PageResponse<EmployeeSummary>> listSkillHolders(
+      Long skillId, String minLevel, String maxLevel, String cursor, int size);
+
+  Mono<SkillsResponse> deleteRegisteredSkill(Long skillId);
+
+  /** As {@link ISkillRegistrationService#updateRegisteredSkills}. */
+  Mono<SkillsResponse> updateRegisteredSkills(
+      SkillsRegistrationRequest registrationRequest, Long skillId, Long expectedVersion);
+}
@@ -0,0 +1,11 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import uk.nhs.nhsbsa.employeeskills.response.SkillsBulkUpsertResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ISkillBulkUpsertService {
+
+  SkillsBulkUpsertResponse upsertSkills(InputStream body) throws IOException;
+}
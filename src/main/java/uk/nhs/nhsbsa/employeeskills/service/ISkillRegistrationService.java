@@ -1,16 +1,46 @@
 package uk.nhs.nhsbsa.employeeskills.service;
 
 import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
 import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
 
+import java.util.Optional;
+
 public interface ISkillRegistrationService {
 
   SkillsResponse registerSkills(SkillsRegistrationRequest registrationRequest);
 
   SkillsResponse fetchRegisteredSkill(Long skillId);
 
+  /** @return the version the ETag of the skill is built from, empty when it does not exist */
+  Optional<Long> fetchSkillVersion(Long skillId);
+
+  /**
+   * @param minLevel the least proficient level listed, null for all
+   * @param maxLevel the most proficient level listed, null for all
+   */
+  SkillsCatalogResponse fetchSkillCatalog(String minLevel, String maxLevel);
+
+  /** @return the holders of every skill name by level, without counting links */
+  SkillInventoryResponse fetchSkillInventory();
+
+  /**
+   * @param minLevel the least proficient level listed, null for all
+   * @param maxLevel the most proficient level listed, null for all
+   */
+  PageResponse<EmployeeSummary> listSkillHolders(
+      Long skillId, String minLevel, String maxLevel, String cursor, int size);
+
   SkillsResponse deleteRegisteredSkill(Long skillId);
 
+  /**
+   * @param expectedVersion the version the update is conditional on, null for none
+   * @return 412 when the skill is at another version; an update that changes nothing is not
+   *     written
+   */
   SkillsResponse updateRegisteredSkills(
-      SkillsRegistrationRequest registrationRequest, Long skillId);
+      SkillsRegistrationRequest registrationRequest, Long skillId, Long expectedVersion);
 }
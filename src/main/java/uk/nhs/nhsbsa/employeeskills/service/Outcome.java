@@ -0,0 +1,30 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.Value;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * The response of a reactive write together with the event it causes, carried out of the
+ * transaction so the event is only published once the transaction has committed, as the
+ * {@code @TransactionalEventListener}s of the caches expect.
+ */
+@Value
+class Outcome<T> {
+  T response;
+  Object event;
+
+  static <T> Outcome<T> of(final T response) {
+    return new Outcome<>(response, null);
+  }
+
+  static <T> Outcome<T> of(final T response, final Object event) {
+    return new Outcome<>(response, event);
+  }
+
+  T publish(final ApplicationEventPublisher eventPublisher) {
+    if (event != null) {
+      eventPublisher.publishEvent(event);
+    }
+    return response;
+  }
+}
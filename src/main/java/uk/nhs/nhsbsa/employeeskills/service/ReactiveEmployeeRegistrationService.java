@@ -0,0 +1,479 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeUpdatedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
+import uk.nhs.nhsbsa.employeeskills.repository.ReactiveEmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.ReactiveSkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.SORT_BY_FAMILY_NAME;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.THE_EMPLOYEE_HAS_CHANGED;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.THE_REQUESTED_EMP_ID_DOES_NOT_EXIST;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.levelToLink;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.requestedLevels;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.toEmployeeResponse;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.versionOf;
+import static uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService.versioned;
+
+/**
+ * {@link EmployeeRegistrationService} over R2DBC: the same statements, the same row locks and the
+ * same events, but no thread waits for the database. Events are published once the transaction
+ * has committed, see {@link Outcome}.
+ */
+@Service
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeRegistrationService implements IReactiveEmployeeRegistrationService {
+
+  private static final String EMP_ID_OR_SKILL_ID_DOES_NOT_EXIST =
+      "The requested empId or skillId does not exist";
+
+  @Autowired private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired private ReactiveSkillsRepository skillsRepository;
+
+  @Autowired private TransactionalOperator transactionalOperator;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private SkillCatalog skillCatalog;
+
+  @Override
+  public Mono<EmployeeResponse> registerEmployee(
+      final EmployeeRegistrationRequest employeeRegistrationRequest) {
+    log.info("Register employee");
+
+    return employeeRepository
+        .insert(
+            UUID.randomUUID().toString(),
+            employeeRegistrationRequest.getGivenName(),
+            employeeRegistrationRequest.getFamilyName(),
+            employeeRegistrationRequest.getDateOfBirth())
+        .map(
+            empId -> {
+              eventPublisher.publishEvent(
+                  new EmployeesRegisteredEvent(Collections.singletonList(empId)));
+              return EmployeeResponse.builder()
+                  .empId(empId.toString())
+                  .familyName(employeeRegistrationRequest.getFamilyName())
+                  .givenName(employeeRegistrationRequest.getGivenName())
+                  .dateOfBirth(employeeRegistrationRequest.getDateOfBirth())
+                  .message("Successfully registered")
+                  .status(HttpStatus.CREATED.value())
+                  .responseStatus(HttpStatus.CREATED)
+                  .build();
+            });
+  }
+
+  @Override
+  public Mono<EmployeeResponse> fetchEmployeeDetails(final Long empId) {
+    log.info("fetching employee data for empId : {}", empId);
+
+    return employeeRepository
+        .findDetailsByEmpId(empId)
+        .collectList()
+        .map(
+            rows ->
+                rows.isEmpty()
+                    ? message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)
+                    : toEmployeeResponse(rows, "Successfully fetched data"));
+  }
+
+  @Override
+  public Mono<EmployeeVersion> fetchEmployeeVersion(final Long empId) {
+    return employeeRepository.findVersionByEmpId(empId);
+  }
+
+  /** Keyset pagination as in the blocking service, with the page and its skills in one query. */
+  @Override
+  public Mono<PageResponse<EmployeeSummary>> listEmployees(
+      final String cursor, final int size, final String sort) {
+    log.info("listing employees after cursor: {}, size: {}, sort: {}", cursor, size, sort);
+
+    EmployeeCursor position;
+    try {
+      position = EmployeeCursor.fromToken(cursor);
+    } catch (IllegalArgumentException e) {
+      return Mono.just(
+          PageResponse.<EmployeeSummary>builder()
+              .message("The requested cursor is not valid")
+              .status(HttpStatus.BAD_REQUEST.value())
+              .responseStatus(HttpStatus.BAD_REQUEST)
+              .build());
+    }
+
+    boolean byFamilyName = SORT_BY_FAMILY_NAME.equals(sort);
+    return (byFamilyName
+            ? employeeRepository.findPageOrderByFamilyName(
+                position.getFamilyName(), position.getEmpId(), size)
+            : employeeRepository.findPageOrderByEmpId(position.getEmpId(), size))
+        .bufferUntilChanged(EmployeeSkillRow::getEmpId)
+        .map(ReactiveEmployeeRegistrationService::toEmployeeSummary)
+        .collectList()
+        .map(
+            employees -> {
+              String nextCursor = null;
+              if (employees.size() == size) {
+                EmployeeSummary last = employees.get(employees.size() - 1);
+                nextCursor =
+                    new EmployeeCursor(
+                            Long.valueOf(last.getEmpId()),
+                            byFamilyName ? last.getFamilyName() : "")
+                        .encode();
+              }
+              return PageResponse.<EmployeeSummary>builder()
+                  .items(employees)
+                  .nextCursor(nextCursor)
+                  .message("Successfully fetched data")
+                  .status(HttpStatus.OK.value())
+                  .responseStatus(HttpStatus.OK)
+                  .build();
+            });
+  }
+
+  /**
+   * The employee is read with their skills, for the versions of both, and checked as in {@link
+   * EmployeeRegistrationService}; the update carries the version it was read at, and finding it
+   * changed fails as Hibernate's flush would.
+   */
+  @Override
+  public Mono<EmployeeResponse> updateEmployeeDetails(
+      final Long empId,
+      final EmployeeRegistrationRequest registrationRequest,
+      final Long expectedVersion) {
+    log.info("Updating employee with empId: {}", empId);
+
+    return employeeRepository
+        .findDetailsByEmpId(empId)
+        .collectList()
+        .filter(rows -> !rows.isEmpty())
+        .flatMap(
+            rows -> {
+              EmployeeSkillRow employee = rows.get(0);
+              EmployeeVersion read = versionOf(rows);
+              if (expectedVersion != null && expectedVersion != employee.getVersion()) {
+                return Mono.just(
+                    Outcome.of(
+                        versioned(
+                            HttpStatus.PRECONDITION_FAILED, THE_EMPLOYEE_HAS_CHANGED, read)));
+              }
+              if (employee.getGivenName().equals(registrationRequest.getGivenName())
+                  && employee.getFamilyName().equals(registrationRequest.getFamilyName())
+                  && employee.getDateOfBirth().equals(registrationRequest.getDateOfBirth())) {
+                return Mono.just(
+                    Outcome.of(versioned(HttpStatus.OK, "The employee data is unchanged", read)));
+              }
+              return employeeRepository
+                  .updateDetails(
+                      empId,
+                      registrationRequest.getGivenName(),
+                      registrationRequest.getFamilyName(),
+                      registrationRequest.getDateOfBirth(),
+                      employee.getVersion())
+                  .filter(updated -> updated > 0)
+                  .switchIfEmpty(
+                      Mono.error(
+                          new OptimisticLockingFailureException(
+                              "Employee " + empId + " changed while being updated")))
+                  .map(
+                      updated ->
+                          Outcome.of(
+                              versioned(
+                                  HttpStatus.OK,
+                                  "Successfully updated employee data",
+                                  new EmployeeVersion(
+                                      read.getVersion() + 1, read.getSkillsVersion())),
+                              new EmployeeUpdatedEvent(empId)));
+            })
+        .defaultIfEmpty(Outcome.of(message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  @Override
+  public Mono<EmployeeResponse> deleteEmployeeDetails(final Long empId) {
+    log.info("deleting employee with empId: {}", empId);
+
+    return employeeRepository
+        .deleteAllSkillLinks(empId)
+        .flatMap(
+            skills ->
+                employeeRepository
+                    .deleteByEmpId(empId)
+                    .map(
+                        deleted ->
+                            deleted > 0
+                                ? Outcome.of(
+                                    message("Successfully deleted employee"),
+                                    new EmployeeDeletedEvent(empId, skills))
+                                : Outcome.of(message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST))))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  @Override
+  public Mono<EmployeeResponse> deleteSkillFromEmployee(final Long empId, final Long skillId) {
+    log.info("deleting a skill with skillId: {} to the employee with empId: {}", skillId, empId);
+
+    if (!skillCatalog.contains(skillId)) {
+      return Mono.just(message(EMP_ID_OR_SKILL_ID_DOES_NOT_EXIST));
+    }
+    return employeeRepository
+        .lockEmployee(empId)
+        .flatMap(
+            locked -> employeeRepository.deleteSkillLinks(empId, Collections.singleton(skillId)))
+        .flatMap(
+            removed -> {
+              if (!removed.isEmpty()) {
+                return employeeRepository
+                    .bumpVersion(empId)
+                    .thenMany(employeeRepository.findDetailsByEmpId(empId))
+                    .collectList()
+                    .map(
+                        rows ->
+                            Outcome.of(
+                                toEmployeeResponse(rows, "Successfully deleted the skill"),
+                                new EmployeeSkillsChangedEvent(
+                                    empId, Collections.emptyMap(), removed)));
+              }
+              return Mono.just(Outcome.of(message("The requested empId doesn't have this skill")));
+            })
+        .defaultIfEmpty(Outcome.of(message(EMP_ID_OR_SKILL_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  /**
+   * Inserts the link under the employee and skill row locks, or moves an existing one to the
+   * requested level, as the blocking service does.
+   */
+  @Override
+  public Mono<EmployeeResponse> addSkillsToEmployee(
+      final Long empId, final Long skillId, final String level) {
+    log.info(
+        "adding a skill with skillId: {} at level: {} to the employee with empId: {}",
+        skillId,
+        level,
+        empId);
+
+    if (!skillCatalog.contains(skillId)) {
+      return Mono.just(message(EMP_ID_OR_SKILL_ID_DOES_NOT_EXIST));
+    }
+    SkillLevel requested = level == null ? null : SkillLevel.fromLabel(level);
+    SkillLevel linked = levelToLink(skillCatalog, skillId, requested);
+    return employeeRepository
+        .lockEmployee(empId)
+        .flatMap(locked -> skillsRepository.lockSkills(Collections.singleton(skillId)).next())
+        .flatMap(
+            locked ->
+                employeeRepository
+                    .insertSkillLink(empId, skillId, linked)
+                    .flatMap(
+                        inserted -> {
+                          if (inserted > 0) {
+                            return Mono.just(
+                                new EmployeeSkillsChangedEvent(
+                                    empId,
+                                    Collections.singletonMap(skillId, linked),
+                                    Collections.emptyMap()));
+                          }
+                          if (requested == null) {
+                            return Mono.empty();
+                          }
+                          return employeeRepository
+                              .updateSkillLevels(empId, Collections.singleton(skillId), requested)
+                              .filter(removed -> !removed.isEmpty())
+                              .map(
+                                  removed ->
+                                      new EmployeeSkillsChangedEvent(
+                                          empId,
+                                          Collections.singletonMap(skillId, requested),
+                                          removed));
+                        })
+                    .flatMap(event -> employeeRepository.bumpVersion(empId).thenReturn(event))
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(
+                        event ->
+                            employeeRepository
+                                .findDetailsByEmpId(empId)
+                                .collectList()
+                                .map(
+                                    rows ->
+                                        Outcome.of(
+                                            toEmployeeResponse(
+                                                rows, "Successfully added skill to the employee"),
+                                            event.orElse(null)))))
+        .defaultIfEmpty(Outcome.of(message(EMP_ID_OR_SKILL_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  /** Writes only the difference to the stored links, under the employee row lock. */
+  @Override
+  public Mono<EmployeeResponse> assignSkillsToEmployee(
+      final Long empId, final EmployeeSkillsAssignmentRequest assignmentRequest) {
+
+    boolean replace =
+        EmployeeSkillsAssignmentRequest.MODE_REPLACE.equals(assignmentRequest.getMode());
+    log.info(
+        "assigning skills with skillIds: {} to the employee with empId: {}, replace: {}",
+        assignmentRequest.getSkillIds(),
+        empId,
+        replace);
+
+    Set<Long> requested = new LinkedHashSet<>(assignmentRequest.getSkillIds());
+    Set<Long> missing = new LinkedHashSet<>(requested);
+    missing.removeIf(skillCatalog::contains);
+
+    return employeeRepository
+        .lockEmployee(empId)
+        .flatMap(
+            locked -> {
+              if (!missing.isEmpty()) {
+                return Mono.just(
+                    Outcome.of(message("The requested skillIds do not exist: " + missing)));
+              }
+              return employeeRepository
+                  .findSkillLinksByEmpId(empId)
+                  .flatMap(
+                      current ->
+                          assign(
+                              empId,
+                              requested,
+                              requestedLevels(assignmentRequest),
+                              current,
+                              replace));
+            })
+        .defaultIfEmpty(Outcome.of(message(THE_REQUESTED_EMP_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  private Mono<Outcome<EmployeeResponse>> assign(
+      final Long empId,
+      final Set<Long> requested,
+      final Map<Long, SkillLevel> levels,
+      final Map<Long, SkillLevel> current,
+      final boolean replace) {
+    Map<Long, SkillLevel> added = new LinkedHashMap<>();
+    Map<Long, SkillLevel> removed = new LinkedHashMap<>();
+    Map<SkillLevel, Set<Long>> toInsert = new EnumMap<>(SkillLevel.class);
+    Map<SkillLevel, Set<Long>> toMove = new EnumMap<>(SkillLevel.class);
+    for (Long skillId : requested) {
+      SkillLevel held = current.get(skillId);
+      SkillLevel level = levels.get(skillId);
+      if (held == null) {
+        SkillLevel linked = levelToLink(skillCatalog, skillId, level);
+        toInsert.computeIfAbsent(linked, key -> new LinkedHashSet<>()).add(skillId);
+        added.put(skillId, linked);
+      } else if (level != null && level != held) {
+        toMove.computeIfAbsent(level, key -> new LinkedHashSet<>()).add(skillId);
+        removed.put(skillId, held);
+        added.put(skillId, level);
+      }
+    }
+
+    Set<Long> toRemove = new HashSet<>();
+    if (replace) {
+      toRemove.addAll(current.keySet());
+      toRemove.removeAll(requested);
+      toRemove.forEach(skillId -> removed.put(skillId, current.get(skillId)));
+    }
+
+    Set<Long> toAdd = new LinkedHashSet<>();
+    toInsert.values().forEach(toAdd::addAll);
+    Mono<Void> inserted =
+        toAdd.isEmpty()
+            ? Mono.empty()
+            : skillsRepository
+                .lockSkills(toAdd)
+                .thenMany(
+                    Flux.fromIterable(toInsert.entrySet())
+                        .concatMap(
+                            entry ->
+                                employeeRepository.insertSkillLinks(
+                                    empId, entry.getValue(), entry.getKey())))
+                .then();
+    Mono<Void> moved =
+        Flux.fromIterable(toMove.entrySet())
+            .concatMap(
+                entry ->
+                    employeeRepository.updateSkillLevels(empId, entry.getValue(), entry.getKey()))
+            .then();
+    Mono<Void> deleted =
+        toRemove.isEmpty()
+            ? Mono.empty()
+            : employeeRepository.deleteSkillLinks(empId, toRemove).then();
+    boolean changed = !added.isEmpty() || !removed.isEmpty();
+    Mono<Integer> bumped = changed ? employeeRepository.bumpVersion(empId) : Mono.just(0);
+
+    return inserted
+        .then(moved)
+        .then(deleted)
+        .then(bumped)
+        .then(employeeRepository.findDetailsByEmpId(empId).collectList())
+        .map(
+            rows ->
+                Outcome.of(
+                    toEmployeeResponse(rows, "Successfully assigned skills to the employee"),
+                    changed ? new EmployeeSkillsChangedEvent(empId, added, removed) : null));
+  }
+
+  private static EmployeeSummary toEmployeeSummary(final List<EmployeeSkillRow> rows) {
+    EmployeeSkillRow employee = rows.get(0);
+    Set<SkillDetails> skills = new LinkedHashSet<>();
+    for (EmployeeSkillRow row : rows) {
+      if (row.getSkillId() != null) {
+        skills.add(new SkillDetails(row.getSkillId(), row.getSkill(), row.getLevel().getLabel()));
+      }
+    }
+    return EmployeeSummary.builder()
+        .empId(employee.getEmpId().toString())
+        .givenName(employee.getGivenName())
+        .familyName(employee.getFamilyName())
+        .dateOfBirth(employee.getDateOfBirth())
+        .skills(Collections.unmodifiableSet(skills))
+        .build();
+  }
+
+  private static EmployeeResponse message(final String message) {
+    return EmployeeResponse.builder()
+        .message(message)
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+}
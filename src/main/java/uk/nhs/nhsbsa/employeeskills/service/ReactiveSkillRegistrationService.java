@@ -0,0 +1,275 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow;
+import uk.nhs.nhsbsa.employeeskills.repository.ReactiveEmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.ReactiveSkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService.ANOTHER_SKILL_HAS_THE_NAME;
+import static uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService.THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST;
+import static uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService.THE_SKILL_HAS_CHANGED;
+import static uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService.alreadyRegistered;
+import static uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService.versioned;
+
+/**
+ * {@link SkillRegistrationService} over R2DBC. Reads of single skills and of the catalog never
+ * touch the database in either stack, so they are answered by the blocking service straight from
+ * the {@link SkillCatalog}.
+ */
+@Service
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSkillRegistrationService implements IReactiveSkillRegistrationService {
+
+  @Autowired private ReactiveSkillsRepository skillsRepository;
+
+  @Autowired private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired private ISkillRegistrationService skillRegistrationService;
+
+  @Autowired private TransactionalOperator transactionalOperator;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private SkillCatalog skillCatalog;
+
+  /**
+   * Resolves a registered name from the {@link SkillCatalog}, or from the table when a concurrent
+   * registration won the unique index, as the blocking service does.
+   */
+  @Override
+  public Mono<SkillsResponse> registerSkills(final SkillsRegistrationRequest registrationRequest) {
+    log.info("Registering skills with sill name: {}", registrationRequest.getSkill());
+
+    Optional<SkillEntry> registered = skillCatalog.findByName(registrationRequest.getSkill());
+    if (registered.isPresent()) {
+      return Mono.just(alreadyRegistered(registered.get()));
+    }
+    SkillLevel level = SkillLevel.fromLabel(registrationRequest.getLevel());
+    return skillsRepository
+        .insert(registrationRequest.getSkill(), level)
+        .map(
+            skillId -> {
+              eventPublisher.publishEvent(
+                  new SkillsSavedEvent(
+                      Collections.singletonList(
+                          new SkillEntry(skillId, registrationRequest.getSkill(), level, 0L))));
+              return SkillsResponse.builder()
+                  .skillId(skillId.toString())
+                  .skill(registrationRequest.getSkill())
+                  .level(level.getLabel())
+                  .empSkills(Collections.emptySet())
+                  .message("Success created the skill")
+                  .status(HttpStatus.CREATED.value())
+                  .responseStatus(HttpStatus.CREATED)
+                  .build();
+            })
+        .onErrorResume(
+            DataIntegrityViolationException.class,
+            e ->
+                skillsRepository
+                    .findByName(registrationRequest.getSkill())
+                    .map(SkillRegistrationService::alreadyRegistered)
+                    .switchIfEmpty(Mono.error(e)));
+  }
+
+  @Override
+  public Mono<SkillsResponse> fetchRegisteredSkill(final Long skillId) {
+    return Mono.fromSupplier(() -> skillRegistrationService.fetchRegisteredSkill(skillId));
+  }
+
+  @Override
+  public Mono<SkillsCatalogResponse> fetchSkillCatalog(
+      final String minLevel, final String maxLevel) {
+    return Mono.fromSupplier(() -> skillRegistrationService.fetchSkillCatalog(minLevel, maxLevel));
+  }
+
+  @Override
+  public Mono<SkillInventoryResponse> fetchSkillInventory() {
+    return Mono.fromSupplier(skillRegistrationService::fetchSkillInventory);
+  }
+
+  @Override
+  public Mono<PageResponse<EmployeeSummary>> listSkillHolders(
+      final Long skillId,
+      final String minLevel,
+      final String maxLevel,
+      final String cursor,
+      final int size) {
+    log.info(
+        "Listing holders of skill with skillId: {}, levels from: {} to: {}, after cursor: {}",
+        skillId,
+        minLevel,
+        maxLevel,
+        cursor);
+
+    EmployeeCursor position;
+    try {
+      position = EmployeeCursor.fromToken(cursor);
+    } catch (IllegalArgumentException e) {
+      return Mono.just(
+          PageResponse.<EmployeeSummary>builder()
+              .message("The requested cursor is not valid")
+              .status(HttpStatus.BAD_REQUEST.value())
+              .responseStatus(HttpStatus.BAD_REQUEST)
+              .build());
+    }
+
+    Flux<EmployeeSkillRow> page;
+    if (minLevel == null && maxLevel == null) {
+      page = employeeRepository.findHoldersOfSkill(skillId, position.getEmpId(), size);
+    } else {
+      SkillLevel from = minLevel == null ? SkillLevel.AWARENESS : SkillLevel.fromLabel(minLevel);
+      SkillLevel to = maxLevel == null ? SkillLevel.EXPERT : SkillLevel.fromLabel(maxLevel);
+      page =
+          employeeRepository.findHoldersOfSkillAtLevels(
+              skillId, from.getCode(), to.getCode(), position.getEmpId(), size);
+    }
+
+    return page.collectList()
+        .map(
+            holders -> {
+              if (holders.isEmpty() && !skillCatalog.contains(skillId)) {
+                return PageResponse.<EmployeeSummary>builder()
+                    .message(THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST)
+                    .status(HttpStatus.OK.value())
+                    .responseStatus(HttpStatus.OK)
+                    .build();
+              }
+              String nextCursor = null;
+              if (holders.size() == size) {
+                nextCursor =
+                    new EmployeeCursor(holders.get(holders.size() - 1).getEmpId(), "").encode();
+              }
+              return PageResponse.<EmployeeSummary>builder()
+                  .items(
+                      holders.stream()
+                          .map(
+                              holder ->
+                                  EmployeeSummary.builder()
+                                      .empId(holder.getEmpId().toString())
+                                      .givenName(holder.getGivenName())
+                                      .familyName(holder.getFamilyName())
+                                      .dateOfBirth(holder.getDateOfBirth())
+                                      .build())
+                          .collect(Collectors.toList()))
+                  .nextCursor(nextCursor)
+                  .message("Successfully fetched data")
+                  .status(HttpStatus.OK.value())
+                  .responseStatus(HttpStatus.OK)
+                  .build();
+            });
+  }
+
+  @Override
+  public Mono<SkillsResponse> deleteRegisteredSkill(final Long skillId) {
+    log.info("Trying to delete skill with skillId: {}", skillId);
+
+    return skillsRepository
+        .lockSkills(Collections.singleton(skillId))
+        .next()
+        .flatMap(locked -> skillsRepository.deleteIfNotHeld(skillId))
+        .map(
+            deleted ->
+                deleted > 0
+                    ? Outcome.of(
+                        message("Successfully deleted the skill"), new SkillDeletedEvent(skillId))
+                    : Outcome.of(message("Can't deleted the skill as is used by a employee")))
+        .defaultIfEmpty(Outcome.of(message(THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  /** Read, checked and written as in {@link ReactiveEmployeeRegistrationService}. */
+  @Override
+  public Mono<SkillsResponse> updateRegisteredSkills(
+      final SkillsRegistrationRequest registrationRequest,
+      final Long skillId,
+      final Long expectedVersion) {
+    log.info("Updating skill with skillId: {}", skillId);
+
+    SkillLevel level = SkillLevel.fromLabel(registrationRequest.getLevel());
+    return skillsRepository
+        .findById(skillId)
+        .flatMap(
+            skills -> {
+              if (expectedVersion != null && expectedVersion != skills.getVersion()) {
+                return Mono.just(
+                    Outcome.of(
+                        versioned(
+                            HttpStatus.PRECONDITION_FAILED,
+                            THE_SKILL_HAS_CHANGED,
+                            skills.getVersion())));
+              }
+              boolean renamed = !skills.getSkill().equals(registrationRequest.getSkill());
+              if (!renamed && skills.getLevel() == level) {
+                return Mono.just(
+                    Outcome.of(
+                        versioned(
+                            HttpStatus.OK, "The skill data is unchanged", skills.getVersion())));
+              }
+              if (skillCatalog
+                  .findByName(registrationRequest.getSkill())
+                  .filter(other -> !other.getSkillId().equals(skillId))
+                  .isPresent()) {
+                return Mono.just(
+                    Outcome.of(
+                        versioned(
+                            HttpStatus.CONFLICT,
+                            ANOTHER_SKILL_HAS_THE_NAME,
+                            skills.getVersion())));
+              }
+              SkillEntry saved =
+                  new SkillEntry(
+                      skillId, registrationRequest.getSkill(), level, skills.getVersion() + 1);
+              return skillsRepository
+                  .updateSkill(skillId, registrationRequest.getSkill(), level, skills.getVersion())
+                  .filter(updated -> updated > 0)
+                  .switchIfEmpty(
+                      Mono.error(
+                          new OptimisticLockingFailureException(
+                              "Skill " + skillId + " changed while being updated")))
+                  .thenReturn(
+                      Outcome.of(
+                          versioned(
+                              HttpStatus.OK, "Successfully updated skill data", saved.getVersion()),
+                          new SkillsSavedEvent(Collections.singletonList(saved))));
+            })
+        .defaultIfEmpty(Outcome.of(message(THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST)))
+        .as(transactionalOperator::transactional)
+        .map(outcome -> outcome.publish(eventPublisher));
+  }
+
+  private static SkillsResponse message(final String message) {
+    return SkillsResponse.builder()
+        .message(message)
+        .status(HttpStatus.OK.value())
+        .responseStatus(HttpStatus.OK)
+        .build();
+  }
+}
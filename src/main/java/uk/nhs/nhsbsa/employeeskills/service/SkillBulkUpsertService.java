@@ -0,0 +1,186 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsBulkUpsertResponse;
+import uk.nhs.nhsbsa.employeeskills.service.BulkRecordReader.Record;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronises the skill dictionary from a streamed body. Entries are matched to existing rows by
+ * their natural key, the skill name compared case-insensitively. A match with the same spelling
+ * and level is left unchanged, a match with a different spelling or level is updated, anything
+ * else is created. Each batch costs one lookup query plus batched inserts and updates.
+ */
+@Service
+@Slf4j
+public class SkillBulkUpsertService implements ISkillBulkUpsertService {
+
+  @Autowired private BulkRecordReader bulkRecordReader;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${skills.bulk.batch-size:500}")
+  private int batchSize;
+
+  @Value("${skills.bulk.max-reported-errors:1000}")
+  private int maxReportedErrors;
+
+  @Override
+  public SkillsBulkUpsertResponse upsertSkills(final InputStream body) throws IOException {
+    log.info("Bulk upserting skills with batch size: {}", batchSize);
+
+    BulkRecordErrors errors = new BulkRecordErrors(maxReportedErrors);
+    UpsertCounts counts = new UpsertCounts();
+
+    long received =
+        bulkRecordReader.read(
+            body,
+            SkillsRegistrationRequest.class,
+            batchSize,
+            errors,
+            batch -> writeBatch(batch, counts, errors));
+
+    log.info(
+        "Bulk upsert finished, received: {}, created: {}, updated: {}, unchanged: {}",
+        received,
+        counts.created,
+        counts.updated,
+        counts.unchanged);
+
+    return SkillsBulkUpsertResponse.builder()
+        .received(received)
+        .created(counts.created)
+        .updated(counts.updated)
+        .unchanged(counts.unchanged)
+        .rejected(errors.getCount())
+        .errors(errors.getReported())
+        .message("Bulk upsert completed")
+        .status(HttpStatus.OK.value())
+        .responseStatus(HttpStatus.OK)
+        .build();
+  }
+
+  private void writeBatch(
+      final List<Record<SkillsRegistrationRequest>> batch,
+      final UpsertCounts counts,
+      final BulkRecordErrors errors) {
+    try {
+      counts.add(upsert(batch));
+      return;
+    } catch (RuntimeException e) {
+      log.error("Batch upsert failed, retrying its records one by one", e);
+      entityManager.clear();
+    }
+
+    for (Record<SkillsRegistrationRequest> record : batch) {
+      try {
+        counts.add(upsert(Collections.singletonList(record)));
+      } catch (RuntimeException e) {
+        entityManager.clear();
+        errors.rejectUnstored(record.getPosition(), e);
+      }
+    }
+  }
+
+  private UpsertCounts upsert(final List<Record<SkillsRegistrationRequest>> batch) {
+    return transactionTemplate.execute(
+        status -> {
+          UpsertCounts counts = new UpsertCounts();
+          Set<String> names =
+              batch.stream()
+                  .map(record -> record.getValue().getSkill().toUpperCase(Locale.ROOT))
+                  .collect(Collectors.toSet());
+
+          Map<String, Skills> existing = new HashMap<>();
+          for (Skills skills : skillsRepository.findBySkillIgnoreCaseIn(names)) {
+            existing.put(naturalKey(skills.getSkill()), skills);
+          }
+
+          List<Skills> created = new ArrayList<>();
+          // A skill created earlier in the batch is inserted as it ends up, so only rows read
+          // from the table are updated.
+          Set<Skills> updated = new LinkedHashSet<>();
+          for (Record<SkillsRegistrationRequest> record : batch) {
+            SkillsRegistrationRequest request = record.getValue();
+            SkillLevel level = SkillLevel.fromLabel(request.getLevel());
+            String key = naturalKey(request.getSkill());
+            Skills match = existing.get(key);
+
+            if (match == null) {
+              Skills skills = Skills.builder().skill(request.getSkill()).level(level).build();
+              created.add(skills);
+              existing.put(key, skills);
+              counts.created++;
+            } else if (match.getSkill().equals(request.getSkill()) && match.getLevel() == level) {
+              counts.unchanged++;
+            } else {
+              if (match.getSkillId() != null) {
+                updated.add(match);
+              }
+              match.setSkill(request.getSkill());
+              match.setLevel(level);
+              counts.updated++;
+            }
+          }
+
+          skillsRepository.saveAll(created);
+          entityManager.flush();
+
+          List<SkillEntry> saved = new ArrayList<>();
+          created.forEach(skills -> saved.add(SkillEntry.of(skills)));
+          updated.forEach(skills -> saved.add(SkillEntry.of(skills)));
+          entityManager.clear();
+          if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new SkillsSavedEvent(saved));
+          }
+          return counts;
+        });
+  }
+
+  private static String naturalKey(final String skill) {
+    return skill.toUpperCase(Locale.ROOT);
+  }
+
+  private static class UpsertCounts {
+    private long created;
+    private long updated;
+    private long unchanged;
+
+    private void add(final UpsertCounts other) {
+      created += other.created;
+      updated += other.updated;
+      unchanged += other.unchanged;
+    }
+  }
+}
@@ -2,14 +2,40 @@ package uk.nhs.nhsbsa.employeeskills.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
 import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.event.SkillDeletedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.index.SkillInventory;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSummaryView;
 import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
 import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryEntry;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillSummary;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
 import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -18,43 +44,83 @@ public class SkillRegistrationService implements ISkillRegistrationService {
   public static final String THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST =
       "The requested skillId does not exist";
 
+  public static final String THE_SKILL_HAS_CHANGED =
+      "The skill has changed since the version in If-Match";
+
+  public static final String THE_SKILL_IS_ALREADY_REGISTERED = "The skill is already registered";
+
+  public static final String ANOTHER_SKILL_HAS_THE_NAME = "Another skill is registered by the name";
+
   @Autowired private SkillsRepository skillsRepository;
 
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private SkillCatalog skillCatalog;
+
+  @Autowired private SkillInventory skillInventory;
+
+  /**
+   * Adds the skill to the dictionary unless the {@link SkillCatalog} has the name already, compared
+   * ignoring case; then the existing skill is answered and nothing is written. The level is the
+   * one a link to the skill gets when it is created without a level of its own. A registration
+   * racing another of the same name is refused by the unique index on the upper-cased name and
+   * answered the same way.
+   */
   @Override
   public SkillsResponse registerSkills(final SkillsRegistrationRequest registrationRequest) {
     log.info("Registering skills with sill name: {}", registrationRequest.getSkill());
 
-    Skills skillsRequested =
-        Skills.builder()
-            .skill(registrationRequest.getSkill())
-            .level(registrationRequest.getLevel())
-            .build();
+    Optional<SkillEntry> registered = skillCatalog.findByName(registrationRequest.getSkill());
+    if (registered.isPresent()) {
+      return alreadyRegistered(registered.get());
+    }
 
-    Skills persistedSkill = skillsRepository.save(skillsRequested);
+    Skills persistedSkill;
+    try {
+      persistedSkill =
+          skillsRepository.save(
+              Skills.builder()
+                  .skill(registrationRequest.getSkill())
+                  .level(SkillLevel.fromLabel(registrationRequest.getLevel()))
+                  .build());
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent registration of the name committed first and uk_skills_skill_key refused
+      // this one; the catalog may not have heard of it yet, so the table is asked.
+      return skillsRepository
+          .findBySkillIgnoreCase(registrationRequest.getSkill())
+          .map(skills -> alreadyRegistered(SkillEntry.of(skills)))
+          .orElseThrow(() -> e);
+    }
+    eventPublisher.publishEvent(
+        new SkillsSavedEvent(Collections.singletonList(SkillEntry.of(persistedSkill))));
 
     return SkillsResponse.builder()
         .skillId(persistedSkill.getSkillId().toString())
         .skill(persistedSkill.getSkill())
-        .level(persistedSkill.getLevel())
-        .empSkills(persistedSkill.getEmpSet())
+        .level(persistedSkill.getLevel().getLabel())
+        .empSkills(Collections.emptySet())
         .message("Success created the skill")
         .status(HttpStatus.CREATED.value())
         .responseStatus(HttpStatus.CREATED)
         .build();
   }
 
+  /** Served from the {@link SkillCatalog}, without a database round trip. */
   @Override
   public SkillsResponse fetchRegisteredSkill(final Long skillId) {
     log.info("Trying to fetching a skill with skillId: {}", skillId);
 
-    Optional<Skills> fetchedSkills = skillsRepository.findById(skillId);
+    Optional<SkillEntry> fetchedSkills = skillCatalog.find(skillId);
 
     if (fetchedSkills.isPresent()) {
-      Skills skills = fetchedSkills.get();
+      SkillEntry skills = fetchedSkills.get();
       return SkillsResponse.builder()
           .skill(skills.getSkill())
-          .level(skills.getLevel())
+          .level(skills.getLevel().getLabel())
           .skillId(skills.getSkillId().toString())
+          .version(skills.getVersion())
           .message("Successfully fetched data")
           .responseStatus(HttpStatus.OK)
           .status(HttpStatus.OK.value())
@@ -67,17 +133,167 @@ public class SkillRegistrationService implements ISkillRegistrationService {
         .build();
   }
 
+  /** Served from the {@link SkillCatalog} as well. */
   @Override
+  public Optional<Long> fetchSkillVersion(final Long skillId) {
+    return skillCatalog.find(skillId).map(SkillEntry::getVersion);
+  }
+
+  /**
+   * Lists the {@link SkillCatalog}; with a range of levels, both ends included, only the skills
+   * someone holds at a level in it, by the counters of the {@link SkillInventory}. A level compares
+   * by its order, so a missing bound leaves that end of the range open.
+   */
+  @Override
+  public SkillsCatalogResponse fetchSkillCatalog(final String minLevel, final String maxLevel) {
+    log.info("fetching the skill catalog, levels from: {} to: {}", minLevel, maxLevel);
+
+    boolean anyLevel = minLevel == null && maxLevel == null;
+    SkillLevel from = minLevel == null ? SkillLevel.AWARENESS : SkillLevel.fromLabel(minLevel);
+    SkillLevel to = maxLevel == null ? SkillLevel.EXPERT : SkillLevel.fromLabel(maxLevel);
+    List<SkillSummary> skills =
+        skillCatalog.all().stream()
+            .filter(
+                skill -> anyLevel || skillInventory.holderCount(skill.getSkillId(), from, to) > 0)
+            .map(
+                skill ->
+                    SkillSummary.builder()
+                        .skillId(skill.getSkillId().toString())
+                        .skill(skill.getSkill())
+                        .level(skill.getLevel().getLabel())
+                        .build())
+            .collect(Collectors.toList());
+    return SkillsCatalogResponse.builder()
+        .count(skills.size())
+        .skills(skills)
+        .message("Successfully fetched data")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  /**
+   * Lists every skill of the {@link SkillCatalog} in name order with the holder counts of the
+   * {@link SkillInventory} at each level, so it costs one counter read per skill and level whatever
+   * the number of links. Every level is listed, with 0 when nobody holds the skill at it.
+   */
+  @Override
+  public SkillInventoryResponse fetchSkillInventory() {
+    log.info("fetching the skill inventory");
+
+    Map<String, SkillInventoryEntry> byName = new TreeMap<>();
+    for (SkillEntry skill : skillCatalog.all()) {
+      byName.put(
+          skill.getSkill().toUpperCase(Locale.ROOT),
+          new SkillInventoryEntry(
+              skill.getSkillId().toString(), skill.getSkill(), holdersByLevel(skill.getSkillId())));
+    }
+    return SkillInventoryResponse.builder()
+        .count(byName.size())
+        .skills(new ArrayList<>(byName.values()))
+        .message("Successfully fetched data")
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  /** The holders of the skill at every level, most proficient first. */
+  private Map<String, Long> holdersByLevel(final Long skillId) {
+    Map<String, Long> levels = new LinkedHashMap<>();
+    SkillLevel[] ascending = SkillLevel.values();
+    for (int i = ascending.length - 1; i >= 0; i--) {
+      levels.put(ascending[i].getLabel(), skillInventory.holderCount(skillId, ascending[i]));
+    }
+    return levels;
+  }
+
+  /**
+   * Lists the employees holding a skill, page by page in empId order. The page is read from the
+   * skills_id/employee_id index of emp_skills, so neither the skill's holder collection nor the
+   * holders' own skills are loaded. With a range of levels, both ends included, it is read from
+   * the skills_id/level/employee_id index instead; a missing bound leaves that end open.
+   */
+  @Override
+  public PageResponse<EmployeeSummary> listSkillHolders(
+      final Long skillId,
+      final String minLevel,
+      final String maxLevel,
+      final String cursor,
+      final int size) {
+    log.info(
+        "Listing holders of skill with skillId: {}, levels from: {} to: {}, after cursor: {}",
+        skillId,
+        minLevel,
+        maxLevel,
+        cursor);
+
+    EmployeeCursor position;
+    try {
+      position = EmployeeCursor.fromToken(cursor);
+    } catch (IllegalArgumentException e) {
+      return PageResponse.<EmployeeSummary>builder()
+          .message("The requested cursor is not valid")
+          .status(HttpStatus.BAD_REQUEST.value())
+          .responseStatus(HttpStatus.BAD_REQUEST)
+          .build();
+    }
+
+    List<EmployeeSummaryView> holders;
+    if (minLevel == null && maxLevel == null) {
+      holders =
+          employeeRepository.findHoldersOfSkill(
+              skillId, position.getEmpId(), PageRequest.of(0, size));
+    } else {
+      SkillLevel from = minLevel == null ? SkillLevel.AWARENESS : SkillLevel.fromLabel(minLevel);
+      SkillLevel to = maxLevel == null ? SkillLevel.EXPERT : SkillLevel.fromLabel(maxLevel);
+      holders =
+          employeeRepository.findHoldersOfSkillAtLevels(
+              skillId, from.getCode(), to.getCode(), position.getEmpId(), PageRequest.of(0, size));
+    }
+
+    if (holders.isEmpty() && !skillCatalog.contains(skillId)) {
+      return PageResponse.<EmployeeSummary>builder()
+          .message(THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST)
+          .status(HttpStatus.OK.value())
+          .responseStatus(HttpStatus.OK)
+          .build();
+    }
+
+    String nextCursor = null;
+    if (holders.size() == size) {
+      nextCursor = new EmployeeCursor(holders.get(holders.size() - 1).getEmpId(), "").encode();
+    }
+
+    return PageResponse.<EmployeeSummary>builder()
+        .items(
+            holders.stream()
+                .map(
+                    holder ->
+                        EmployeeSummary.builder()
+                            .empId(holder.getEmpId().toString())
+                            .givenName(holder.getGivenName())
+                            .familyName(holder.getFamilyName())
+                            .dateOfBirth(holder.getDateOfBirth())
+                            .build())
+                .collect(Collectors.toList()))
+        .nextCursor(nextCursor)
+        .message("Successfully fetched data")
+        .status(HttpStatus.OK.value())
+        .responseStatus(HttpStatus.OK)
+        .build();
+  }
+
+  /** Never loads the holders of the skill, see {@link SkillsRepository#deleteIfNotHeld(Long)}. */
+  @Override
+  @Transactional
   public SkillsResponse deleteRegisteredSkill(final Long skillId) {
     log.info("Trying to delete skill with skillId: {}", skillId);
 
-    Optional<Skills> fetchedSkills = skillsRepository.findById(skillId);
     String message = THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST;
 
-    if (fetchedSkills.isPresent()) {
-      Skills skills = fetchedSkills.get();
-      if (skills.getEmpSet().isEmpty()) {
-        skillsRepository.deleteById(skillId);
+    if (!skillsRepository.lockSkills(Collections.singleton(skillId)).isEmpty()) {
+      if (skillsRepository.deleteIfNotHeld(skillId) > 0) {
+        eventPublisher.publishEvent(new SkillDeletedEvent(skillId));
         message = "Successfully deleted the skill";
       } else {
         message = "Can't deleted the skill as is used by a employee";
@@ -90,25 +306,75 @@ public class SkillRegistrationService implements ISkillRegistrationService {
         .build();
   }
 
+  /**
+   * As {@link EmployeeRegistrationService#updateEmployeeDetails}: the skill is loaded, checked
+   * against the expected version and only flushed when it changed. A rename to the name of another
+   * skill is refused with 409, as the dictionary holds every name once. A new level only applies to
+   * links created afterwards. The holders embed the name in their responses; their ETags take in
+   * the version of the skill, so a rename writes nothing to them.
+   */
   @Override
+  @Transactional
   public SkillsResponse updateRegisteredSkills(
-      final SkillsRegistrationRequest registrationRequest, Long skillId) {
+      final SkillsRegistrationRequest registrationRequest,
+      final Long skillId,
+      final Long expectedVersion) {
     log.info("Updating skill with skillId: {}", skillId);
 
-    Optional<Skills> fetchedSkillId = skillsRepository.findById(skillId);
-    String message = THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST;
+    Optional<Skills> found = skillsRepository.findById(skillId);
+    if (!found.isPresent()) {
+      return SkillsResponse.builder()
+          .status(200)
+          .message(THE_REQUESTED_SKILL_ID_DOES_NOT_EXIST)
+          .responseStatus(HttpStatus.OK)
+          .build();
+    }
+    Skills skills = found.get();
 
-    if (fetchedSkillId.isPresent()) {
-      Skills skill = fetchedSkillId.get();
-      skill.setLevel(registrationRequest.getLevel());
-      skill.setSkill(registrationRequest.getSkill());
-      skillsRepository.save(skill);
-      message = "Successfully updated skill data";
+    if (expectedVersion != null && expectedVersion != skills.getVersion()) {
+      return versioned(HttpStatus.PRECONDITION_FAILED, THE_SKILL_HAS_CHANGED, skills.getVersion());
+    }
+    SkillLevel level = SkillLevel.fromLabel(registrationRequest.getLevel());
+    boolean renamed = !skills.getSkill().equals(registrationRequest.getSkill());
+    if (!renamed && skills.getLevel() == level) {
+      return versioned(HttpStatus.OK, "The skill data is unchanged", skills.getVersion());
+    }
+    if (skillCatalog
+        .findByName(registrationRequest.getSkill())
+        .filter(other -> !other.getSkillId().equals(skillId))
+        .isPresent()) {
+      return versioned(HttpStatus.CONFLICT, ANOTHER_SKILL_HAS_THE_NAME, skills.getVersion());
     }
+
+    skills.setSkill(registrationRequest.getSkill());
+    skills.setLevel(level);
+    skillsRepository.flush();
+    SkillEntry saved = SkillEntry.of(skills);
+
+    eventPublisher.publishEvent(new SkillsSavedEvent(Collections.singletonList(saved)));
+    return versioned(HttpStatus.OK, "Successfully updated skill data", saved.getVersion());
+  }
+
+  /** The skill of the dictionary a registration of its name resolves to. */
+  static SkillsResponse alreadyRegistered(final SkillEntry skill) {
     return SkillsResponse.builder()
-        .status(200)
-        .message(message)
+        .skillId(skill.getSkillId().toString())
+        .skill(skill.getSkill())
+        .level(skill.getLevel().getLabel())
+        .message(THE_SKILL_IS_ALREADY_REGISTERED)
+        .status(HttpStatus.OK.value())
         .responseStatus(HttpStatus.OK)
         .build();
   }
+
+  /** A response without a body that carries the version of the skill as its ETag. */
+  static SkillsResponse versioned(
+      final HttpStatus status, final String message, final long version) {
+    return SkillsResponse.builder()
+        .version(version)
+        .responseStatus(status)
+        .status(status.value())
+        .message(message)
+        .build();
+  }
 }
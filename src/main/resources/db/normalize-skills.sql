@@ -0,0 +1,94 @@
+-- Moves a database created before the skill dictionary onto it, on H2 with the application
+-- stopped. H2 commits each DDL statement on its own, so back the database up first.
+--
+-- Before: skills(skill_id, skill, level, version) held one row per name and level, and
+-- emp_skills(employee_id, skills_id) linked employees to those rows. The level is a tinyint code
+-- from 1 to 4, or the label, e.g. 'Expert', in databases older than the ordered levels.
+-- After: skills(skill_id, skill, skill_key, level, version) holds each name once, its level being
+-- the one a new link gets by default, and emp_skills carries the level of each link. skill_key is
+-- upper(skill), generated by the database, and unique. emp_skills is indexed on
+-- (skills_id, level, employee_id) for the holders of a skill within a range of levels.
+--
+-- Rows sharing a name, ignoring case, collapse onto the one with the lowest skill_id. An employee
+-- linked to several of them keeps one link at the highest of their levels. Employees whose links
+-- change get a new version, so their cached ETags no longer match.
+
+-- 0. Levels become tinyint codes. The check fails, before anything is changed, on a level that is
+-- neither a known label nor a code.
+alter table skills add constraint ck_skills_level_known
+  check (upper(trim(cast(level as varchar))) in
+         ('1', '2', '3', '4', 'AWARENESS', 'WORKING', 'PRACTITIONER', 'EXPERT'));
+
+alter table skills add column level_code tinyint;
+
+update skills
+   set level_code = case upper(trim(cast(level as varchar)))
+                      when 'AWARENESS' then 1
+                      when 'WORKING' then 2
+                      when 'PRACTITIONER' then 3
+                      when 'EXPERT' then 4
+                      else cast(level as tinyint)
+                    end;
+
+alter table skills drop constraint ck_skills_level_known;
+
+drop index if exists idx_skills_level;
+
+alter table skills drop column level;
+
+alter table skills alter column level_code rename to level;
+
+alter table skills alter column level set not null;
+
+-- 1. The level of each link is the level of the row it points to.
+alter table emp_skills add column level tinyint;
+
+update emp_skills es
+   set level = (select s.level from skills s where s.skill_id = es.skills_id);
+
+-- 2. Each row maps to the surviving row of its name.
+create table skills_survivor as
+select s.skill_id, survivor.skill_id as survivor_id
+  from skills s
+  join (select upper(skill) as skill_key, min(skill_id) as skill_id
+          from skills
+         group by upper(skill)) survivor
+    on survivor.skill_key = upper(s.skill);
+
+-- 3. Employees holding a name more than once keep the link at the highest level.
+update employee
+   set version = version + 1
+ where emp_id in (select es.employee_id
+                    from emp_skills es
+                    join skills_survivor m on m.skill_id = es.skills_id
+                   where m.survivor_id <> m.skill_id);
+
+delete from emp_skills es
+ where exists (select 1
+                 from emp_skills other
+                 join skills_survivor m on m.skill_id = other.skills_id
+                 join skills_survivor mine on mine.skill_id = es.skills_id
+                where other.employee_id = es.employee_id
+                  and m.survivor_id = mine.survivor_id
+                  and (other.level > es.level
+                       or (other.level = es.level and other.skills_id < es.skills_id)));
+
+update emp_skills es
+   set skills_id = (select m.survivor_id from skills_survivor m where m.skill_id = es.skills_id)
+ where es.skills_id in (select skill_id from skills_survivor where survivor_id <> skill_id);
+
+alter table emp_skills alter column level set not null;
+
+create index idx_emp_skills_skill_level on emp_skills (skills_id, level, employee_id);
+
+-- 4. Only the surviving rows stay in the dictionary, keeping their level as the default.
+delete from skills
+ where skill_id in (select skill_id from skills_survivor where survivor_id <> skill_id);
+
+drop table skills_survivor;
+
+alter table skills add column skill_key varchar(255) generated always as (upper(skill));
+
+alter table skills add constraint uk_skills_skill_key unique (skill_key);
+
+commit;
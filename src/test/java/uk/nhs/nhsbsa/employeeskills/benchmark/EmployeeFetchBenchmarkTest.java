@@ -0,0 +1,148 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+
+/**
+ * Queries, allocated bytes and throughput per {@code fetchEmployeeDetails} call, serialisation
+ * included, for the former managed entity path (findById, then the lazy skills collection) against
+ * the join projection. Disabled by default, run with {@code mvn test
+ * -Dtest=EmployeeFetchBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics:true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmployeeFetchBenchmarkTest {
+
+  private static final int EMPLOYEES = 1_000;
+
+  private static final int SKILLS_PER_EMPLOYEE = 5;
+
+  private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50_000);
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void benchmark_fetchEmployeeDetails_entityAgainstProjection() throws Exception {
+    List<Skills> skills = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      skills.add(Skills.builder().skill("FetchSkill" + i).level(SkillLevel.EXPERT).build());
+    }
+    skills = skillsRepository.saveAll(skills);
+
+    Random random = new Random(42);
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < EMPLOYEES; i++) {
+      Employee employee =
+          Employee.builder()
+              .givenName("given" + i)
+              .familyName("family" + i)
+              .dateOfBirth("2016-04-01")
+              .empSkillsSet(new HashSet<>())
+              .build();
+      while (employee.getEmpSkillsSet().size() < SKILLS_PER_EMPLOYEE) {
+        Skills skill = skills.get(random.nextInt(skills.size()));
+        employee.getEmpSkillsSet().add(EmployeeSkill.of(employee, skill, SkillLevel.EXPERT));
+      }
+      employees.add(employee);
+    }
+    long[] empIds =
+        employeeRepository.saveAll(employees).stream().mapToLong(Employee::getEmpId).toArray();
+
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    LongFunction<EmployeeResponse> entityPath =
+        empId -> readOnly.execute(status -> fetchThroughEntity(empId));
+    LongFunction<EmployeeResponse> projectionPath =
+        employeeRegistrationService::fetchEmployeeDetails;
+
+    // two rounds, so the second pair is measured with both paths equally warm
+    for (int round = 0; round < 2; round++) {
+      report("entity", empIds, entityPath);
+      report("projection", empIds, projectionPath);
+    }
+  }
+
+  private EmployeeResponse fetchThroughEntity(final long empId) {
+    Employee employee = employeeRepository.findById(empId).get();
+    Hibernate.initialize(employee.getEmpSkillsSet());
+    return EmployeeResponse.builder()
+        .skills(SkillDetails.of(employee.getEmpSkillsSet()))
+        .givenName(employee.getGivenName())
+        .familyName(employee.getFamilyName())
+        .dateOfBirth(employee.getDateOfBirth())
+        .empId(employee.getEmpId().toString())
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .message("Successfully fetched data")
+        .build();
+  }
+
+  private void report(
+      final String path, final long[] empIds, final LongFunction<EmployeeResponse> fetch)
+      throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    Random random = new Random(7);
+
+    statistics.clear();
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    long bytes = 0;
+    for (int i = 0; i < REQUESTS; i++) {
+      EmployeeResponse response = fetch.apply(empIds[random.nextInt(empIds.length)]);
+      bytes += objectMapper.writeValueAsBytes(response).length;
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    log.info(
+        "{}: {} queries/request, {} entities loaded/request, {} KB allocated/request,"
+            + " {} requests/s, {} response bytes/request",
+        path,
+        (double) statistics.getPrepareStatementCount() / REQUESTS,
+        (double) statistics.getEntityLoadCount() / REQUESTS,
+        allocated / 1024 / REQUESTS,
+        REQUESTS * 1_000_000_000L / elapsed,
+        bytes / REQUESTS);
+  }
+}
@@ -0,0 +1,102 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeBulkImportService;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the bulk import compared with the single-insert registration path. Disabled by
+ * default, run with {@code mvn test -Dtest=EmployeeImportBenchmarkTest -Dbenchmark=true}, and
+ * {@code -Dbenchmark.rows=1000000} for the full-size run.
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmployeeImportBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+  private static final int SINGLE_INSERT_ROWS = Integer.getInteger("benchmark.single-rows", 10_000);
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private EmployeeBulkImportService employeeBulkImportService;
+
+  @Test
+  void benchmark_singleInsertPath_againstBulkImport() throws IOException {
+    EmployeeRegistrationRequest request =
+        EmployeeRegistrationRequest.builder()
+            .givenName("abc")
+            .familyName("xyz")
+            .dateOfBirth("2016-04-01")
+            .build();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < SINGLE_INSERT_ROWS; i++) {
+      employeeRegistrationService.registerEmployee(request);
+    }
+    report("registerEmployee", SINGLE_INSERT_ROWS, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    BulkImportResponse response = employeeBulkImportService.importEmployees(new NdjsonRows(ROWS));
+    report("importEmployees", ROWS, System.nanoTime() - start);
+
+    assertEquals(ROWS, response.getImported());
+  }
+
+  private static void report(final String path, final long rows, final long nanos) {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    log.info(
+        "{}: {} rows in {} ms, {} rows/s, heap used after GC {} MB",
+        path,
+        rows,
+        nanos / 1_000_000,
+        rows * 1_000_000_000L / nanos,
+        (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+  }
+
+  /** Generates the NDJSON body lazily so the benchmark itself stays at constant memory. */
+  private static class NdjsonRows extends InputStream {
+
+    private final int rows;
+
+    private int row;
+
+    private byte[] current = new byte[0];
+
+    private int offset;
+
+    NdjsonRows(final int rows) {
+      this.rows = rows;
+    }
+
+    @Override
+    public int read() {
+      if (offset == current.length) {
+        if (row == rows) {
+          return -1;
+        }
+        row++;
+        current =
+            ("{\"givenName\":\"given" + row + "\",\"familyName\":\"family" + row
+                    + "\",\"dateOfBirth\":\"2016-04-01\"}\n")
+                .getBytes(StandardCharsets.UTF_8);
+        offset = 0;
+      }
+      return current[offset++];
+    }
+  }
+}
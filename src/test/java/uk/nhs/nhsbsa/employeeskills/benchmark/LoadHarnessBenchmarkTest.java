@@ -0,0 +1,666 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives a weighted mix of reads, writes and invalid requests across every {@code /employee} and
+ * {@code /skills} route of the servlet stack, booted on a random port with a seeded dataset, and
+ * writes the latency percentiles of each route to a JSON report.
+ *
+ * <p>The load is open loop: request {@code i} is due at {@code start + i / rate} whether or not
+ * earlier requests have completed, and its latency is measured from when it was due, so a stalled
+ * server shows up in the percentiles instead of slowing the load down. Requests, ids and bodies
+ * are drawn on one thread from {@code benchmark.seed}, so two runs send the same sequence.
+ *
+ * <p>Disabled by default, run with {@code mvn test -Dtest=LoadHarnessBenchmarkTest
+ * -Dbenchmark=true}. It is tuned with
+ *
+ * <ul>
+ *   <li>{@code benchmark.rate}, requests per second, 500 by default
+ *   <li>{@code benchmark.duration-seconds} measured and {@code benchmark.warmup-seconds} discarded
+ *   <li>{@code benchmark.mix}, the weights of each kind, {@code read=80,write=15,invalid=5} by
+ *       default
+ *   <li>{@code benchmark.connections}, the most connections the client opens, 256 by default
+ *   <li>{@code benchmark.args}, application arguments separated by spaces, such as {@code
+ *       --spring.threads.virtual.enabled=true}, to compare configurations
+ *   <li>{@code benchmark.label}, which names the report {@code target/load-report-<label>.json}
+ * </ul>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoadHarnessBenchmarkTest {
+
+  private static final int RATE = Integer.getInteger("benchmark.rate", 500);
+
+  private static final int DURATION_SECONDS = Integer.getInteger("benchmark.duration-seconds", 60);
+
+  private static final int WARMUP_SECONDS = Integer.getInteger("benchmark.warmup-seconds", 15);
+
+  private static final String MIX =
+      System.getProperty("benchmark.mix", "read=80,write=15,invalid=5");
+
+  private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 256);
+
+  private static final String ARGS = System.getProperty("benchmark.args", "");
+
+  private static final String LABEL = System.getProperty("benchmark.label", "default");
+
+  private static final long SEED = Long.getLong("benchmark.seed", 42);
+
+  private static final int EMPLOYEES = 5_000;
+
+  private static final int DISPOSABLE_EMPLOYEES = 5_000;
+
+  private static final int SKILLS = 50;
+
+  private static final int DISPOSABLE_SKILLS = 1_000;
+
+  private static final int SKILLS_PER_EMPLOYEE = 5;
+
+  private static final String[] LEVELS = {"Expert", "Practitioner", "Working", "Awareness"};
+
+  private enum Kind {
+    READ,
+    WRITE,
+    INVALID
+  }
+
+  /** One request to send, drawn by an {@link Operation}. */
+  private static final class Call {
+
+    private final HttpMethod method;
+
+    private final String uri;
+
+    private final String body;
+
+    private Call(final HttpMethod method, final String uri, final String body) {
+      this.method = method;
+      this.uri = uri;
+      this.body = body;
+    }
+  }
+
+  /** A route, how often it is called within its kind, and the latencies it was served with. */
+  private static final class Operation {
+
+    private final String name;
+
+    private final Kind kind;
+
+    private final int weight;
+
+    private final Function<Random, Call> next;
+
+    private Histogram latencies = new ConcurrentHistogram(3);
+
+    private final AtomicLong ok = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private Operation(
+        final String name, final Kind kind, final int weight, final Function<Random, Call> next) {
+      this.name = name;
+      this.kind = kind;
+      this.weight = weight;
+      this.next = next;
+    }
+
+    /** A 5xx or a transport error fails any route, a 400 only fails a valid request. */
+    private void record(final long nanos, final int status) {
+      latencies.recordValue(nanos);
+      if (status >= 500 || status < 0) {
+        failed.incrementAndGet();
+      } else if (kind == Kind.INVALID ? status != 400 : status == 400) {
+        rejected.incrementAndGet();
+      } else {
+        ok.incrementAndGet();
+      }
+    }
+
+    private void reset() {
+      latencies = new ConcurrentHistogram(3);
+      ok.set(0);
+      rejected.set(0);
+      failed.set(0);
+    }
+  }
+
+  private final List<Long> empIds = new ArrayList<>();
+
+  private final List<Long> skillIds = new ArrayList<>();
+
+  private final Deque<Long> disposableEmpIds = new ArrayDeque<>();
+
+  private final Deque<Long> disposableSkillIds = new ArrayDeque<>();
+
+  private long sequence;
+
+  @Test
+  void benchmark_openLoopMix() throws IOException, InterruptedException {
+    Map<Kind, Integer> mix = parseMix(MIX);
+    List<String> args = new ArrayList<>(Arrays.asList("--server.port=0"));
+    if (!ARGS.isBlank()) {
+      args.addAll(Arrays.asList(ARGS.trim().split("\\s+")));
+    }
+
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+            .properties(
+                "logging.level.uk.nhs.nhsbsa.employeeskills.controller=WARN",
+                "logging.level.uk.nhs.nhsbsa.employeeskills.service=WARN",
+                "logging.level.uk.nhs.nhsbsa.employeeskills.exception=WARN")
+            .run(args.toArray(new String[0]))) {
+      seed(context);
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+      ConnectionProvider connections =
+          ConnectionProvider.builder("load-harness")
+              .maxConnections(CONNECTIONS)
+              .pendingAcquireMaxCount(-1)
+              .build();
+      HttpClient client =
+          HttpClient.create(connections)
+              .baseUrl("http://localhost:" + port + "/v1")
+              .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+              .responseTimeout(Duration.ofSeconds(60));
+      try {
+        List<Operation> operations = operations();
+        run(client, operations, mix, new Random(SEED - 1), WARMUP_SECONDS);
+        operations.forEach(Operation::reset);
+        long elapsed = run(client, operations, mix, new Random(SEED), DURATION_SECONDS);
+        report(operations, mix, args, elapsed);
+      } finally {
+        connections.dispose();
+      }
+    }
+  }
+
+  /** @return the nanoseconds from the first request being due to the last one completing */
+  private static long run(
+      final HttpClient client,
+      final List<Operation> operations,
+      final Map<Kind, Integer> mix,
+      final Random random,
+      final int seconds)
+      throws InterruptedException {
+    int requests = RATE * seconds;
+    long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+    CountDownLatch completed = new CountDownLatch(requests);
+    long start = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      long due = start + i * interval;
+      for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+        LockSupport.parkNanos(wait);
+      }
+      Operation operation = pick(operations, mix, random);
+      Call call = operation.next.apply(random);
+      send(client, call)
+          .subscribe(
+              status -> {
+                operation.record(System.nanoTime() - due, status);
+                completed.countDown();
+              });
+    }
+    if (!completed.await(2, TimeUnit.MINUTES)) {
+      log.warn("{} requests still outstanding", completed.getCount());
+    }
+    return System.nanoTime() - start;
+  }
+
+  /** @return the status, or -1 when the request could not be sent or timed out */
+  private static Mono<Integer> send(final HttpClient client, final Call call) {
+    HttpClient.RequestSender sender = client.request(call.method).uri(call.uri);
+    HttpClient.ResponseReceiver<?> receiver =
+        call.body == null ? sender : sender.send(ByteBufFlux.fromString(Mono.just(call.body)));
+    return receiver
+        .responseSingle(
+            (response, body) -> body.asByteArray().thenReturn(response.status().code()))
+        .defaultIfEmpty(-1)
+        .onErrorReturn(-1);
+  }
+
+  private static Operation pick(
+      final List<Operation> operations, final Map<Kind, Integer> mix, final Random random) {
+    int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+    int roll = random.nextInt(total);
+    Kind kind = null;
+    for (Map.Entry<Kind, Integer> entry : mix.entrySet()) {
+      roll -= entry.getValue();
+      if (roll < 0) {
+        kind = entry.getKey();
+        break;
+      }
+    }
+    int kindTotal = 0;
+    for (Operation operation : operations) {
+      if (operation.kind == kind) {
+        kindTotal += operation.weight;
+      }
+    }
+    roll = random.nextInt(kindTotal);
+    for (Operation operation : operations) {
+      if (operation.kind == kind) {
+        roll -= operation.weight;
+        if (roll < 0) {
+          return operation;
+        }
+      }
+    }
+    throw new IllegalStateException("No operation of kind " + kind);
+  }
+
+  private List<Operation> operations() {
+    List<Operation> operations = new ArrayList<>();
+    operations.add(
+        new Operation(
+            "GET /employee/{empId}",
+            Kind.READ,
+            30,
+            random -> get("/employee/" + anyOf(empIds, random))));
+    operations.add(
+        new Operation("GET /employee", Kind.READ, 10, random -> get("/employee?size=20")));
+    operations.add(
+        new Operation(
+            "GET /employee?sort=familyName",
+            Kind.READ,
+            5,
+            random -> get("/employee?size=20&sort=familyName")));
+    operations.add(
+        new Operation(
+            "GET /employee/search",
+            Kind.READ,
+            8,
+            random ->
+                get(
+                    "/employee/search?size=20&q=Skill"
+                        + random.nextInt(SKILLS)
+                        + "%20AND%20NOT%20Skill"
+                        + random.nextInt(SKILLS))));
+    operations.add(
+        new Operation(
+            "GET /employee/search/stats", Kind.READ, 1, random -> get("/employee/search/stats")));
+    operations.add(
+        new Operation(
+            "POST /employee/ranking",
+            Kind.READ,
+            4,
+            random ->
+                post(
+                    "/employee/ranking?k=100",
+                    "{\"skills\":[{\"skill\":\"Skill"
+                        + random.nextInt(SKILLS)
+                        + "\",\"minimumLevel\":\"Working\",\"required\":true},"
+                        + "{\"skill\":\"Skill"
+                        + random.nextInt(SKILLS)
+                        + "\",\"minimumLevel\":\"Awareness\"}]}")));
+    operations.add(
+        new Operation(
+            "GET /employee/export",
+            Kind.READ,
+            1,
+            random -> get("/employee/export?afterEmpId=" + empIds.get(EMPLOYEES - 100))));
+    operations.add(
+        new Operation(
+            "GET /skills/{skillId}",
+            Kind.READ,
+            20,
+            random -> get("/skills/" + anyOf(skillIds, random))));
+    operations.add(new Operation("GET /skills", Kind.READ, 5, random -> get("/skills")));
+    operations.add(
+        new Operation("GET /skills/inventory", Kind.READ, 5, random -> get("/skills/inventory")));
+    operations.add(
+        new Operation(
+            "GET /skills/{skillId}/employees",
+            Kind.READ,
+            10,
+            random -> get("/skills/" + anyOf(skillIds, random) + "/employees?size=20")));
+
+    operations.add(
+        new Operation(
+            "POST /employee", Kind.WRITE, 20, random -> post("/employee", employee(random))));
+    operations.add(
+        new Operation(
+            "POST /employee/bulk",
+            Kind.WRITE,
+            2,
+            random -> {
+              List<String> employees = new ArrayList<>();
+              for (int i = 0; i < 20; i++) {
+                employees.add(employee(random));
+              }
+              return post("/employee/bulk", "[" + String.join(",", employees) + "]");
+            }));
+    operations.add(
+        new Operation(
+            "PUT /employee/{empId}",
+            Kind.WRITE,
+            15,
+            random ->
+                new Call(
+                    HttpMethod.PUT, "/employee/" + anyOf(empIds, random), employee(random))));
+    operations.add(
+        new Operation(
+            "DELETE /employee/{empId}",
+            Kind.WRITE,
+            5,
+            random -> delete("/employee/" + next(disposableEmpIds))));
+    operations.add(
+        new Operation(
+            "PUT /employee/{empId}/skills/{skillId}",
+            Kind.WRITE,
+            15,
+            random ->
+                new Call(
+                    HttpMethod.PUT,
+                    "/employee/"
+                        + anyOf(empIds, random)
+                        + "/skills/"
+                        + anyOf(skillIds, random)
+                        + "?level="
+                        + LEVELS[random.nextInt(LEVELS.length)],
+                    null)));
+    operations.add(
+        new Operation(
+            "POST /employee/{empId}/skills",
+            Kind.WRITE,
+            10,
+            random ->
+                post(
+                    "/employee/" + anyOf(empIds, random) + "/skills",
+                    "{\"skillIds\":["
+                        + anyOf(skillIds, random)
+                        + ","
+                        + anyOf(skillIds, random)
+                        + "]}")));
+    operations.add(
+        new Operation(
+            "DELETE /employee/{empId}/skills/{skillId}",
+            Kind.WRITE,
+            10,
+            random ->
+                delete(
+                    "/employee/" + anyOf(empIds, random) + "/skills/" + anyOf(skillIds, random))));
+    operations.add(
+        new Operation("POST /skills", Kind.WRITE, 5, random -> post("/skills", skill(random))));
+    operations.add(
+        new Operation(
+            "PUT /skills",
+            Kind.WRITE,
+            2,
+            random -> new Call(HttpMethod.PUT, "/skills", "[" + skill(random) + "]")));
+    operations.add(
+        new Operation(
+            "PUT /skills/{skillId}",
+            Kind.WRITE,
+            3,
+            random -> {
+              // names are unique, so a skill is only renamed between spellings of its own name
+              int skill = random.nextInt(SKILLS);
+              return new Call(
+                  HttpMethod.PUT,
+                  "/skills/" + skillIds.get(skill),
+                  "{\"skill\":\""
+                      + (random.nextBoolean() ? "Skill" : "SKILL")
+                      + skill
+                      + "\",\"level\":\""
+                      + LEVELS[random.nextInt(LEVELS.length)]
+                      + "\"}");
+            }));
+    operations.add(
+        new Operation(
+            "DELETE /skills/{skillId}",
+            Kind.WRITE,
+            3,
+            random -> delete("/skills/" + next(disposableSkillIds))));
+
+    operations.add(
+        new Operation(
+            "POST /employee invalid body",
+            Kind.INVALID,
+            30,
+            random ->
+                post("/employee", "{\"givenName\":\"given name\",\"dateOfBirth\":\"2016-13-01\"}")));
+    operations.add(
+        new Operation("GET /employee/0", Kind.INVALID, 20, random -> get("/employee/0")));
+    operations.add(
+        new Operation(
+            "GET /employee/search invalid query",
+            Kind.INVALID,
+            10,
+            random -> get("/employee/search?q=%28Skill1")));
+    operations.add(
+        new Operation(
+            "POST /employee/{empId}/skills invalid mode",
+            Kind.INVALID,
+            15,
+            random ->
+                post(
+                    "/employee/" + anyOf(empIds, random) + "/skills",
+                    "{\"skillIds\":[1],\"mode\":\"merge\"}")));
+    operations.add(
+        new Operation(
+            "POST /skills invalid level",
+            Kind.INVALID,
+            25,
+            random -> post("/skills", "{\"skill\":\"Java\",\"level\":\"Guru\"}")));
+    return operations;
+  }
+
+  private void report(
+      final List<Operation> operations,
+      final Map<Kind, Integer> mix,
+      final List<String> args,
+      final long elapsed)
+      throws IOException {
+    Map<String, Object> configuration = new LinkedHashMap<>();
+    configuration.put("label", LABEL);
+    configuration.put("java", Runtime.version().toString());
+    configuration.put("processors", Runtime.getRuntime().availableProcessors());
+    configuration.put("rate", RATE);
+    configuration.put("durationSeconds", DURATION_SECONDS);
+    configuration.put("warmupSeconds", WARMUP_SECONDS);
+    configuration.put("mix", mix);
+    configuration.put("connections", CONNECTIONS);
+    configuration.put("seed", SEED);
+    configuration.put("args", args);
+
+    Histogram all = new Histogram(3);
+    Map<String, Object> routes = new LinkedHashMap<>();
+    for (Operation operation : operations) {
+      all.add(operation.latencies);
+      Map<String, Object> route = summary(operation.latencies);
+      route.put("kind", operation.kind);
+      route.put("ok", operation.ok.get());
+      route.put("rejected", operation.rejected.get());
+      route.put("failed", operation.failed.get());
+      routes.put(operation.name, route);
+      log.info(
+          "{}: {} requests, {} ok, {} rejected, {} failed, p50 {} ms, p99 {} ms, p99.9 {} ms,"
+              + " max {} ms",
+          operation.name,
+          operation.latencies.getTotalCount(),
+          operation.ok.get(),
+          operation.rejected.get(),
+          operation.failed.get(),
+          route.get("p50Millis"),
+          route.get("p99Millis"),
+          route.get("p999Millis"),
+          route.get("maxMillis"));
+    }
+    Map<String, Object> total = summary(all);
+    total.put("achievedRate", all.getTotalCount() * TimeUnit.SECONDS.toNanos(1) / elapsed);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("configuration", configuration);
+    report.put("total", total);
+    report.put("routes", routes);
+
+    Path path = Paths.get("target", "load-report-" + LABEL + ".json");
+    Files.createDirectories(path.getParent());
+    new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(path.toFile(), report);
+    log.info(
+        "{} requests at {} req/s, p50 {} ms, p99 {} ms, p99.9 {} ms, max {} ms, report {}",
+        all.getTotalCount(),
+        total.get("achievedRate"),
+        total.get("p50Millis"),
+        total.get("p99Millis"),
+        total.get("p999Millis"),
+        total.get("maxMillis"),
+        path.toAbsolutePath());
+  }
+
+  private static Map<String, Object> summary(final Histogram latencies) {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("requests", latencies.getTotalCount());
+    summary.put("p50Millis", millis(latencies.getValueAtPercentile(50)));
+    summary.put("p90Millis", millis(latencies.getValueAtPercentile(90)));
+    summary.put("p99Millis", millis(latencies.getValueAtPercentile(99)));
+    summary.put("p999Millis", millis(latencies.getValueAtPercentile(99.9)));
+    summary.put("maxMillis", millis(latencies.getMaxValue()));
+    return summary;
+  }
+
+  private static double millis(final long nanos) {
+    return Math.round(nanos / 1_000.0) / 1_000.0;
+  }
+
+  private static Map<Kind, Integer> parseMix(final String mix) {
+    Map<Kind, Integer> weights = new LinkedHashMap<>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected kind=weight in benchmark.mix: " + entry);
+      }
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        weights.put(Kind.valueOf(parts[0].trim().toUpperCase()), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("benchmark.mix has no positive weight: " + mix);
+    }
+    return weights;
+  }
+
+  private void seed(final ConfigurableApplicationContext context) {
+    SkillsRepository skillsRepository = context.getBean(SkillsRepository.class);
+    EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+
+    List<Skills> skills = new ArrayList<>();
+    for (int i = 0; i < SKILLS + DISPOSABLE_SKILLS; i++) {
+      SkillLevel level = SkillLevel.fromLabel(LEVELS[i % LEVELS.length]);
+      skills.add(Skills.builder().skill("Skill" + i).level(level).build());
+    }
+    skills = skillsRepository.saveAll(skills);
+    for (int i = 0; i < skills.size(); i++) {
+      (i < SKILLS ? skillIds : disposableSkillIds).add(skills.get(i).getSkillId());
+    }
+
+    Random random = new Random(SEED);
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < EMPLOYEES + DISPOSABLE_EMPLOYEES; i++) {
+      Employee employee =
+          Employee.builder()
+              .givenName("given" + i)
+              .familyName("family" + random.nextInt(EMPLOYEES))
+              .dateOfBirth("2016-04-01")
+              .empSkillsSet(new HashSet<>())
+              .build();
+      while (employee.getEmpSkillsSet().size() < SKILLS_PER_EMPLOYEE) {
+        Skills skill = skills.get(random.nextInt(SKILLS));
+        SkillLevel level = SkillLevel.fromLabel(LEVELS[random.nextInt(LEVELS.length)]);
+        employee.getEmpSkillsSet().add(EmployeeSkill.of(employee, skill, level));
+      }
+      employees.add(employee);
+    }
+    employees = employeeRepository.saveAll(employees);
+    for (int i = 0; i < employees.size(); i++) {
+      (i < EMPLOYEES ? empIds : disposableEmpIds).add(employees.get(i).getEmpId());
+    }
+  }
+
+  /** @return the next unused id, or one that does not exist once they run out */
+  private static long next(final Deque<Long> ids) {
+    Long id = ids.poll();
+    return id == null ? Integer.MAX_VALUE : id;
+  }
+
+  private static long anyOf(final List<Long> ids, final Random random) {
+    return ids.get(random.nextInt(ids.size()));
+  }
+
+  private String employee(final Random random) {
+    return "{\"givenName\":\"given"
+        + sequence++
+        + "\",\"familyName\":\"family"
+        + random.nextInt(EMPLOYEES)
+        + "\",\"dateOfBirth\":\"2016-04-01\"}";
+  }
+
+  private String skill(final Random random) {
+    return "{\"skill\":\"Load"
+        + sequence++
+        + "\",\"level\":\""
+        + LEVELS[random.nextInt(LEVELS.length)]
+        + "\"}";
+  }
+
+  private static Call get(final String uri) {
+    return new Call(HttpMethod.GET, uri, null);
+  }
+
+  private static Call post(final String uri, final String body) {
+    return new Call(HttpMethod.POST, uri, body);
+  }
+
+  private static Call delete(final String uri) {
+    return new Call(HttpMethod.DELETE, uri, null);
+  }
+}
@@ -0,0 +1,107 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latency of {@code GET /employee/{empId}} when every request misses the response cache, i.e. the
+ * former findById, lazy load and serialise path, against requests served from the cache. Disabled
+ * by default, run with {@code mvn test -Dtest=ResponseCacheBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ResponseCacheBenchmarkTest {
+
+  private static final int EMPLOYEES = 1_000;
+
+  private static final int SKILLS_PER_EMPLOYEE = 5;
+
+  private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ResponseCache responseCache;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Test
+  void benchmark_fetchEmployeeDetails_withAndWithoutCachedResponse() throws Exception {
+    List<Skills> skills = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      skills.add(Skills.builder().skill("CacheSkill" + i).level(SkillLevel.EXPERT).build());
+    }
+    skills = skillsRepository.saveAll(skills);
+
+    Random random = new Random(42);
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < EMPLOYEES; i++) {
+      Employee employee =
+          Employee.builder()
+              .givenName("given" + i)
+              .familyName("family" + i)
+              .dateOfBirth("2016-04-01")
+              .empSkillsSet(new HashSet<>())
+              .build();
+      while (employee.getEmpSkillsSet().size() < SKILLS_PER_EMPLOYEE) {
+        Skills skill = skills.get(random.nextInt(skills.size()));
+        employee.getEmpSkillsSet().add(EmployeeSkill.of(employee, skill, SkillLevel.EXPERT));
+      }
+      employees.add(employee);
+    }
+    long[] empIds =
+        employeeRepository.saveAll(employees).stream().mapToLong(Employee::getEmpId).toArray();
+
+    report("uncached", empIds, true);
+    report("cached", empIds, false);
+  }
+
+  private void report(final String path, final long[] empIds, final boolean invalidate)
+      throws Exception {
+    Random random = new Random(7);
+    long[] nanos = new long[REQUESTS];
+    for (int i = -REQUESTS / 10; i < REQUESTS; i++) {
+      long empId = empIds[random.nextInt(empIds.length)];
+      if (invalidate) {
+        responseCache.invalidateAll();
+      }
+      long start = System.nanoTime();
+      mockMvc.perform(get("/employee/{empId}", empId)).andExpect(status().isOk());
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    log.info(
+        "{}: p50 {} us, p99 {} us, p99.9 {} us over {} requests",
+        path,
+        nanos[REQUESTS / 2] / 1_000,
+        nanos[REQUESTS * 99 / 100] / 1_000,
+        nanos[REQUESTS * 999 / 1000] / 1_000,
+        REQUESTS);
+  }
+}
@@ -0,0 +1,135 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Cost of the "is this skill still held" check before deleting a skill held by half a million
+ * employees: loading every {@link EmployeeSkill} link of the skill, as the former {@code
+ * Skills.empSet} did, against the existence probe of {@link
+ * SkillsRepository#deleteIfNotHeld(Long)}. Disabled by default, run with {@code mvn test
+ * -Dtest=SkillDeleteBenchmarkTest -Dbenchmark=true}; {@code -Dbenchmark.holders} changes the
+ * default 500k holders.
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SkillDeleteBenchmarkTest {
+
+  private static final int HOLDERS = Integer.getInteger("benchmark.holders", 500_000);
+
+  private static final long FIRST_EMP_ID = 10_000_000L;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Test
+  void benchmark_deleteRegisteredSkill_whenSkillIsWidelyHeld() {
+    Long held =
+        skillsRepository
+            .save(Skills.builder().skill("Popular").level(SkillLevel.EXPERT).build())
+            .getSkillId();
+    long start = System.nanoTime();
+    List<Object[]> employees = new ArrayList<>();
+    List<Object[]> links = new ArrayList<>();
+    for (long empId = FIRST_EMP_ID; empId < FIRST_EMP_ID + HOLDERS; empId++) {
+      employees.add(new Object[] {empId, "given" + empId, "family" + empId, "2016-04-01"});
+      links.add(new Object[] {empId, held, SkillLevel.EXPERT.getCode()});
+      if (employees.size() == 10_000) {
+        insert(employees, links);
+      }
+    }
+    insert(employees, links);
+    log.info("Inserted {} holders in {} ms", HOLDERS, (System.nanoTime() - start) / 1_000_000);
+
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    Supplier<Boolean> initialiseHolders =
+        () ->
+            readOnly.execute(
+                status ->
+                    entityManager
+                        .createQuery(
+                            "select es from EmployeeSkill es where es.skill.skillId = :skillId",
+                            EmployeeSkill.class)
+                        .setParameter("skillId", held)
+                        .getResultList()
+                        .isEmpty());
+    Supplier<Boolean> probe =
+        () ->
+            "Successfully deleted the skill"
+                .equals(skillRegistrationService.deleteRegisteredSkill(held).getMessage());
+
+    assertFalse(initialiseHolders.get());
+    assertFalse(probe.get());
+    report("links.isEmpty()", 5, initialiseHolders);
+    report("deleteIfNotHeld", 2_000, probe);
+
+    Integer stored =
+        jdbcTemplate.queryForObject(
+            "select count(*) from emp_skills where skills_id = ?", Integer.class, held);
+    assertEquals(HOLDERS, stored);
+  }
+
+  private void insert(final List<Object[]> employees, final List<Object[]> links) {
+    jdbcTemplate.batchUpdate(
+        "insert into employee (emp_id, given_name, family_name, date_of_birth) values (?, ?, ?, ?)",
+        employees);
+    jdbcTemplate.batchUpdate(
+        "insert into emp_skills (employee_id, skills_id, level) values (?, ?, ?)", links);
+    employees.clear();
+    links.clear();
+  }
+
+  private static void report(
+      final String path, final int iterations, final Supplier<Boolean> check) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long[] nanos = new long[iterations];
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      check.get();
+      nanos[i] = System.nanoTime() - start;
+    }
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    Arrays.sort(nanos);
+    log.info(
+        "{}: p50 {} us, max {} us, {} KB allocated per check over {} checks",
+        path,
+        nanos[iterations / 2] / 1_000,
+        nanos[iterations - 1] / 1_000,
+        allocated / 1024 / iterations,
+        iterations);
+  }
+}
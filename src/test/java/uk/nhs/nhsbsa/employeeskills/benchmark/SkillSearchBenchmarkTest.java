@@ -0,0 +1,112 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeSkillsChangedEvent;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeesRegisteredEvent;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.event.SkillsSavedEvent;
+import uk.nhs.nhsbsa.employeeskills.index.SkillBitmapIndex;
+import uk.nhs.nhsbsa.employeeskills.index.SkillExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query latency and memory footprint of the skill index at workforce scale, filled through the
+ * same events the services publish. Disabled by default, run with {@code mvn test
+ * -Dtest=SkillSearchBenchmarkTest -Dbenchmark=true}; {@code -Dbenchmark.employees} and {@code
+ * -Dbenchmark.skills} change the default 1M employees by 10k skills, each link at a random level.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SkillSearchBenchmarkTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("benchmark.employees", 1_000_000);
+
+  private static final int SKILLS = Integer.getInteger("benchmark.skills", 10_000);
+
+  private static final int SKILLS_PER_EMPLOYEE = 20;
+
+  private static final List<SkillLevel> LEVELS = Arrays.asList(SkillLevel.values());
+
+  private static final int ITERATIONS = 2_000;
+
+  @Test
+  void benchmark_booleanQueries_atWorkforceScale() {
+    SkillBitmapIndex index = new SkillBitmapIndex();
+    List<SkillEntry> skills = new ArrayList<>();
+    for (long skillId = 1; skillId <= SKILLS; skillId++) {
+      skills.add(new SkillEntry(skillId, "Skill" + (skillId - 1), SkillLevel.AWARENESS, 0L));
+    }
+    index.onSkillsSaved(new SkillsSavedEvent(skills));
+
+    // Skill popularity is skewed: a few skills are held by a large share of the workforce.
+    Random random = new Random(42);
+    long start = System.nanoTime();
+    List<Long> batch = new ArrayList<>();
+    for (long empId = 1; empId <= EMPLOYEES; empId++) {
+      batch.add(empId);
+      Map<Long, SkillLevel> held = new HashMap<>();
+      while (held.size() < SKILLS_PER_EMPLOYEE) {
+        double skew = random.nextDouble();
+        held.put(
+            1 + (long) (skew * skew * skew * SKILLS), LEVELS.get(random.nextInt(LEVELS.size())));
+      }
+      index.onEmployeeSkillsChanged(
+          new EmployeeSkillsChangedEvent(empId, held, Collections.emptyMap()));
+      if (batch.size() == 10_000) {
+        index.onEmployeesRegistered(new EmployeesRegisteredEvent(batch));
+        batch = new ArrayList<>();
+      }
+    }
+    index.onEmployeesRegistered(new EmployeesRegisteredEvent(batch));
+    log.info("Filled index in {} ms", (System.nanoTime() - start) / 1_000_000);
+
+    SkillBitmapIndex.Stats stats = index.stats();
+    log.info(
+        "{} employees, {} skills, {} links: {} KB in memory, {} KB serialized, {} KB as bitsets",
+        stats.getEmployees(),
+        stats.getSkills(),
+        stats.getLinks(),
+        stats.getSizeInBytes() / 1024,
+        stats.getSerializedSizeInBytes() / 1024,
+        stats.getDenseSizeInBytes() / 1024);
+
+    report(index, "(Skill0 OR Skill1) AND Skill2 AND NOT Skill2:Awareness");
+    report(index, "Skill3:Expert AND Skill5 AND Skill8");
+    report(index, "(Skill1000 OR Skill2000 OR Skill2400) AND NOT Skill0");
+    report(index, "NOT Skill0");
+  }
+
+  private static void report(final SkillBitmapIndex index, final String query) {
+    SkillExpression expression = SkillExpression.parse(query);
+    for (int i = 0; i < ITERATIONS; i++) {
+      index.search(expression, 0, 100);
+    }
+    long[] nanos = new long[ITERATIONS];
+    long matches = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      matches = index.search(expression, 0, 100).getMatchCount();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    log.info(
+        "{}: {} matches, p50 {} us, p99 {} us",
+        query,
+        matches,
+        nanos[ITERATIONS / 2] / 1_000,
+        nanos[ITERATIONS * 99 / 100] / 1_000);
+    assertTrue(matches >= 0);
+  }
+}
@@ -0,0 +1,242 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.service.IEmployeeRegistrationService;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the same number of requests in flight against the servlet stack on Tomcat's default pool of
+ * platform threads, on a platform pool as large as the load, and on virtual threads, and reports
+ * how many requests each had in flight at once and what that cost in threads, live heap and
+ * resident memory. All three run in this JVM, so under the same maximum heap.
+ *
+ * <p>Each request is a {@code GET /v1/benchmark/hold} registered for the benchmark only, which
+ * blocks for {@code benchmark.hold-millis} as a slow downstream call would and then fetches an
+ * employee through the blocking service.
+ *
+ * <p>Disabled by default, run with {@code mvn test -Dtest=VirtualThreadBenchmarkTest
+ * -Dbenchmark=true}. The virtual thread run needs Java 21 and is skipped on older releases; set
+ * {@code JAVA_HOME} to a Java 21 installation, and {@code -Dbenchmark.concurrency} to raise the
+ * load. Every connection costs two file descriptors.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTest {
+
+  private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 4_000);
+
+  private static final long HOLD_MILLIS = Long.getLong("benchmark.hold-millis", 2_000);
+
+  private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+  private static final AtomicInteger PEAK_IN_FLIGHT = new AtomicInteger();
+
+  @Test
+  void benchmark_requestsInFlight_platformAgainstVirtualThreads() {
+    log.info(
+        "Java {}, max heap {} MB, {} requests held for {} ms",
+        Runtime.version(),
+        Runtime.getRuntime().maxMemory() / (1024 * 1024),
+        CONCURRENCY,
+        HOLD_MILLIS);
+    load("platform, default pool", "--server.port=0");
+    load(
+        "platform, pool of " + CONCURRENCY,
+        "--server.port=0",
+        "--server.tomcat.threads.max=" + CONCURRENCY);
+    if (Runtime.version().feature() >= 21) {
+      load("virtual", "--server.port=0", "--spring.threads.virtual.enabled=true");
+    } else {
+      log.info("virtual: skipped, Java {} has no virtual threads", Runtime.version());
+    }
+  }
+
+  /** @param arguments override application.properties, which default properties do not */
+  private void load(final String mode, final String... arguments) {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+            .properties(
+                "server.tomcat.max-connections=" + 2 * CONCURRENCY,
+                "server.tomcat.accept-count=" + CONCURRENCY,
+                "logging.level.uk.nhs.nhsbsa.employeeskills.controller=WARN",
+                "logging.level.uk.nhs.nhsbsa.employeeskills.service=WARN")
+            .initializers(
+                (GenericApplicationContext initialized) ->
+                    initialized.registerBean(
+                        "holdRoute", RouterFunction.class, () -> holdRoute(initialized)))
+            .run(arguments)) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      String empId =
+          context
+              .getBean(IEmployeeRegistrationService.class)
+              .registerEmployee(
+                  EmployeeRegistrationRequest.builder()
+                      .givenName("held")
+                      .familyName("request")
+                      .dateOfBirth("2016-04-01")
+                      .build())
+              .getEmpId();
+
+      ConnectionProvider connections =
+          ConnectionProvider.builder(mode)
+              .maxConnections(CONCURRENCY)
+              .pendingAcquireMaxCount(-1)
+              .build();
+      HttpClient client =
+          HttpClient.create(connections)
+              .baseUrl("http://localhost:" + port + "/v1")
+              .responseTimeout(Duration.ofMinutes(10));
+      try {
+        run(client, empId, Math.min(CONCURRENCY, 50), new AtomicInteger());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        long heapBefore = heapAfterCollection();
+        long rssBefore = residentBytes();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        IN_FLIGHT.set(0);
+        PEAK_IN_FLIGHT.set(0);
+
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicLong peakRss = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(
+            () -> {
+              peakHeap.accumulateAndGet(heapAfterCollection(), Math::max);
+              peakRss.accumulateAndGet(residentBytes(), Math::max);
+            },
+            0,
+            50,
+            TimeUnit.MILLISECONDS);
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        int completed;
+        try {
+          completed = run(client, empId, CONCURRENCY, errors);
+        } finally {
+          sampler.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        log.info(
+            "{}: {} ok, {} failed in {} ms, at most {} in flight, threads {} before and {} at"
+                + " peak, heap left by a collection {} MB before and {} MB at peak, resident {} MB"
+                + " before and {} MB at peak",
+            mode,
+            completed,
+            errors.get(),
+            elapsed / 1_000_000,
+            PEAK_IN_FLIGHT.get(),
+            threadsBefore,
+            threads.getPeakThreadCount(),
+            heapBefore / (1024 * 1024),
+            peakHeap.get() / (1024 * 1024),
+            rssBefore / (1024 * 1024),
+            peakRss.get() / (1024 * 1024));
+      } finally {
+        connections.dispose();
+      }
+    }
+  }
+
+  private static RouterFunction<ServerResponse> holdRoute(
+      final GenericApplicationContext context) {
+    return RouterFunctions.route()
+        .GET(
+            "/benchmark/hold",
+            request -> {
+              PEAK_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(HOLD_MILLIS);
+                return ServerResponse.ok()
+                    .body(
+                        context
+                            .getBean(IEmployeeRegistrationService.class)
+                            .fetchEmployeeDetails(Long.valueOf(request.param("empId").get())));
+              } finally {
+                IN_FLIGHT.decrementAndGet();
+              }
+            })
+        .build();
+  }
+
+  /** @return the number of requests answered with 200 */
+  private static int run(
+      final HttpClient client, final String empId, final int requests, final AtomicInteger errors) {
+    AtomicInteger completed = new AtomicInteger();
+    Flux.range(0, requests)
+        .flatMap(
+            request ->
+                client
+                    .get()
+                    .uri("/benchmark/hold?empId=" + empId)
+                    .responseSingle(
+                        (response, body) ->
+                            body.asByteArray().thenReturn(response.status().code()))
+                    .doOnNext(
+                        status -> {
+                          if (status == 200) {
+                            completed.incrementAndGet();
+                          } else {
+                            errors.incrementAndGet();
+                          }
+                        })
+                    .onErrorResume(
+                        e -> {
+                          errors.incrementAndGet();
+                          return Mono.empty();
+                        }),
+            requests)
+        .blockLast();
+    return completed.get();
+  }
+
+  /** @return the heap in use after the last collection, which unlike the heap in use is live */
+  private static long heapAfterCollection() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+        .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+        .sum();
+  }
+
+  /** @return the resident set size of this process, 0 where /proc is not available */
+  private static long residentBytes() {
+    try {
+      return Files.readAllLines(Paths.get("/proc/self/status")).stream()
+          .filter(line -> line.startsWith("VmRSS:"))
+          .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+          .findFirst()
+          .orElse(0);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package uk.nhs.nhsbsa.employeeskills.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.EmployeeSkill;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens the same number of concurrent connections against the servlet stack and the reactive
+ * stack, each sending {@code GET /v1/employee?size=20} a few times, and reports the peak JVM thread
+ * count and the latency percentiles of each. The list endpoint reads the database on both stacks,
+ * so neither is served from the response cache. The load generator runs in the same JVM on the
+ * same event loops in both runs, so the difference in threads is the server's.
+ *
+ * <p>Disabled by default, run with {@code mvn test -Dtest=WebStackLoadBenchmarkTest
+ * -Dbenchmark=true}. Every connection costs two file descriptors, so 10,000 connections need
+ * {@code ulimit -n} well above 20,000; lower them with {@code -Dbenchmark.connections}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WebStackLoadBenchmarkTest {
+
+  private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 10_000);
+
+  private static final int REQUESTS_PER_CONNECTION =
+      Integer.getInteger("benchmark.requests-per-connection", 5);
+
+  private static final int EMPLOYEES = 1_000;
+
+  private static final int SKILLS_PER_EMPLOYEE = 5;
+
+  @Test
+  void benchmark_listEmployees_servletAgainstReactive() {
+    load("servlet");
+    load("reactive");
+  }
+
+  private void load(final String stack) {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+            .properties(
+                "spring.main.web-application-type=" + stack,
+                "server.port=0",
+                "logging.level.uk.nhs.nhsbsa.employeeskills.controller=WARN",
+                "logging.level.uk.nhs.nhsbsa.employeeskills.service=WARN")
+            .run()) {
+      seed(context);
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+      ConnectionProvider connections =
+          ConnectionProvider.builder(stack)
+              .maxConnections(CONNECTIONS)
+              .pendingAcquireMaxCount(-1)
+              .build();
+      HttpClient client =
+          HttpClient.create(connections)
+              .baseUrl("http://localhost:" + port + "/v1")
+              .responseTimeout(Duration.ofSeconds(120));
+      try {
+        run(client, Math.min(CONNECTIONS, 100), 10, new long[1_000], new AtomicInteger());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        long[] nanos = new long[CONNECTIONS * REQUESTS_PER_CONNECTION];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        int completed = run(client, CONNECTIONS, REQUESTS_PER_CONNECTION, nanos, errors);
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = Arrays.copyOf(nanos, completed);
+        Arrays.sort(sorted);
+        log.info(
+            "{}: {} connections, {} ok, {} failed, {} req/s, threads {} before and {} at peak,"
+                + " p50 {} ms, p99 {} ms, p99.9 {} ms, max {} ms",
+            stack,
+            CONNECTIONS,
+            completed,
+            errors.get(),
+            completed * 1_000_000_000L / elapsed,
+            threadsBefore,
+            threads.getPeakThreadCount(),
+            percentile(sorted, 0.5),
+            percentile(sorted, 0.99),
+            percentile(sorted, 0.999),
+            percentile(sorted, 1.0));
+      } finally {
+        connections.dispose();
+      }
+    }
+  }
+
+  /** @return the number of successful requests, whose latencies are written to the front */
+  private static int run(
+      final HttpClient client,
+      final int connections,
+      final int requestsPerConnection,
+      final long[] nanos,
+      final AtomicInteger errors) {
+    AtomicInteger completed = new AtomicInteger();
+    Flux.range(0, connections)
+        .flatMap(
+            connection ->
+                Flux.range(0, requestsPerConnection)
+                    .concatMap(
+                        request ->
+                            Mono.defer(
+                                () -> {
+                                  long start = System.nanoTime();
+                                  return client
+                                      .get()
+                                      .uri("/employee?size=20")
+                                      .responseSingle(
+                                          (response, body) ->
+                                              body.asByteArray()
+                                                  .thenReturn(response.status().code()))
+                                      .doOnNext(
+                                          status -> {
+                                            if (status == 200) {
+                                              int index = completed.getAndIncrement();
+                                              if (index < nanos.length) {
+                                                nanos[index] = System.nanoTime() - start;
+                                              }
+                                            } else {
+                                              errors.incrementAndGet();
+                                            }
+                                          })
+                                      .onErrorResume(
+                                          e -> {
+                                            errors.incrementAndGet();
+                                            return Mono.empty();
+                                          });
+                                })),
+            connections)
+        .blockLast();
+    return Math.min(completed.get(), nanos.length);
+  }
+
+  private static void seed(final ConfigurableApplicationContext context) {
+    SkillsRepository skillsRepository = context.getBean(SkillsRepository.class);
+    EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+
+    List<Skills> skills = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      skills.add(Skills.builder().skill("WebSkill" + i).level(SkillLevel.EXPERT).build());
+    }
+    skills = skillsRepository.saveAll(skills);
+
+    Random random = new Random(42);
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < EMPLOYEES; i++) {
+      Employee employee =
+          Employee.builder()
+              .givenName("given" + i)
+              .familyName("family" + i)
+              .dateOfBirth("2016-04-01")
+              .empSkillsSet(new HashSet<>())
+              .build();
+      while (employee.getEmpSkillsSet().size() < SKILLS_PER_EMPLOYEE) {
+        Skills skill = skills.get(random.nextInt(skills.size()));
+        employee.getEmpSkillsSet().add(EmployeeSkill.of(employee, skill, SkillLevel.EXPERT));
+      }
+      employees.add(employee);
+    }
+    employeeRepository.saveAll(employees);
+  }
+
+  private static long percentile(final long[] sorted, final double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1_000_000;
+  }
+}
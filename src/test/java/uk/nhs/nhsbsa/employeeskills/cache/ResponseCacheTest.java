@@ -0,0 +1,156 @@
+package uk.nhs.nhsbsa.employeeskills.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeUpdatedEvent;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ResponseCacheTest {
+
+  @Autowired private ResponseCache responseCache;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void test_fetchEmployee_isInvalidated_whenHeldSkillIsRenamed() throws IOException {
+    SkillsRegistrationRequest skill =
+        SkillsRegistrationRequest.builder().skill("CacheCobol").level("Expert").build();
+    Long skillId = Long.valueOf(skillRegistrationService.registerSkills(skill).getSkillId());
+    Long empId =
+        Long.valueOf(
+            employeeRegistrationService
+                .registerEmployee(
+                    EmployeeRegistrationRequest.builder()
+                        .givenName("ada")
+                        .familyName("cache")
+                        .dateOfBirth("2016-04-01")
+                        .build())
+                .getEmpId());
+    employeeRegistrationService.addSkillsToEmployee(empId, skillId, null);
+
+    assertEquals("CacheCobol", skillName(fetchEmployee(empId)));
+    assertEquals("CacheCobol", skillName(fetchEmployee(empId)));
+
+    skill.setSkill("CacheFortran");
+    skillRegistrationService.updateRegisteredSkills(skill, skillId, null);
+
+    assertEquals("CacheFortran", skillName(fetchEmployee(empId)));
+  }
+
+  @Test
+  void test_fetchEmployee_forgetsMissingAnswer_whenEmployeeIsRegistered() {
+    Long nextEmpId =
+        Long.valueOf(
+                employeeRegistrationService
+                    .registerEmployee(
+                        EmployeeRegistrationRequest.builder()
+                            .givenName("probe")
+                            .familyName("cache")
+                            .dateOfBirth("2016-04-01")
+                            .build())
+                    .getEmpId())
+            + 1;
+
+    assertFalse(fetchEmployee(nextEmpId).isFound());
+
+    Long empId =
+        Long.valueOf(
+            employeeRegistrationService
+                .registerEmployee(
+                    EmployeeRegistrationRequest.builder()
+                        .givenName("grace")
+                        .familyName("cache")
+                        .dateOfBirth("2016-04-01")
+                        .build())
+                .getEmpId());
+
+    assertEquals(nextEmpId, empId);
+    assertTrue(fetchEmployee(empId).isFound());
+  }
+
+  @Test
+  void test_fetchEmployee_dropsLoadInProgress_whenEmployeeIsUpdated() throws Exception {
+    Long empId = -42L;
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<CachedResponse> stale =
+          executor.submit(
+              () ->
+                  responseCache.fetchEmployee(
+                      empId,
+                      () -> {
+                        loading.countDown();
+                        await(release);
+                        return response("stale");
+                      }));
+      assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+      responseCache.onEmployeeUpdated(new EmployeeUpdatedEvent(empId));
+      release.countDown();
+
+      assertEquals("stale", givenName(stale.get(10, TimeUnit.SECONDS)));
+      assertEquals("fresh", givenName(responseCache.fetchEmployee(empId, () -> response("fresh"))));
+      assertEquals("fresh", givenName(responseCache.fetchEmployee(empId, () -> response("late"))));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static EmployeeResponse response(final String givenName) {
+    return EmployeeResponse.builder()
+        .empId("-42")
+        .givenName(givenName)
+        .responseStatus(HttpStatus.OK)
+        .status(HttpStatus.OK.value())
+        .build();
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String givenName(final CachedResponse response) throws IOException {
+    return objectMapper.readTree(response.getBody()).get("givenName").asText();
+  }
+
+  private CachedResponse fetchEmployee(final Long empId) {
+    return responseCache.fetchEmployee(
+        empId, () -> employeeRegistrationService.fetchEmployeeDetails(empId));
+  }
+
+  private String skillName(final CachedResponse response) throws IOException {
+    JsonNode skills = objectMapper.readTree(response.getBody()).get("skills");
+    return skills.get(0).get("skill").asText();
+  }
+}
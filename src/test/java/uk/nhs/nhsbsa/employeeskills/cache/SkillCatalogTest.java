@@ -0,0 +1,43 @@
+package uk.nhs.nhsbsa.employeeskills.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SkillCatalogTest {
+
+  @Autowired private SkillCatalog skillCatalog;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Test
+  void test_catalog_followsRegisterUpdateAndDelete() {
+    SkillsRegistrationRequest skill =
+        SkillsRegistrationRequest.builder().skill("CatalogCobol").level("Expert").build();
+    Long skillId = Long.valueOf(skillRegistrationService.registerSkills(skill).getSkillId());
+
+    assertEquals("CatalogCobol", skillCatalog.find(skillId).get().getSkill());
+    assertEquals(skillId, skillCatalog.findByName("catalogCOBOL").get().getSkillId());
+
+    skill.setSkill("CatalogFortran");
+    skillRegistrationService.updateRegisteredSkills(skill, skillId, null);
+
+    assertEquals("CatalogFortran", skillCatalog.find(skillId).get().getSkill());
+    assertFalse(skillCatalog.findByName("CatalogCobol").isPresent());
+    assertTrue(
+        skillCatalog.all().stream().anyMatch(entry -> entry.getSkillId().equals(skillId)));
+
+    skillRegistrationService.deleteRegisteredSkill(skillId);
+
+    assertFalse(skillCatalog.contains(skillId));
+    assertFalse(skillCatalog.find(skillId).isPresent());
+    assertFalse(skillCatalog.findByName("CatalogFortran").isPresent());
+  }
+}
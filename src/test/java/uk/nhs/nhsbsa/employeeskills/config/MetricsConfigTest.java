@@ -0,0 +1,66 @@
+package uk.nhs.nhsbsa.employeeskills.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Scrapes the route, service, pool and Hibernate metrics after a few requests. */
+class MetricsConfigTest {
+
+  @Test
+  void test_prometheus_exposesRouteServicePoolAndHibernateMetrics() {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+            .run(
+                "--server.port=0",
+                "--management.endpoints.web.exposure.include=prometheus",
+                "--management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+                "--spring.jpa.properties.hibernate.generate_statistics=true")) {
+      String url =
+          "http://localhost:"
+              + ((WebServerApplicationContext) context).getWebServer().getPort()
+              + "/v1";
+      RestTemplate restTemplate = new RestTemplate();
+      String empId =
+          restTemplate
+              .postForObject(
+                  url + "/employee",
+                  EmployeeRegistrationRequest.builder()
+                      .givenName("given")
+                      .familyName("family")
+                      .dateOfBirth("2016-04-01")
+                      .build(),
+                  EmployeeResponse.class)
+              .getEmpId();
+      restTemplate.getForEntity(url + "/employee/" + empId, String.class);
+
+      ResponseEntity<String> response =
+          restTemplate.getForEntity(url + "/actuator/prometheus", String.class);
+
+      assertEquals(HttpStatus.OK, response.getStatusCode());
+      String scrape = response.getBody();
+      assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+      assertTrue(scrape.contains("uri=\"/employee/{empId}\""));
+      assertTrue(
+          scrape.contains(
+              "service_method_seconds_count{exception=\"none\",method=\"fetchEmployeeDetails\""));
+      assertTrue(scrape.contains("hikaricp_connections_active"));
+      assertTrue(scrape.contains("hibernate_query_executions_total"));
+      assertTrue(scrape.contains("hibernate_entities_loads_total"));
+      assertTrue(scrape.contains("hibernate_collections_fetches_total"));
+      assertTrue(context.getBean(EmployeeRegistrationService.class) instanceof Advised);
+    }
+  }
+}
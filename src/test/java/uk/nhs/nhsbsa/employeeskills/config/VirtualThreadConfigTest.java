@@ -0,0 +1,69 @@
+package uk.nhs.nhsbsa.employeeskills.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import uk.nhs.nhsbsa.employeeskills.BsaEmployeeSkillsApplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/** Starts the servlet stack on virtual threads, which only Java 21 and later can do. */
+class VirtualThreadConfigTest {
+
+  private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+  @Test
+  void test_requestsAndAsyncTasks_runOnVirtualThreads() throws Exception {
+    assumeTrue(VIRTUAL_THREADS, "virtual threads need Java 21");
+
+    try (ConfigurableApplicationContext context = start()) {
+      TomcatWebServer webServer =
+          (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+      assertTrue(
+          webServer.getTomcat().getConnector().getProtocolHandler().getExecutor()
+              instanceof VirtualThreadExecutor);
+
+      AsyncTaskExecutor taskExecutor =
+          context.getBean("applicationTaskExecutor", AsyncTaskExecutor.class);
+      Object virtual =
+          taskExecutor
+              .submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+              .get();
+      assertEquals(Boolean.TRUE, virtual);
+
+      ResponseEntity<String> response =
+          new RestTemplate()
+              .getForEntity(
+                  "http://localhost:" + webServer.getPort() + "/v1/skills", String.class);
+      assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+  }
+
+  @Test
+  void test_startup_fails_belowJava21() {
+    assumeTrue(!VIRTUAL_THREADS, "this Java supports virtual threads");
+
+    Exception exception = assertThrows(Exception.class, VirtualThreadConfigTest::start);
+
+    Throwable cause = exception;
+    while (!(cause instanceof IllegalStateException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    assertTrue(cause.getMessage().startsWith("spring.threads.virtual.enabled needs Java 21"));
+  }
+
+  private static ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(BsaEmployeeSkillsApplication.class)
+        .run("--spring.threads.virtual.enabled=true", "--server.port=0");
+  }
+}
@@ -1,18 +1,44 @@
 package uk.nhs.nhsbsa.employeeskills.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
+import uk.nhs.nhsbsa.employeeskills.event.EmployeeUpdatedEvent;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
 import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillRequirement;
+import uk.nhs.nhsbsa.employeeskills.request.StaffingProfileRequest;
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
 import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSearchResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.RankedEmployee;
+import uk.nhs.nhsbsa.employeeskills.response.StaffingRankingResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeBulkImportService;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeExportService;
 import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeSearchService;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -29,6 +55,26 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeRegistrationService employeeRegistrationService;
 
+    @MockBean
+    private EmployeeBulkImportService employeeBulkImportService;
+
+    @MockBean
+    private EmployeeSearchService employeeSearchService;
+
+    @MockBean
+    private EmployeeExportService employeeExportService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void clearResponseCache() {
+        responseCache.invalidateAll();
+    }
+
     @Test
     void test_registerEmployee_returns200_whenRequestObjectIsValid() throws Exception {
         EmployeeRegistrationRequest request =
@@ -177,6 +223,101 @@ class EmployeeControllerTest {
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
+    @Test
+    void test_fetchEmployeeDetails_servesCachedBody_untilEmployeeIsUpdated() throws Exception {
+        EmployeeRegistrationRequest request =
+                EmployeeRegistrationRequest.builder()
+                        .dateOfBirth("2020-02-02")
+                        .familyName("abcdef")
+                        .givenName("ghijk")
+                        .build();
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.OK)
+                        .empId("1")
+                        .status(HttpStatus.OK.value())
+                        .familyName("abcdef")
+                        .message("i am in")
+                        .build();
+
+        when(employeeRegistrationService.fetchEmployeeDetails(1L)).thenReturn(response);
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, null))
+                .thenAnswer(
+                        invocation -> {
+                            eventPublisher.publishEvent(new EmployeeUpdatedEvent(1L));
+                            return response;
+                        });
+
+        mockMvc.perform(get("/employee/{empId}", "1")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/{empId}", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.familyName").value("abcdef"));
+        verify(employeeRegistrationService, times(1)).fetchEmployeeDetails(1L);
+
+        mockMvc.perform(
+                        put("/employee/{empId}", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/employee/{empId}", "1")).andExpect(status().isOk());
+        verify(employeeRegistrationService, times(2)).fetchEmployeeDetails(1L);
+    }
+
+    @Test
+    void test_fetchEmployeeDetails_returns304WithoutLoadingDetails_whenETagMatchesVersion()
+            throws Exception {
+        when(employeeRegistrationService.fetchEmployeeVersion(1L))
+                .thenReturn(Optional.of(new EmployeeVersion(4L, 2L)));
+
+        mockMvc
+                .perform(
+                        get("/employee/{empId}", "1")
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"4.2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.2\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(employeeRegistrationService, times(1)).fetchEmployeeVersion(1L);
+        verifyNoMoreInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_fetchEmployeeDetails_returnsBodyWithETag_untilClientHasTheCurrentVersion()
+            throws Exception {
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.OK)
+                        .empId("1")
+                        .status(HttpStatus.OK.value())
+                        .familyName("abcdef")
+                        .version(new EmployeeVersion(5L, 2L))
+                        .message("i am in")
+                        .build();
+
+        when(employeeRegistrationService.fetchEmployeeVersion(1L))
+                .thenReturn(Optional.of(new EmployeeVersion(5L, 2L)));
+        when(employeeRegistrationService.fetchEmployeeDetails(1L)).thenReturn(response);
+
+        mockMvc
+                .perform(
+                        get("/employee/{empId}", "1")
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"4.2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5.2\""))
+                .andExpect(jsonPath("$.familyName").value("abcdef"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        mockMvc
+                .perform(
+                        get("/employee/{empId}", "1")
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"5.2\""))
+                .andExpect(status().isNotModified());
+
+        // the second poll is answered from the ETag of the cached response, without a probe
+        verify(employeeRegistrationService, times(1)).fetchEmployeeVersion(1L);
+        verify(employeeRegistrationService, times(1)).fetchEmployeeDetails(1L);
+        verifyNoMoreInteractions(employeeRegistrationService);
+    }
+
     @Test
     void test_fetchEmployeeDetails_returns400_whenPathVariableEmpIdIsInValid() throws Exception {
 
@@ -208,31 +349,53 @@ class EmployeeControllerTest {
     }
 
     @Test
-    void test_fetchEmployeeDetails_returns405_whenPathVariableEmpIdIsBlank() throws Exception {
-
-        EmployeeResponse response =
-                EmployeeResponse.builder()
+    void test_listEmployees_returns200_whenPathVariableEmpIdIsBlank() throws Exception {
+
+        PageResponse<EmployeeSummary> response =
+                PageResponse.<EmployeeSummary>builder()
+                        .items(
+                                Collections.singletonList(
+                                        EmployeeSummary.builder()
+                                                .empId("1")
+                                                .givenName("ghijk")
+                                                .familyName("abcdef")
+                                                .dateOfBirth("2020-02-02")
+                                                .build()))
+                        .nextCursor("MTo")
                         .responseStatus(HttpStatus.OK)
-                        .empId("1")
                         .status(HttpStatus.OK.value())
-                        .givenName("ghijk")
-                        .familyName("abcdef")
                         .message("i am in")
-                        .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.fetchEmployeeDetails(1L)).thenReturn(response);
-        MvcResult result = this.mockMvc
+        when(employeeRegistrationService.listEmployees(null, 50, "empId")).thenReturn(response);
+        mockMvc
                 .perform(get("/employee/{empId}", ""))
-                .andExpect(status().isMethodNotAllowed())
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("listEmployees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].empId").value("1"))
+                .andExpect(jsonPath("$.items[0].familyName").value("abcdef"))
+                .andExpect(jsonPath("$.nextCursor").value("MTo"));
+
+        verify(employeeRegistrationService, times(0)).fetchEmployeeDetails(1L);
+        verify(employeeRegistrationService, times(1)).listEmployees(null, 50, "empId");
+        verifyNoMoreInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_listEmployees_returns400_whenSortAndSizeAreInValid() throws Exception {
+        MvcResult result = this.mockMvc
+                .perform(get("/employee").param("sort", "givenName").param("size", "0"))
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("listEmployees"))
+                .andExpect(status().isBadRequest())
                 .andReturn();
 
         String content = result.getResponse().getContentAsString();
 
-        assertEquals(content, "{\"status\":405,\"errorInfo\":\"Method Not Allowed\"}");
+        assertEquals(content, "{\"status\":400,\"errorInfo\":\"Bad Request\"}");
 
-        verify(employeeRegistrationService, times(0)).fetchEmployeeDetails(1L);
-        verifyNoMoreInteractions(employeeRegistrationService);
+        verifyNoInteractions(employeeRegistrationService);
     }
 
     @Test
@@ -255,7 +418,8 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.updateEmployeeDetails(1L, request)).thenReturn(response);
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, null))
+                .thenReturn(response);
         mockMvc
                 .perform(
                         put("/employee/{empId}", "1")
@@ -271,10 +435,88 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.familyName").value("abcdef"))
                 .andExpect(jsonPath("$.givenName").value("ghijk"));
 
-        verify(employeeRegistrationService, times(1)).updateEmployeeDetails(1L, request);
+        verify(employeeRegistrationService, times(1)).updateEmployeeDetails(1L, request, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
+    @Test
+    void test_updateEmployeeDetails_passesIfMatchVersion_andAnswersWithNewETag() throws Exception {
+        EmployeeRegistrationRequest request =
+                EmployeeRegistrationRequest.builder()
+                        .dateOfBirth("2020-02-02")
+                        .familyName("abcdef")
+                        .givenName("ghijk")
+                        .build();
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.OK)
+                        .status(HttpStatus.OK.value())
+                        .message("Successfully updated employee data")
+                        .version(new EmployeeVersion(4L, 2L))
+                        .build();
+
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, 3L))
+                .thenReturn(response);
+        mockMvc
+                .perform(
+                        put("/employee/{empId}", "1")
+                                .header(HttpHeaders.IF_MATCH, "\"3.2\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.2\""));
+
+        verify(employeeRegistrationService, times(1)).updateEmployeeDetails(1L, request, 3L);
+    }
+
+    @Test
+    void test_updateEmployeeDetails_refusesWeakIfMatch_asNoVersionMatchesIt() throws Exception {
+        EmployeeRegistrationRequest request =
+                EmployeeRegistrationRequest.builder()
+                        .dateOfBirth("2020-02-02")
+                        .familyName("abcdef")
+                        .givenName("ghijk")
+                        .build();
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.PRECONDITION_FAILED)
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .message("The employee has changed since the version in If-Match")
+                        .version(new EmployeeVersion(3L, 2L))
+                        .build();
+
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, -1L))
+                .thenReturn(response);
+        mockMvc
+                .perform(
+                        put("/employee/{empId}", "1")
+                                .header(HttpHeaders.IF_MATCH, "W/\"3.2\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.2\""));
+    }
+
+    @Test
+    void test_updateEmployeeDetails_returns409_whenWriteRacesWithAnother() throws Exception {
+        EmployeeRegistrationRequest request =
+                EmployeeRegistrationRequest.builder()
+                        .dateOfBirth("2020-02-02")
+                        .familyName("abcdef")
+                        .givenName("ghijk")
+                        .build();
+
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, null))
+                .thenThrow(new OptimisticLockingFailureException("raced"));
+        mockMvc
+                .perform(
+                        put("/employee/{empId}", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
     @Test
     void test_updateEmployeeDetails_returns400_whenURLIdIsValid() throws Exception {
         EmployeeRegistrationRequest request =
@@ -294,14 +536,15 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.updateEmployeeDetails(1L, request)).thenReturn(response);
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, null))
+                .thenReturn(response);
         mockMvc
                 .perform(put("/employee/{empId}", "1p"))
                 .andExpect(handler().handlerType(EmployeeController.class))
                 .andExpect(handler().methodName("updateEmployeeDetails"))
                 .andExpect(status().isBadRequest());
 
-        verify(employeeRegistrationService, times(0)).updateEmployeeDetails(1L, request);
+        verify(employeeRegistrationService, times(0)).updateEmployeeDetails(1L, request, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
@@ -324,7 +567,8 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.updateEmployeeDetails(1L, request)).thenReturn(response);
+        when(employeeRegistrationService.updateEmployeeDetails(1L, request, null))
+                .thenReturn(response);
         MvcResult result = this.mockMvc
                 .perform(put("/employee/{empId}", ""))
                 .andExpect(status().isMethodNotAllowed())
@@ -334,7 +578,7 @@ class EmployeeControllerTest {
 
         assertEquals(content, "{\"status\":405,\"errorInfo\":\"Method Not Allowed\"}");
 
-        verify(employeeRegistrationService, times(0)).updateEmployeeDetails(1L, request);
+        verify(employeeRegistrationService, times(0)).updateEmployeeDetails(1L, request, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
@@ -425,7 +669,7 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L)).thenReturn(response);
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, null)).thenReturn(response);
         mockMvc
                 .perform(put("/employee/{empId}/skills/{skillId}", "1", "1"))
                 .andExpect(handler().handlerType(EmployeeController.class))
@@ -437,10 +681,58 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.familyName").value("abcdef"))
                 .andExpect(jsonPath("$.givenName").value("ghijk"));
 
-        verify(employeeRegistrationService, times(1)).addSkillsToEmployee(1L, 1L);
+        verify(employeeRegistrationService, times(1)).addSkillsToEmployee(1L, 1L, null);
+        verifyNoMoreInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_addSkillsToEmployee_returns409_whenSkillIsDeletedConcurrently() throws Exception {
+
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, null))
+                .thenThrow(new DataIntegrityViolationException("FK_EMP_SKILLS_SKILL"));
+        mockMvc
+                .perform(put("/employee/{empId}/skills/{skillId}", "1", "1"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+
+        verify(employeeRegistrationService, times(1)).addSkillsToEmployee(1L, 1L, null);
+    }
+
+    @Test
+    void test_addSkillsToEmployee_passesTheLevel_whenLevelIsGiven() throws Exception {
+
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.OK)
+                        .empId("1")
+                        .status(HttpStatus.OK.value())
+                        .message("i am in")
+                        .build();
+
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, "Expert"))
+                .thenReturn(response);
+        mockMvc
+                .perform(
+                        put("/employee/{empId}/skills/{skillId}", "1", "1")
+                                .param("level", "Expert"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("i am in"));
+
+        verify(employeeRegistrationService, times(1)).addSkillsToEmployee(1L, 1L, "Expert");
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
+    @Test
+    void test_addSkillsToEmployee_returns400_whenLevelIsInvalid() throws Exception {
+
+        mockMvc
+                .perform(put("/employee/{empId}/skills/{skillId}", "1", "1").param("level", "Guru"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        verifyNoInteractions(employeeRegistrationService);
+    }
+
     @Test
     void test_addSkillsToEmployee_returns400_whenEmpIdIsInValid() throws Exception {
 
@@ -455,7 +747,7 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L)).thenReturn(response);
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, null)).thenReturn(response);
         MvcResult result = this.mockMvc
                 .perform(put("/employee/{empId}/skills/{skillId}", "1H", "1"))
                 .andExpect(handler().handlerType(EmployeeController.class))
@@ -466,7 +758,7 @@ class EmployeeControllerTest {
         String content = result.getResponse().getContentAsString();
         assertEquals(content, "{\"status\":400,\"errorInfo\":\"Bad Request: For input string: \\\"1H\\\"\"}");
 
-        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L);
+        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
@@ -484,7 +776,7 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L)).thenReturn(response);
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, null)).thenReturn(response);
         MvcResult result = this.mockMvc
                 .perform(put("/employee/{empId}/skills/{skillId}", "1'", "1D"))
                 .andExpect(handler().handlerType(EmployeeController.class))
@@ -495,12 +787,12 @@ class EmployeeControllerTest {
         String content = result.getResponse().getContentAsString();
         assertEquals(content, "{\"status\":400,\"errorInfo\":\"Bad Request: For input string: \\\"1'\\\"\"}");
 
-        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L);
+        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
     @Test
-    void test_addSkillsToEmployee_returns404_whenEmpIdAndSkillIdIsInValid() throws Exception {
+    void test_addSkillsToEmployee_returns405_whenSkillIdIsMissing() throws Exception {
 
         EmployeeResponse response =
                 EmployeeResponse.builder()
@@ -513,16 +805,16 @@ class EmployeeControllerTest {
                         .dateOfBirth("2020-02-02")
                         .build();
 
-        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L)).thenReturn(response);
+        when(employeeRegistrationService.addSkillsToEmployee(1L, 1L, null)).thenReturn(response);
         MvcResult result = this.mockMvc
                 .perform(put("/employee/{empId}/skills/", "1"))
-                .andExpect(status().isNotFound())
+                .andExpect(status().isMethodNotAllowed())
                 .andReturn();
 
         String content = result.getResponse().getContentAsString();
-        assertEquals(content, "");
+        assertEquals(content, "{\"status\":405,\"errorInfo\":\"Method Not Allowed\"}");
 
-        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L);
+        verify(employeeRegistrationService, times(0)).addSkillsToEmployee(1L, 1L, null);
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
@@ -556,6 +848,239 @@ class EmployeeControllerTest {
         verifyNoMoreInteractions(employeeRegistrationService);
     }
 
+    @Test
+    void test_importEmployees_returns200_whenBodyIsNdjson() throws Exception {
+        BulkImportResponse response =
+                BulkImportResponse.builder()
+                        .received(2)
+                        .imported(2)
+                        .responseStatus(HttpStatus.OK)
+                        .status(HttpStatus.OK.value())
+                        .message("Bulk import completed")
+                        .build();
+
+        when(employeeBulkImportService.importEmployees(any())).thenReturn(response);
+        mockMvc
+                .perform(
+                        post("/employee/bulk")
+                                .contentType("application/x-ndjson")
+                                .content(
+                                        "{\"givenName\":\"a\",\"familyName\":\"b\",\"dateOfBirth\":\"2020-02-02\"}\n"
+                                                + "{\"givenName\":\"c\",\"familyName\":\"d\",\"dateOfBirth\":\"2020-02-02\"}\n"))
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("importEmployees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.status").value(200));
+
+        verify(employeeBulkImportService, times(1)).importEmployees(any());
+        verifyNoMoreInteractions(employeeBulkImportService);
+    }
+
+    @Test
+    void test_importEmployees_returns415_whenBodyIsNotJson() throws Exception {
+        mockMvc
+                .perform(post("/employee/bulk").contentType(MediaType.TEXT_PLAIN).content("abc"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(employeeBulkImportService);
+    }
+
+    @Test
+    void test_assignSkillsToEmployee_returns200_whenRequestObjectAndEmpIdIsValid() throws Exception {
+        EmployeeSkillsAssignmentRequest request =
+                EmployeeSkillsAssignmentRequest.builder()
+                        .skillIds(Arrays.asList(1L, 2L))
+                        .mode("replace")
+                        .build();
+
+        EmployeeResponse response =
+                EmployeeResponse.builder()
+                        .responseStatus(HttpStatus.OK)
+                        .empId("1")
+                        .status(HttpStatus.OK.value())
+                        .message("i am in")
+                        .build();
+
+        when(employeeRegistrationService.assignSkillsToEmployee(1L, request)).thenReturn(response);
+        mockMvc
+                .perform(
+                        post("/employee/{empId}/skills", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("assignSkillsToEmployee"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("i am in"))
+                .andExpect(jsonPath("$.empId").value("1"));
+
+        verify(employeeRegistrationService, times(1)).assignSkillsToEmployee(1L, request);
+        verifyNoMoreInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_assignSkillsToEmployee_returns400_whenModeAndSkillIdsAreInValid() throws Exception {
+        EmployeeSkillsAssignmentRequest request =
+                EmployeeSkillsAssignmentRequest.builder()
+                        .skillIds(Arrays.asList(0L, 2L))
+                        .mode("merge")
+                        .build();
+
+        mockMvc
+                .perform(
+                        post("/employee/{empId}/skills", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errorInfo").value("BadRequestError"))
+                .andExpect(jsonPath("$.fieldLevelErrorMessage.length()").value(2));
+
+        verifyNoInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_exportEmployees_streamsCsv_whenFormatIsCsv() throws Exception {
+
+        when(employeeExportService.exportEmployees(eq(5L), eq("csv"), any()))
+                .thenAnswer(
+                        invocation -> {
+                            OutputStream out = invocation.getArgument(2);
+                            out.write("empId,givenName\n6,abc\n".getBytes(StandardCharsets.UTF_8));
+                            return 1L;
+                        });
+        MvcResult result =
+                mockMvc
+                        .perform(
+                                get("/employee/export")
+                                        .param("format", "csv")
+                                        .param("afterEmpId", "5"))
+                        .andExpect(handler().methodName("exportEmployees"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+        mockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("empId,givenName\n6,abc\n"));
+
+        verify(employeeExportService, times(1)).exportEmployees(eq(5L), eq("csv"), any());
+    }
+
+    @Test
+    void test_exportEmployees_returns400_whenFormatIsUnknown() throws Exception {
+        mockMvc
+                .perform(get("/employee/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeExportService);
+    }
+
+    @Test
+    void test_searchEmployees_returns200_whenQueryIsValid() throws Exception {
+        EmployeeSearchResponse response =
+                EmployeeSearchResponse.builder()
+                        .query("Java AND NOT Go")
+                        .matchCount(2L)
+                        .empIds(Arrays.asList(3L, 7L))
+                        .responseStatus(HttpStatus.OK)
+                        .status(HttpStatus.OK.value())
+                        .message("Successfully searched employees")
+                        .build();
+
+        when(employeeSearchService.searchEmployees("Java AND NOT Go", null, 100)).thenReturn(response);
+        mockMvc
+                .perform(get("/employee/search").param("q", "Java AND NOT Go"))
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("searchEmployees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matchCount").value(2))
+                .andExpect(jsonPath("$.empIds[1]").value(7));
+
+        verify(employeeSearchService, times(1)).searchEmployees("Java AND NOT Go", null, 100);
+        verifyNoMoreInteractions(employeeSearchService);
+        verifyNoInteractions(employeeRegistrationService);
+    }
+
+    @Test
+    void test_searchEmployees_returns400_whenQueryIsInvalid() throws Exception {
+        EmployeeSearchResponse response =
+                EmployeeSearchResponse.builder()
+                        .query("(Java")
+                        .responseStatus(HttpStatus.BAD_REQUEST)
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message("The requested query or cursor is not valid")
+                        .build();
+
+        when(employeeSearchService.searchEmployees("(Java", null, 100)).thenReturn(response);
+        mockMvc
+                .perform(get("/employee/search").param("q", "(Java"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void test_rankEmployees_returns200_whenProfileIsValid() throws Exception {
+        StaffingProfileRequest profile =
+                StaffingProfileRequest.builder()
+                        .skills(
+                                Collections.singletonList(
+                                        SkillRequirement.builder()
+                                                .skill("Java")
+                                                .minimumLevel("Working")
+                                                .required(true)
+                                                .build()))
+                        .build();
+        StaffingRankingResponse response =
+                StaffingRankingResponse.builder()
+                        .candidateCount(2L)
+                        .candidates(
+                                Arrays.asList(new RankedEmployee(7L, 4), new RankedEmployee(3L, 2)))
+                        .responseStatus(HttpStatus.OK)
+                        .status(HttpStatus.OK.value())
+                        .message("Successfully ranked employees")
+                        .build();
+
+        when(employeeSearchService.rankEmployees(profile, 5)).thenReturn(response);
+        mockMvc
+                .perform(
+                        post("/employee/ranking")
+                                .param("k", "5")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(profile)))
+                .andExpect(handler().handlerType(EmployeeController.class))
+                .andExpect(handler().methodName("rankEmployees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.candidateCount").value(2))
+                .andExpect(jsonPath("$.candidates[0].empId").value(7))
+                .andExpect(jsonPath("$.candidates[0].score").value(4));
+
+        verify(employeeSearchService, times(1)).rankEmployees(profile, 5);
+    }
+
+    @Test
+    void test_rankEmployees_returns400_whenLevelIsInvalid() throws Exception {
+        StaffingProfileRequest profile =
+                StaffingProfileRequest.builder()
+                        .skills(
+                                Collections.singletonList(
+                                        SkillRequirement.builder()
+                                                .skill("Java")
+                                                .minimumLevel("Guru")
+                                                .build()))
+                        .build();
+
+        mockMvc
+                .perform(
+                        post("/employee/ranking")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(profile)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeSearchService);
+    }
+
     private String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().writeValueAsString(obj);
@@ -0,0 +1,376 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillRequirement;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.StaffingProfileRequest;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static uk.nhs.nhsbsa.employeeskills.sql.QueryBudget.assertAtMost;
+
+/**
+ * The most SQL statements each route may issue against the real services and database. A route
+ * that starts loading a collection per row fails here with the statements it issued.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointQueryBudgetTest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  // Skill names are unique, so every test registers its own.
+  private static final AtomicInteger RUN = new AtomicInteger();
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Autowired private ResponseCache responseCache;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private String prefix;
+
+  private Long java;
+
+  private Long kotlin;
+
+  private Long spring;
+
+  private Long empId;
+
+  @BeforeEach
+  void seed() {
+    prefix = "Budget" + RUN.incrementAndGet();
+    java = registerSkill(prefix + "Java");
+    kotlin = registerSkill(prefix + "Kotlin");
+    spring = registerSkill(prefix + "Spring");
+    for (int i = 0; i < 5; i++) {
+      Long holder = registerEmployee("holder" + i);
+      employeeRegistrationService.assignSkillsToEmployee(
+          holder,
+          EmployeeSkillsAssignmentRequest.builder().skillIds(Arrays.asList(java, kotlin)).build());
+    }
+    empId = registerEmployee("budget");
+    employeeRegistrationService.addSkillsToEmployee(empId, java, null);
+  }
+
+  @Test
+  void test_fetchEmployee_issuesOneQuery() throws Exception {
+    assertAtMost(1, () -> perform(get("/employee/{empId}", empId)))
+        .andExpect(jsonPath("$.skills", hasSize(1)));
+  }
+
+  @Test
+  void test_conditionalFetch_probesTheVersionOnce_andThenIssuesNoQuery() throws Exception {
+    String eTag =
+        mockMvc
+            .perform(get("/employee/{empId}", empId))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    responseCache.invalidateAll();
+
+    assertAtMost(
+        1,
+        () ->
+            mockMvc
+                .perform(get("/employee/{empId}", empId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified()));
+    mockMvc.perform(get("/employee/{empId}", empId)).andExpect(status().isOk());
+    assertAtMost(
+        0,
+        () ->
+            mockMvc
+                .perform(get("/employee/{empId}", empId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified()));
+    assertAtMost(
+        0,
+        () ->
+            mockMvc
+                .perform(get("/skills/{skillId}", java).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified()));
+  }
+
+  @Test
+  void test_listEmployees_issuesOneQueryForThePageAndOneForItsSkills() throws Exception {
+    assertAtMost(2, () -> perform(get("/employee").param("size", "5")))
+        .andExpect(jsonPath("$.items", hasSize(5)));
+    assertAtMost(2, () -> perform(get("/employee").param("size", "5").param("sort", "familyName")))
+        .andExpect(jsonPath("$.items", hasSize(5)));
+  }
+
+  @Test
+  void test_listSkillHolders_issuesOneQuery() throws Exception {
+    assertAtMost(1, () -> perform(get("/skills/{skillId}/employees", java)))
+        .andExpect(jsonPath("$.items", hasSize(6)));
+  }
+
+  @Test
+  void test_listSkillHoldersAtLevels_issuesOneQuery() throws Exception {
+    employeeRegistrationService.addSkillsToEmployee(empId, java, "Working");
+
+    assertAtMost(
+            1,
+            () ->
+                perform(
+                    get("/skills/{skillId}/employees", java)
+                        .param("maxLevel", "Working")))
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].empId").value(empId.toString()));
+  }
+
+  @Test
+  void test_listSkillHoldersAtLevels_rangeScansTheLevelIndex() throws Exception {
+    String sql =
+        EmployeeRepository.class
+            .getMethod(
+                "findHoldersOfSkillAtLevels",
+                Long.class,
+                int.class,
+                int.class,
+                Long.class,
+                Pageable.class)
+            .getAnnotation(Query.class)
+            .value()
+            .replace(":skillId", java.toString())
+            .replace(":minLevel", "1")
+            .replace(":maxLevel", "2")
+            .replace(":afterEmpId", "0");
+
+    String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+    assertTrue(plan.contains("IDX_EMP_SKILLS_SKILL_LEVEL"), plan);
+    assertTrue(plan.contains("LEVEL >= 1"), plan);
+    assertTrue(plan.contains("LEVEL <= 2"), plan);
+  }
+
+  @Test
+  void test_skillCatalogSearchAndIndexReads_issueNoQuery() throws Exception {
+    assertAtMost(0, () -> perform(get("/skills/{skillId}", kotlin)));
+    assertAtMost(0, () -> perform(get("/skills")));
+    assertAtMost(0, () -> perform(get("/employee/search").param("q", prefix + "Java")));
+    assertAtMost(0, () -> perform(get("/employee/search/stats")));
+    assertAtMost(0, () -> perform(get("/skills/inventory")));
+    assertAtMost(
+        0,
+        () ->
+            perform(
+                json(
+                    post("/employee/ranking"),
+                    StaffingProfileRequest.builder()
+                        .skills(
+                            Arrays.asList(
+                                SkillRequirement.builder()
+                                    .skill(prefix + "Java")
+                                    .minimumLevel("Working")
+                                    .required(true)
+                                    .build(),
+                                SkillRequirement.builder()
+                                    .skill(prefix + "Kotlin")
+                                    .minimumLevel("Awareness")
+                                    .build()))
+                        .build())));
+  }
+
+  @Test
+  void test_employeeWrites_stayWithinBudget() throws Exception {
+    assertAtMost(2, () -> perform(json(post("/employee"), employee("written"))));
+    assertAtMost(2, () -> perform(json(put("/employee/{empId}", empId), employee("renamed"))));
+    assertAtMost(5, () -> perform(put("/employee/{empId}/skills/{skillId}", empId, kotlin)));
+    assertAtMost(
+        6,
+        () ->
+            perform(
+                put("/employee/{empId}/skills/{skillId}", empId, kotlin).param("level", "Expert")));
+    // the employee row lock, the delete, the version bump and the response
+    assertAtMost(4, () -> perform(delete("/employee/{empId}/skills/{skillId}", empId, kotlin)));
+    assertAtMost(
+        6,
+        () ->
+            perform(
+                json(
+                    post("/employee/{empId}/skills", empId),
+                    EmployeeSkillsAssignmentRequest.builder()
+                        .skillIds(Arrays.asList(kotlin, spring))
+                        .build())));
+    assertAtMost(2, () -> perform(delete("/employee/{empId}", empId)));
+  }
+
+  @Test
+  void test_skillWrites_stayWithinBudget() throws Exception {
+    assertAtMost(
+        2,
+        () ->
+            perform(
+                json(
+                    post("/skills"),
+                    SkillsRegistrationRequest.builder()
+                        .skill(prefix + "Written")
+                        .level("Working")
+                        .build())));
+    assertAtMost(
+        0,
+        () ->
+            perform(
+                json(
+                    post("/skills"),
+                    SkillsRegistrationRequest.builder()
+                        .skill(prefix.toUpperCase(Locale.ROOT) + "JAVA")
+                        .level("Working")
+                        .build())));
+    assertAtMost(
+        3,
+        () ->
+            perform(
+                json(
+                    put("/skills/{skillId}", spring),
+                    SkillsRegistrationRequest.builder()
+                        .skill(prefix + "SpringBoot")
+                        .level("Expert")
+                        .build())));
+    assertAtMost(2, () -> perform(delete("/skills/{skillId}", java)));
+    assertAtMost(2, () -> perform(delete("/skills/{skillId}", spring)));
+  }
+
+  @Test
+  void test_unchangedAndStaleUpdates_onlyReadTheRow() throws Exception {
+    assertAtMost(1, () -> perform(json(put("/employee/{empId}", empId), employee("budget"))));
+    assertAtMost(
+        1,
+        () ->
+            mockMvc
+                .perform(
+                    json(put("/employee/{empId}", empId), employee("renamed"))
+                        .header(HttpHeaders.IF_MATCH, "\"999.0\""))
+                .andExpect(status().isPreconditionFailed()));
+    assertAtMost(
+        1,
+        () ->
+            perform(
+                json(
+                    put("/skills/{skillId}", kotlin),
+                    SkillsRegistrationRequest.builder()
+                        .skill(prefix + "Kotlin")
+                        .level("Expert")
+                        .build())));
+  }
+
+  @Test
+  void test_renamingAHeldSkill_writesNoHolder_butChangesTheirETags() throws Exception {
+    String eTag = eTagOf(empId);
+
+    assertAtMost(
+        2,
+        () ->
+            perform(
+                json(
+                    put("/skills/{skillId}", java),
+                    SkillsRegistrationRequest.builder()
+                        .skill(prefix + "Jakarta")
+                        .level("Expert")
+                        .build())));
+
+    String renamed = eTagOf(empId);
+    assertNotEquals(eTag, renamed);
+    assertEquals(eTag.substring(0, eTag.indexOf('.')), renamed.substring(0, renamed.indexOf('.')));
+    // the details did not change with the skill, so the ETag read before the rename still holds
+    mockMvc
+        .perform(
+            json(put("/employee/{empId}", empId), employee("renamed"))
+                .header(HttpHeaders.IF_MATCH, eTag))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void test_validationErrors_issueNoQuery() throws Exception {
+    assertAtMost(
+        0,
+        () ->
+            mockMvc
+                .perform(
+                    json(
+                        post("/employee"),
+                        EmployeeRegistrationRequest.builder().givenName("given name").build()))
+                .andExpect(status().isBadRequest()));
+    assertAtMost(0, () -> mockMvc.perform(get("/employee/0")).andExpect(status().isBadRequest()));
+    assertAtMost(
+        0,
+        () ->
+            mockMvc
+                .perform(
+                    json(
+                        post("/skills"),
+                        SkillsRegistrationRequest.builder().skill("Java").level("Guru").build()))
+                .andExpect(status().isBadRequest()));
+  }
+
+  private ResultActions perform(final MockHttpServletRequestBuilder request) throws Exception {
+    return mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+  }
+
+  private String eTagOf(final Long empId) throws Exception {
+    return perform(get("/employee/{empId}", empId))
+        .andReturn()
+        .getResponse()
+        .getHeader(HttpHeaders.ETAG);
+  }
+
+  private static MockHttpServletRequestBuilder json(
+      final MockHttpServletRequestBuilder request, final Object body) throws Exception {
+    return request
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(OBJECT_MAPPER.writeValueAsString(body));
+  }
+
+  private static EmployeeRegistrationRequest employee(final String givenName) {
+    return EmployeeRegistrationRequest.builder()
+        .givenName(givenName)
+        .familyName("Budget")
+        .dateOfBirth("2016-04-01")
+        .build();
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Expert").build())
+            .getSkillId());
+  }
+
+  private Long registerEmployee(final String givenName) {
+    return Long.valueOf(
+        employeeRegistrationService.registerEmployee(employee(givenName)).getEmpId());
+  }
+}
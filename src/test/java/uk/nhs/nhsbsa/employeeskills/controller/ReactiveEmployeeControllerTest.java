@@ -0,0 +1,457 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import uk.nhs.nhsbsa.employeeskills.index.SkillBitmapIndex;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeCursor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The reactive stack end to end, from Netty through R2DBC to the database and the caches. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+class ReactiveEmployeeControllerTest {
+
+  @Autowired private WebTestClient webTestClient;
+
+  @Autowired private SkillBitmapIndex skillBitmapIndex;
+
+  @Test
+  void test_registerEmployee_returns201_andHandsOutConsecutiveEmpIds() {
+    long first = Long.parseLong(registerEmployee("Ada", "Lovelace").getEmpId());
+    long second = Long.parseLong(registerEmployee("Alan", "Turing").getEmpId());
+
+    assertEquals(first + 1, second);
+    webTestClient
+        .get()
+        .uri("/employee/{empId}", second)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.empId")
+        .isEqualTo(String.valueOf(second))
+        .jsonPath("$.givenName")
+        .isEqualTo("Alan")
+        .jsonPath("$.skills.length()")
+        .isEqualTo(0)
+        .jsonPath("$.message")
+        .isEqualTo("Successfully fetched data");
+  }
+
+  @Test
+  void test_registerEmployee_returns400_whenRequestObjectIsInvalid() {
+    webTestClient
+        .post()
+        .uri("/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request(null, "Hopper"))
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.status")
+        .isEqualTo(400)
+        .jsonPath("$.fieldLevelErrorMessage[0].fieldName")
+        .isEqualTo("givenName");
+  }
+
+  @Test
+  void test_fetchEmployeeDetails_returns400_whenEmpIdIsOutOfRange() {
+    webTestClient
+        .get()
+        .uri("/employee/2001")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.errorInfo")
+        .isEqualTo("Bad Request");
+  }
+
+  @Test
+  void test_updateAndDeleteEmployee_returns200_andFetchSeesEveryChange() {
+    String empId = registerEmployee("Grace", "Hopper").getEmpId();
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}", empId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request("Grace", "Murray"))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully updated employee data");
+    webTestClient
+        .get()
+        .uri("/employee/{empId}", empId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.familyName")
+        .isEqualTo("Murray");
+
+    webTestClient
+        .delete()
+        .uri("/employee/{empId}", empId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully deleted employee");
+    webTestClient
+        .get()
+        .uri("/employee/{empId}", empId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The requested empId does not exist");
+  }
+
+  @Test
+  void test_employeeSkills_areAddedAssignedAndDeleted_andReachTheSearchIndex() {
+    Long empId = Long.valueOf(registerEmployee("Linus", "Torvalds").getEmpId());
+    Long c = registerSkill("ReactiveC");
+    Long git = registerSkill("ReactiveGit");
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}", empId, c)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully added skill to the employee")
+        .jsonPath("$.skills[0].skillId")
+        .isEqualTo(c.intValue())
+        .jsonPath("$.skills[0].level")
+        .isEqualTo("Working");
+    assertTrue(skillBitmapIndex.holdersOf(c).contains(empId));
+
+    webTestClient
+        .post()
+        .uri("/employee/{empId}/skills", empId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            EmployeeSkillsAssignmentRequest.builder()
+                .skillIds(Arrays.asList(git))
+                .levels(Collections.singletonMap(git, "Practitioner"))
+                .mode(EmployeeSkillsAssignmentRequest.MODE_REPLACE)
+                .build())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skills.length()")
+        .isEqualTo(1)
+        .jsonPath("$.skills[0].skill")
+        .isEqualTo("ReactiveGit")
+        .jsonPath("$.skills[0].level")
+        .isEqualTo("Practitioner");
+    assertFalse(skillBitmapIndex.holdersOf(c).contains(empId));
+    assertTrue(skillBitmapIndex.holdersOf(git).contains(empId));
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}?level=Expert", empId, git)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skills.length()")
+        .isEqualTo(1)
+        .jsonPath("$.skills[0].level")
+        .isEqualTo("Expert");
+
+    webTestClient
+        .delete()
+        .uri("/employee/{empId}/skills/{skillId}", empId, git)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully deleted the skill");
+    webTestClient
+        .delete()
+        .uri("/employee/{empId}/skills/{skillId}", empId, git)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The requested empId doesn't have this skill");
+    assertFalse(skillBitmapIndex.holdersOf(git).contains(empId));
+  }
+
+  @Test
+  void test_addSkillsToEmployee_returns200_whenEmployeeDoesNotExist() {
+    Long skillId = registerSkill("ReactiveOrphan");
+
+    webTestClient
+        .put()
+        .uri("/employee/2000/skills/{skillId}", skillId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The requested empId or skillId does not exist");
+  }
+
+  @Test
+  void test_listEmployees_returnsEmployeesWithSkills_pageByPage() {
+    Long skillId = registerSkill("ReactivePaging");
+    Long first = Long.valueOf(registerEmployee("Page", "Zzfirst").getEmpId());
+    Long second = Long.valueOf(registerEmployee("Page", "Zzsecond").getEmpId());
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}", first, skillId)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    webTestClient
+        .get()
+        .uri(
+            "/employee?size=2&cursor={cursor}", new EmployeeCursor(first - 1, "").encode())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].empId")
+        .isEqualTo(first.toString())
+        .jsonPath("$.items[0].skills[0].skill")
+        .isEqualTo("ReactivePaging")
+        .jsonPath("$.items[1].empId")
+        .isEqualTo(second.toString())
+        .jsonPath("$.items[1].skills.length()")
+        .isEqualTo(0)
+        .jsonPath("$.nextCursor")
+        .isEqualTo(new EmployeeCursor(second, "").encode());
+
+    webTestClient
+        .get()
+        .uri(
+            "/employee?sort=familyName&size=1&cursor={cursor}",
+            new EmployeeCursor(first, "Zzfirst").encode())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items[0].familyName")
+        .isEqualTo("Zzsecond")
+        .jsonPath("$.nextCursor")
+        .isEqualTo(new EmployeeCursor(second, "Zzsecond").encode());
+  }
+
+  @Test
+  void test_fetchEmployeeDetails_returns304_untilTheSkillLinksChange() {
+    Long skillId = registerSkill("ReactiveETag");
+    Long empId = Long.valueOf(registerEmployee("Etag", "Poller").getEmpId());
+
+    String eTag =
+        webTestClient
+            .get()
+            .uri("/employee/{empId}", empId)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+    webTestClient
+        .get()
+        .uri("/employee/{empId}", empId)
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, eTag);
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}", empId, skillId)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    String changed =
+        webTestClient
+            .get()
+            .uri("/employee/{empId}", empId)
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+    assertNotEquals(eTag, changed);
+  }
+
+  @Test
+  void test_updateEmployeeDetails_honoursIfMatch_andSkipsUnchangedPayloads() {
+    Long empId = Long.valueOf(registerEmployee("Barbara", "Liskov").getEmpId());
+    String eTag =
+        webTestClient
+            .get()
+            .uri("/employee/{empId}", empId)
+            .exchange()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}", empId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request("Barbara", "Liskov"))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The employee data is unchanged");
+
+    String updated =
+        webTestClient
+            .put()
+            .uri("/employee/{empId}", empId)
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request("Barbara", "Huberman"))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+    assertNotEquals(eTag, updated);
+
+    webTestClient
+        .put()
+        .uri("/employee/{empId}", empId)
+        .header(HttpHeaders.IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request("Barbara", "Stale"))
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.PRECONDITION_FAILED)
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, updated);
+    webTestClient
+        .get()
+        .uri("/employee/{empId}", empId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.familyName")
+        .isEqualTo("Huberman");
+  }
+
+  @Test
+  void test_renamingAHeldSkill_changesTheETag_butNotTheVersionIfMatchChecks() {
+    Long skillId = registerSkill("ReactiveRename");
+    Long empId = Long.valueOf(registerEmployee("Grace", "Hopper").getEmpId());
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}", empId, skillId)
+        .exchange()
+        .expectStatus()
+        .isOk();
+    String eTag = eTagOf(empId);
+
+    webTestClient
+        .put()
+        .uri("/skills/{skillId}", skillId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            SkillsRegistrationRequest.builder().skill("ReactiveRenamed").level("Working").build())
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    assertNotEquals(eTag, eTagOf(empId));
+    webTestClient
+        .put()
+        .uri("/employee/{empId}", empId)
+        .header(HttpHeaders.IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request("Grace", "Brewster"))
+        .exchange()
+        .expectStatus()
+        .isOk();
+  }
+
+  private String eTagOf(final Long empId) {
+    return webTestClient
+        .get()
+        .uri("/employee/{empId}", empId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .returnResult(String.class)
+        .getResponseHeaders()
+        .getETag();
+  }
+
+  private EmployeeResponse registerEmployee(final String givenName, final String familyName) {
+    return webTestClient
+        .post()
+        .uri("/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request(givenName, familyName))
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody(EmployeeResponse.class)
+        .returnResult()
+        .getResponseBody();
+  }
+
+  private Long registerSkill(final String skill) {
+    SkillsResponse response =
+        webTestClient
+            .post()
+            .uri("/skills")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(SkillsRegistrationRequest.builder().skill(skill).level("Working").build())
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(SkillsResponse.class)
+            .returnResult()
+            .getResponseBody();
+    return Long.valueOf(response.getSkillId());
+  }
+
+  private static EmployeeRegistrationRequest request(
+      final String givenName, final String familyName) {
+    return EmployeeRegistrationRequest.builder()
+        .givenName(givenName)
+        .familyName(familyName)
+        .dateOfBirth("1990-12-10")
+        .build();
+  }
+}
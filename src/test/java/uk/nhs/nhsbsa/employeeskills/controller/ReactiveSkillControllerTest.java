@@ -0,0 +1,219 @@
+package uk.nhs.nhsbsa.employeeskills.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/** The reactive skill routes end to end, including the catalog kept up to date by the events. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+class ReactiveSkillControllerTest {
+
+  @Autowired private WebTestClient webTestClient;
+
+  @Autowired private SkillCatalog skillCatalog;
+
+  @Test
+  void test_registerAndUpdateSkill_areServedFromTheCatalog() {
+    Long skillId = registerSkill("ReactiveKotlin");
+    registerSkill("ReactiveScala");
+
+    webTestClient
+        .get()
+        .uri("/skills/{skillId}", skillId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skill")
+        .isEqualTo("ReactiveKotlin")
+        .jsonPath("$.level")
+        .isEqualTo("Working")
+        .jsonPath("$.message")
+        .isEqualTo("Successfully fetched data");
+
+    webTestClient
+        .post()
+        .uri("/skills")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            SkillsRegistrationRequest.builder().skill("REACTIVEKOTLIN").level("Expert").build())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skillId")
+        .isEqualTo(skillId.toString())
+        .jsonPath("$.level")
+        .isEqualTo("Working")
+        .jsonPath("$.message")
+        .isEqualTo("The skill is already registered");
+
+    webTestClient
+        .put()
+        .uri("/skills/{skillId}", skillId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            SkillsRegistrationRequest.builder().skill("reactiveScala").level("Working").build())
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.CONFLICT);
+
+    webTestClient
+        .put()
+        .uri("/skills/{skillId}", skillId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            SkillsRegistrationRequest.builder()
+                .skill("ReactiveKotlinLang")
+                .level("Awareness")
+                .build())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully updated skill data");
+    assertEquals("ReactiveKotlinLang", skillCatalog.find(skillId).get().getSkill());
+    assertEquals(SkillLevel.AWARENESS, skillCatalog.find(skillId).get().getLevel());
+
+    webTestClient
+        .get()
+        .uri("/skills")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skills[?(@.skillId == '" + skillId + "')].skill")
+        .isEqualTo("ReactiveKotlinLang");
+  }
+
+  @Test
+  void test_deleteRegisteredSkill_refusesHeldSkill_andDeletesItOnceReleased() {
+    Long skillId = registerSkill("ReactiveHeld");
+    String empId = registerEmployee();
+    webTestClient
+        .put()
+        .uri("/employee/{empId}/skills/{skillId}?level=Expert", empId, skillId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.skills[0].level")
+        .isEqualTo("Expert");
+
+    webTestClient
+        .get()
+        .uri("/skills/{skillId}/employees", skillId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(1)
+        .jsonPath("$.items[0].empId")
+        .isEqualTo(empId);
+    webTestClient
+        .get()
+        .uri("/skills/{skillId}/employees?maxLevel=Practitioner", skillId)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(0);
+
+    webTestClient
+        .delete()
+        .uri("/skills/{skillId}", skillId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Can't deleted the skill as is used by a employee");
+
+    webTestClient
+        .delete()
+        .uri("/employee/{empId}/skills/{skillId}", empId, skillId)
+        .exchange()
+        .expectStatus()
+        .isOk();
+    webTestClient
+        .delete()
+        .uri("/skills/{skillId}", skillId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Successfully deleted the skill");
+    assertFalse(skillCatalog.contains(skillId));
+
+    webTestClient
+        .get()
+        .uri("/skills/{skillId}/employees", skillId)
+        .exchange()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The requested skillId does not exist");
+  }
+
+  @Test
+  void test_listSkillHolders_returns400_whenCursorIsInvalid() {
+    webTestClient
+        .get()
+        .uri("/skills/1/employees?cursor=not-a-cursor")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("The requested cursor is not valid");
+  }
+
+  private Long registerSkill(final String skill) {
+    SkillsResponse response =
+        webTestClient
+            .post()
+            .uri("/skills")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(SkillsRegistrationRequest.builder().skill(skill).level("Working").build())
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(SkillsResponse.class)
+            .returnResult()
+            .getResponseBody();
+    return Long.valueOf(response.getSkillId());
+  }
+
+  private String registerEmployee() {
+    return webTestClient
+        .post()
+        .uri("/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            EmployeeRegistrationRequest.builder()
+                .givenName("Holder")
+                .familyName("Reactive")
+                .dateOfBirth("1990-12-10")
+                .build())
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody(EmployeeResponse.class)
+        .returnResult()
+        .getResponseBody()
+        .getEmpId();
+  }
+}
@@ -1,18 +1,31 @@
 package uk.nhs.nhsbsa.employeeskills.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import uk.nhs.nhsbsa.employeeskills.cache.ResponseCache;
 import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillSummary;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsBulkUpsertResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
 import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
+import uk.nhs.nhsbsa.employeeskills.service.SkillBulkUpsertService;
 import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
 
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +38,15 @@ class SkillControllerTest {
 
   @MockBean private SkillRegistrationService skillRegistrationService;
 
+  @MockBean private SkillBulkUpsertService skillBulkUpsertService;
+
+  @Autowired private ResponseCache responseCache;
+
+  @BeforeEach
+  void clearResponseCache() {
+    responseCache.invalidateAll();
+  }
+
   @Test
   void test_registerSkills_returns200_whenRequestObjectIsValid() throws Exception {
     SkillsRegistrationRequest request =
@@ -88,6 +110,44 @@ class SkillControllerTest {
     verifyNoMoreInteractions(skillRegistrationService);
   }
 
+  @Test
+  void test_fetchRegisteredSkill_returns304_whenETagMatchesTheCatalogVersion() throws Exception {
+    when(skillRegistrationService.fetchSkillVersion(1L)).thenReturn(Optional.of(2L));
+
+    mockMvc
+        .perform(get("/skills/{skillId}", "1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+    verify(skillRegistrationService, times(1)).fetchSkillVersion(1L);
+    verifyNoMoreInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_fetchRegisteredSkill_cachesMissingSkill_whenSkillIdDoesNotExist() throws Exception {
+    SkillsResponse response =
+        SkillsResponse.builder()
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("The requested skillId does not exist")
+            .build();
+
+    when(skillRegistrationService.fetchRegisteredSkill(9L)).thenReturn(response);
+    for (int i = 0; i < 3; i++) {
+      mockMvc
+          .perform(get("/skills/{skillId}", "9"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.message").value("The requested skillId does not exist"));
+    }
+
+    verify(skillRegistrationService, times(1)).fetchRegisteredSkill(9L);
+    mockMvc
+        .perform(get("/cache/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.caches[1].name").value("skills"))
+        .andExpect(jsonPath("$.caches[1].hitCount").value(greaterThanOrEqualTo(2)));
+  }
+
   @Test
   void test_deleteRegisteredSkill_returns200_whenSkillIdIsValid() throws Exception {
 
@@ -129,7 +189,7 @@ class SkillControllerTest {
             .message("i am in")
             .build();
 
-    when(skillRegistrationService.updateRegisteredSkills(request, 1L)).thenReturn(response);
+    when(skillRegistrationService.updateRegisteredSkills(request, 1L, null)).thenReturn(response);
     mockMvc
         .perform(
             put("/skills/{skillId}", "1")
@@ -144,10 +204,175 @@ class SkillControllerTest {
         .andExpect(jsonPath("$.skill").value("singing"))
         .andExpect(jsonPath("$.level").value("Working"));
 
-    verify(skillRegistrationService, times(1)).updateRegisteredSkills(request, 1L);
+    verify(skillRegistrationService, times(1)).updateRegisteredSkills(request, 1L, null);
+    verifyNoMoreInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_updateRegisteredSkills_returns412WithCurrentETag_whenIfMatchIsStale() throws Exception {
+    SkillsRegistrationRequest request =
+        SkillsRegistrationRequest.builder().skill("singing").level("Working").build();
+    SkillsResponse response =
+        SkillsResponse.builder()
+            .responseStatus(HttpStatus.PRECONDITION_FAILED)
+            .status(HttpStatus.PRECONDITION_FAILED.value())
+            .message("The skill has changed since the version in If-Match")
+            .version(5L)
+            .build();
+
+    when(skillRegistrationService.updateRegisteredSkills(request, 1L, 4L)).thenReturn(response);
+    mockMvc
+        .perform(
+            put("/skills/{skillId}", "1")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(request)))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+        .andExpect(jsonPath("$.status").value(412));
+
+    verify(skillRegistrationService, times(1)).updateRegisteredSkills(request, 1L, 4L);
+  }
+
+  @Test
+  void test_upsertSkills_returns200_whenBodyIsJsonArray() throws Exception {
+    SkillsBulkUpsertResponse response =
+        SkillsBulkUpsertResponse.builder()
+            .received(2)
+            .created(1)
+            .unchanged(1)
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("Bulk upsert completed")
+            .build();
+
+    when(skillBulkUpsertService.upsertSkills(any())).thenReturn(response);
+    mockMvc
+        .perform(
+            put("/skills")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "[{\"skill\":\"Java\",\"level\":\"Expert\"},"
+                        + "{\"skill\":\"Java\",\"level\":\"Working\"}]"))
+        .andExpect(handler().handlerType(SkillController.class))
+        .andExpect(handler().methodName("upsertSkills"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(2))
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.unchanged").value(1))
+        .andExpect(jsonPath("$.updated").value(0));
+
+    verify(skillBulkUpsertService, times(1)).upsertSkills(any());
+    verifyNoMoreInteractions(skillBulkUpsertService);
+  }
+
+  @Test
+  void test_fetchSkillCatalog_returns200_withEverySkill() throws Exception {
+    SkillsCatalogResponse response =
+        SkillsCatalogResponse.builder()
+            .count(1)
+            .skills(
+                Collections.singletonList(
+                    SkillSummary.builder().skillId("1").skill("singing").level("Working").build()))
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("i am in")
+            .build();
+
+    when(skillRegistrationService.fetchSkillCatalog(null, null)).thenReturn(response);
+    mockMvc
+        .perform(get("/skills"))
+        .andExpect(handler().handlerType(SkillController.class))
+        .andExpect(handler().methodName("fetchSkillCatalog"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(1))
+        .andExpect(jsonPath("$.skills[0].skillId").value("1"))
+        .andExpect(jsonPath("$.skills[0].skill").value("singing"));
+
+    verify(skillRegistrationService, times(1)).fetchSkillCatalog(null, null);
     verifyNoMoreInteractions(skillRegistrationService);
   }
 
+  @Test
+  void test_fetchSkillCatalog_passesTheLevelRange() throws Exception {
+    SkillsCatalogResponse response =
+        SkillsCatalogResponse.builder()
+            .count(0)
+            .skills(Collections.emptyList())
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("i am in")
+            .build();
+
+    when(skillRegistrationService.fetchSkillCatalog("Practitioner", null))
+        .thenReturn(response);
+    mockMvc
+        .perform(get("/skills").param("minLevel", "Practitioner"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.count").value(0));
+
+    verify(skillRegistrationService, times(1)).fetchSkillCatalog("Practitioner", null);
+    verifyNoMoreInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_fetchSkillCatalog_returns400_whenLevelIsInvalid() throws Exception {
+    mockMvc
+        .perform(get("/skills").param("maxLevel", "Guru"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.status").value(400));
+
+    verifyNoInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_listSkillHolders_returns200_whenSkillIdIsValid() throws Exception {
+    PageResponse<EmployeeSummary> response =
+        PageResponse.<EmployeeSummary>builder()
+            .items(
+                Collections.singletonList(
+                    EmployeeSummary.builder().empId("4").givenName("abc").familyName("xyz").build()))
+            .nextCursor("NDo")
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("i am in")
+            .build();
+
+    when(skillRegistrationService.listSkillHolders(1L, null, null, "Mjo", 20))
+        .thenReturn(response);
+    mockMvc
+        .perform(get("/skills/{skillId}/employees", "1").param("cursor", "Mjo").param("size", "20"))
+        .andExpect(handler().handlerType(SkillController.class))
+        .andExpect(handler().methodName("listSkillHolders"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].empId").value("4"))
+        .andExpect(jsonPath("$.items[0].skills").doesNotExist())
+        .andExpect(jsonPath("$.nextCursor").value("NDo"));
+
+    verify(skillRegistrationService, times(1)).listSkillHolders(1L, null, null, "Mjo", 20);
+    verifyNoMoreInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_listSkillHolders_returns400_whenSizeIsTooLarge() throws Exception {
+    mockMvc
+        .perform(get("/skills/{skillId}/employees", "1").param("size", "501"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.status").value(400));
+
+    verifyNoInteractions(skillRegistrationService);
+  }
+
+  @Test
+  void test_listSkillHolders_returns400_whenLevelIsUnknown() throws Exception {
+    mockMvc
+        .perform(get("/skills/{skillId}/employees", "1").param("minLevel", "Guru"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.status").value(400));
+
+    verifyNoInteractions(skillRegistrationService);
+  }
+
   private String asJsonString(final Object obj) {
     try {
       return new ObjectMapper().writeValueAsString(obj);
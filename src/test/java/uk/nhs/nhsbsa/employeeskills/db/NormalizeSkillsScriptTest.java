@@ -0,0 +1,190 @@
+package uk.nhs.nhsbsa.employeeskills.db;
+
+import org.h2.tools.RunScript;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs src/main/resources/db/normalize-skills.sql over a database with the tables as they were
+ * before the skill dictionary, and compares the result with the tables Hibernate creates now.
+ */
+@SpringBootTest
+class NormalizeSkillsScriptTest {
+
+  private static final String SCRIPT = "/db/normalize-skills.sql";
+
+  @Autowired private JdbcTemplate current;
+
+  @Test
+  void test_script_mergesNamesIntoTheHighestLink_whenLevelsAreCodes() throws Exception {
+    try (Connection connection = preDictionaryDatabase("tinyint")) {
+      JdbcTemplate jdbc = jdbcOf(connection);
+      insertSkills(jdbc, "4", "2", "3", "1", "2");
+
+      runScript(connection);
+
+      assertMerged(jdbc);
+    }
+  }
+
+  @Test
+  void test_script_mergesNamesIntoTheHighestLink_whenLevelsAreLabels() throws Exception {
+    try (Connection connection = preDictionaryDatabase("varchar(255)")) {
+      JdbcTemplate jdbc = jdbcOf(connection);
+      insertSkills(jdbc, "Expert", "Working", "Practitioner", "Awareness", "Working");
+
+      runScript(connection);
+
+      assertMerged(jdbc);
+    }
+  }
+
+  @Test
+  void test_script_changesNothing_whenALevelIsUnknown() throws Exception {
+    try (Connection connection = preDictionaryDatabase("varchar(255)")) {
+      JdbcTemplate jdbc = jdbcOf(connection);
+      insertSkills(jdbc, "Expert", "Working", "Guru", "Awareness", "Working");
+
+      assertThrows(SQLException.class, () -> runScript(connection));
+
+      assertEquals(5, jdbc.queryForObject("select count(*) from skills", Integer.class));
+      assertEquals(
+          0,
+          jdbc.queryForObject(
+              "select count(*) from information_schema.columns"
+                  + " where table_name = 'EMP_SKILLS' and column_name = 'LEVEL'",
+              Integer.class));
+    }
+  }
+
+  /**
+   * Java, java and JAVA at Expert, Working and Practitioner collapse onto skill 1. Employee 1 holds
+   * Java and java, employee 2 java, JAVA and SQL, employee 3 only Python.
+   */
+  private static void insertSkills(final JdbcTemplate jdbc, final String... levels) {
+    List<String> names = Arrays.asList("Java", "java", "JAVA", "SQL", "Python");
+    for (int i = 0; i < names.size(); i++) {
+      jdbc.update(
+          "insert into skills (skill_id, skill, level) values (?, ?, ?)",
+          i + 1,
+          names.get(i),
+          levels[i]);
+    }
+    for (int empId = 1; empId <= 3; empId++) {
+      jdbc.update(
+          "insert into employee (emp_id, given_name, family_name, date_of_birth)"
+              + " values (?, 'given', 'family', '2016-04-01')",
+          empId);
+    }
+    jdbc.update(
+        "insert into emp_skills (employee_id, skills_id)"
+            + " values (1, 1), (1, 2), (2, 2), (2, 3), (2, 4), (3, 5)");
+  }
+
+  private void assertMerged(final JdbcTemplate jdbc) {
+    assertEquals(
+        Arrays.asList("1 Java 4", "4 SQL 1", "5 Python 2"),
+        jdbc.queryForList(
+            "select skill_id || ' ' || skill || ' ' || level from skills order by skill_id",
+            String.class));
+    assertEquals(
+        Arrays.asList("1 1 4", "2 1 3", "2 4 1", "3 5 2"),
+        jdbc.queryForList(
+            "select employee_id || ' ' || skills_id || ' ' || level from emp_skills"
+                + " order by employee_id, skills_id",
+            String.class));
+    assertEquals(
+        Arrays.asList(1L, 1L, 0L),
+        jdbc.queryForList("select version from employee order by emp_id", Long.class));
+    assertThrows(
+        Exception.class,
+        () -> jdbc.update("insert into skills (skill_id, skill, level) values (6, 'sql', 1)"));
+
+    for (String table : Arrays.asList("SKILLS", "EMP_SKILLS")) {
+      assertEquals(columnsOf(current, table), columnsOf(jdbc, table), table);
+    }
+    assertTrue(
+        jdbc.queryForList(
+                "select constraint_name from information_schema.table_constraints"
+                    + " where table_name = 'SKILLS' and constraint_type = 'UNIQUE'",
+                String.class)
+            .contains("UK_SKILLS_SKILL_KEY"));
+    assertEquals(
+        Arrays.asList("SKILLS_ID", "LEVEL", "EMPLOYEE_ID"),
+        jdbc.queryForList(
+            "select column_name from information_schema.index_columns"
+                + " where index_name = 'IDX_EMP_SKILLS_SKILL_LEVEL' order by ordinal_position",
+            String.class));
+  }
+
+  private static Set<String> columnsOf(final JdbcTemplate jdbc, final String table) {
+    return new HashSet<>(
+        jdbc.queryForList(
+            "select column_name || ' ' || data_type || ' ' || is_nullable || ' ' || is_generated"
+                + " from information_schema.columns where table_name = ?",
+            String.class,
+            table));
+  }
+
+  /** The tables Hibernate created just before the dictionary, with the level column given. */
+  private static Connection preDictionaryDatabase(final String levelType) throws SQLException {
+    Connection connection =
+        DriverManager.getConnection(
+            "jdbc:h2:mem:pre-dictionary-" + UUID.randomUUID(), "sa", "");
+    JdbcTemplate jdbc = jdbcOf(connection);
+    jdbc.execute(
+        "create table employee (emp_id bigint not null, check_sum varchar(255),"
+            + " date_of_birth varchar(255) not null, family_name varchar(255) not null,"
+            + " given_name varchar(255) not null, version bigint default 0 not null,"
+            + " primary key (emp_id))");
+    jdbc.execute(
+        "create table skills (skill_id bigint not null, level "
+            + levelType
+            + " not null, skill varchar(255) not null, version bigint default 0 not null,"
+            + " primary key (skill_id))");
+    jdbc.execute(
+        "create table emp_skills (employee_id bigint not null, skills_id bigint not null,"
+            + " primary key (employee_id, skills_id))");
+    jdbc.execute("create index idx_skills_level on skills (level, skill_id)");
+    jdbc.execute("create index idx_emp_skills_skill on emp_skills (skills_id, employee_id)");
+    jdbc.execute(
+        "alter table emp_skills add constraint fk_emp_skills_skills"
+            + " foreign key (skills_id) references skills");
+    jdbc.execute(
+        "alter table emp_skills add constraint fk_emp_skills_employee"
+            + " foreign key (employee_id) references employee");
+    return connection;
+  }
+
+  private static JdbcTemplate jdbcOf(final Connection connection) {
+    return new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+  }
+
+  private static void runScript(final Connection connection) throws Exception {
+    try (Reader script =
+        new InputStreamReader(
+            NormalizeSkillsScriptTest.class.getResourceAsStream(SCRIPT),
+            StandardCharsets.UTF_8)) {
+      RunScript.execute(connection, script);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class SkillBitmapIndexTest {
+
+  @Autowired private SkillBitmapIndex skillBitmapIndex;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Test
+  void test_search_followsSkillChanges_andMatchesRebuild() {
+    Long java = registerSkill("IdxJava");
+    Long kotlin = registerSkill("IdxKotlin");
+    Long kubernetes = registerSkill("IdxKubernetes");
+
+    Long alice = registerEmployee("alice", Map.of(java, "Expert", kubernetes, "Expert"));
+    Long bob = registerEmployee("bob", Map.of(kotlin, "Working", kubernetes, "Awareness"));
+    Long carol = registerEmployee("carol", Map.of(kotlin, "Working", kubernetes, "Expert"));
+    Long dave = registerEmployee("dave", Map.of(java, "Expert"));
+
+    String query = "(IdxJava OR idxkotlin) AND IdxKubernetes AND NOT IdxKubernetes:Awareness";
+    assertEquals(Arrays.asList(alice, carol), empIds(query));
+
+    employeeRegistrationService.deleteSkillFromEmployee(carol, kubernetes);
+    employeeRegistrationService.addSkillsToEmployee(dave, kubernetes, "Expert");
+    employeeRegistrationService.addSkillsToEmployee(bob, kubernetes, "Working");
+    employeeRegistrationService.deleteEmployeeDetails(alice);
+    assertEquals(Arrays.asList(bob, dave), empIds(query));
+    assertEquals(Collections.singletonList(dave), skillBitmapIndex.holdersOf(java));
+    assertEquals(Collections.singletonList(dave), empIds("IdxJava:Expert"));
+    assertEquals(Arrays.asList(bob, carol), empIds("#" + kotlin));
+
+    skillBitmapIndex.rebuild();
+    assertEquals(Arrays.asList(bob, dave), empIds(query));
+    assertEquals(Arrays.asList(bob, carol), empIds("#" + kotlin));
+  }
+
+  @Test
+  void test_search_returnsPagesInEmpIdOrder_whenLimitIsSmallerThanMatches() {
+    Long rust = registerSkill("IdxRust");
+    Long first = registerEmployee("first", Map.of(rust, "Expert"));
+    Long second = registerEmployee("second", Map.of(rust, "Expert"));
+    Long third = registerEmployee("third", Map.of(rust, "Expert"));
+
+    SkillExpression expression = SkillExpression.parse("IdxRust");
+    SkillBitmapIndex.Matches page = skillBitmapIndex.search(expression, 0, 2);
+    assertEquals(3, page.getMatchCount());
+    assertEquals(Arrays.asList(first, second), page.getEmpIds());
+
+    page = skillBitmapIndex.search(expression, second, 2);
+    assertEquals(Collections.singletonList(third), page.getEmpIds());
+    assertFalse(page.isMore());
+  }
+
+  @Test
+  void test_search_matchesTheLevelsWithinARange() {
+    Long scala = registerSkill("IdxScala");
+    Long erin = registerEmployee("erin", Map.of(scala, "Awareness"));
+    Long frank = registerEmployee("frank", Map.of(scala, "Working"));
+    Long grace = registerEmployee("grace", Map.of(scala, "Expert"));
+
+    assertEquals(Arrays.asList(frank, grace), empIds("IdxScala:Working.."));
+    assertEquals(Arrays.asList(erin, frank), empIds("IdxScala:..Practitioner"));
+    assertEquals(Collections.singletonList(grace), empIds("IdxScala:Practitioner..Expert"));
+  }
+
+  private List<Long> empIds(final String query) {
+    return skillBitmapIndex.search(SkillExpression.parse(query), 0, 100).getEmpIds();
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Awareness").build())
+            .getSkillId());
+  }
+
+  private Long registerEmployee(final String givenName, final Map<Long, String> levels) {
+    Long empId =
+        Long.valueOf(
+            employeeRegistrationService
+                .registerEmployee(
+                    EmployeeRegistrationRequest.builder()
+                        .givenName(givenName)
+                        .familyName("index")
+                        .dateOfBirth("2016-04-01")
+                        .build())
+                .getEmpId());
+    employeeRegistrationService.assignSkillsToEmployee(
+        empId,
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(new ArrayList<>(levels.keySet()))
+            .levels(levels)
+            .build());
+    return empId;
+  }
+}
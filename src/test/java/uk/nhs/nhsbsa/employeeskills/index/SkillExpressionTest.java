@@ -0,0 +1,70 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import org.junit.jupiter.api.Test;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SkillExpressionTest {
+
+  @Test
+  void test_parse_honoursPrecedenceAndParentheses_whenQueryIsValid() {
+    SkillExpression expression =
+        SkillExpression.parse("(Java or Kotlin) AND Kubernetes not Kubernetes:Awareness");
+
+    SkillExpression expected =
+        new SkillExpression.And(
+            Arrays.asList(
+                new SkillExpression.Or(
+                    Arrays.asList(
+                        new SkillExpression.Term(null, "Java", null, null),
+                        new SkillExpression.Term(null, "Kotlin", null, null))),
+                new SkillExpression.Term(null, "Kubernetes", null, null),
+                new SkillExpression.Not(
+                    new SkillExpression.Term(
+                        null, "Kubernetes", SkillLevel.AWARENESS, SkillLevel.AWARENESS))));
+    assertEquals(expected, expression);
+  }
+
+  @Test
+  void test_parse_readsIdsAndQuotedNames_whenQueryIsValid() {
+    SkillExpression expression = SkillExpression.parse("\"Spring Boot\":\"Working\" OR #42");
+
+    SkillExpression expected =
+        new SkillExpression.Or(
+            Arrays.asList(
+                new SkillExpression.Term(
+                    null, "Spring Boot", SkillLevel.WORKING, SkillLevel.WORKING),
+                new SkillExpression.Term(42L, null, null, null)));
+    assertEquals(expected, expression);
+  }
+
+  @Test
+  void test_parse_readsLevelRanges_withOpenEnds() {
+    SkillExpression expression =
+        SkillExpression.parse("Java:Practitioner.. AND Go:..working AND Rust:Awareness..Working");
+
+    SkillExpression expected =
+        new SkillExpression.And(
+            Arrays.asList(
+                new SkillExpression.Term(null, "Java", SkillLevel.PRACTITIONER, null),
+                new SkillExpression.Term(null, "Go", null, SkillLevel.WORKING),
+                new SkillExpression.Term(
+                    null, "Rust", SkillLevel.AWARENESS, SkillLevel.WORKING)));
+    assertEquals(expected, expression);
+  }
+
+  @Test
+  void test_parse_throwsIllegalArgumentException_whenQueryIsInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse(" "));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("(Java OR Go"));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("Java AND"));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("#abc"));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("Java)"));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("Java:Guru"));
+    assertThrows(IllegalArgumentException.class, () -> SkillExpression.parse("Java:.."));
+  }
+}
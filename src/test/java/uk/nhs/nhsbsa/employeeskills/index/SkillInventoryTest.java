@@ -0,0 +1,95 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.SkillInventoryEntry;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class SkillInventoryTest {
+
+  @Autowired private SkillInventory skillInventory;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Test
+  void test_inventory_followsSkillChanges_andMatchesRebuild() {
+    Long go = registerSkill("InvGo");
+    Long scala = registerSkill("InvScala");
+
+    Long alice = registerEmployee("alice", Map.of(go, "Expert", scala, "Awareness"));
+    Long bob = registerEmployee("bob", Map.of(go, "Working", scala, "Awareness"));
+    registerEmployee("carol", Map.of(go, "Expert"));
+
+    assertEquals(3, skillInventory.holderCount(go));
+    assertEquals(2, skillInventory.holderCount(go, SkillLevel.EXPERT));
+    assertEquals(levels(2, 0, 1, 0), inventory("InvGo"));
+    assertEquals(levels(0, 0, 0, 2), inventory("InvScala"));
+
+    employeeRegistrationService.deleteSkillFromEmployee(bob, scala);
+    employeeRegistrationService.addSkillsToEmployee(bob, go, "Practitioner");
+    employeeRegistrationService.deleteEmployeeDetails(alice);
+    assertEquals(levels(1, 1, 0, 0), inventory("InvGo"));
+    assertEquals(levels(0, 0, 0, 0), inventory("InvScala"));
+    assertEquals(2, skillInventory.holderCount(go, SkillLevel.PRACTITIONER, SkillLevel.EXPERT));
+
+    skillInventory.rebuild();
+    assertEquals(levels(1, 1, 0, 0), inventory("InvGo"));
+    assertEquals(levels(0, 0, 0, 0), inventory("InvScala"));
+  }
+
+  private Map<String, Long> inventory(final String skill) {
+    return skillRegistrationService.fetchSkillInventory().getSkills().stream()
+        .filter(entry -> entry.getSkill().equals(skill))
+        .map(SkillInventoryEntry::getLevels)
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+  }
+
+  private static Map<String, Long> levels(
+      final long expert, final long practitioner, final long working, final long awareness) {
+    return Map.of(
+        "Expert", expert, "Practitioner", practitioner, "Working", working, "Awareness", awareness);
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Awareness").build())
+            .getSkillId());
+  }
+
+  private Long registerEmployee(final String givenName, final Map<Long, String> levels) {
+    Long empId =
+        Long.valueOf(
+            employeeRegistrationService
+                .registerEmployee(
+                    EmployeeRegistrationRequest.builder()
+                        .givenName(givenName)
+                        .familyName("inventory")
+                        .dateOfBirth("2016-04-01")
+                        .build())
+                .getEmpId());
+    employeeRegistrationService.assignSkillsToEmployee(
+        empId,
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(new ArrayList<>(levels.keySet()))
+            .levels(levels)
+            .build());
+    return empId;
+  }
+}
@@ -0,0 +1,108 @@
+package uk.nhs.nhsbsa.employeeskills.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.service.EmployeeRegistrationService;
+import uk.nhs.nhsbsa.employeeskills.service.SkillRegistrationService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class StaffingIndexTest {
+
+  @Autowired private StaffingIndex staffingIndex;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Test
+  void test_rank_scoresLevelsAboveTheMinimum_andFollowsSkillChanges() {
+    Long java = registerSkill("RankJava");
+    Long sql = registerSkill("RankSql");
+
+    Long alice = registerEmployee("alice", Map.of(java, "Expert", sql, "Practitioner"));
+    Long bob = registerEmployee("bob", Map.of(java, "Expert"));
+    Long carol = registerEmployee("carol", Map.of(java, "Working", sql, "Practitioner"));
+    registerEmployee("dave", Map.of(java, "Awareness", sql, "Practitioner"));
+
+    List<StaffingIndex.Requirement> profile =
+        Arrays.asList(
+            new StaffingIndex.Requirement("rankjava", SkillLevel.WORKING, true),
+            new StaffingIndex.Requirement("RankSql", SkillLevel.AWARENESS, false));
+    StaffingIndex.Ranking ranking = staffingIndex.rank(profile, 10);
+    assertEquals(3, ranking.getCandidateCount());
+    assertEquals(
+        Arrays.asList(
+            new StaffingIndex.Candidate(alice, 7),
+            new StaffingIndex.Candidate(carol, 5),
+            new StaffingIndex.Candidate(bob, 4)),
+        ranking.getCandidates());
+    assertEquals(
+        Collections.singletonList(new StaffingIndex.Candidate(alice, 7)),
+        staffingIndex.rank(profile, 1).getCandidates());
+
+    employeeRegistrationService.deleteEmployeeDetails(alice);
+    employeeRegistrationService.addSkillsToEmployee(bob, sql, "Practitioner");
+    employeeRegistrationService.addSkillsToEmployee(carol, java, "Practitioner");
+    List<StaffingIndex.Candidate> expected =
+        Arrays.asList(new StaffingIndex.Candidate(bob, 7), new StaffingIndex.Candidate(carol, 6));
+    assertEquals(expected, staffingIndex.rank(profile, 10).getCandidates());
+
+    staffingIndex.rebuild();
+    assertEquals(expected, staffingIndex.rank(profile, 10).getCandidates());
+  }
+
+  @Test
+  void test_rank_returnsNobody_whenNoSkillMeetsARequirement() {
+    Long go = registerSkill("RankGo");
+    registerEmployee("erin", Map.of(go, "Working"));
+
+    StaffingIndex.Ranking ranking =
+        staffingIndex.rank(
+            Collections.singletonList(
+                new StaffingIndex.Requirement("RankGo", SkillLevel.EXPERT, true)),
+            10);
+    assertEquals(0, ranking.getCandidateCount());
+    assertEquals(Collections.emptyList(), ranking.getCandidates());
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Awareness").build())
+            .getSkillId());
+  }
+
+  private Long registerEmployee(final String givenName, final Map<Long, String> levels) {
+    Long empId =
+        Long.valueOf(
+            employeeRegistrationService
+                .registerEmployee(
+                    EmployeeRegistrationRequest.builder()
+                        .givenName(givenName)
+                        .familyName("ranking")
+                        .dateOfBirth("2016-04-01")
+                        .build())
+                .getEmpId());
+    employeeRegistrationService.assignSkillsToEmployee(
+        empId,
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(new ArrayList<>(levels.keySet()))
+            .levels(levels)
+            .build());
+    return empId;
+  }
+}
@@ -0,0 +1,63 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkRecordErrorsTest {
+
+  private static final String SQL =
+      "insert into skills (level, skill, version, skill_id) values (?, ?, ?, ?)";
+
+  @Test
+  void test_rejectUnstored_reportsDuplicate_whenAUniqueKeyRefusedTheRecord() {
+    BulkRecordErrors errors = new BulkRecordErrors(10);
+
+    errors.rejectUnstored(
+        3,
+        new PersistenceException(
+            new ConstraintViolationException(
+                "could not execute statement",
+                new SQLException("Unique index violation: UK_SKILLS_SKILL_KEY", "23505"),
+                SQL,
+                "UK_SKILLS_SKILL_KEY")));
+    errors.rejectUnstored(4, new DuplicateKeyException(SQL));
+
+    assertEquals(2, errors.getCount());
+    assertEquals(3, errors.getReported().get(0).getRecord());
+    assertEquals(BulkRecordErrors.DUPLICATE, errors.getReported().get(0).getErrorInfo());
+    assertEquals(BulkRecordErrors.DUPLICATE, errors.getReported().get(1).getErrorInfo());
+  }
+
+  @Test
+  void test_rejectUnstored_reportsConstraintViolation_whenAnotherConstraintRefusedTheRecord() {
+    BulkRecordErrors errors = new BulkRecordErrors(10);
+
+    errors.rejectUnstored(
+        1,
+        new DataIntegrityViolationException(
+            SQL, new SQLException("NULL not allowed for column SKILL", "23502")));
+    errors.rejectUnstored(2, new DataIntegrityViolationException(SQL));
+
+    assertEquals(
+        BulkRecordErrors.CONSTRAINT_VIOLATION, errors.getReported().get(0).getErrorInfo());
+    assertEquals(
+        BulkRecordErrors.CONSTRAINT_VIOLATION, errors.getReported().get(1).getErrorInfo());
+  }
+
+  @Test
+  void test_rejectUnstored_reportsUnexpectedError_withoutTheMessageOfTheException() {
+    BulkRecordErrors errors = new BulkRecordErrors(10);
+
+    errors.rejectUnstored(
+        1, new IllegalStateException(SQL, new SQLException("Connection is broken", "08003")));
+
+    assertEquals(BulkRecordErrors.UNEXPECTED_ERROR, errors.getReported().get(0).getErrorInfo());
+  }
+}
@@ -0,0 +1,102 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.response.BulkImportResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "employee.bulk.batch-size=2")
+class EmployeeBulkImportServiceTest {
+
+  @Autowired private EmployeeBulkImportService employeeBulkImportService;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Test
+  void test_importEmployees_importsValidRecords_whenBodyIsNdjson() throws IOException {
+    long before = employeeRepository.count();
+    String body =
+        "{\"givenName\":\"abc\",\"familyName\":\"xyz\",\"dateOfBirth\":\"2016-04-01\"}\n"
+            + "{\"givenName\":\"def\",\"familyName\":\"uvw\",\"dateOfBirth\":\"2016-04-02\"}\n"
+            + "{\"givenName\":\"ghi\",\"familyName\":\"rst\",\"dateOfBirth\":\"2016-04-03\"}\n";
+
+    BulkImportResponse response = employeeBulkImportService.importEmployees(asStream(body));
+
+    assertEquals(3, response.getReceived());
+    assertEquals(3, response.getImported());
+    assertEquals(0, response.getRejected());
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals(before + 3, employeeRepository.count());
+  }
+
+  @Test
+  void test_importEmployees_reportsInvalidRecords_whenBodyIsJsonArray() throws IOException {
+    long before = employeeRepository.count();
+    String body =
+        "[{\"givenName\":\"abc\",\"familyName\":\"xyz\",\"dateOfBirth\":\"2016-04-01\"},"
+            + "{\"givenName\":\"\",\"familyName\":\"uvw\",\"dateOfBirth\":\"2016-04-02\"},"
+            + "{\"givenName\":\"ghi\",\"familyName\":\"rst\",\"dateOfBirth\":\"2016-13-03\"},"
+            + "{\"givenName\":\"jkl\",\"familyName\":\"opq\",\"dateOfBirth\":\"2016-04-04\"}]";
+
+    BulkImportResponse response = employeeBulkImportService.importEmployees(asStream(body));
+
+    assertEquals(4, response.getReceived());
+    assertEquals(2, response.getImported());
+    assertEquals(2, response.getRejected());
+    assertEquals(2, response.getErrors().get(0).getRecord());
+    assertEquals("givenName", response.getErrors().get(0).getFieldLevelErrorMessage().get(0).getFieldName());
+    assertEquals(3, response.getErrors().get(1).getRecord());
+    assertEquals(before + 2, employeeRepository.count());
+  }
+
+  @Test
+  void test_importEmployees_keepsImportedRecords_whenBodyIsMalformed() throws IOException {
+    long before = employeeRepository.count();
+    String body =
+        "{\"givenName\":\"abc\",\"familyName\":\"xyz\",\"dateOfBirth\":\"2016-04-01\"}\n"
+            + "{\"givenName\":\"def\",\"familyName\":\"uvw\",\"dateOfBirth\":\"2016-04-02\"}\n"
+            + "{\"givenName\":\"ghi\",";
+
+    BulkImportResponse response = employeeBulkImportService.importEmployees(asStream(body));
+
+    assertEquals(2, response.getImported());
+    assertEquals(1, response.getRejected());
+    assertEquals(3, response.getErrors().get(0).getRecord());
+    assertEquals(before + 2, employeeRepository.count());
+  }
+
+  @Test
+  void test_importEmployees_readsTheLinesAfterAMalformedOne_whenBodyIsNdjson() throws IOException {
+    long before = employeeRepository.count();
+    String body =
+        "{\"givenName\":\"abc\",\"familyName\":\"xyz\",\"dateOfBirth\":\"2016-04-01\"}\n"
+            + "{\"givenName\":\"def\",\n"
+            + "\n"
+            + "{\"givenName\":\"ghi\",\"familyName\":\"rst\",\"dateOfBirth\":\"2016-04-03\"} {}\n"
+            + "{\"givenName\":\"jkl\",\"familyName\":\"opq\",\"dateOfBirth\":\"2016-04-04\"}\n"
+            + "{\"givenName\":\"mno\",\"familyName\":\"lmn\",\"dateOfBirth\":\"2016-04-05\"}";
+
+    BulkImportResponse response = employeeBulkImportService.importEmployees(asStream(body));
+
+    assertEquals(5, response.getReceived());
+    assertEquals(3, response.getImported());
+    assertEquals(2, response.getRejected());
+    assertEquals(2, response.getErrors().get(0).getRecord());
+    assertEquals("Malformed JSON", response.getErrors().get(0).getErrorInfo());
+    assertEquals(4, response.getErrors().get(1).getRecord());
+    assertEquals(before + 3, employeeRepository.count());
+  }
+
+  private static InputStream asStream(final String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,141 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Exports a small dataset from the real database and checks both formats line by line. */
+@SpringBootTest
+class EmployeeExportServiceTest {
+
+  @Autowired private EmployeeExportService employeeExportService;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  private Long firstEmpId;
+
+  private Long secondEmpId;
+
+  private Long javaSkillId;
+
+  private Long kotlinSkillId;
+
+  @BeforeEach
+  void setUp() {
+    javaSkillId = registerSkill("ExportJava");
+    kotlinSkillId = registerSkill("ExportKotlin");
+    firstEmpId = registerEmployee("Smith, Jr");
+    secondEmpId = registerEmployee("say \"hi\"");
+    employeeRegistrationService.assignSkillsToEmployee(
+        firstEmpId,
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(Arrays.asList(kotlinSkillId, javaSkillId))
+            .levels(Map.of(kotlinSkillId, "Working", javaSkillId, "Expert"))
+            .build());
+  }
+
+  @Test
+  void test_exportEmployees_writesOneJsonLinePerEmployee_whenFormatIsNdjson() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long exported =
+        employeeExportService.exportEmployees(
+            firstEmpId - 1, EmployeeExportService.FORMAT_NDJSON, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertEquals(2, exported);
+    assertEquals(2, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(firstEmpId.toString(), first.get("empId").asText());
+    assertEquals("Smith, Jr", first.get("givenName").asText());
+    assertEquals(2, first.get("skills").size());
+    assertEquals(javaSkillId.longValue(), first.get("skills").get(0).get("skillId").asLong());
+    JsonNode second = objectMapper.readTree(lines[1]);
+    assertEquals(secondEmpId.toString(), second.get("empId").asText());
+    assertEquals(0, second.get("skills").size());
+  }
+
+  @Test
+  void test_exportEmployees_writesOneCsvRowPerSkill_whenFormatIsCsv() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long exported =
+        employeeExportService.exportEmployees(firstEmpId - 1, EmployeeExportService.FORMAT_CSV, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertEquals(2, exported);
+    assertEquals(4, lines.length);
+    assertEquals(EmployeeExportService.CSV_HEADER, lines[0]);
+    assertEquals(
+        firstEmpId + ",\"Smith, Jr\",export,2016-04-01," + javaSkillId + ",ExportJava,Expert",
+        lines[1]);
+    assertEquals(
+        firstEmpId + ",\"Smith, Jr\",export,2016-04-01," + kotlinSkillId + ",ExportKotlin,Working",
+        lines[2]);
+    assertEquals(secondEmpId + ",\"say \"\"hi\"\"\",export,2016-04-01,,,", lines[3]);
+  }
+
+  @Test
+  void test_exportEmployees_resumesAfterLastEmployee_whenAfterEmpIdIsGiven() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long exported =
+        employeeExportService.exportEmployees(firstEmpId, EmployeeExportService.FORMAT_CSV, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertEquals(1, exported);
+    assertEquals(2, lines.length);
+    assertEquals(secondEmpId + ",\"say \"\"hi\"\"\",export,2016-04-01,,,", lines[1]);
+  }
+
+  @Test
+  void test_writeCsvField_quotesOnlyWhenNeeded() throws Exception {
+    StringWriter writer = new StringWriter();
+
+    EmployeeExportService.writeCsvField(writer, "plain");
+    writer.write('|');
+    EmployeeExportService.writeCsvField(writer, "line\nbreak");
+    writer.write('|');
+    EmployeeExportService.writeCsvField(writer, null);
+
+    assertEquals("plain|\"line\nbreak\"|", writer.toString());
+  }
+
+  private Long registerEmployee(final String givenName) {
+    return Long.valueOf(
+        employeeRegistrationService
+            .registerEmployee(
+                EmployeeRegistrationRequest.builder()
+                    .givenName(givenName)
+                    .familyName("export")
+                    .dateOfBirth("2016-04-01")
+                    .build())
+            .getEmpId());
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Awareness").build())
+            .getSkillId());
+  }
+}
@@ -4,19 +4,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
 import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
 import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
 import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSkillRow;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeVersion;
 import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
 import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
 import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillDetails;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -26,6 +41,8 @@ class EmployeeRegistrationServiceTest {
 
   @MockBean private SkillsRepository skillsRepository;
 
+  @MockBean private SkillCatalog skillCatalog;
+
   @Autowired private EmployeeRegistrationService employeeRegistrationService;
 
   @Test
@@ -66,37 +83,57 @@ class EmployeeRegistrationServiceTest {
   @Test
   void test_fetchEmployeeDetails_returnsEmployeeResponse_whenEmpIdIsValid() {
     Long longValue = 1L;
-    Employee persistedEmployee =
-        Employee.builder()
-            .empId(longValue)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
-    Optional<Employee> empOptional = Optional.of(persistedEmployee);
+    List<EmployeeSkillRow> rows =
+        Arrays.asList(
+            new EmployeeSkillRow(
+                longValue, "abc", "xyz", "2016-04-01", 7L, 2L, "Java", SkillLevel.WORKING, 2L),
+            new EmployeeSkillRow(
+                longValue, "abc", "xyz", "2016-04-01", 7L, 3L, "Kotlin", SkillLevel.EXPERT, 3L));
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .empId("1")
             .givenName("abc")
             .familyName("xyz")
             .dateOfBirth("2016-04-01")
+            .skills(
+                new HashSet<>(
+                    Arrays.asList(
+                        new SkillDetails(2L, "Java", "Working"),
+                        new SkillDetails(3L, "Kotlin", "Expert"))))
+            .version(new EmployeeVersion(7L, 5L))
             .responseStatus(HttpStatus.OK)
             .status(HttpStatus.OK.value())
             .message("Successfully fetched data")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.findDetailsByEmpId(any(Long.class))).thenReturn(rows);
 
     EmployeeResponse employeeResponse = employeeRegistrationService.fetchEmployeeDetails(longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    verify(employeeRepository, times(1)).findDetailsByEmpId(longValue);
+    verifyNoMoreInteractions(employeeRepository);
+  }
+
+  @Test
+  void test_fetchEmployeeDetails_returnsNoSkills_whenEmployeeHoldsNone() {
+    Long longValue = 1L;
+
+    when(employeeRepository.findDetailsByEmpId(any(Long.class)))
+        .thenReturn(
+            Collections.singletonList(
+                new EmployeeSkillRow(
+                    longValue, "abc", "xyz", "2016-04-01", 0L, null, null, null, null)));
+
+    EmployeeResponse employeeResponse = employeeRegistrationService.fetchEmployeeDetails(longValue);
+
+    assertEquals("1", employeeResponse.getEmpId());
+    assertEquals(Collections.emptySet(), employeeResponse.getSkills());
   }
 
   @Test
   void test_fetchEmployeeDetails_returnsEmpNotFount_whenEmpIdIsValid() {
     Long longValue = 1L;
-    Optional<Employee> empOptional = Optional.empty();
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -104,12 +141,13 @@ class EmployeeRegistrationServiceTest {
             .message("The requested empId does not exist")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.findDetailsByEmpId(any(Long.class)))
+        .thenReturn(Collections.emptyList());
 
     EmployeeResponse employeeResponse = employeeRegistrationService.fetchEmployeeDetails(longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    verify(employeeRepository, times(1)).findDetailsByEmpId(longValue);
   }
 
   @Test
@@ -121,7 +159,6 @@ class EmployeeRegistrationServiceTest {
             .familyName("xyz1")
             .dateOfBirth("2016-04-01")
             .build();
-    Optional<Employee> empOptional = Optional.empty();
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -129,13 +166,15 @@ class EmployeeRegistrationServiceTest {
             .message("The requested empId does not exist")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.findWithSkillsVersion(longValue)).thenReturn(Collections.emptyList());
 
     EmployeeResponse employeeResponse =
-        employeeRegistrationService.updateEmployeeDetails(longValue, employeeRegistrationRequest);
+        employeeRegistrationService.updateEmployeeDetails(
+            longValue, employeeRegistrationRequest, null);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    verify(employeeRepository, times(1)).findWithSkillsVersion(longValue);
+    verify(employeeRepository, never()).flush();
   }
 
   @Test
@@ -147,41 +186,79 @@ class EmployeeRegistrationServiceTest {
             .familyName("xyz1")
             .dateOfBirth("2016-04-01")
             .build();
-    Employee persistedEmployee =
-        Employee.builder()
-            .empId(longValue)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
-    Optional<Employee> empOptional = Optional.of(persistedEmployee);
+    Employee employee = storedEmployee(longValue, 4L);
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
             .status(HttpStatus.OK.value())
             .message("Successfully updated employee data")
+            .version(new EmployeeVersion(4L, 6L))
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.findWithSkillsVersion(longValue))
+        .thenReturn(withSkillsVersion(employee, 6L));
 
     EmployeeResponse employeeResponse =
-        employeeRegistrationService.updateEmployeeDetails(longValue, employeeRegistrationRequest);
+        employeeRegistrationService.updateEmployeeDetails(
+            longValue, employeeRegistrationRequest, 4L);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    assertEquals("abc1", employee.getGivenName());
+    assertEquals("xyz1", employee.getFamilyName());
+    verify(employeeRepository, times(1)).flush();
+    verify(employeeRepository, never()).save(any(Employee.class));
   }
 
   @Test
-  void test_deleteEmployeeDetails_returnsEmployeeResponse_whenEmpIdIsValid() {
+  void test_updateEmployeeDetails_returns412_whenExpectedVersionIsStale() {
     Long longValue = 1L;
-    Employee persistedEmployee =
-        Employee.builder()
-            .empId(longValue)
+    EmployeeRegistrationRequest employeeRegistrationRequest =
+        EmployeeRegistrationRequest.builder()
+            .givenName("abc1")
+            .familyName("xyz1")
+            .dateOfBirth("2016-04-01")
+            .build();
+    Employee employee = storedEmployee(longValue, 4L);
+
+    when(employeeRepository.findWithSkillsVersion(longValue))
+        .thenReturn(withSkillsVersion(employee, 6L));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.updateEmployeeDetails(
+            longValue, employeeRegistrationRequest, 3L);
+
+    assertEquals(HttpStatus.PRECONDITION_FAILED, employeeResponse.getResponseStatus());
+    assertEquals(new EmployeeVersion(4L, 6L), employeeResponse.getVersion());
+    assertEquals("abc", employee.getGivenName());
+    verify(employeeRepository, never()).flush();
+  }
+
+  @Test
+  void test_updateEmployeeDetails_writesNothing_whenPayloadIsUnchanged() {
+    Long longValue = 1L;
+    EmployeeRegistrationRequest employeeRegistrationRequest =
+        EmployeeRegistrationRequest.builder()
             .givenName("abc")
             .familyName("xyz")
             .dateOfBirth("2016-04-01")
             .build();
-    Optional<Employee> empOptional = Optional.of(persistedEmployee);
+
+    when(employeeRepository.findWithSkillsVersion(longValue))
+        .thenReturn(withSkillsVersion(storedEmployee(longValue, 4L), 6L));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.updateEmployeeDetails(
+            longValue, employeeRegistrationRequest, null);
+
+    assertEquals(HttpStatus.OK, employeeResponse.getResponseStatus());
+    assertEquals("The employee data is unchanged", employeeResponse.getMessage());
+    assertEquals(new EmployeeVersion(4L, 6L), employeeResponse.getVersion());
+    verify(employeeRepository, never()).flush();
+  }
+
+  @Test
+  void test_deleteEmployeeDetails_returnsEmployeeResponse_whenEmpIdIsValid() {
+    Long longValue = 1L;
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -189,19 +266,20 @@ class EmployeeRegistrationServiceTest {
             .message("Successfully deleted employee")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.deleteByEmpId(longValue)).thenReturn(1);
 
     EmployeeResponse employeeResponse =
         employeeRegistrationService.deleteEmployeeDetails(longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    verify(employeeRepository, times(1)).deleteAllSkillLinks(longValue);
+    verify(employeeRepository, times(1)).deleteByEmpId(longValue);
+    verify(employeeRepository, never()).findById(any(Long.class));
   }
 
   @Test
   void test_deleteEmployeeDetails_returnsEmpNotFound_whenEmpIdIsValid() {
     Long longValue = 1L;
-    Optional<Employee> empOptional = Optional.empty();
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -209,69 +287,66 @@ class EmployeeRegistrationServiceTest {
             .message("The requested empId does not exist")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
+    when(employeeRepository.deleteByEmpId(longValue)).thenReturn(0);
 
     EmployeeResponse employeeResponse =
         employeeRegistrationService.deleteEmployeeDetails(longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
+    verify(employeeRepository, times(1)).deleteByEmpId(longValue);
   }
 
   @Test
   void test_deleteSkillFromEmployee_returnsEmployeeResponse_whenEmpIdAndSkillIdIsValid() {
     Long longValue = 1L;
-    Skills skills = Skills.builder().skill("Java").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(skills);
-    Set<Skills> skillsSet = new HashSet<Skills>();
-    skillsSet.add(skills);
-    Employee persistedEmployee =
-        Employee.builder()
-            .empId(longValue)
-            .empSkillsSet(skillsSet)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
-    Optional<Employee> empOptional = Optional.of(persistedEmployee);
-
-    Employee employeeWithSkillDeleted =
-        Employee.builder()
-            .empId(longValue)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .empId("1")
             .givenName("abc")
             .familyName("xyz")
             .dateOfBirth("2016-04-01")
+            .skills(Collections.emptySet())
+            .version(new EmployeeVersion(1L, 0L))
             .responseStatus(HttpStatus.OK)
             .status(HttpStatus.OK.value())
             .message("Successfully deleted the skill")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
-    when(employeeRepository.save(any(Employee.class))).thenReturn(employeeWithSkillDeleted);
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(employeeRepository.deleteSkillLinks(longValue, Collections.singleton(longValue)))
+        .thenReturn(Collections.singletonList(link(longValue, SkillLevel.WORKING)));
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, null)));
 
     EmployeeResponse employeeResponse =
         employeeRegistrationService.deleteSkillFromEmployee(longValue, longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
-    verify(skillsRepository, times(1)).findById(longValue);
-    verify(employeeRepository, times(1)).save(any(Employee.class));
+    verify(employeeRepository, times(1))
+        .deleteSkillLinks(longValue, Collections.singleton(longValue));
+    verify(employeeRepository, times(1)).bumpVersion(longValue);
+    verify(employeeRepository, never()).findById(any(Long.class));
+    verify(employeeRepository, never()).save(any(Employee.class));
   }
 
   @Test
-  void test_deleteSkillFromEmployee_returnsEmpOrSkillNotFound_whenEmpIdAndSkillIdIsValid() {
+  void test_deleteSkillFromEmployee_returnsSkillNotHeld_whenEmployeeDoesNotHaveTheSkill() {
     Long longValue = 1L;
-    Optional<Skills> skillOptional = Optional.empty();
-    Optional<Employee> empOptional = Optional.empty();
 
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.deleteSkillFromEmployee(longValue, longValue);
+
+    assertEquals("The requested empId doesn't have this skill", employeeResponse.getMessage());
+    verify(employeeRepository, never()).findDetailsByEmpId(any(Long.class));
+  }
+
+  @Test
+  void test_deleteSkillFromEmployee_returnsEmpOrSkillNotFound_whenEmpIdAndSkillIdIsValid() {
+    Long longValue = 1L;
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -279,74 +354,112 @@ class EmployeeRegistrationServiceTest {
             .message("The requested empId or skillId does not exist")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.empty());
 
     EmployeeResponse employeeResponse =
         employeeRegistrationService.deleteSkillFromEmployee(longValue, longValue);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
-    verify(skillsRepository, times(1)).findById(longValue);
+    verify(employeeRepository, never()).deleteSkillLinks(any(), any());
   }
 
   @Test
-  void test_addSkillsToEmployee_returnsEmployeeResponse_whenEmpIdAndSkillIdIsValid() {
+  void test_deleteSkillFromEmployee_returnsEmpOrSkillNotFound_whenSkillIdIsNotInCatalog() {
     Long longValue = 1L;
-    Skills skills = Skills.builder().skill("Java").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(skills);
-    Set<Skills> skillsSetEmpty = new HashSet<Skills>();
-    Set<Skills> skillsSet = new HashSet<Skills>();
-    skillsSet.add(skills);
-    Employee persistedEmployee =
-        Employee.builder()
-            .empId(longValue)
-            .empSkillsSet(skillsSetEmpty)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
-    Optional<Employee> empOptional = Optional.of(persistedEmployee);
 
-    Employee employeeWithSkillAdded =
-        Employee.builder()
-            .empId(longValue)
-            .empSkillsSet(skillsSet)
-            .givenName("abc")
-            .familyName("xyz")
-            .dateOfBirth("2016-04-01")
-            .build();
+    when(skillCatalog.contains(longValue)).thenReturn(false);
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.deleteSkillFromEmployee(longValue, longValue);
+
+    assertEquals("The requested empId or skillId does not exist", employeeResponse.getMessage());
+    verifyNoInteractions(employeeRepository, skillsRepository);
+  }
+
+  @Test
+  void test_addSkillsToEmployee_linksAtTheLevelOfTheSkill_whenNoLevelIsGiven() {
+    Long longValue = 1L;
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .empId("1")
             .givenName("abc")
             .familyName("xyz")
             .dateOfBirth("2016-04-01")
-            .skills(skillsSet)
+            .skills(Collections.singleton(new SkillDetails(longValue, "Java", "Working")))
+            .version(new EmployeeVersion(1L, 0L))
             .responseStatus(HttpStatus.OK)
             .status(HttpStatus.OK.value())
             .message("Successfully added skill to the employee")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
-    when(employeeRepository.save(any(Employee.class))).thenReturn(employeeWithSkillAdded);
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(skillCatalog.find(longValue))
+        .thenReturn(Optional.of(new SkillEntry(longValue, "Java", SkillLevel.WORKING, 0L)));
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillsRepository.lockSkills(Collections.singleton(longValue)))
+        .thenReturn(Collections.singletonList(longValue));
+    when(employeeRepository.insertSkillLink(longValue, longValue, 2)).thenReturn(1);
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, longValue)));
 
     EmployeeResponse employeeResponse =
-        employeeRegistrationService.addSkillsToEmployee(longValue, longValue);
+        employeeRegistrationService.addSkillsToEmployee(longValue, longValue, null);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
-    verify(skillsRepository, times(1)).findById(longValue);
-    verify(employeeRepository, times(1)).save(any(Employee.class));
+    verify(employeeRepository, times(1)).insertSkillLink(longValue, longValue, 2);
+    verify(employeeRepository, times(1)).bumpVersion(longValue);
+    verify(employeeRepository, never()).findById(any(Long.class));
+    verify(employeeRepository, never()).save(any(Employee.class));
   }
 
   @Test
-  void test_addSkillsToEmployee_returnsEmpOrSkillNotFound_whenEmpIdAndSkillIdIsValid() {
+  void test_addSkillsToEmployee_succeedsWithoutChange_whenEmployeeAlreadyHasTheSkill() {
+    Long longValue = 1L;
+
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillsRepository.lockSkills(Collections.singleton(longValue)))
+        .thenReturn(Collections.singletonList(longValue));
+    when(employeeRepository.insertSkillLink(longValue, longValue, 1)).thenReturn(0);
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, longValue)));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.addSkillsToEmployee(longValue, longValue, null);
+
+    assertEquals("Successfully added skill to the employee", employeeResponse.getMessage());
+    assertEquals(1, employeeResponse.getSkills().size());
+    verify(employeeRepository, never()).updateSkillLevels(any(), any(), anyInt());
+    verify(employeeRepository, never()).bumpVersion(any());
+  }
+
+  @Test
+  void test_addSkillsToEmployee_movesTheLink_whenEmployeeHoldsTheSkillAtAnotherLevel() {
     Long longValue = 1L;
-    Optional<Skills> skillOptional = Optional.empty();
-    Optional<Employee> empOptional = Optional.empty();
 
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillsRepository.lockSkills(Collections.singleton(longValue)))
+        .thenReturn(Collections.singletonList(longValue));
+    when(employeeRepository.insertSkillLink(longValue, longValue, 4)).thenReturn(0);
+    when(employeeRepository.updateSkillLevels(longValue, Collections.singleton(longValue), 4))
+        .thenReturn(Collections.singletonList(link(longValue, SkillLevel.WORKING)));
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, longValue)));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.addSkillsToEmployee(longValue, longValue, "Expert");
+
+    assertEquals("Successfully added skill to the employee", employeeResponse.getMessage());
+    verify(employeeRepository, times(1))
+        .updateSkillLevels(longValue, Collections.singleton(longValue), 4);
+    verify(employeeRepository, times(1)).bumpVersion(longValue);
+  }
+
+  @Test
+  void test_addSkillsToEmployee_returnsEmpOrSkillNotFound_whenEmpIdAndSkillIdIsValid() {
+    Long longValue = 1L;
     EmployeeResponse expectedResponse =
         EmployeeResponse.builder()
             .responseStatus(HttpStatus.OK)
@@ -354,14 +467,200 @@ class EmployeeRegistrationServiceTest {
             .message("The requested empId or skillId does not exist")
             .build();
 
-    when(employeeRepository.findById(any(Long.class))).thenReturn(empOptional);
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.contains(longValue)).thenReturn(true);
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.empty());
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.addSkillsToEmployee(longValue, longValue, null);
+
+    assertEquals(employeeResponse, expectedResponse);
+    verify(employeeRepository, never()).insertSkillLink(any(), any(), anyInt());
+  }
+
+  @Test
+  void test_addSkillsToEmployee_returnsEmpOrSkillNotFound_whenSkillIdIsNotInCatalog() {
+    Long longValue = 1L;
+
+    when(skillCatalog.contains(longValue)).thenReturn(false);
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.addSkillsToEmployee(longValue, longValue, null);
+
+    assertEquals("The requested empId or skillId does not exist", employeeResponse.getMessage());
+    verifyNoInteractions(employeeRepository, skillsRepository);
+  }
+
+  @Test
+  void test_assignSkillsToEmployee_writesOnlyTheDifference_whenModeIsReplace() {
+    Long longValue = 1L;
+    EmployeeSkillsAssignmentRequest assignmentRequest =
+        EmployeeSkillsAssignmentRequest.builder()
+            .skillIds(Arrays.asList(2L, 3L))
+            .levels(Map.of(2L, "Expert", 4L, "Expert"))
+            .mode(EmployeeSkillsAssignmentRequest.MODE_REPLACE)
+            .build();
+
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillCatalog.contains(any(Long.class))).thenReturn(true);
+    when(skillCatalog.find(3L))
+        .thenReturn(Optional.of(new SkillEntry(3L, "Go", SkillLevel.PRACTITIONER, 0L)));
+    when(employeeRepository.findSkillLinksByEmpId(longValue))
+        .thenReturn(Arrays.asList(link(1L, SkillLevel.WORKING), link(2L, SkillLevel.WORKING)));
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, null)));
+
+    EmployeeResponse employeeResponse =
+        employeeRegistrationService.assignSkillsToEmployee(longValue, assignmentRequest);
+
+    assertEquals("Successfully assigned skills to the employee", employeeResponse.getMessage());
+    assertEquals("1", employeeResponse.getEmpId());
+    verify(skillsRepository, times(1)).lockSkills(Collections.singleton(3L));
+    verifyNoMoreInteractions(skillsRepository);
+    verify(employeeRepository, times(1))
+        .insertSkillLinks(
+            longValue, Collections.singleton(3L), SkillLevel.PRACTITIONER.getCode());
+    verify(employeeRepository, times(1))
+        .updateSkillLevels(longValue, Collections.singleton(2L), SkillLevel.EXPERT.getCode());
+    verify(employeeRepository, times(1)).deleteSkillLinks(longValue, Collections.singleton(1L));
+    verify(employeeRepository, times(1)).bumpVersion(longValue);
+    verify(employeeRepository, never()).save(any(Employee.class));
+  }
+
+  @Test
+  void test_assignSkillsToEmployee_keepsCurrentSkills_whenModeIsAdd() {
+    Long longValue = 1L;
+    EmployeeSkillsAssignmentRequest assignmentRequest =
+        EmployeeSkillsAssignmentRequest.builder().skillIds(Arrays.asList(1L, 2L)).build();
+
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillCatalog.contains(any(Long.class))).thenReturn(true);
+    when(employeeRepository.findSkillLinksByEmpId(longValue))
+        .thenReturn(
+            Arrays.asList(
+                link(1L, SkillLevel.EXPERT),
+                link(2L, SkillLevel.AWARENESS),
+                link(5L, SkillLevel.WORKING)));
+    when(employeeRepository.findDetailsByEmpId(longValue))
+        .thenReturn(Collections.singletonList(row(longValue, null)));
+
+    employeeRegistrationService.assignSkillsToEmployee(longValue, assignmentRequest);
+
+    verify(employeeRepository, never()).insertSkillLinks(any(), any(), anyInt());
+    verify(employeeRepository, never()).updateSkillLevels(any(), any(), anyInt());
+    verify(employeeRepository, never()).deleteSkillLinks(any(), any());
+    verify(employeeRepository, never()).bumpVersion(any());
+  }
+
+  @Test
+  void test_assignSkillsToEmployee_returnsSkillNotFound_whenASkillIdIsUnknown() {
+    Long longValue = 1L;
+    EmployeeSkillsAssignmentRequest assignmentRequest =
+        EmployeeSkillsAssignmentRequest.builder().skillIds(Arrays.asList(1L, 7L)).build();
+    EmployeeResponse expectedResponse =
+        EmployeeResponse.builder()
+            .responseStatus(HttpStatus.OK)
+            .status(HttpStatus.OK.value())
+            .message("The requested skillIds do not exist: [7]")
+            .build();
+
+    when(employeeRepository.lockEmployee(longValue)).thenReturn(Optional.of(longValue));
+    when(skillCatalog.contains(1L)).thenReturn(true);
 
     EmployeeResponse employeeResponse =
-        employeeRegistrationService.addSkillsToEmployee(longValue, longValue);
+        employeeRegistrationService.assignSkillsToEmployee(longValue, assignmentRequest);
 
     assertEquals(employeeResponse, expectedResponse);
-    verify(employeeRepository, times(1)).findById(longValue);
-    verify(skillsRepository, times(1)).findById(longValue);
+    verify(employeeRepository, never()).insertSkillLinks(any(), any(), anyInt());
+    verify(employeeRepository, never()).deleteSkillLinks(any(), any());
+  }
+
+  @Test
+  void test_listEmployees_returnsPageWithNextCursor_whenPageIsFull() {
+    Employee first =
+        Employee.builder()
+            .empId(3L)
+            .empSkillsSet(new HashSet<>())
+            .givenName("abc")
+            .familyName("xyz")
+            .dateOfBirth("2016-04-01")
+            .build();
+    Employee second =
+        Employee.builder()
+            .empId(7L)
+            .empSkillsSet(new HashSet<>())
+            .givenName("def")
+            .familyName("xyz")
+            .dateOfBirth("2016-04-01")
+            .build();
+
+    when(employeeRepository.findPageOrderByFamilyName("xyz", 2L, PageRequest.of(0, 2)))
+        .thenReturn(Arrays.asList(first, second));
+
+    PageResponse<EmployeeSummary> response =
+        employeeRegistrationService.listEmployees(
+            new EmployeeCursor(2L, "xyz").encode(), 2, "familyName");
+
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals(2, response.getItems().size());
+    assertEquals("7", response.getItems().get(1).getEmpId());
+    assertEquals(new EmployeeCursor(7L, "xyz"), EmployeeCursor.decode(response.getNextCursor()));
+    verify(employeeRepository, times(1)).fetchSkills(Arrays.asList(first, second));
+  }
+
+  @Test
+  void test_listEmployees_returnsLastPage_whenPageIsNotFull() {
+    Employee employee =
+        Employee.builder()
+            .empId(3L)
+            .empSkillsSet(new HashSet<>())
+            .givenName("abc")
+            .familyName("xyz")
+            .dateOfBirth("2016-04-01")
+            .build();
+
+    when(employeeRepository.findPageOrderByEmpId(0L, PageRequest.of(0, 2)))
+        .thenReturn(Collections.singletonList(employee));
+
+    PageResponse<EmployeeSummary> response =
+        employeeRegistrationService.listEmployees(null, 2, "empId");
+
+    assertEquals(1, response.getItems().size());
+    assertNull(response.getNextCursor());
+    verify(employeeRepository, times(1)).findPageOrderByEmpId(0L, PageRequest.of(0, 2));
+  }
+
+  @Test
+  void test_listEmployees_returnsBadRequest_whenCursorIsInvalid() {
+    PageResponse<EmployeeSummary> response =
+        employeeRegistrationService.listEmployees("not-a-cursor", 2, "empId");
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getResponseStatus());
+    assertEquals("The requested cursor is not valid", response.getMessage());
+    verifyNoInteractions(employeeRepository);
+  }
+
+  private static EmployeeSkillRow row(final Long empId, final Long skillId) {
+    return skillId == null
+        ? new EmployeeSkillRow(empId, "abc", "xyz", "2016-04-01", 1L, null, null, null, null)
+        : new EmployeeSkillRow(
+            empId, "abc", "xyz", "2016-04-01", 1L, skillId, "Java", SkillLevel.WORKING, 0L);
+  }
+
+  private static List<Object[]> withSkillsVersion(final Employee employee, final long version) {
+    return Collections.singletonList(new Object[] {employee, version});
+  }
+
+  private static Object[] link(final Long skillId, final SkillLevel level) {
+    return new Object[] {skillId, level.getCode()};
+  }
+
+  private static Employee storedEmployee(final Long empId, final long version) {
+    return Employee.builder()
+        .empId(empId)
+        .givenName("abc")
+        .familyName("xyz")
+        .dateOfBirth("2016-04-01")
+        .version(version)
+        .build();
   }
 }
@@ -0,0 +1,252 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.nhs.nhsbsa.employeeskills.index.SkillBitmapIndex;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.request.EmployeeSkillsAssignmentRequest;
+import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads adding and assigning the same skills to the same employees at once. Every call must
+ * succeed and every link must end up stored exactly once.
+ */
+@SpringBootTest
+class EmployeeSkillContentionTest {
+
+  private static final int THREADS = 16;
+
+  @Autowired private EmployeeRegistrationService employeeRegistrationService;
+
+  @Autowired private SkillRegistrationService skillRegistrationService;
+
+  @Autowired private EmployeeRepository employeeRepository;
+
+  @Autowired private SkillBitmapIndex skillBitmapIndex;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void test_addSkillsToEmployee_keepsEveryLink_whenThreadsRaceOnHotEmployee() throws Exception {
+    Long hotEmployee = registerEmployee("hot");
+    List<Long> skillIds = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      skillIds.add(registerSkill("HotEmployeeSkill" + i));
+    }
+
+    runConcurrently(
+        thread -> {
+          List<Long> shuffled = new ArrayList<>(skillIds);
+          Collections.shuffle(shuffled, new Random(thread));
+          for (Long skillId : shuffled) {
+            EmployeeResponse response =
+                employeeRegistrationService.addSkillsToEmployee(hotEmployee, skillId, null);
+            assertEquals("Successfully added skill to the employee", response.getMessage());
+          }
+          return null;
+        });
+
+    List<Object[]> stored = employeeRepository.findSkillLinksByEmpId(hotEmployee);
+    assertEquals(skillIds.size(), stored.size());
+    assertEquals(new HashSet<>(skillIds), skillIdsOf(hotEmployee));
+    assertEquals(
+        skillIds.size(),
+        employeeRegistrationService.fetchEmployeeDetails(hotEmployee).getSkills().size());
+  }
+
+  @Test
+  void test_assignSkillsToEmployee_linksEveryEmployee_whenThreadsRaceOnHotSkill()
+      throws Exception {
+    Long hotSkill = registerSkill("HotSkill");
+    Long otherSkill = registerSkill("HotSkillNeighbour");
+    List<Long> empIds = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      empIds.add(registerEmployee("holder" + i));
+    }
+
+    runConcurrently(
+        thread -> {
+          List<Long> shuffled = new ArrayList<>(empIds);
+          Collections.shuffle(shuffled, new Random(thread));
+          for (Long empId : shuffled) {
+            EmployeeSkillsAssignmentRequest request =
+                EmployeeSkillsAssignmentRequest.builder()
+                    .skillIds(
+                        thread % 2 == 0
+                            ? Collections.singletonList(hotSkill)
+                            : Arrays.asList(hotSkill, otherSkill))
+                    .build();
+            EmployeeResponse response =
+                employeeRegistrationService.assignSkillsToEmployee(empId, request);
+            assertEquals("Successfully assigned skills to the employee", response.getMessage());
+            if (thread % 4 == 0) {
+              employeeRegistrationService.addSkillsToEmployee(empId, hotSkill, "Working");
+            }
+          }
+          return null;
+        });
+
+    for (Long empId : empIds) {
+      assertEquals(
+          new HashSet<>(Arrays.asList(hotSkill, otherSkill)), skillIdsOf(empId));
+    }
+    assertEquals(empIds, skillBitmapIndex.holdersOf(hotSkill));
+  }
+
+  @Test
+  void test_deleteRegisteredSkill_neverLeavesOrphanLinks_whenRacingWithAdds() throws Exception {
+    Long contested = registerSkill("ContestedSkill");
+    List<Long> empIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      empIds.add(registerEmployee("contender" + i));
+    }
+
+    AtomicBoolean deleted = new AtomicBoolean();
+    runConcurrently(
+        thread -> {
+          if (thread == 0) {
+            for (int i = 0; i < 5_000 && !deleted.get(); i++) {
+              deleted.set(
+                  "Successfully deleted the skill"
+                      .equals(skillRegistrationService.deleteRegisteredSkill(contested).getMessage()));
+            }
+            return null;
+          }
+          // holders come and go, so the skill is repeatedly unheld for an instant
+          for (int round = 0; round < 20 && !deleted.get(); round++) {
+            for (Long empId : empIds) {
+              try {
+                employeeRegistrationService.addSkillsToEmployee(empId, contested, null);
+              } catch (DataIntegrityViolationException e) {
+                // the skill was deleted between the catalog check and the insert, the foreign key
+                // rejected the link and the caller gets a 409
+              }
+              employeeRegistrationService.deleteSkillFromEmployee(empId, contested);
+            }
+          }
+          return null;
+        });
+
+    Integer orphans =
+        jdbcTemplate.queryForObject(
+            "select count(*) from emp_skills es"
+                + " where not exists (select 1 from Skills s where s.skill_id = es.skills_id)",
+            Integer.class);
+    assertEquals(0, orphans);
+    Integer links =
+        jdbcTemplate.queryForObject(
+            "select count(*) from emp_skills where skills_id = ?", Integer.class, contested);
+    assertTrue(deleted.get());
+    assertEquals(0, links);
+  }
+
+  @Test
+  void test_registerSkills_storesTheNameOnce_whenThreadsRaceWithDifferentCase() throws Exception {
+    int names = 20;
+    List<Set<String>> skillIds = new ArrayList<>();
+    for (int i = 0; i < names; i++) {
+      skillIds.add(Collections.synchronizedSet(new HashSet<>()));
+    }
+
+    runConcurrently(
+        thread -> {
+          for (int i = 0; i < names; i++) {
+            String skill = "RacedSkill" + i;
+            SkillsRegistrationRequest request =
+                SkillsRegistrationRequest.builder()
+                    .skill(thread % 2 == 0 ? skill : skill.toLowerCase(Locale.ROOT))
+                    .level("Working")
+                    .build();
+            skillIds.get(i).add(skillRegistrationService.registerSkills(request).getSkillId());
+          }
+          return null;
+        });
+
+    for (int i = 0; i < names; i++) {
+      assertEquals(1, skillIds.get(i).size());
+      Integer rows =
+          jdbcTemplate.queryForObject(
+              "select count(*) from Skills where upper(skill) = ?",
+              Integer.class,
+              ("RacedSkill" + i).toUpperCase(Locale.ROOT));
+      assertEquals(1, rows);
+    }
+  }
+
+  private interface Worker {
+    Void run(int thread) throws Exception;
+  }
+
+  private static void runConcurrently(final Worker worker) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        int thread = i;
+        Callable<Void> task =
+            () -> {
+              start.await();
+              return worker.run(thread);
+            };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get(2, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Long registerEmployee(final String givenName) {
+    return Long.valueOf(
+        employeeRegistrationService
+            .registerEmployee(
+                EmployeeRegistrationRequest.builder()
+                    .givenName(givenName)
+                    .familyName("contention")
+                    .dateOfBirth("2016-04-01")
+                    .build())
+            .getEmpId());
+  }
+
+  private Long registerSkill(final String skill) {
+    return Long.valueOf(
+        skillRegistrationService
+            .registerSkills(
+                SkillsRegistrationRequest.builder().skill(skill).level("Awareness").build())
+            .getSkillId());
+  }
+
+  private Set<Long> skillIdsOf(final Long empId) {
+    return EmployeeRegistrationService.toSkillLevels(
+            employeeRepository.findSkillLinksByEmpId(empId))
+        .keySet();
+  }
+}
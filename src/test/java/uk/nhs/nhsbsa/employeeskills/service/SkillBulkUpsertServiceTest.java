@@ -0,0 +1,84 @@
+package uk.nhs.nhsbsa.employeeskills.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
+import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsBulkUpsertResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "skills.bulk.batch-size=2")
+class SkillBulkUpsertServiceTest {
+
+  @Autowired private SkillBulkUpsertService skillBulkUpsertService;
+
+  @Autowired private SkillsRepository skillsRepository;
+
+  @Test
+  void test_upsertSkills_createsUpdatesAndSkips_whenBodyIsNdjson() throws IOException {
+    skillsRepository.save(Skills.builder().skill("Kotlin").level(SkillLevel.EXPERT).build());
+    skillsRepository.save(Skills.builder().skill("javascript").level(SkillLevel.WORKING).build());
+
+    String body =
+        "{\"skill\":\"Kotlin\",\"level\":\"Expert\"}\n"
+            + "{\"skill\":\"JavaScript\",\"level\":\"Working\"}\n"
+            + "{\"skill\":\"Scala\",\"level\":\"Awareness\"}\n"
+            + "{\"skill\":\"Kotlin\",\"level\":\"Awareness\"}\n"
+            + "{\"skill\":\"Kotlin\",\"level\":\"Guru\"}\n";
+
+    SkillsBulkUpsertResponse response = skillBulkUpsertService.upsertSkills(asStream(body));
+
+    assertEquals(5, response.getReceived());
+    assertEquals(1, response.getCreated());
+    assertEquals(2, response.getUpdated());
+    assertEquals(1, response.getUnchanged());
+    assertEquals(1, response.getRejected());
+    assertEquals(5, response.getErrors().get(0).getRecord());
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+
+    List<Skills> stored =
+        skillsRepository.findBySkillIgnoreCaseIn(Arrays.asList("KOTLIN", "JAVASCRIPT"));
+    assertEquals(2, stored.size());
+    assertEquals(
+        1, stored.stream().filter(skills -> skills.getSkill().equals("JavaScript")).count());
+    assertEquals(
+        SkillLevel.AWARENESS,
+        stored.stream()
+            .filter(skills -> skills.getSkill().equals("Kotlin"))
+            .findFirst()
+            .get()
+            .getLevel());
+  }
+
+  @Test
+  void test_upsertSkills_storesEachNameOnce_andIsIdempotent() throws IOException {
+    String body =
+        "[{\"skill\":\"Rust\",\"level\":\"Expert\"},{\"skill\":\"Rust\",\"level\":\"Expert\"},"
+            + "{\"skill\":\"Go\",\"level\":\"Expert\"}]";
+
+    SkillsBulkUpsertResponse first = skillBulkUpsertService.upsertSkills(asStream(body));
+    SkillsBulkUpsertResponse second = skillBulkUpsertService.upsertSkills(asStream(body));
+
+    assertEquals(2, first.getCreated());
+    assertEquals(1, first.getUnchanged());
+    assertEquals(0, second.getCreated());
+    assertEquals(0, second.getUpdated());
+    assertEquals(3, second.getUnchanged());
+    assertEquals(2, skillsRepository.findBySkillIgnoreCaseIn(Arrays.asList("RUST", "GO")).size());
+  }
+
+  private static InputStream asStream(final String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
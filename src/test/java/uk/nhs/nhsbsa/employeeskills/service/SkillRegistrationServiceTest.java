@@ -4,18 +4,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
-import uk.nhs.nhsbsa.employeeskills.entity.Employee;
+import uk.nhs.nhsbsa.employeeskills.cache.SkillCatalog;
+import uk.nhs.nhsbsa.employeeskills.entity.SkillLevel;
 import uk.nhs.nhsbsa.employeeskills.entity.Skills;
+import uk.nhs.nhsbsa.employeeskills.event.SkillEntry;
+import uk.nhs.nhsbsa.employeeskills.index.SkillInventory;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeRepository;
+import uk.nhs.nhsbsa.employeeskills.repository.EmployeeSummaryView;
 import uk.nhs.nhsbsa.employeeskills.repository.SkillsRepository;
 import uk.nhs.nhsbsa.employeeskills.request.SkillsRegistrationRequest;
+import uk.nhs.nhsbsa.employeeskills.response.EmployeeSummary;
+import uk.nhs.nhsbsa.employeeskills.response.PageResponse;
+import uk.nhs.nhsbsa.employeeskills.response.SkillsCatalogResponse;
 import uk.nhs.nhsbsa.employeeskills.response.SkillsResponse;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -23,13 +34,20 @@ class SkillRegistrationServiceTest {
 
   @MockBean private SkillsRepository skillsRepository;
 
+  @MockBean private EmployeeRepository employeeRepository;
+
+  @MockBean private SkillCatalog skillCatalog;
+
+  @MockBean private SkillInventory skillInventory;
+
   @Autowired private SkillRegistrationService skillRegistrationService;
 
   @Test
   void test_registerSkills_returnsSkillsResponse_whenRequestIsValid() {
     SkillsRegistrationRequest skillsRegistrationRequest =
         SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
-    Skills persistedSkills = Skills.builder().skillId(1L).skill("abc").level("Working").build();
+    Skills persistedSkills =
+        Skills.builder().skillId(1L).skill("abc").level(SkillLevel.WORKING).build();
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .skillId("1")
@@ -38,8 +56,10 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.CREATED)
             .skill("abc")
             .level("Working")
+            .empSkills(Collections.emptySet())
             .build();
 
+    when(skillCatalog.findByName("abc")).thenReturn(Optional.empty());
     when(skillsRepository.save(any(Skills.class))).thenReturn(persistedSkills);
 
     SkillsResponse response = skillRegistrationService.registerSkills(skillsRegistrationRequest);
@@ -48,13 +68,63 @@ class SkillRegistrationServiceTest {
     verify(skillsRepository, times(1)).save(any(Skills.class));
   }
 
+  @Test
+  void test_registerSkills_returnsTheRegisteredSkill_whenNameIsTaken() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("ABC").level("Expert").build();
+    SkillsResponse expectedResponse =
+        SkillsResponse.builder()
+            .skillId("1")
+            .message("The skill is already registered")
+            .status(HttpStatus.OK.value())
+            .responseStatus(HttpStatus.OK)
+            .skill("abc")
+            .level("Working")
+            .build();
+
+    when(skillCatalog.findByName("ABC"))
+        .thenReturn(Optional.of(new SkillEntry(1L, "abc", SkillLevel.WORKING, 3L)));
+
+    SkillsResponse response = skillRegistrationService.registerSkills(skillsRegistrationRequest);
+
+    assertEquals(response, expectedResponse);
+    verifyNoInteractions(skillsRepository);
+  }
+
+  @Test
+  void test_registerSkills_returnsTheRegisteredSkill_whenARaceWinsTheUniqueIndex() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("ABC").level("Expert").build();
+    SkillsResponse expectedResponse =
+        SkillsResponse.builder()
+            .skillId("1")
+            .message("The skill is already registered")
+            .status(HttpStatus.OK.value())
+            .responseStatus(HttpStatus.OK)
+            .skill("abc")
+            .level("Working")
+            .build();
+
+    when(skillCatalog.findByName("ABC")).thenReturn(Optional.empty());
+    when(skillsRepository.save(any(Skills.class)))
+        .thenThrow(new DataIntegrityViolationException("uk_skills_skill_key"));
+    when(skillsRepository.findBySkillIgnoreCase("ABC"))
+        .thenReturn(
+            Optional.of(
+                Skills.builder().skillId(1L).skill("abc").level(SkillLevel.WORKING).build()));
+
+    SkillsResponse response = skillRegistrationService.registerSkills(skillsRegistrationRequest);
+
+    assertEquals(response, expectedResponse);
+  }
+
   @Test
   void test_fetchRegisteredSkill_returnsSkillsResponse_whenSkillIdValid() {
-    Skills persistedSkills = Skills.builder().skillId(1L).skill("abc").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(persistedSkills);
+    SkillEntry cachedSkill = new SkillEntry(1L, "abc", SkillLevel.WORKING, 3L);
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .skillId("1")
+            .version(3L)
             .message("Successfully fetched data")
             .status(HttpStatus.OK.value())
             .responseStatus(HttpStatus.OK)
@@ -62,17 +132,16 @@ class SkillRegistrationServiceTest {
             .level("Working")
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.find(1L)).thenReturn(Optional.of(cachedSkill));
 
     SkillsResponse response = skillRegistrationService.fetchRegisteredSkill(1L);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(any(Long.class));
+    verifyNoInteractions(skillsRepository);
   }
 
   @Test
   void test_fetchRegisteredSkill_returnsSkillsNotFound_whenSkillIdValid() {
-    Optional<Skills> skillOptional = Optional.empty();
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("The requested skillId does not exist")
@@ -80,19 +149,64 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.OK)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillCatalog.find(1L)).thenReturn(Optional.empty());
 
     SkillsResponse response = skillRegistrationService.fetchRegisteredSkill(1L);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(any(Long.class));
+    verifyNoInteractions(skillsRepository);
+  }
+
+  @Test
+  void test_fetchSkillCatalog_returnsEverySkill_fromTheCatalog() {
+    when(skillCatalog.all())
+        .thenReturn(
+            Arrays.asList(
+                new SkillEntry(1L, "Java", SkillLevel.EXPERT, 0L),
+                new SkillEntry(2L, "Kotlin", SkillLevel.WORKING, 0L)));
+
+    SkillsCatalogResponse response = skillRegistrationService.fetchSkillCatalog(null, null);
+
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals(2, response.getCount());
+    assertEquals("2", response.getSkills().get(1).getSkillId());
+    assertEquals("Kotlin", response.getSkills().get(1).getSkill());
+    assertEquals("Working", response.getSkills().get(1).getLevel());
+    verifyNoInteractions(skillsRepository);
+  }
+
+  @Test
+  void test_fetchSkillCatalog_returnsTheSkillsHeldWithinTheLevels() {
+    when(skillCatalog.all())
+        .thenReturn(
+            Arrays.asList(
+                new SkillEntry(1L, "Java", SkillLevel.AWARENESS, 0L),
+                new SkillEntry(2L, "Kotlin", SkillLevel.AWARENESS, 0L),
+                new SkillEntry(3L, "Go", SkillLevel.AWARENESS, 0L),
+                new SkillEntry(4L, "Rust", SkillLevel.AWARENESS, 0L)));
+    when(skillInventory.holderCount(2L, SkillLevel.PRACTITIONER, SkillLevel.EXPERT)).thenReturn(1L);
+    when(skillInventory.holderCount(3L, SkillLevel.PRACTITIONER, SkillLevel.EXPERT)).thenReturn(2L);
+    when(skillInventory.holderCount(1L, SkillLevel.WORKING, SkillLevel.PRACTITIONER))
+        .thenReturn(1L);
+    when(skillInventory.holderCount(3L, SkillLevel.WORKING, SkillLevel.PRACTITIONER))
+        .thenReturn(1L);
+
+    SkillsCatalogResponse atLeast =
+        skillRegistrationService.fetchSkillCatalog("Practitioner", null);
+    SkillsCatalogResponse between =
+        skillRegistrationService.fetchSkillCatalog("Working", "Practitioner");
+
+    assertEquals(2, atLeast.getCount());
+    assertEquals("Kotlin", atLeast.getSkills().get(0).getSkill());
+    assertEquals("Go", atLeast.getSkills().get(1).getSkill());
+    assertEquals(2, between.getCount());
+    assertEquals("Java", between.getSkills().get(0).getSkill());
+    assertEquals("Go", between.getSkills().get(1).getSkill());
+    verifyNoInteractions(skillsRepository);
   }
 
   @Test
   void test_deleteRegisteredSkill_returnsSkillsResponse_whenSkillIdValid() {
-    Skills persistedSkills =
-        Skills.builder().empSet(new HashSet<>()).skillId(1L).skill("abc").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(persistedSkills);
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("Successfully deleted the skill")
@@ -100,21 +214,19 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.OK)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillsRepository.lockSkills(Collections.singleton(1L)))
+        .thenReturn(Collections.singletonList(1L));
+    when(skillsRepository.deleteIfNotHeld(1L)).thenReturn(1);
 
     SkillsResponse response = skillRegistrationService.deleteRegisteredSkill(1L);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(any(Long.class));
+    verify(skillsRepository, times(1)).deleteIfNotHeld(1L);
+    verify(skillsRepository, never()).findById(any(Long.class));
   }
 
   @Test
   void test_deleteRegisteredSkill_returnsCantDelete_whenSkillIdValid() {
-    Set<Employee> employeeSet = new HashSet<>();
-    employeeSet.add(Employee.builder().empId(1L).build());
-    Skills persistedSkills =
-        Skills.builder().empSet(employeeSet).skillId(1L).skill("abc").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(persistedSkills);
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("Can't deleted the skill as is used by a employee")
@@ -122,17 +234,19 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.OK)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillsRepository.lockSkills(Collections.singleton(1L)))
+        .thenReturn(Collections.singletonList(1L));
+    when(skillsRepository.deleteIfNotHeld(1L)).thenReturn(0);
 
     SkillsResponse response = skillRegistrationService.deleteRegisteredSkill(1L);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(any(Long.class));
+    verify(skillsRepository, times(1)).deleteIfNotHeld(1L);
+    verify(skillsRepository, never()).findById(any(Long.class));
   }
 
   @Test
   void test_deleteRegisteredSkill_returnsSkillNotFound_whenSkillIdValid() {
-    Optional<Skills> skillOptional = Optional.empty();
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("The requested skillId does not exist")
@@ -140,42 +254,45 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.OK)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillsRepository.lockSkills(Collections.singleton(1L)))
+        .thenReturn(Collections.emptyList());
 
     SkillsResponse response = skillRegistrationService.deleteRegisteredSkill(1L);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(any(Long.class));
+    verify(skillsRepository, never()).deleteIfNotHeld(any(Long.class));
   }
 
   @Test
   void test_updateRegisteredSkills_returnsSkillsResponse_whenRequestAndSkillIdValid() {
     SkillsRegistrationRequest skillsRegistrationRequest =
         SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
-    Skills persistedSkills = Skills.builder().skillId(1L).skill("abc").level("Working").build();
-    Optional<Skills> skillOptional = Optional.of(persistedSkills);
+    Skills skills =
+        Skills.builder().skillId(1L).skill("ab").level(SkillLevel.WORKING).version(2L).build();
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("Successfully updated skill data")
             .status(HttpStatus.OK.value())
             .responseStatus(HttpStatus.OK)
+            .version(2L)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
-    when(skillsRepository.save(any(Skills.class))).thenReturn(any());
+    when(skillsRepository.findById(1L)).thenReturn(Optional.of(skills));
 
     SkillsResponse response =
-        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L);
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, null);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(1L);
+    assertEquals("abc", skills.getSkill());
+    verify(skillsRepository, times(1)).flush();
+    verifyNoInteractions(employeeRepository);
+    verify(skillsRepository, never()).save(any(Skills.class));
   }
 
   @Test
   void test_updateRegisteredSkills_returnsSkillNotFound_whenSkillIdValid() {
     SkillsRegistrationRequest skillsRegistrationRequest =
         SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
-    Optional<Skills> skillOptional = Optional.empty();
     SkillsResponse expectedResponse =
         SkillsResponse.builder()
             .message("The requested skillId does not exist")
@@ -183,12 +300,157 @@ class SkillRegistrationServiceTest {
             .responseStatus(HttpStatus.OK)
             .build();
 
-    when(skillsRepository.findById(any(Long.class))).thenReturn(skillOptional);
+    when(skillsRepository.findById(1L)).thenReturn(Optional.empty());
 
     SkillsResponse response =
-        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L);
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, null);
 
     assertEquals(response, expectedResponse);
-    verify(skillsRepository, times(1)).findById(1L);
+    verify(skillsRepository, never()).flush();
+  }
+
+  @Test
+  void test_updateRegisteredSkills_returns412_whenExpectedVersionIsStale() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
+
+    when(skillsRepository.findById(1L))
+        .thenReturn(
+            Optional.of(
+                Skills.builder()
+                    .skillId(1L)
+                    .skill("ab")
+                    .level(SkillLevel.WORKING)
+                    .version(2L)
+                    .build()));
+
+    SkillsResponse response =
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, 1L);
+
+    assertEquals(HttpStatus.PRECONDITION_FAILED, response.getResponseStatus());
+    assertEquals(2L, response.getVersion());
+    verify(skillsRepository, never()).flush();
+  }
+
+  @Test
+  void test_updateRegisteredSkills_writesNothing_whenPayloadIsUnchanged() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
+
+    when(skillsRepository.findById(1L))
+        .thenReturn(
+            Optional.of(
+                Skills.builder()
+                    .skillId(1L)
+                    .skill("abc")
+                    .level(SkillLevel.WORKING)
+                    .version(2L)
+                    .build()));
+
+    SkillsResponse response =
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, 2L);
+
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals("The skill data is unchanged", response.getMessage());
+    verify(skillsRepository, never()).flush();
+  }
+
+  @Test
+  void test_updateRegisteredSkills_updatesTheLevel_whenOnlyTheLevelChanges() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("abc").level("Expert").build();
+    Skills skills =
+        Skills.builder().skillId(1L).skill("abc").level(SkillLevel.WORKING).version(2L).build();
+
+    when(skillsRepository.findById(1L)).thenReturn(Optional.of(skills));
+    when(skillCatalog.findByName("abc"))
+        .thenReturn(Optional.of(new SkillEntry(1L, "abc", SkillLevel.WORKING, 2L)));
+
+    SkillsResponse response =
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, null);
+
+    assertEquals("Successfully updated skill data", response.getMessage());
+    assertEquals(SkillLevel.EXPERT, skills.getLevel());
+    verify(skillsRepository, times(1)).flush();
+  }
+
+  @Test
+  void test_updateRegisteredSkills_returns409_whenAnotherSkillHasTheName() {
+    SkillsRegistrationRequest skillsRegistrationRequest =
+        SkillsRegistrationRequest.builder().skill("abc").level("Working").build();
+    Skills skills =
+        Skills.builder().skillId(1L).skill("ab").level(SkillLevel.WORKING).version(2L).build();
+
+    when(skillsRepository.findById(1L)).thenReturn(Optional.of(skills));
+    when(skillCatalog.findByName("abc"))
+        .thenReturn(Optional.of(new SkillEntry(5L, "ABC", SkillLevel.EXPERT, 0L)));
+
+    SkillsResponse response =
+        skillRegistrationService.updateRegisteredSkills(skillsRegistrationRequest, 1L, null);
+
+    assertEquals(HttpStatus.CONFLICT, response.getResponseStatus());
+    assertEquals("Another skill is registered by the name", response.getMessage());
+    assertEquals(2L, response.getVersion());
+    assertEquals("ab", skills.getSkill());
+    verify(skillsRepository, never()).flush();
+  }
+
+  @Test
+  void test_listSkillHolders_returnsPageWithNextCursor_whenPageIsFull() {
+    EmployeeSummaryView first = holder(3L);
+    EmployeeSummaryView second = holder(9L);
+
+    when(employeeRepository.findHoldersOfSkill(1L, 0L, PageRequest.of(0, 2)))
+        .thenReturn(Arrays.asList(first, second));
+
+    PageResponse<EmployeeSummary> response =
+        skillRegistrationService.listSkillHolders(1L, null, null, null, 2);
+
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals("Successfully fetched data", response.getMessage());
+    assertEquals("9", response.getItems().get(1).getEmpId());
+    assertNull(response.getItems().get(1).getSkills());
+    assertEquals(9L, EmployeeCursor.decode(response.getNextCursor()).getEmpId());
+    verify(skillCatalog, never()).contains(any(Long.class));
+  }
+
+  @Test
+  void test_listSkillHolders_readsTheLevelRange_whenALevelIsGiven() {
+    EmployeeSummaryView practitioner = holder(3L);
+
+    when(employeeRepository.findHoldersOfSkillAtLevels(1L, 3, 4, 0L, PageRequest.of(0, 2)))
+        .thenReturn(Collections.singletonList(practitioner));
+
+    PageResponse<EmployeeSummary> response =
+        skillRegistrationService.listSkillHolders(1L, "Practitioner", null, null, 2);
+
+    assertEquals(HttpStatus.OK, response.getResponseStatus());
+    assertEquals("3", response.getItems().get(0).getEmpId());
+    assertNull(response.getNextCursor());
+    verify(employeeRepository, never()).findHoldersOfSkill(any(), any(), any());
+  }
+
+  @Test
+  void test_listSkillHolders_returnsSkillsNotFound_whenSkillIdIsUnknown() {
+    when(employeeRepository.findHoldersOfSkill(any(), any(), any()))
+        .thenReturn(Collections.emptyList());
+    when(skillCatalog.contains(1L)).thenReturn(false);
+
+    PageResponse<EmployeeSummary> response =
+        skillRegistrationService.listSkillHolders(1L, null, null, null, 2);
+
+    assertEquals("The requested skillId does not exist", response.getMessage());
+    assertNull(response.getItems());
+    verify(skillCatalog, times(1)).contains(1L);
+    verifyNoInteractions(skillsRepository);
+  }
+
+  private static EmployeeSummaryView holder(final Long empId) {
+    EmployeeSummaryView view = mock(EmployeeSummaryView.class);
+    when(view.getEmpId()).thenReturn(empId);
+    when(view.getGivenName()).thenReturn("abc");
+    when(view.getFamilyName()).thenReturn("xyz");
+    when(view.getDateOfBirth()).thenReturn("2016-04-01");
+    return view;
   }
 }
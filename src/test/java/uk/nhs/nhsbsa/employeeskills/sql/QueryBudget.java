@@ -0,0 +1,57 @@
+package uk.nhs.nhsbsa.employeeskills.sql;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test when a call issues more SQL statements than its budget, listing every statement and
+ * the ones that were repeated, which is what an N+1 looks like. Only statements prepared on the
+ * calling thread count, which covers MockMvc requests but not streamed or async responses.
+ */
+public final class QueryBudget {
+
+  private QueryBudget() {}
+
+  public static <T> T assertAtMost(final int budget, final Callable<T> call) throws Exception {
+    List<String> statements = SqlStatementRecorder.start();
+    T result;
+    try {
+      result = call.call();
+    } finally {
+      SqlStatementRecorder.stop();
+    }
+    if (statements.size() > budget) {
+      fail(describe(budget, statements));
+    }
+    return result;
+  }
+
+  private static String describe(final int budget, final List<String> statements) {
+    StringBuilder message =
+        new StringBuilder("Expected at most ")
+            .append(budget)
+            .append(" SQL statements, but ")
+            .append(statements.size())
+            .append(" were issued:");
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    for (int i = 0; i < statements.size(); i++) {
+      message.append("\n  ").append(i + 1).append(". ").append(statements.get(i));
+      counts.merge(statements.get(i), 1, Integer::sum);
+    }
+    counts.forEach(
+        (sql, count) -> {
+          if (count > 1) {
+            message
+                .append("\nRepeated ")
+                .append(count)
+                .append(" times, a likely N+1: ")
+                .append(sql);
+          }
+        });
+    return message.toString();
+  }
+}
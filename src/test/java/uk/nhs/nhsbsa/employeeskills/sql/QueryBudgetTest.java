@@ -0,0 +1,56 @@
+package uk.nhs.nhsbsa.employeeskills.sql;
+
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryBudgetTest {
+
+  private final SqlStatementRecorder recorder = new SqlStatementRecorder();
+
+  @Test
+  void test_assertAtMost_returnsResult_whenWithinBudget() throws Exception {
+    String result =
+        QueryBudget.assertAtMost(
+            1,
+            () -> {
+              recorder.inspect("select 1");
+              return "ok";
+            });
+
+    assertEquals("ok", result);
+  }
+
+  @Test
+  void test_assertAtMost_failsWithOffendingSql_whenBudgetIsExceeded() {
+    AssertionFailedError error =
+        assertThrows(
+            AssertionFailedError.class,
+            () ->
+                QueryBudget.assertAtMost(
+                    1,
+                    () -> {
+                      recorder.inspect("select e from employee e");
+                      recorder.inspect("select s from skills s where s.id = ?");
+                      recorder.inspect("select s from skills s where s.id = ?");
+                      return null;
+                    }));
+
+    assertTrue(error.getMessage().startsWith("Expected at most 1 SQL statements, but 3 were"));
+    assertTrue(error.getMessage().contains("2. select s from skills s where s.id = ?"));
+    assertTrue(
+        error
+            .getMessage()
+            .contains("Repeated 2 times, a likely N+1: select s from skills s where s.id = ?"));
+  }
+
+  @Test
+  void test_inspect_recordsNothing_outsideABudget() throws Exception {
+    recorder.inspect("select 1");
+
+    QueryBudget.assertAtMost(0, () -> null);
+  }
+}
@@ -0,0 +1,38 @@
+package uk.nhs.nhsbsa.employeeskills.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread while a {@link QueryBudget} is open.
+ * Registered for every test context with {@code
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector}, so it sees JPQL, native
+ * queries, lazy loads and flushes alike. A statement reused for a JDBC batch is prepared, and so
+ * counted, once.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+  private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+  @Override
+  public String inspect(final String sql) {
+    List<String> recorded = RECORDED.get();
+    if (recorded != null) {
+      recorded.add(sql);
+    }
+    return sql;
+  }
+
+  /** @return the list the statements of this thread are added to until {@link #stop()} */
+  static List<String> start() {
+    List<String> recorded = new ArrayList<>();
+    RECORDED.set(recorded);
+    return recorded;
+  }
+
+  static void stop() {
+    RECORDED.remove();
+  }
+}